@@ -38,4 +38,36 @@ public interface MarshallingContext {
     Unmarshaller createUnmarshaller(int version) throws IOException;
 
     Marshaller createMarshaller(int version) throws IOException;
+
+    /**
+     * Obtains an unmarshaller for the specified version, reusing a previously released unmarshaller, if one is available.
+     * Unmarshallers obtained via this method should be returned via {@link #releaseUnmarshaller(int, Unmarshaller)}, rather than closed.
+     * @param version a marshalling version
+     * @return an unmarshaller
+     * @throws IOException if an unmarshaller could not be created
+     */
+    Unmarshaller acquireUnmarshaller(int version) throws IOException;
+
+    /**
+     * Returns an unmarshaller, obtained via {@link #acquireUnmarshaller(int)}, following successful use.
+     * @param version the version with which the unmarshaller was acquired
+     * @param unmarshaller a finished unmarshaller
+     */
+    void releaseUnmarshaller(int version, Unmarshaller unmarshaller);
+
+    /**
+     * Obtains a marshaller for the specified version, reusing a previously released marshaller, if one is available.
+     * Marshallers obtained via this method should be returned via {@link #releaseMarshaller(int, Marshaller)}, rather than closed.
+     * @param version a marshalling version
+     * @return a marshaller
+     * @throws IOException if a marshaller could not be created
+     */
+    Marshaller acquireMarshaller(int version) throws IOException;
+
+    /**
+     * Returns a marshaller, obtained via {@link #acquireMarshaller(int)}, following successful use.
+     * @param version the version with which the marshaller was acquired
+     * @param marshaller a finished marshaller
+     */
+    void releaseMarshaller(int version, Marshaller marshaller);
 }
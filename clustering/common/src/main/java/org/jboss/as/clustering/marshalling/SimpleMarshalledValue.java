@@ -24,16 +24,17 @@ package org.jboss.as.clustering.marshalling;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
 import java.io.Externalizable;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
+import java.io.OutputStream;
 import java.util.Arrays;
 
 import org.jboss.marshalling.Marshaller;
 import org.jboss.marshalling.Marshalling;
-import org.jboss.marshalling.SimpleDataInput;
-import org.jboss.marshalling.SimpleDataOutput;
 import org.jboss.marshalling.Unmarshaller;
 import org.wildfly.security.manager.WildFlySecurityManager;
 
@@ -44,70 +45,167 @@ import org.wildfly.security.manager.WildFlySecurityManager;
  */
 public class SimpleMarshalledValue<T> implements MarshalledValue<T, MarshallingContext>, Externalizable {
     private static final long serialVersionUID = -8852566958387608376L;
+    private static final int DEFAULT_BUFFER_SIZE = 512;
 
     private transient volatile MarshallingContext context;
     private transient volatile T object;
     private transient volatile byte[] bytes;
+    private transient volatile int sizeHint;
+    private transient volatile boolean retain;
 
     public SimpleMarshalledValue(T object, MarshallingContext context) {
+        this(object, context, false);
+    }
+
+    /**
+     * Creates a marshalled value for the specified object.
+     * A retained serialized form is held in memory alongside the object, roughly doubling the footprint of this value,
+     * until {@link #releaseBytes()} is called.
+     * @param object the object to marshal
+     * @param context the marshalling context
+     * @param immutable indicates whether the specified object is immutable, in which case its serialized form is retained once computed
+     */
+    public SimpleMarshalledValue(T object, MarshallingContext context, boolean immutable) {
         this.context = context;
         this.object = object;
+        this.retain = immutable;
     }
 
     public SimpleMarshalledValue() {
         // Required for externalization
     }
 
+    /**
+     * Creates a marshalled value from the serialized form of its object, as returned by {@link #getBytes()}.
+     * @param bytes the serialized form of an object
+     */
+    public SimpleMarshalledValue(byte[] bytes) {
+        this.bytes = bytes;
+        this.sizeHint = bytes.length;
+    }
+
     // Used for testing purposes only
     T peek() {
         return this.object;
     }
 
-    byte[] getBytes() throws IOException {
+    /**
+     * Returns the serialized form of this value, marshalling its object if necessary.
+     * @return a byte array, or null if this value is null
+     * @throws IOException if the object could not be marshalled
+     */
+    public byte[] getBytes() throws IOException {
         byte[] bytes = this.bytes;
-        if (bytes != null) return bytes;
+        if (bytes != null) {
+            if (!this.retain && (this.object != null)) {
+                // The serialized form of a mutable object is only kept for its next use, see serialize()
+                this.bytes = null;
+            }
+            return bytes;
+        }
         if (this.object == null) return null;
-        int version = this.context.getCurrentVersion();
-        ByteArrayOutputStream output = new ByteArrayOutputStream();
-        ClassLoader loader = setThreadContextClassLoader(this.context.getClassLoader());
-        try (SimpleDataOutput data = new SimpleDataOutput(Marshalling.createByteOutput(output))) {
-            data.writeInt(version);
-            try (Marshaller marshaller = this.context.createMarshaller(version)) {
-                marshaller.start(data);
+        MarshallingContext context = this.context;
+        int version = context.getCurrentVersion();
+        // Size the buffer according to the previous serialized size of this value, if known
+        ByteArrayOutputStream output = new ByteArrayOutputStream(Math.max(this.sizeHint, DEFAULT_BUFFER_SIZE));
+        writeInt(output, version);
+        ClassLoader loader = setThreadContextClassLoader(context.getClassLoader());
+        try {
+            Marshaller marshaller = context.acquireMarshaller(version);
+            boolean success = false;
+            try {
+                marshaller.start(Marshalling.createByteOutput(output));
                 marshaller.writeObject(this.object);
                 marshaller.finish();
-                return output.toByteArray();
+                success = true;
+            } finally {
+                if (success) {
+                    context.releaseMarshaller(version, marshaller);
+                } else {
+                    marshaller.close();
+                }
+            }
+            bytes = output.toByteArray();
+            this.sizeHint = bytes.length;
+            if (this.retain) {
+                // The serialized form of an immutable object cannot change, so there is no need to marshal it again
+                this.bytes = bytes;
+                // Drop it again if released concurrently
+                if (!this.retain) {
+                    this.bytes = null;
+                }
             }
+            return bytes;
         } finally {
             setThreadContextClassLoader(loader);
         }
     }
 
+    /**
+     * Returns the serialized form of this value, as {@link #getBytes()} does, and keeps it until its next use,
+     * e.g. when this value is replicated, such that the object is not marshalled again for it.
+     * The object itself is kept as well, such that it is still available locally without being unmarshalled.
+     * @return a byte array, or null if this value is null
+     * @throws IOException if the object could not be marshalled
+     */
+    public byte[] serialize() throws IOException {
+        byte[] bytes = this.getBytes();
+        if ((bytes != null) && !this.retain && (this.object != null)) {
+            this.bytes = bytes;
+        }
+        return bytes;
+    }
+
+    /**
+     * Stops retaining the serialized form of this value, if its object is available, such that only the object is kept in memory.
+     * The serialized form is computed again whenever needed.
+     */
+    public void releaseBytes() {
+        this.retain = false;
+        if (this.object != null) {
+            this.bytes = null;
+        }
+    }
+
     /**
      * {@inheritDoc}
      * @see org.jboss.as.clustering.marshalling.MarshalledValue#get(java.lang.Object)
      */
     @Override
-    public synchronized T get(MarshallingContext context) throws IOException, ClassNotFoundException {
-        if (this.object == null) {
-            this.context = context;
-            if (this.bytes != null) {
-                ByteArrayInputStream input = new ByteArrayInputStream(this.bytes);
-                ClassLoader loader = setThreadContextClassLoader(this.context.getClassLoader());
-                try (SimpleDataInput data = new SimpleDataInput(Marshalling.createByteInput(input))) {
-                    int version = data.readInt();
-                    try (Unmarshaller unmarshaller = context.createUnmarshaller(version)) {
-                        unmarshaller.start(data);
-                        this.object = (T) unmarshaller.readObject();
-                        unmarshaller.finish();
+    public T get(MarshallingContext context) throws IOException, ClassNotFoundException {
+        // Avoid synchronization once this value was deserialized
+        T object = this.object;
+        if (object != null) return object;
+        synchronized (this) {
+            if (this.object == null) {
+                this.context = context;
+                if (this.bytes != null) {
+                    ByteArrayInputStream input = new ByteArrayInputStream(this.bytes);
+                    int version = readInt(input);
+                    ClassLoader loader = setThreadContextClassLoader(this.context.getClassLoader());
+                    try {
+                        Unmarshaller unmarshaller = context.acquireUnmarshaller(version);
+                        boolean success = false;
+                        try {
+                            unmarshaller.start(Marshalling.createByteInput(input));
+                            this.object = (T) unmarshaller.readObject();
+                            unmarshaller.finish();
+                            success = true;
+                        } finally {
+                            if (success) {
+                                context.releaseUnmarshaller(version, unmarshaller);
+                            } else {
+                                unmarshaller.close();
+                            }
+                        }
                         this.bytes = null; // Free up memory
+                    } finally {
+                        setThreadContextClassLoader(loader);
                     }
-                } finally {
-                    setThreadContextClassLoader(loader);
                 }
             }
+            return this.object;
         }
-        return this.object;
     }
 
     /**
@@ -165,6 +263,27 @@ public class SimpleMarshalledValue<T> implements MarshalledValue<T, MarshallingC
             in.readFully(bytes);
         }
         this.bytes = bytes;
+        this.sizeHint = size;
+    }
+
+    // Equivalent to DataOutput.writeInt(...), without the overhead of a buffered data output
+    private static void writeInt(OutputStream output, int value) {
+        output.write(value >>> 24);
+        output.write(value >>> 16);
+        output.write(value >>> 8);
+        output.write(value);
+    }
+
+    // Equivalent to DataInput.readInt(...), without the overhead of a buffered data input
+    private static int readInt(InputStream input) throws IOException {
+        int b1 = input.read();
+        int b2 = input.read();
+        int b3 = input.read();
+        int b4 = input.read();
+        if ((b1 | b2 | b3 | b4) < 0) {
+            throw new EOFException();
+        }
+        return (b1 << 24) | (b2 << 16) | (b3 << 8) | b4;
     }
 
     private static ClassLoader setThreadContextClassLoader(ClassLoader loader) {
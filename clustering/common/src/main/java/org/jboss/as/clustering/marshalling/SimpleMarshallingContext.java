@@ -22,8 +22,13 @@
 
 package org.jboss.as.clustering.marshalling;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.lang.ref.WeakReference;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.jboss.marshalling.Marshaller;
 import org.jboss.marshalling.MarshallerFactory;
@@ -31,18 +36,31 @@ import org.jboss.marshalling.MarshallingConfiguration;
 import org.jboss.marshalling.Unmarshaller;
 
 /**
+ * Marshalling context that retains a bounded pool of released marshallers and unmarshallers per version,
+ * so that frequent marshalling of small objects need not create a new marshaller per operation.
+ * Pooled instances are owned by this context, rather than by a thread, so they never outlive the class loader of this context.
  * @author Paul Ferraro
  */
 public class SimpleMarshallingContext implements MarshallingContext {
 
+    public static final int DEFAULT_POOL_SIZE = Runtime.getRuntime().availableProcessors() * 2;
+
     private final MarshallerFactory factory;
     private final VersionedMarshallingConfiguration configuration;
     private final WeakReference<ClassLoader> loader;
+    private final int poolSize;
+    private final ConcurrentMap<Integer, Queue<Marshaller>> marshallers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, Queue<Unmarshaller>> unmarshallers = new ConcurrentHashMap<>();
 
     public SimpleMarshallingContext(MarshallerFactory factory, VersionedMarshallingConfiguration configuration, ClassLoader loader) {
+        this(factory, configuration, loader, DEFAULT_POOL_SIZE);
+    }
+
+    public SimpleMarshallingContext(MarshallerFactory factory, VersionedMarshallingConfiguration configuration, ClassLoader loader, int poolSize) {
         this.factory = factory;
         this.configuration = configuration;
         this.loader = new WeakReference<>(loader);
+        this.poolSize = poolSize;
     }
 
     @Override
@@ -65,6 +83,62 @@ public class SimpleMarshallingContext implements MarshallingContext {
         return this.factory.createMarshaller(this.getMarshallingConfiguration(version));
     }
 
+    @Override
+    public Unmarshaller acquireUnmarshaller(int version) throws IOException {
+        Unmarshaller unmarshaller = getPool(this.unmarshallers, version).poll();
+        return (unmarshaller != null) ? unmarshaller : this.createUnmarshaller(version);
+    }
+
+    @Override
+    public void releaseUnmarshaller(int version, Unmarshaller unmarshaller) {
+        try {
+            // Ensure that the next stream does not reference classes or instances of the previous stream
+            unmarshaller.clearClassCache();
+            if (this.poolSize > 0 && getPool(this.unmarshallers, version).offer(unmarshaller)) return;
+        } catch (IOException e) {
+            // Discard
+        }
+        close(unmarshaller);
+    }
+
+    @Override
+    public Marshaller acquireMarshaller(int version) throws IOException {
+        Marshaller marshaller = getPool(this.marshallers, version).poll();
+        return (marshaller != null) ? marshaller : this.createMarshaller(version);
+    }
+
+    @Override
+    public void releaseMarshaller(int version, Marshaller marshaller) {
+        try {
+            // Ensure that the next stream does not reference classes or instances of the previous stream
+            marshaller.clearClassCache();
+            if (this.poolSize > 0 && getPool(this.marshallers, version).offer(marshaller)) return;
+        } catch (IOException e) {
+            // Discard
+        }
+        close(marshaller);
+    }
+
+    private <T> Queue<T> getPool(ConcurrentMap<Integer, Queue<T>> pools, int version) {
+        Queue<T> pool = pools.get(version);
+        if (pool == null) {
+            pool = new ArrayBlockingQueue<>(Math.max(this.poolSize, 1));
+            Queue<T> existing = pools.putIfAbsent(version, pool);
+            if (existing != null) {
+                pool = existing;
+            }
+        }
+        return pool;
+    }
+
+    private static void close(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            // Ignore
+        }
+    }
+
     private MarshallingConfiguration getMarshallingConfiguration(int version) {
         return this.configuration.getMarshallingConfiguration(version);
     }
@@ -0,0 +1,137 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.clustering.marshalling;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.marshalling.Marshalling;
+import org.jboss.marshalling.MarshallingConfiguration;
+
+/**
+ * Measures the cost of marshalling and unmarshalling a typical session attribute graph via {@link SimpleMarshalledValue}.
+ * Not part of the unit tests, run its main method with the test classpath of this module.
+ */
+public class SimpleMarshalledValueBenchmark {
+
+    private static final int OPERATIONS = Integer.getInteger("operations", 100000);
+    private static final int ITERATIONS = Integer.getInteger("iterations", 5);
+
+    public static void main(String... args) throws Exception {
+        SimpleMarshalledValueBenchmark benchmark = new SimpleMarshalledValueBenchmark();
+        benchmark.pooled();
+        benchmark.unpooled();
+    }
+
+    private void pooled() throws Exception {
+        this.benchmark("pooled", createContext(SimpleMarshallingContext.DEFAULT_POOL_SIZE));
+    }
+
+    private void unpooled() throws Exception {
+        this.benchmark("unpooled", createContext(0));
+    }
+
+    private static MarshallingContext createContext(int poolSize) {
+        VersionedMarshallingConfiguration configuration = new VersionedMarshallingConfiguration() {
+            @Override
+            public int getCurrentMarshallingVersion() {
+                return 0;
+            }
+
+            @Override
+            public MarshallingConfiguration getMarshallingConfiguration(int version) {
+                return new MarshallingConfiguration();
+            }
+        };
+        return new SimpleMarshallingContext(Marshalling.getMarshallerFactory("river", Marshalling.class.getClassLoader()), configuration, Thread.currentThread().getContextClassLoader(), poolSize);
+    }
+
+    private void benchmark(String name, MarshallingContext context) throws Exception {
+        SimpleMarshalledValueFactory factory = new SimpleMarshalledValueFactory(context);
+        Object graph = createSessionGraph();
+        for (int i = 0; i < ITERATIONS; ++i) {
+            byte[] bytes = null;
+            long start = System.nanoTime();
+            for (int j = 0; j < OPERATIONS; ++j) {
+                bytes = factory.createMarshalledValue(graph).getBytes();
+            }
+            report(name, "marshal", System.nanoTime() - start, OPERATIONS);
+
+            start = System.nanoTime();
+            for (int j = 0; j < OPERATIONS; ++j) {
+                new SimpleMarshalledValue<>(bytes).get(context);
+            }
+            report(name, "unmarshal", System.nanoTime() - start, OPERATIONS);
+        }
+    }
+
+    private static Object createSessionGraph() {
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put("user", new User("user", "User Name", new Date()));
+        List<Item> cart = new ArrayList<>();
+        for (int i = 0; i < 10; ++i) {
+            cart.add(new Item(UUID.randomUUID().toString(), i, i * 10.0));
+        }
+        attributes.put("cart", cart);
+        attributes.put("locale", "en_US");
+        attributes.put("visits", Integer.valueOf(42));
+        return attributes;
+    }
+
+    private static void report(String name, String operation, long nanos, int count) {
+        System.out.println(String.format("%s: %d %s operations took %d ms (%d ns/op)", name, count, operation, TimeUnit.NANOSECONDS.toMillis(nanos), nanos / count));
+    }
+
+    static class User implements Serializable {
+        private static final long serialVersionUID = -7546297212385632183L;
+
+        final String id;
+        final String name;
+        final Date lastLogin;
+
+        User(String id, String name, Date lastLogin) {
+            this.id = id;
+            this.name = name;
+            this.lastLogin = lastLogin;
+        }
+    }
+
+    static class Item implements Serializable {
+        private static final long serialVersionUID = 2519349405187623876L;
+
+        final String sku;
+        final int quantity;
+        final double price;
+
+        Item(String sku, int quantity, double price) {
+            this.sku = sku;
+            this.quantity = quantity;
+            this.price = price;
+        }
+    }
+}
@@ -28,6 +28,8 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.UUID;
 
 import org.jboss.as.clustering.marshalling.MarshallingContext;
@@ -98,6 +100,28 @@ public class SimpleMarshalledValueFactoryTestCase {
         assertNull(mv.get(this.context));
     }
 
+    @Test
+    public void serialize() throws Exception {
+        ArrayList<String> list = new ArrayList<>();
+        list.add("a");
+        SimpleMarshalledValue<ArrayList<String>> mv = this.factory.createMarshalledValue(list);
+
+        byte[] bytes = mv.serialize();
+        assertNotNull(bytes);
+        list.add("b");
+
+        // The serialized form is kept for its next use only, alongside the object
+        assertSame(list, mv.get(this.context));
+        assertSame(bytes, mv.getBytes());
+        byte[] current = mv.getBytes();
+        assertNotSame(bytes, current);
+        assertFalse(Arrays.equals(bytes, current));
+        assertEquals(list, replicate(mv).get(this.context));
+
+        mv = this.factory.createMarshalledValue(null);
+        assertNull(mv.serialize());
+    }
+
     /**
      * Test method for {@link org.jboss.ha.framework.server.SimpleMarshalledValue#equals(java.lang.Object)}.
      */
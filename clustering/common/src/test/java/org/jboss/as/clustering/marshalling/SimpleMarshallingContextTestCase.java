@@ -0,0 +1,87 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.clustering.marshalling;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+import org.jboss.marshalling.Marshaller;
+import org.jboss.marshalling.Marshalling;
+import org.jboss.marshalling.MarshallingConfiguration;
+import org.jboss.marshalling.Unmarshaller;
+import org.junit.Test;
+
+public class SimpleMarshallingContextTestCase {
+
+    private static SimpleMarshallingContext createContext(int poolSize) {
+        VersionedMarshallingConfiguration configuration = new VersionedMarshallingConfiguration() {
+            @Override
+            public int getCurrentMarshallingVersion() {
+                return 0;
+            }
+
+            @Override
+            public MarshallingConfiguration getMarshallingConfiguration(int version) {
+                return new MarshallingConfiguration();
+            }
+        };
+        return new SimpleMarshallingContext(Marshalling.getMarshallerFactory("river", Marshalling.class.getClassLoader()), configuration, Thread.currentThread().getContextClassLoader(), poolSize);
+    }
+
+    @Test
+    public void pool() throws Exception {
+        SimpleMarshallingContext context = createContext(1);
+
+        Marshaller marshaller = context.acquireMarshaller(0);
+        Marshaller other = context.acquireMarshaller(0);
+        assertNotSame(marshaller, other);
+        context.releaseMarshaller(0, marshaller);
+        // Pool is full, so this is discarded
+        context.releaseMarshaller(0, other);
+        assertSame(marshaller, context.acquireMarshaller(0));
+        assertNotSame(other, context.acquireMarshaller(0));
+
+        Unmarshaller unmarshaller = context.acquireUnmarshaller(0);
+        context.releaseUnmarshaller(0, unmarshaller);
+        assertSame(unmarshaller, context.acquireUnmarshaller(0));
+    }
+
+    @Test
+    public void reuse() throws Exception {
+        SimpleMarshallingContext context = createContext(1);
+        SimpleMarshalledValueFactory factory = new SimpleMarshalledValueFactory(context);
+        Object value = Arrays.asList(UUID.randomUUID(), UUID.randomUUID());
+
+        // Each stream written by a reused marshaller must be self-contained
+        byte[] bytes = factory.createMarshalledValue(value).getBytes();
+        assertArrayEquals(bytes, factory.createMarshalledValue(value).getBytes());
+
+        for (int i = 0; i < 2; ++i) {
+            assertEquals(value, new SimpleMarshalledValue<>(bytes).get(context));
+        }
+    }
+}
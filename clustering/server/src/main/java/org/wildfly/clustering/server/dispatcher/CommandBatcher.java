@@ -0,0 +1,312 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.server.dispatcher;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.jboss.as.clustering.marshalling.MarshallingContext;
+import org.jboss.marshalling.Marshaller;
+import org.jboss.marshalling.Marshalling;
+import org.jgroups.Address;
+import org.jgroups.Message;
+import org.jgroups.blocks.MessageDispatcher;
+import org.jgroups.blocks.RequestOptions;
+import org.jgroups.blocks.ResponseMode;
+import org.jgroups.util.FutureListener;
+import org.jgroups.util.NotifyingFuture;
+import org.jgroups.util.Rsp;
+import org.jgroups.util.RspList;
+
+/**
+ * Coalesces cluster-wide commands, submitted within a short window, into a single multicast message per set of excluded nodes.
+ * A batch is sent once its window elapses, or once it reaches its maximum size, whichever comes first.
+ * The responses to a batch are demultiplexed into the responses of each command.
+ */
+public class CommandBatcher {
+
+    private final MessageDispatcher dispatcher;
+    private final MarshallingContext context;
+    private final int version;
+    private final long window;
+    private final int maxSize;
+    private final long timeout;
+    private final CommandDispatcherStatistics statistics;
+    private final ScheduledExecutorService executor;
+    // Pending batches, keyed by excluded addresses
+    private final Map<Set<Address>, List<PendingCommand<?>>> batches = new HashMap<>();
+
+    public CommandBatcher(MessageDispatcher dispatcher, MarshallingContext context, int version, long window, int maxSize, long timeout, CommandDispatcherStatistics statistics, ScheduledExecutorService executor) {
+        this.dispatcher = dispatcher;
+        this.context = context;
+        this.version = version;
+        this.window = window;
+        this.maxSize = maxSize;
+        this.timeout = timeout;
+        this.statistics = statistics;
+        this.executor = executor;
+    }
+
+    /**
+     * Returns the duration, in milliseconds, within which submitted commands are coalesced into a single message.
+     * @return a batch window
+     */
+    public long getWindow() {
+        return this.window;
+    }
+
+    /**
+     * Submits a marshalled command for inclusion in the next batch sent to all nodes except the specified nodes.
+     * @param commandClass the command type
+     * @param command a marshalled command
+     * @param excludedAddresses the addresses of the nodes on which the command should not execute
+     * @return a future response per node
+     */
+    public <R> Future<Map<Address, Rsp<R>>> submit(Class<?> commandClass, byte[] command, Address... excludedAddresses) {
+        final Set<Address> excluded = (excludedAddresses.length > 0) ? new HashSet<>(Arrays.asList(excludedAddresses)) : Collections.<Address>emptySet();
+        PendingCommand<R> pending = new PendingCommand<>(commandClass, command);
+        List<PendingCommand<?>> full = null;
+        synchronized (this.batches) {
+            List<PendingCommand<?>> batch = this.batches.get(excluded);
+            if (batch == null) {
+                final List<PendingCommand<?>> newBatch = new ArrayList<>();
+                this.batches.put(excluded, newBatch);
+                Runnable task = new Runnable() {
+                    @Override
+                    public void run() {
+                        CommandBatcher.this.flush(excluded, newBatch);
+                    }
+                };
+                this.executor.schedule(task, this.window, TimeUnit.MILLISECONDS);
+                batch = newBatch;
+            }
+            batch.add(pending);
+            if (batch.size() >= this.maxSize) {
+                this.batches.remove(excluded);
+                full = batch;
+            }
+        }
+        if (full != null) {
+            this.send(excluded, full);
+        }
+        return pending;
+    }
+
+    /**
+     * Sends all pending batches immediately.
+     */
+    public void flush() {
+        Map<Set<Address>, List<PendingCommand<?>>> batches;
+        synchronized (this.batches) {
+            batches = new HashMap<>(this.batches);
+            this.batches.clear();
+        }
+        for (Map.Entry<Set<Address>, List<PendingCommand<?>>> entry: batches.entrySet()) {
+            this.send(entry.getKey(), entry.getValue());
+        }
+    }
+
+    void flush(Set<Address> excluded, List<PendingCommand<?>> batch) {
+        synchronized (this.batches) {
+            // Skip batches that were already sent, due to reaching their maximum size
+            if (this.batches.get(excluded) != batch) return;
+            this.batches.remove(excluded);
+        }
+        this.send(excluded, batch);
+    }
+
+    private void send(Set<Address> excluded, final List<PendingCommand<?>> batch) {
+        try {
+            Message message = new Message(null, this.dispatcher.getChannel().getAddress(), this.marshal(batch));
+            // Responses to batches are never NoSuchService, so no filter is needed
+            RequestOptions options = new RequestOptions(ResponseMode.GET_ALL, this.timeout, false, null);
+            if (!excluded.isEmpty()) {
+                options.setExclusionList(excluded.toArray(new Address[excluded.size()]));
+            }
+            NotifyingFuture<RspList<Object>> future = this.dispatcher.castMessageWithFuture(null, message, options);
+            this.statistics.messageSent(batch.size());
+            future.setListener(new FutureListener<RspList<Object>>() {
+                @Override
+                public void futureDone(Future<RspList<Object>> future) {
+                    try {
+                        CommandBatcher.this.complete(batch, future.get());
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        fail(batch, e);
+                    } catch (ExecutionException e) {
+                        fail(batch, e.getCause());
+                    } catch (Throwable e) {
+                        // e.g. an unexpected response, otherwise the remaining commands of the batch would never complete
+                        fail(batch, e);
+                    }
+                }
+            });
+        } catch (Exception e) {
+            fail(batch, e);
+        }
+    }
+
+    private byte[] marshal(List<PendingCommand<?>> batch) throws IOException {
+        byte[][] commands = new byte[batch.size()][];
+        for (int i = 0; i < commands.length; ++i) {
+            commands[i] = batch.get(i).command;
+        }
+        try (ByteArrayOutputStream output = new ByteArrayOutputStream()) {
+            output.write(this.version);
+            Marshaller marshaller = this.context.acquireMarshaller(this.version);
+            boolean success = false;
+            try {
+                marshaller.start(Marshalling.createByteOutput(output));
+                marshaller.writeObject(new CommandBatch(commands));
+                marshaller.finish();
+                success = true;
+            } finally {
+                if (success) {
+                    this.context.releaseMarshaller(this.version, marshaller);
+                } else {
+                    marshaller.close();
+                }
+            }
+            return output.toByteArray();
+        }
+    }
+
+    void complete(List<PendingCommand<?>> batch, RspList<Object> responses) {
+        long now = System.nanoTime();
+        for (int i = 0; i < batch.size(); ++i) {
+            PendingCommand<?> pending = batch.get(i);
+            Map<Address, Rsp<Object>> results = new HashMap<>();
+            for (Map.Entry<Address, Rsp<Object>> entry: responses.entrySet()) {
+                Address address = entry.getKey();
+                results.put(address, demultiplex(address, entry.getValue(), i));
+            }
+            pending.complete(results);
+            this.statistics.commandCompleted(pending.commandClass, now - pending.submitted);
+        }
+    }
+
+    private static Rsp<Object> demultiplex(Address address, Rsp<Object> response, int index) {
+        Throwable exception = response.getException();
+        if (exception != null) return new Rsp<Object>(address, exception);
+        if (!response.wasReceived()) return new Rsp<Object>(address);
+        Object value = ((Object[]) response.getValue())[index];
+        if (value instanceof CommandFailure) return new Rsp<Object>(address, ((CommandFailure) value).getCause());
+        // Consistent with the response filter of unbatched commands
+        if (value instanceof NoSuchService) return new Rsp<Object>(address);
+        return new Rsp<Object>(address, value);
+    }
+
+    /**
+     * Fails all commands of the specified batch that have not yet completed.
+     */
+    static void fail(List<PendingCommand<?>> batch, Throwable exception) {
+        for (PendingCommand<?> pending: batch) {
+            pending.fail(exception);
+        }
+    }
+
+    /**
+     * Future response to a command pending within a batch.
+     */
+    static class PendingCommand<R> implements Future<Map<Address, Rsp<R>>> {
+        final Class<?> commandClass;
+        final byte[] command;
+        final long submitted = System.nanoTime();
+        private final CountDownLatch latch = new CountDownLatch(1);
+        // Only the first completion, or failure, of a command takes effect
+        private final AtomicBoolean done = new AtomicBoolean(false);
+        private volatile Map<Address, Rsp<R>> responses;
+        private volatile Throwable exception;
+
+        PendingCommand(Class<?> commandClass, byte[] command) {
+            this.commandClass = commandClass;
+            this.command = command;
+        }
+
+        @SuppressWarnings("unchecked")
+        void complete(Map<Address, ?> responses) {
+            if (this.done.compareAndSet(false, true)) {
+                this.responses = (Map<Address, Rsp<R>>) responses;
+                this.latch.countDown();
+            }
+        }
+
+        void fail(Throwable exception) {
+            if (this.done.compareAndSet(false, true)) {
+                this.exception = exception;
+                this.latch.countDown();
+            }
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            // Commands of a batch cannot be canceled individually
+            return false;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+
+        @Override
+        public boolean isDone() {
+            return this.latch.getCount() == 0;
+        }
+
+        @Override
+        public Map<Address, Rsp<R>> get() throws InterruptedException, ExecutionException {
+            this.latch.await();
+            return this.getResponses();
+        }
+
+        @Override
+        public Map<Address, Rsp<R>> get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+            if (!this.latch.await(timeout, unit)) {
+                throw new TimeoutException();
+            }
+            return this.getResponses();
+        }
+
+        private Map<Address, Rsp<R>> getResponses() throws ExecutionException {
+            if (this.exception != null) {
+                throw new ExecutionException(this.exception);
+            }
+            return this.responses;
+        }
+    }
+}
@@ -38,4 +38,16 @@ public interface CommandDispatcherFactoryConfiguration {
     NodeFactory<Address> getNodeFactory();
     ModuleLoader getModuleLoader();
     ModuleIdentifier getModuleIdentifier();
+
+    /**
+     * Returns the duration, in milliseconds, within which cluster-wide commands are coalesced into a single message.
+     * @return a batch window, or 0, if cluster-wide commands should not be batched
+     */
+    long getBatchWindow();
+
+    /**
+     * Returns the maximum number of cluster-wide commands sent within a single message.
+     * @return a maximum batch size
+     */
+    int getMaxBatchSize();
 }
@@ -50,6 +50,7 @@ import org.wildfly.clustering.group.Group;
 import org.wildfly.clustering.server.group.ChannelGroupProvider;
 import org.wildfly.clustering.server.group.ChannelNodeFactory;
 import org.wildfly.clustering.server.group.ChannelNodeFactoryProvider;
+import org.wildfly.security.manager.WildFlySecurityManager;
 
 /**
  * Installs a {@link CommandDispatcherFactory} service per channel.
@@ -58,6 +59,12 @@ import org.wildfly.clustering.server.group.ChannelNodeFactoryProvider;
 public class CommandDispatcherFactoryProvider implements ChannelServiceProvider {
     private static final Logger logger = Logger.getLogger(ChannelServiceProvider.class);
 
+    // Duration, in milliseconds, within which cluster-wide commands are coalesced into a single message, 0 disables batching
+    static final String BATCH_WINDOW = "org.wildfly.clustering.dispatcher.batch-window";
+    static final String MAX_BATCH_SIZE = "org.wildfly.clustering.dispatcher.max-batch-size";
+    static final long DEFAULT_BATCH_WINDOW = 0;
+    static final int DEFAULT_MAX_BATCH_SIZE = 100;
+
     public static ServiceName getServiceName(String cluster) {
         return ServiceName.JBOSS.append("clustering", "dispatcher").append(cluster);
     }
@@ -66,6 +73,31 @@ public class CommandDispatcherFactoryProvider implements ChannelServiceProvider
         return ContextNames.bindInfoFor(JndiNameFactory.createJndiName(JndiNameFactory.DEFAULT_JNDI_NAMESPACE, "clustering", "dispatcher", cluster).getAbsoluteName());
     }
 
+    // An invalid value falls back to the default, rather than failing the start of the service
+    static long parseBatchWindow(String value) {
+        if (value == null) return DEFAULT_BATCH_WINDOW;
+        try {
+            long window = Long.parseLong(value.trim());
+            if (window >= 0) return window;
+        } catch (NumberFormatException e) {
+            // Fall through
+        }
+        logger.warnf("Ignoring invalid value %s of system property %s, using %d", value, BATCH_WINDOW, DEFAULT_BATCH_WINDOW);
+        return DEFAULT_BATCH_WINDOW;
+    }
+
+    static int parseMaxBatchSize(String value) {
+        if (value == null) return DEFAULT_MAX_BATCH_SIZE;
+        try {
+            int size = Integer.parseInt(value.trim());
+            if (size > 0) return size;
+        } catch (NumberFormatException e) {
+            // Fall through
+        }
+        logger.warnf("Ignoring invalid value %s of system property %s, using %d", value, MAX_BATCH_SIZE, DEFAULT_MAX_BATCH_SIZE);
+        return DEFAULT_MAX_BATCH_SIZE;
+    }
+
     @Override
     public Collection<ServiceName> getServiceNames(String cluster) {
         return Arrays.asList(getServiceName(cluster), createBinding(cluster).getBinderServiceName());
@@ -138,6 +170,16 @@ public class CommandDispatcherFactoryProvider implements ChannelServiceProvider
             return this.identifier;
         }
 
+        @Override
+        public long getBatchWindow() {
+            return parseBatchWindow(WildFlySecurityManager.getPropertyPrivileged(BATCH_WINDOW, null));
+        }
+
+        @Override
+        public int getMaxBatchSize() {
+            return parseMaxBatchSize(WildFlySecurityManager.getPropertyPrivileged(MAX_BATCH_SIZE, null));
+        }
+
         Injector<Channel> getChannelInjector() {
             return this.channel;
         }
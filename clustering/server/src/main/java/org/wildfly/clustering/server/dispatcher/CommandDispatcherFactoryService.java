@@ -25,11 +25,23 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.security.AccessController;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import org.jboss.as.clustering.marshalling.DynamicClassTable;
 import org.jboss.as.clustering.marshalling.MarshallingConfigurationFactory;
@@ -47,6 +59,7 @@ import org.jboss.msc.service.Service;
 import org.jboss.msc.service.StartContext;
 import org.jboss.msc.service.StartException;
 import org.jboss.msc.service.StopContext;
+import org.jboss.threads.JBossThreadFactory;
 import org.jgroups.Address;
 import org.jgroups.Channel;
 import org.jgroups.Message;
@@ -61,6 +74,7 @@ import org.wildfly.clustering.dispatcher.CommandDispatcher;
 import org.wildfly.clustering.dispatcher.CommandDispatcherFactory;
 import org.wildfly.clustering.group.Group;
 import org.wildfly.clustering.group.NodeFactory;
+import org.wildfly.security.manager.GetAccessControlContextAction;
 
 /**
  * Service providing a CommandDispatcherFactory.
@@ -70,7 +84,9 @@ import org.wildfly.clustering.group.NodeFactory;
 public class CommandDispatcherFactoryService implements CommandDispatcherFactory, RequestHandler, Service<CommandDispatcherFactory>, VersionedMarshallingConfiguration {
 
     private static final short SCOPE_ID = 222;
-    private static final int CURRENT_VERSION = 1;
+    static final int CURRENT_VERSION = 1;
+    // Stands in for a null command result within a batch, to distinguish it from a command that has not yet completed
+    private static final Object NULL_RESULT = new Object();
 
     final Map<Object, AtomicReference<Object>> contexts = new ConcurrentHashMap<>();
 
@@ -79,10 +95,15 @@ public class CommandDispatcherFactoryService implements CommandDispatcherFactory
 
     volatile MarshallingContext marshallingContext;
     volatile NodeFactory<Address> factory = null;
+    // Executes the commands of unrelated command dispatchers within a received batch
+    volatile ExecutorService batchExecutor = null;
 
     private volatile Group group = null;
     private volatile MessageDispatcher dispatcher = null;
     private volatile long timeout = TimeUnit.MINUTES.toMillis(1);
+    private volatile CommandDispatcherStatistics statistics = new CommandDispatcherStatistics();
+    private volatile ScheduledExecutorService executor = null;
+    private volatile CommandBatcher batcher = null;
 
     public CommandDispatcherFactoryService(CommandDispatcherFactoryConfiguration config) {
         this.config = config;
@@ -117,17 +138,44 @@ public class CommandDispatcherFactoryService implements CommandDispatcherFactory
         this.dispatcher.setChannel(channel);
         this.dispatcher.setRequestHandler(this);
         this.dispatcher.start();
+
+        this.statistics = new CommandDispatcherStatistics();
+        ThreadFactory threadFactory = new JBossThreadFactory(new ThreadGroup(CommandBatcher.class.getSimpleName()), Boolean.TRUE, null, "%G - %t", null, null, AccessController.doPrivileged(GetAccessControlContextAction.getInstance()));
+        // Batches may be received regardless of whether this node batches the commands it sends
+        this.batchExecutor = Executors.newCachedThreadPool(threadFactory);
+        long window = this.config.getBatchWindow();
+        if (window > 0) {
+            this.executor = Executors.newSingleThreadScheduledExecutor(threadFactory);
+            this.batcher = new CommandBatcher(this.dispatcher, this.marshallingContext, CURRENT_VERSION, window, this.config.getMaxBatchSize(), this.timeout, this.statistics, this.executor);
+        }
     }
 
     @Override
     public void stop(StopContext context) {
         try {
+            if (this.batcher != null) {
+                // Send any pending commands before the dispatcher stops
+                this.batcher.flush();
+                this.batcher = null;
+                this.executor.shutdown();
+                this.executor = null;
+            }
             this.dispatcher.stop();
         } finally {
+            this.batchExecutor.shutdown();
+            this.batchExecutor = null;
             this.configurations.clear();
         }
     }
 
+    /**
+     * Returns statistics of the cluster-wide commands sent by the command dispatchers created by this factory.
+     * @return command dispatcher statistics
+     */
+    public CommandDispatcherStatistics getStatistics() {
+        return this.statistics;
+    }
+
     @Override
     public CommandDispatcherFactory getValue() {
         return this;
@@ -146,18 +194,28 @@ public class CommandDispatcherFactoryService implements CommandDispatcherFactory
             public <R> byte[] marshal(Command<R, C> command) throws IOException {
                 try (ByteArrayOutputStream output = new ByteArrayOutputStream()) {
                     output.write(version);
-                    try (Marshaller marshaller = CommandDispatcherFactoryService.this.marshallingContext.createMarshaller(version)) {
+                    MarshallingContext context = CommandDispatcherFactoryService.this.marshallingContext;
+                    Marshaller marshaller = context.acquireMarshaller(version);
+                    boolean success = false;
+                    try {
                         marshaller.start(Marshalling.createByteOutput(output));
                         marshaller.writeObject(id);
                         marshaller.writeObject(command);
-                        marshaller.flush();
+                        marshaller.finish();
+                        success = true;
+                    } finally {
+                        if (success) {
+                            context.releaseMarshaller(version, marshaller);
+                        } else {
+                            marshaller.close();
+                        }
                     }
                     return output.toByteArray();
                 }
             }
         };
         this.contexts.put(id, new AtomicReference<Object>(context));
-        return new ServiceCommandDispatcher<C>(this.dispatcher, marshaller, this.factory, this.timeout) {
+        return new ServiceCommandDispatcher<C>(this.dispatcher, marshaller, this.factory, this.timeout, this.batcher, this.statistics) {
             @Override
             public void close() {
                 CommandDispatcherFactoryService.this.contexts.remove(id);
@@ -181,16 +239,121 @@ public class CommandDispatcherFactoryService implements CommandDispatcherFactory
 
     @Override
     public Object handle(Message message) throws Exception {
-        try (InputStream input = new ByteArrayInputStream(message.getRawBuffer(), message.getOffset(), message.getLength())) {
+        Request request = this.read(message.getRawBuffer(), message.getOffset(), message.getLength());
+        if (request.clientId instanceof CommandBatch) {
+            return this.handle((CommandBatch) request.clientId);
+        }
+        return this.execute(request);
+    }
+
+    private Request read(byte[] buffer, int offset, int length) throws Exception {
+        try (InputStream input = new ByteArrayInputStream(buffer, offset, length)) {
             int version = input.read();
-            try (Unmarshaller unmarshaller = this.marshallingContext.createUnmarshaller(version)) {
+            Object clientId;
+            Command<Object, Object> command = null;
+            Unmarshaller unmarshaller = this.marshallingContext.acquireUnmarshaller(version);
+            boolean success = false;
+            try {
                 unmarshaller.start(Marshalling.createByteInput(input));
-                Object clientId = unmarshaller.readObject();
-                Command<Object, Object> command = (Command<Object, Object>) unmarshaller.readObject();
-                AtomicReference<Object> context = this.contexts.get(clientId);
-                if (context == null) return new NoSuchService();
-                return command.execute(context.get());
+                clientId = unmarshaller.readObject();
+                if (!(clientId instanceof CommandBatch)) {
+                    command = (Command<Object, Object>) unmarshaller.readObject();
+                }
+                unmarshaller.finish();
+                success = true;
+            } finally {
+                if (success) {
+                    this.marshallingContext.releaseUnmarshaller(version, unmarshaller);
+                } else {
+                    unmarshaller.close();
+                }
+            }
+            return new Request(clientId, command);
+        }
+    }
+
+    private Object execute(Request request) throws Exception {
+        AtomicReference<Object> context = this.contexts.get(request.clientId);
+        if (context == null) return new NoSuchService();
+        return request.command.execute(context.get());
+    }
+
+    /**
+     * Executes the commands of a batch, returning a result per command.
+     * The commands of a given command dispatcher execute in order, as if sent individually,
+     * while the commands of unrelated command dispatchers execute concurrently, so that a slow command only delays the commands of its own dispatcher.
+     * The failure of a command, including not completing within the request timeout, is isolated from the other commands of the batch.
+     */
+    private Object[] handle(CommandBatch batch) throws InterruptedException {
+        byte[][] commands = batch.getCommands();
+        final Request[] requests = new Request[commands.length];
+        final AtomicReferenceArray<Object> results = new AtomicReferenceArray<>(commands.length);
+        // Indexes of the commands of the batch, per command dispatcher
+        Map<Object, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < commands.length; ++i) {
+            try {
+                requests[i] = this.read(commands[i], 0, commands[i].length);
+                List<Integer> group = groups.get(requests[i].clientId);
+                if (group == null) {
+                    group = new ArrayList<>();
+                    groups.put(requests[i].clientId, group);
+                }
+                group.add(i);
+            } catch (Throwable e) {
+                results.set(i, new CommandFailure(e));
+            }
+        }
+        final CountDownLatch latch = new CountDownLatch(groups.size());
+        List<Runnable> tasks = new ArrayList<>(groups.size());
+        for (final List<Integer> group: groups.values()) {
+            tasks.add(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for (int index: group) {
+                            try {
+                                Object result = CommandDispatcherFactoryService.this.execute(requests[index]);
+                                results.set(index, (result != null) ? result : NULL_RESULT);
+                            } catch (Throwable e) {
+                                results.set(index, new CommandFailure(e));
+                            }
+                        }
+                    } finally {
+                        latch.countDown();
+                    }
+                }
+            });
+        }
+        if (tasks.size() == 1) {
+            // Commands of a single command dispatcher execute as if sent individually
+            tasks.get(0).run();
+        } else {
+            ExecutorService executor = this.batchExecutor;
+            for (Runnable task: tasks) {
+                try {
+                    executor.execute(task);
+                } catch (RejectedExecutionException e) {
+                    // This service is stopping
+                    task.run();
+                }
             }
+            latch.await(this.timeout, TimeUnit.MILLISECONDS);
+        }
+        Object[] values = new Object[commands.length];
+        for (int i = 0; i < values.length; ++i) {
+            Object result = results.get(i);
+            values[i] = (result == NULL_RESULT) ? null : (result != null) ? result : new CommandFailure(new TimeoutException());
+        }
+        return values;
+    }
+
+    private static class Request {
+        final Object clientId;
+        final Command<Object, Object> command;
+
+        Request(Object clientId, Command<Object, Object> command) {
+            this.clientId = clientId;
+            this.command = command;
         }
     }
 }
@@ -0,0 +1,123 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.server.dispatcher;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Statistics of the cluster-wide commands sent by the command dispatchers of a given channel.
+ */
+public class CommandDispatcherStatistics {
+
+    private final AtomicLong messages = new AtomicLong();
+    private final AtomicLong commands = new AtomicLong();
+    // Keyed by class name, so that statistics do not prevent the class loaders of command types from being unloaded
+    private final ConcurrentMap<String, CommandStatistics> commandStatistics = new ConcurrentHashMap<>();
+
+    /**
+     * Records a cluster-wide message containing the specified number of commands.
+     * @param commands the number of commands sent within the message
+     */
+    void messageSent(int commands) {
+        this.messages.incrementAndGet();
+        this.commands.addAndGet(commands);
+    }
+
+    /**
+     * Records the completion of a cluster-wide command.
+     * @param commandClass the command type
+     * @param nanos the time, in nanoseconds, between submitting the command and receiving all of its responses
+     */
+    void commandCompleted(Class<?> commandClass, long nanos) {
+        String name = commandClass.getName();
+        CommandStatistics statistics = this.commandStatistics.get(name);
+        if (statistics == null) {
+            statistics = new CommandStatistics();
+            CommandStatistics existing = this.commandStatistics.putIfAbsent(name, statistics);
+            if (existing != null) {
+                statistics = existing;
+            }
+        }
+        statistics.record(nanos);
+    }
+
+    /**
+     * Returns the number of cluster-wide messages sent.
+     * @return a message count
+     */
+    public long getMessageCount() {
+        return this.messages.get();
+    }
+
+    /**
+     * Returns the number of cluster-wide commands sent.
+     * When batching, this exceeds the message count.
+     * @return a command count
+     */
+    public long getCommandCount() {
+        return this.commands.get();
+    }
+
+    /**
+     * Returns the latency statistics of completed cluster-wide commands, per command type.
+     * @return a map of command statistics, keyed by command class name
+     */
+    public Map<String, CommandStatistics> getCommandStatistics() {
+        return Collections.unmodifiableMap(this.commandStatistics);
+    }
+
+    /**
+     * Latency statistics for a given command type.
+     */
+    public static class CommandStatistics {
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        void record(long nanos) {
+            this.count.incrementAndGet();
+            this.totalNanos.addAndGet(nanos);
+            long max = this.maxNanos.get();
+            while ((nanos > max) && !this.maxNanos.compareAndSet(max, nanos)) {
+                max = this.maxNanos.get();
+            }
+        }
+
+        public long getCount() {
+            return this.count.get();
+        }
+
+        public long getAverageLatency(TimeUnit unit) {
+            long count = this.count.get();
+            return (count > 0) ? unit.convert(this.totalNanos.get() / count, TimeUnit.NANOSECONDS) : 0;
+        }
+
+        public long getMaxLatency(TimeUnit unit) {
+            return unit.convert(this.maxNanos.get(), TimeUnit.NANOSECONDS);
+        }
+    }
+}
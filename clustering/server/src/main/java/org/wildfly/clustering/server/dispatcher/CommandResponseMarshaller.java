@@ -51,10 +51,19 @@ public class CommandResponseMarshaller implements RpcDispatcher.Marshaller {
     public Buffer objectToBuffer(Object object) throws Exception {
         try (ByteArrayOutputStream output = new ByteArrayOutputStream()) {
             output.write(this.currentVersion);
-            try (Marshaller marshaller = this.context.createMarshaller(this.currentVersion)) {
+            Marshaller marshaller = this.context.acquireMarshaller(this.currentVersion);
+            boolean success = false;
+            try {
                 marshaller.start(Marshalling.createByteOutput(output));
                 marshaller.writeObject(object);
-                marshaller.flush();
+                marshaller.finish();
+                success = true;
+            } finally {
+                if (success) {
+                    this.context.releaseMarshaller(this.currentVersion, marshaller);
+                } else {
+                    marshaller.close();
+                }
             }
             return new Buffer(output.toByteArray());
         }
@@ -64,9 +73,20 @@ public class CommandResponseMarshaller implements RpcDispatcher.Marshaller {
     public Object objectFromBuffer(byte[] buffer, int offset, int length) throws Exception {
         try (InputStream input = new ByteArrayInputStream(buffer, offset, length)) {
             int version = input.read();
-            try (Unmarshaller unmarshaller = this.context.createUnmarshaller(version)) {
+            Unmarshaller unmarshaller = this.context.acquireUnmarshaller(version);
+            boolean success = false;
+            try {
                 unmarshaller.start(Marshalling.createByteInput(input));
-                return unmarshaller.readObject();
+                Object result = unmarshaller.readObject();
+                unmarshaller.finish();
+                success = true;
+                return result;
+            } finally {
+                if (success) {
+                    this.context.releaseUnmarshaller(version, unmarshaller);
+                } else {
+                    unmarshaller.close();
+                }
             }
         }
     }
@@ -71,19 +71,40 @@ public abstract class ServiceCommandDispatcher<C> implements CommandDispatcher<C
     private final CommandMarshaller<C> marshaller;
     private final NodeFactory<Address> factory;
     private final long timeout;
+    private final CommandBatcher batcher;
+    private final CommandDispatcherStatistics statistics;
 
     public ServiceCommandDispatcher(MessageDispatcher dispatcher, CommandMarshaller<C> marshaller, NodeFactory<Address> factory, long timeout) {
+        this(dispatcher, marshaller, factory, timeout, null, new CommandDispatcherStatistics());
+    }
+
+    /**
+     * Creates a command dispatcher that optionally batches cluster-wide commands.
+     * @param batcher coalesces cluster-wide commands into batches, or null, if commands should be sent individually
+     * @param statistics records statistics of cluster-wide commands
+     */
+    public ServiceCommandDispatcher(MessageDispatcher dispatcher, CommandMarshaller<C> marshaller, NodeFactory<Address> factory, long timeout, CommandBatcher batcher, CommandDispatcherStatistics statistics) {
         this.dispatcher = dispatcher;
         this.marshaller = marshaller;
         this.factory = factory;
         this.timeout = timeout;
+        this.batcher = batcher;
+        this.statistics = statistics;
     }
 
     @Override
     public <R> Map<Node, CommandResponse<R>> executeOnCluster(Command<R, C> command, Node... excludedNodes) {
         try {
-            RequestOptions options = this.createRequestOptions(excludedNodes);
-            Map<Address, Rsp<R>> responses = this.dispatcher.castMessage(null, this.createMessage(command), options);
+            Map<Address, Rsp<R>> responses;
+            if (this.batcher != null) {
+                // Bound the wait by the batch window in addition to the request timeout
+                responses = this.batcher.<R>submit(command.getClass(), this.marshal(command), getAddresses(excludedNodes)).get(this.batcher.getWindow() + this.timeout, TimeUnit.MILLISECONDS);
+            } else {
+                long start = System.nanoTime();
+                responses = this.dispatcher.castMessage(null, this.createMessage(command), this.createRequestOptions(excludedNodes));
+                this.statistics.messageSent(1);
+                this.statistics.commandCompleted(command.getClass(), System.nanoTime() - start);
+            }
             if (responses == null) return Collections.emptyMap();
 
             Map<Node, CommandResponse<R>> results = new HashMap<>();
@@ -102,7 +123,13 @@ public abstract class ServiceCommandDispatcher<C> implements CommandDispatcher<C
     @Override
     public <R> Map<Node, Future<R>> submitOnCluster(Command<R, C> command, Node... excludedNodes) {
         try {
-            final Future<? extends Map<Address, Rsp<R>>> responses = this.dispatcher.castMessageWithFuture(null, this.createMessage(command), this.createRequestOptions(excludedNodes));
+            final Future<? extends Map<Address, Rsp<R>>> responses;
+            if (this.batcher != null) {
+                responses = this.batcher.<R>submit(command.getClass(), this.marshal(command), getAddresses(excludedNodes));
+            } else {
+                responses = this.dispatcher.castMessageWithFuture(null, this.createMessage(command), this.createRequestOptions(excludedNodes));
+                this.statistics.messageSent(1);
+            }
             if (responses == null) return Collections.emptyMap();
 
             Map<Node, Future<R>> results = new HashMap<>();
@@ -165,8 +192,12 @@ public abstract class ServiceCommandDispatcher<C> implements CommandDispatcher<C
     }
 
     private <R> Message createMessage(Command<R, C> command) {
+        return new Message(null, this.getLocalAddress(), this.marshal(command));
+    }
+
+    private <R> byte[] marshal(Command<R, C> command) {
         try {
-            return new Message(null, this.getLocalAddress(), this.marshaller.marshal(command));
+            return this.marshaller.marshal(command);
         } catch (IOException e) {
             throw new IllegalArgumentException(e);
         }
@@ -187,13 +218,19 @@ public abstract class ServiceCommandDispatcher<C> implements CommandDispatcher<C
         throw new IllegalArgumentException(node.getName());
     }
 
+    private static Address[] getAddresses(Node... nodes) {
+        if (nodes == null) return new Address[0];
+        Address[] addresses = new Address[nodes.length];
+        for (int i = 0; i < nodes.length; ++i) {
+            addresses[i] = getAddress(nodes[i]);
+        }
+        return addresses;
+    }
+
     private RequestOptions createRequestOptions(Node... excludedNodes) {
         RequestOptions options = this.createRequestOptions();
-        if ((excludedNodes != null) && (excludedNodes.length > 0)) {
-            Address[] addresses = new Address[excludedNodes.length];
-            for (int i = 0; i < excludedNodes.length; ++i) {
-                addresses[i] = getAddress(excludedNodes[i]);
-            }
+        Address[] addresses = getAddresses(excludedNodes);
+        if (addresses.length > 0) {
             options.setExclusionList(addresses);
         }
         return options;
@@ -0,0 +1,266 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.clustering.server.dispatcher;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.as.clustering.marshalling.MarshallingContext;
+import org.jboss.as.clustering.marshalling.SimpleMarshallingContext;
+import org.jboss.as.clustering.marshalling.VersionedMarshallingConfiguration;
+import org.jboss.marshalling.Marshalling;
+import org.jboss.marshalling.MarshallingConfiguration;
+import org.jgroups.Address;
+import org.jgroups.Channel;
+import org.jgroups.Message;
+import org.jgroups.blocks.MessageDispatcher;
+import org.jgroups.blocks.RequestOptions;
+import org.jgroups.util.FutureListener;
+import org.jgroups.util.NotifyingFuture;
+import org.jgroups.util.Rsp;
+import org.jgroups.util.RspList;
+import org.jgroups.util.UUID;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.wildfly.clustering.dispatcher.Command;
+
+/**
+ * Tests the batching of cluster-wide commands by {@link CommandBatcher}.
+ */
+public class CommandBatcherTestCase {
+
+    private static final long WINDOW = 10;
+    private static final long TIMEOUT = 1000;
+
+    private final MessageDispatcher dispatcher = mock(MessageDispatcher.class);
+    private final Channel channel = mock(Channel.class);
+    private final ScheduledExecutorService executor = mock(ScheduledExecutorService.class);
+    @SuppressWarnings("unchecked")
+    private final NotifyingFuture<RspList<Object>> future = mock(NotifyingFuture.class);
+    private final CommandDispatcherStatistics statistics = new CommandDispatcherStatistics();
+    private final Address local = UUID.randomUUID();
+    private final Address remote = UUID.randomUUID();
+
+    static MarshallingContext createContext() {
+        VersionedMarshallingConfiguration configuration = new VersionedMarshallingConfiguration() {
+            @Override
+            public int getCurrentMarshallingVersion() {
+                return CommandDispatcherFactoryService.CURRENT_VERSION;
+            }
+
+            @Override
+            public MarshallingConfiguration getMarshallingConfiguration(int version) {
+                return new MarshallingConfiguration();
+            }
+        };
+        return new SimpleMarshallingContext(Marshalling.getMarshallerFactory("river", Marshalling.class.getClassLoader()), configuration, Thread.currentThread().getContextClassLoader());
+    }
+
+    @Before
+    public void init() throws Exception {
+        when(this.dispatcher.getChannel()).thenReturn(this.channel);
+        when(this.channel.getAddress()).thenReturn(this.local);
+        when(this.dispatcher.<Object>castMessageWithFuture(any(Collection.class), any(Message.class), any(RequestOptions.class))).thenReturn(this.future);
+    }
+
+    private CommandBatcher createBatcher(int maxSize) {
+        return new CommandBatcher(this.dispatcher, createContext(), CommandDispatcherFactoryService.CURRENT_VERSION, WINDOW, maxSize, TIMEOUT, this.statistics, this.executor);
+    }
+
+    @Test
+    public void flushBySize() throws Exception {
+        CommandBatcher batcher = this.createBatcher(2);
+
+        batcher.submit(Command.class, new byte[] { 1 });
+        verify(this.dispatcher, never()).castMessageWithFuture(any(Collection.class), any(Message.class), any(RequestOptions.class));
+
+        batcher.submit(Command.class, new byte[] { 2 });
+        verify(this.dispatcher).castMessageWithFuture(any(Collection.class), any(Message.class), any(RequestOptions.class));
+        assertEquals(1, this.statistics.getMessageCount());
+        assertEquals(2, this.statistics.getCommandCount());
+
+        // The scheduled flush of a batch that was already sent does nothing
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        verify(this.executor).schedule(task.capture(), eq(WINDOW), eq(TimeUnit.MILLISECONDS));
+        task.getValue().run();
+        verify(this.dispatcher).castMessageWithFuture(any(Collection.class), any(Message.class), any(RequestOptions.class));
+        assertEquals(1, this.statistics.getMessageCount());
+    }
+
+    @Test
+    public void flushByWindow() throws Exception {
+        CommandBatcher batcher = this.createBatcher(100);
+
+        // Commands excluding different nodes are sent in separate batches
+        batcher.submit(Command.class, new byte[] { 1 });
+        batcher.submit(Command.class, new byte[] { 2 }, this.remote);
+        batcher.submit(Command.class, new byte[] { 3 });
+        verify(this.dispatcher, never()).castMessageWithFuture(any(Collection.class), any(Message.class), any(RequestOptions.class));
+
+        ArgumentCaptor<Runnable> tasks = ArgumentCaptor.forClass(Runnable.class);
+        verify(this.executor, times(2)).schedule(tasks.capture(), eq(WINDOW), eq(TimeUnit.MILLISECONDS));
+        for (Runnable task: tasks.getAllValues()) {
+            task.run();
+        }
+
+        ArgumentCaptor<RequestOptions> options = ArgumentCaptor.forClass(RequestOptions.class);
+        verify(this.dispatcher, times(2)).castMessageWithFuture(any(Collection.class), any(Message.class), options.capture());
+        assertEquals(2, this.statistics.getMessageCount());
+        assertEquals(3, this.statistics.getCommandCount());
+        List<RequestOptions> values = options.getAllValues();
+        int excluded = 0;
+        for (RequestOptions value: values) {
+            Collection<Address> exclusions = value.getExclusionList();
+            if ((exclusions != null) && !exclusions.isEmpty()) {
+                assertEquals(Collections.singleton(this.remote), new HashSet<Address>(exclusions));
+                excluded += 1;
+            }
+        }
+        assertEquals(1, excluded);
+    }
+
+    @Test
+    public void flush() throws Exception {
+        CommandBatcher batcher = this.createBatcher(100);
+
+        batcher.submit(Command.class, new byte[] { 1 });
+        batcher.submit(Command.class, new byte[] { 2 }, this.remote);
+        batcher.flush();
+
+        verify(this.dispatcher, times(2)).castMessageWithFuture(any(Collection.class), any(Message.class), any(RequestOptions.class));
+        assertEquals(2, this.statistics.getMessageCount());
+    }
+
+    @Test
+    public void demultiplex() throws Exception {
+        CommandBatcher batcher = this.createBatcher(3);
+        Exception exception = new Exception();
+        Address failed = UUID.randomUUID();
+        Address missing = UUID.randomUUID();
+
+        Future<Map<Address, Rsp<Object>>> success = batcher.submit(Command.class, new byte[] { 1 });
+        Future<Map<Address, Rsp<Object>>> failure = batcher.submit(Command.class, new byte[] { 2 });
+        Future<Map<Address, Rsp<Object>>> noSuchService = batcher.submit(Command.class, new byte[] { 3 });
+
+        RspList<Object> responses = new RspList<>();
+        responses.put(this.remote, new Rsp<Object>(this.remote, (Object) new Object[] { "result", new CommandFailure(exception), new NoSuchService() }));
+        responses.put(failed, new Rsp<Object>(failed, new IllegalStateException()));
+        responses.put(missing, new Rsp<Object>(missing));
+        this.complete(responses);
+
+        Map<Address, Rsp<Object>> result = success.get();
+        assertEquals(3, result.size());
+        assertEquals("result", result.get(this.remote).getValue());
+        assertTrue(result.get(failed).getException() instanceof IllegalStateException);
+        assertFalse(result.get(missing).wasReceived());
+
+        result = failure.get();
+        assertSame(exception, result.get(this.remote).getException());
+        assertTrue(result.get(failed).getException() instanceof IllegalStateException);
+
+        // Consistent with the response filter of unbatched commands
+        result = noSuchService.get();
+        assertFalse(result.get(this.remote).wasReceived());
+
+        assertEquals(3, this.statistics.getCommandStatistics().get(Command.class.getName()).getCount());
+    }
+
+    @Test
+    public void unexpectedResponse() throws Exception {
+        CommandBatcher batcher = this.createBatcher(2);
+
+        Future<Map<Address, Rsp<Object>>> first = batcher.submit(Command.class, new byte[] { 1 });
+        Future<Map<Address, Rsp<Object>>> second = batcher.submit(Command.class, new byte[] { 2 });
+
+        // Fewer results than commands
+        RspList<Object> responses = new RspList<>();
+        responses.put(this.remote, new Rsp<Object>(this.remote, (Object) new Object[] { "result" }));
+        this.complete(responses);
+
+        assertEquals("result", first.get().get(this.remote).getValue());
+        try {
+            second.get();
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof ArrayIndexOutOfBoundsException);
+        }
+    }
+
+    @Test
+    public void failedMessage() throws Exception {
+        CommandBatcher batcher = this.createBatcher(2);
+        Exception exception = new Exception();
+
+        Future<Map<Address, Rsp<Object>>> first = batcher.submit(Command.class, new byte[] { 1 });
+        Future<Map<Address, Rsp<Object>>> second = batcher.submit(Command.class, new byte[] { 2 });
+
+        when(this.future.get()).thenThrow(new ExecutionException(exception));
+        this.getListener().futureDone(this.future);
+
+        try {
+            first.get();
+            fail();
+        } catch (ExecutionException e) {
+            assertSame(exception, e.getCause());
+        }
+        try {
+            second.get(1, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            assertSame(exception, e.getCause());
+        }
+    }
+
+    private void complete(RspList<Object> responses) throws Exception {
+        when(this.future.get()).thenReturn(responses);
+        this.getListener().futureDone(this.future);
+    }
+
+    @SuppressWarnings("unchecked")
+    private FutureListener<RspList<Object>> getListener() {
+        ArgumentCaptor<FutureListener> listener = ArgumentCaptor.forClass(FutureListener.class);
+        verify(this.future).setListener(listener.capture());
+        return listener.getValue();
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.clustering.server.dispatcher;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Tests the parsing of the batching system properties by {@link CommandDispatcherFactoryProvider}.
+ */
+public class CommandDispatcherFactoryProviderTestCase {
+
+    @Test
+    public void batchWindow() {
+        assertEquals(CommandDispatcherFactoryProvider.DEFAULT_BATCH_WINDOW, CommandDispatcherFactoryProvider.parseBatchWindow(null));
+        assertEquals(10, CommandDispatcherFactoryProvider.parseBatchWindow("10"));
+        assertEquals(10, CommandDispatcherFactoryProvider.parseBatchWindow(" 10 "));
+        assertEquals(0, CommandDispatcherFactoryProvider.parseBatchWindow("0"));
+        assertEquals(CommandDispatcherFactoryProvider.DEFAULT_BATCH_WINDOW, CommandDispatcherFactoryProvider.parseBatchWindow("-1"));
+        assertEquals(CommandDispatcherFactoryProvider.DEFAULT_BATCH_WINDOW, CommandDispatcherFactoryProvider.parseBatchWindow("10ms"));
+        assertEquals(CommandDispatcherFactoryProvider.DEFAULT_BATCH_WINDOW, CommandDispatcherFactoryProvider.parseBatchWindow(""));
+    }
+
+    @Test
+    public void maxBatchSize() {
+        assertEquals(CommandDispatcherFactoryProvider.DEFAULT_MAX_BATCH_SIZE, CommandDispatcherFactoryProvider.parseMaxBatchSize(null));
+        assertEquals(50, CommandDispatcherFactoryProvider.parseMaxBatchSize("50"));
+        assertEquals(CommandDispatcherFactoryProvider.DEFAULT_MAX_BATCH_SIZE, CommandDispatcherFactoryProvider.parseMaxBatchSize("0"));
+        assertEquals(CommandDispatcherFactoryProvider.DEFAULT_MAX_BATCH_SIZE, CommandDispatcherFactoryProvider.parseMaxBatchSize("-5"));
+        assertEquals(CommandDispatcherFactoryProvider.DEFAULT_MAX_BATCH_SIZE, CommandDispatcherFactoryProvider.parseMaxBatchSize("many"));
+        assertEquals(CommandDispatcherFactoryProvider.DEFAULT_MAX_BATCH_SIZE, CommandDispatcherFactoryProvider.parseMaxBatchSize("99999999999"));
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.clustering.server.dispatcher;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.jboss.as.clustering.marshalling.MarshallingContext;
+import org.jboss.marshalling.Marshaller;
+import org.jboss.marshalling.Marshalling;
+import org.jgroups.Message;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.wildfly.clustering.dispatcher.Command;
+
+/**
+ * Tests the execution of received commands, and batches of commands, by {@link CommandDispatcherFactoryService}.
+ */
+public class CommandDispatcherFactoryServiceTestCase {
+
+    private final CommandDispatcherFactoryService service = new CommandDispatcherFactoryService(null);
+    private final MarshallingContext context = CommandBatcherTestCase.createContext();
+
+    @Before
+    public void init() {
+        this.service.marshallingContext = this.context;
+        this.service.batchExecutor = Executors.newCachedThreadPool();
+        this.service.contexts.put("first", new AtomicReference<Object>("first-context"));
+        this.service.contexts.put("second", new AtomicReference<Object>("second-context"));
+    }
+
+    @After
+    public void destroy() {
+        this.service.batchExecutor.shutdownNow();
+    }
+
+    @Test
+    public void command() throws Exception {
+        assertEquals("first-context", this.service.handle(new Message(null, null, this.marshal("first", new ContextCommand()))));
+        assertTrue(this.service.handle(new Message(null, null, this.marshal("unknown", new ContextCommand()))) instanceof NoSuchService);
+    }
+
+    @Test
+    public void batch() throws Exception {
+        byte[][] commands = new byte[][] {
+            this.marshal("first", new ContextCommand()),
+            this.marshal("second", new ContextCommand()),
+            this.marshal("unknown", new ContextCommand()),
+            this.marshal("first", new FailingCommand()),
+            this.marshal("second", new NullCommand()),
+            new byte[] { (byte) CommandDispatcherFactoryService.CURRENT_VERSION, 0 },
+        };
+        Object[] results = (Object[]) this.service.handle(new Message(null, null, this.marshal(new CommandBatch(commands))));
+
+        assertEquals(commands.length, results.length);
+        assertEquals("first-context", results[0]);
+        assertEquals("second-context", results[1]);
+        assertTrue(results[2] instanceof NoSuchService);
+        assertTrue(results[3] instanceof CommandFailure);
+        assertTrue(((CommandFailure) results[3]).getCause() instanceof IllegalStateException);
+        assertNull(results[4]);
+        // A command that cannot be unmarshalled fails on its own
+        assertTrue(results[5] instanceof CommandFailure);
+    }
+
+    @Test
+    public void isolation() throws Exception {
+        LatchCommand.LATCH = new CountDownLatch(1);
+        // The first command only completes once the command of the unrelated dispatcher has executed
+        byte[][] commands = new byte[][] {
+            this.marshal("first", new AwaitCommand()),
+            this.marshal("first", new ContextCommand()),
+            this.marshal("second", new LatchCommand()),
+        };
+        Object[] results = (Object[]) this.service.handle(new Message(null, null, this.marshal(new CommandBatch(commands))));
+
+        assertEquals(Boolean.TRUE, results[0]);
+        assertEquals("first-context", results[1]);
+        assertEquals("second-context", results[2]);
+    }
+
+    // Marshals a command request, i.e. the identifier of a command dispatcher followed by a command, or a batch of command requests
+    private byte[] marshal(Object... objects) throws IOException {
+        int version = CommandDispatcherFactoryService.CURRENT_VERSION;
+        try (ByteArrayOutputStream output = new ByteArrayOutputStream()) {
+            output.write(version);
+            Marshaller marshaller = this.context.acquireMarshaller(version);
+            try {
+                marshaller.start(Marshalling.createByteOutput(output));
+                for (Object object: objects) {
+                    marshaller.writeObject(object);
+                }
+                marshaller.finish();
+            } finally {
+                marshaller.close();
+            }
+            return output.toByteArray();
+        }
+    }
+
+    static class ContextCommand implements Command<Object, Object> {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public Object execute(Object context) {
+            return context;
+        }
+    }
+
+    static class NullCommand implements Command<Object, Object> {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public Object execute(Object context) {
+            return null;
+        }
+    }
+
+    static class FailingCommand implements Command<Object, Object> {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public Object execute(Object context) {
+            throw new IllegalStateException();
+        }
+    }
+
+    static class LatchCommand implements Command<Object, Object> {
+        private static final long serialVersionUID = 1L;
+        static volatile CountDownLatch LATCH;
+
+        @Override
+        public Object execute(Object context) {
+            LATCH.countDown();
+            return context;
+        }
+    }
+
+    static class AwaitCommand implements Command<Boolean, Object> {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public Boolean execute(Object context) throws InterruptedException {
+            return LatchCommand.LATCH.await(10, TimeUnit.SECONDS);
+        }
+    }
+}
@@ -21,8 +21,13 @@
  */
 package org.wildfly.clustering.web.infinispan;
 
+import static org.jboss.logging.Logger.Level.WARN;
+
 import org.jboss.logging.BasicLogger;
 import org.jboss.logging.Logger;
+import org.jboss.logging.annotations.Cause;
+import org.jboss.logging.annotations.LogMessage;
+import org.jboss.logging.annotations.Message;
 import org.jboss.logging.annotations.MessageLogger;
 
 /**
@@ -37,4 +42,20 @@ public interface InfinispanWebLogger extends BasicLogger {
     String ROOT_LOGGER_CATEGORY = InfinispanWebLogger.class.getPackage().getName();
 
     InfinispanWebLogger ROOT_LOGGER = Logger.getMessageLogger(InfinispanWebLogger.class, ROOT_LOGGER_CATEGORY);
+
+    @LogMessage(level = WARN)
+    @Message(id = 10320, value = "Failed to expire batch of %d sessions")
+    void failedToExpireSessions(@Cause Throwable cause, int sessions);
+
+    @LogMessage(level = WARN)
+    @Message(id = 10321, value = "Failed to expire session %s")
+    void failedToExpireSession(@Cause Throwable cause, String id);
+
+    @LogMessage(level = WARN)
+    @Message(id = 10322, value = "Failed to process expired sessions")
+    void failedToProcessExpiredSessions(@Cause Throwable cause);
+
+    @LogMessage(level = WARN)
+    @Message(id = 10323, value = "Invalid value \"%s\" of context parameter %s, using default value %s")
+    void invalidContextParameter(String value, String name, String defaultValue);
 }
@@ -52,4 +52,7 @@ public interface InfinispanWebMessages {
 
     @Message(id = 10337, value = "Session %s is not valid")
     IllegalStateException invalidSession(String sessionId);
+
+    @Message(id = 10338, value = "Unknown session expiration scheduler: %s")
+    IllegalArgumentException unknownExpirationScheduler(String value);
 }
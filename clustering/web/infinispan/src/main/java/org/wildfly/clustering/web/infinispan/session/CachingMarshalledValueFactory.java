@@ -0,0 +1,88 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.web.infinispan.session;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.jboss.as.clustering.marshalling.MarshallingContext;
+import org.jboss.as.clustering.marshalling.SimpleMarshalledValue;
+import org.jboss.as.clustering.marshalling.SimpleMarshalledValueFactory;
+import org.wildfly.clustering.web.infinispan.CacheMutator;
+
+/**
+ * Marshalled value factory that reuses the marshalled value, and thus the serialized form, of recently written immutable session attributes.
+ * Immutable attributes include strings, boxed primitives, and classes annotated with {@link org.wildfly.clustering.annotation.Immutable}.
+ * Values are cached by object identity within a fixed size, direct mapped table, such that an attribute set again to the same object,
+ * or shared by multiple sessions, is marshalled at most once while it remains cached.
+ * Only values held by the table retain their serialized form; a value evicted from the table releases it,
+ * so that attributes stored in sessions do not keep both their object and its serialized form in memory indefinitely.
+ * Mutable attributes are never cached, since their serialized form may change.
+ */
+public class CachingMarshalledValueFactory extends SimpleMarshalledValueFactory {
+
+    public static final int DEFAULT_CACHE_SIZE = 1024;
+
+    private final AtomicReferenceArray<Entry> entries;
+    private final int mask;
+
+    public CachingMarshalledValueFactory(MarshallingContext context) {
+        this(context, DEFAULT_CACHE_SIZE);
+    }
+
+    public CachingMarshalledValueFactory(MarshallingContext context, int size) {
+        super(context);
+        // Round size up to a power of 2, so we can use a mask instead of a modulus
+        int capacity = (size > 1) ? Integer.highestOneBit(size - 1) << 1 : size;
+        this.entries = (capacity > 0) ? new AtomicReferenceArray<Entry>(capacity) : null;
+        this.mask = capacity - 1;
+    }
+
+    @Override
+    public <T> SimpleMarshalledValue<T> createMarshalledValue(T object) {
+        if ((this.entries == null) || (object == null) || CacheMutator.isMutable(object)) {
+            return super.createMarshalledValue(object);
+        }
+        int index = System.identityHashCode(object) & this.mask;
+        Entry entry = this.entries.get(index);
+        if ((entry != null) && (entry.object == object)) {
+            @SuppressWarnings("unchecked")
+            SimpleMarshalledValue<T> value = (SimpleMarshalledValue<T>) entry.value;
+            return value;
+        }
+        SimpleMarshalledValue<T> value = new SimpleMarshalledValue<>(object, this.context, true);
+        Entry evicted = this.entries.getAndSet(index, new Entry(object, value));
+        if (evicted != null) {
+            evicted.value.releaseBytes();
+        }
+        return value;
+    }
+
+    private static class Entry {
+        final Object object;
+        final SimpleMarshalledValue<?> value;
+
+        Entry(Object object, SimpleMarshalledValue<?> value) {
+            this.object = object;
+            this.value = value;
+        }
+    }
+}
@@ -62,6 +62,8 @@ import org.wildfly.clustering.group.NodeFactory;
 import org.wildfly.clustering.registry.Registry;
 import org.wildfly.clustering.web.Batcher;
 import org.wildfly.clustering.web.infinispan.InfinispanWebLogger;
+import org.wildfly.clustering.web.infinispan.InfinispanWebMessages;
+import org.wildfly.clustering.web.infinispan.Remover;
 import org.wildfly.clustering.web.infinispan.Scheduler;
 import org.wildfly.clustering.web.session.ImmutableHttpSessionAdapter;
 import org.wildfly.clustering.web.session.ImmutableSession;
@@ -88,6 +90,7 @@ public class InfinispanSessionManager<V, L> implements SessionManager<L>, KeyGen
     private final NodeFactory<Address> nodeFactory;
     private final List<Scheduler<ImmutableSession>> schedulers = new CopyOnWriteArrayList<>();
     private final int maxActiveSessions;
+    private final JBossWebMetaData metaData;
     private volatile Time defaultMaxInactiveInterval = new Time(30, TimeUnit.MINUTES);
     private final boolean persistent;
 
@@ -100,6 +103,7 @@ public class InfinispanSessionManager<V, L> implements SessionManager<L>, KeyGen
         this.registry = registry;
         this.nodeFactory = nodeFactory;
         this.maxActiveSessions = metaData.getMaxActiveSessions().intValue();
+        this.metaData = metaData;
         Configuration config = cache.getCacheConfiguration();
         // If cache is clustered or configured with a write-through cache store
         // then we need to trigger any HttpSessionActivationListeners per request
@@ -111,9 +115,30 @@ public class InfinispanSessionManager<V, L> implements SessionManager<L>, KeyGen
     public void start() {
         this.cache.addListener(this, this);
         this.affinity.start();
-        this.schedulers.add(new SessionExpirationScheduler(this, new ExpiredSessionRemover<>(this.factory)));
+        this.schedulers.add(this.createExpirationScheduler());
         if (this.maxActiveSessions >= 0) {
-            this.schedulers.add(new SessionEvictionScheduler(this, this.factory, this.maxActiveSessions));
+            int batchSize = SessionContextParameters.EVICTION_BATCH_SIZE.getIntValue(this.metaData);
+            int concurrency = SessionContextParameters.EVICTION_CONCURRENCY.getIntValue(this.metaData);
+            this.schedulers.add(new SessionEvictionScheduler(this, this.factory, this.maxActiveSessions, batchSize, concurrency));
+        }
+    }
+
+    private Scheduler<ImmutableSession> createExpirationScheduler() {
+        Remover<String> remover = new ExpiredSessionRemover<>(this.factory);
+        String type = SessionContextParameters.EXPIRATION_SCHEDULER.getValue(this.metaData);
+        switch (type) {
+            case "default": {
+                return new SessionExpirationScheduler(this, remover);
+            }
+            case "timing-wheel": {
+                long tickDuration = SessionContextParameters.EXPIRATION_TICK_DURATION.getLongValue(this.metaData);
+                int wheelSize = SessionContextParameters.EXPIRATION_WHEEL_SIZE.getIntValue(this.metaData);
+                int batchSize = SessionContextParameters.EXPIRATION_BATCH_SIZE.getIntValue(this.metaData);
+                return new TimingWheelSessionExpirationScheduler(this, remover, tickDuration, wheelSize, batchSize);
+            }
+            default: {
+                throw InfinispanWebMessages.MESSAGES.unknownExpirationScheduler(type);
+            }
         }
     }
 
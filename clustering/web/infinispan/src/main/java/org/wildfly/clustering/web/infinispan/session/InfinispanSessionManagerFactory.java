@@ -30,7 +30,6 @@ import org.jboss.as.clustering.infinispan.invoker.RetryingCacheInvoker;
 import org.jboss.as.clustering.marshalling.MarshalledValue;
 import org.jboss.as.clustering.marshalling.MarshalledValueFactory;
 import org.jboss.as.clustering.marshalling.MarshallingContext;
-import org.jboss.as.clustering.marshalling.SimpleMarshalledValueFactory;
 import org.jboss.as.clustering.marshalling.SimpleMarshallingContextFactory;
 import org.jboss.metadata.web.jboss.JBossWebMetaData;
 import org.jboss.modules.Module;
@@ -42,6 +41,7 @@ import org.wildfly.clustering.group.NodeFactory;
 import org.wildfly.clustering.registry.Registry;
 import org.wildfly.clustering.web.LocalContextFactory;
 import org.wildfly.clustering.web.infinispan.InfinispanWebMessages;
+import org.wildfly.clustering.web.infinispan.session.coarse.CoarseDeltaSessionFactory;
 import org.wildfly.clustering.web.infinispan.session.coarse.CoarseSessionCacheEntry;
 import org.wildfly.clustering.web.infinispan.session.coarse.CoarseSessionFactory;
 import org.wildfly.clustering.web.infinispan.session.coarse.SessionAttributesCacheKey;
@@ -86,7 +86,7 @@ public class InfinispanSessionManagerFactory extends AbstractService<SessionMana
 
     private <L> SessionFactory<?, L> getSessionFactory(SessionContext context, LocalContextFactory<L> localContextFactory) {
         MarshallingContext marshallingContext = new SimpleMarshallingContextFactory().createMarshallingContext(new SessionAttributeMarshallingContext(this.module), this.module.getClassLoader());
-        MarshalledValueFactory<MarshallingContext> factory = new SimpleMarshalledValueFactory(marshallingContext);
+        MarshalledValueFactory<MarshallingContext> factory = new CachingMarshalledValueFactory(marshallingContext, SessionContextParameters.MARSHALLED_VALUE_CACHE_SIZE.getIntValue(this.metaData));
 
         switch (this.metaData.getReplicationConfig().getReplicationGranularity()) {
             case ATTRIBUTE: {
@@ -97,6 +97,11 @@ public class InfinispanSessionManagerFactory extends AbstractService<SessionMana
             }
             case SESSION: {
                 Cache<String, CoarseSessionCacheEntry<L>> sessionCache = this.cache.getValue();
+                if (SessionContextParameters.DELTA_REPLICATION.getBooleanValue(this.metaData)) {
+                    Cache<SessionAttributesCacheKey, Object> attributesCache = this.cache.getValue();
+                    SessionAttributeMarshaller<Object, MarshalledValue<Object, MarshallingContext>> marshaller = new MarshalledValueSessionAttributeMarshaller<>(factory, marshallingContext);
+                    return new CoarseDeltaSessionFactory<>(sessionCache, attributesCache, this.invoker, context, marshaller, localContextFactory);
+                }
                 Cache<SessionAttributesCacheKey, MarshalledValue<Map<String, Object>, MarshallingContext>> attributesCache = this.cache.getValue();
                 SessionAttributeMarshaller<Map<String, Object>, MarshalledValue<Map<String, Object>, MarshallingContext>> marshaller = new MarshalledValueSessionAttributeMarshaller<>(factory, marshallingContext);
                 return new CoarseSessionFactory<>(sessionCache, attributesCache, this.invoker, context, marshaller, localContextFactory);
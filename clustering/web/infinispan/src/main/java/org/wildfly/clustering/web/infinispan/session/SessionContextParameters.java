@@ -0,0 +1,138 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.web.infinispan.session;
+
+import java.util.List;
+
+import org.jboss.metadata.javaee.spec.ParamValueMetaData;
+import org.jboss.metadata.web.jboss.JBossWebMetaData;
+import org.wildfly.clustering.web.infinispan.InfinispanWebLogger;
+
+/**
+ * Per-deployment tuning of distributed session management, specified via servlet context parameters.
+ */
+public enum SessionContextParameters {
+    /**
+     * Selects the session expiration scheduler implementation, i.e. "default" or "timing-wheel".
+     */
+    EXPIRATION_SCHEDULER("expiration-scheduler", "default"),
+    /**
+     * Duration, in milliseconds, of a single bucket of the session expiration timing wheel.
+     */
+    EXPIRATION_TICK_DURATION("expiration-tick-duration", Long.toString(TimingWheelSessionExpirationScheduler.DEFAULT_TICK_DURATION)),
+    /**
+     * Number of buckets of the session expiration timing wheel.
+     */
+    EXPIRATION_WHEEL_SIZE("expiration-wheel-size", Integer.toString(TimingWheelSessionExpirationScheduler.DEFAULT_WHEEL_SIZE)),
+    /**
+     * Maximum number of expired sessions removed within a single batch.
+     */
+    EXPIRATION_BATCH_SIZE("expiration-batch-size", Integer.toString(TimingWheelSessionExpirationScheduler.DEFAULT_BATCH_SIZE)),
+    /**
+     * Number of least recently used sessions passivated within a single batch once max-active-sessions is exceeded.
+     */
+    EVICTION_BATCH_SIZE("eviction-batch-size", Integer.toString(SessionEvictionScheduler.DEFAULT_BATCH_SIZE)),
+    /**
+     * Number of lock stripes used to track active sessions for eviction.
+     */
+    EVICTION_CONCURRENCY("eviction-concurrency", Integer.toString(SessionEvictionScheduler.DEFAULT_CONCURRENCY)),
+    /**
+     * Indicates whether sessions using SESSION replication granularity should replicate only modified attributes, rather than the entire attribute map.
+     */
+    DELTA_REPLICATION("delta-replication", Boolean.FALSE.toString()),
+    /**
+     * Number of recently marshalled immutable session attribute values whose serialized form is reused, or 0 to disable.
+     */
+    MARSHALLED_VALUE_CACHE_SIZE("marshalled-value-cache-size", Integer.toString(CachingMarshalledValueFactory.DEFAULT_CACHE_SIZE)),
+    ;
+    private static final String PREFIX = "org.wildfly.clustering.web.session.";
+
+    private final String name;
+    private final String defaultValue;
+
+    private SessionContextParameters(String name, String defaultValue) {
+        this.name = PREFIX + name;
+        this.defaultValue = defaultValue;
+    }
+
+    /**
+     * Returns the name of the context parameter.
+     * @return a context parameter name
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Returns the value of this context parameter for the specified deployment, or its default value if undefined.
+     * @param metaData the deployment meta data
+     * @return the parameter value
+     */
+    public String getValue(JBossWebMetaData metaData) {
+        List<ParamValueMetaData> params = metaData.getContextParams();
+        if (params != null) {
+            for (ParamValueMetaData param: params) {
+                if (this.name.equals(param.getParamName())) {
+                    String value = param.getParamValue();
+                    if (value != null) {
+                        return value.trim();
+                    }
+                }
+            }
+        }
+        return this.defaultValue;
+    }
+
+    /**
+     * Returns the integer value of this context parameter for the specified deployment, or its default value if undefined or invalid.
+     * @param metaData the deployment meta data
+     * @return the parameter value
+     */
+    public int getIntValue(JBossWebMetaData metaData) {
+        String value = this.getValue(metaData);
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            InfinispanWebLogger.ROOT_LOGGER.invalidContextParameter(value, this.name, this.defaultValue);
+            return Integer.parseInt(this.defaultValue);
+        }
+    }
+
+    /**
+     * Returns the long value of this context parameter for the specified deployment, or its default value if undefined or invalid.
+     * @param metaData the deployment meta data
+     * @return the parameter value
+     */
+    public long getLongValue(JBossWebMetaData metaData) {
+        String value = this.getValue(metaData);
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            InfinispanWebLogger.ROOT_LOGGER.invalidContextParameter(value, this.name, this.defaultValue);
+            return Long.parseLong(this.defaultValue);
+        }
+    }
+
+    public boolean getBooleanValue(JBossWebMetaData metaData) {
+        return Boolean.parseBoolean(this.getValue(metaData));
+    }
+}
@@ -22,11 +22,17 @@
 package org.wildfly.clustering.web.infinispan.session;
 
 import java.security.AccessController;
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.jboss.threads.JBossThreadFactory;
 import org.wildfly.clustering.web.Batch;
@@ -39,18 +45,32 @@ import org.wildfly.security.manager.GetAccessControlContextAction;
 /**
  * Session eviction scheduler that eagerly evicts the oldest sessions when
  * the number of active sessions exceeds the configured maximum.
+ * Active sessions are tracked in lock-striped, access-ordered segments, each stamped with a global access sequence,
+ * such that scheduling, canceling and counting sessions are constant time operations,
+ * while eviction still selects the least recently used session across all segments.
  * @author Paul Ferraro
  */
 public class SessionEvictionScheduler implements Scheduler<ImmutableSession> {
 
-    final Queue<String> evictionQueue = new ConcurrentLinkedQueue<>();
+    public static final int DEFAULT_BATCH_SIZE = 1;
+    public static final int DEFAULT_CONCURRENCY = 16;
+
+    // Each segment maps session id -> access sequence, in ascending sequence order
+    private final List<Map<String, Long>> segments;
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicInteger size = new AtomicInteger();
     final Batcher batcher;
     final Evictor<String> evictor;
     private final ExecutorService executor;
     private final int maxSize;
+    private final int batchSize;
 
     public SessionEvictionScheduler(Batcher batcher, Evictor<String> evictor, int maxSize) {
-        this(batcher, evictor, maxSize, Executors.newCachedThreadPool(createThreadFactory()));
+        this(batcher, evictor, maxSize, DEFAULT_BATCH_SIZE, DEFAULT_CONCURRENCY);
+    }
+
+    public SessionEvictionScheduler(Batcher batcher, Evictor<String> evictor, int maxSize, int batchSize, int concurrency) {
+        this(batcher, evictor, maxSize, batchSize, concurrency, Executors.newCachedThreadPool(createThreadFactory()));
     }
 
     private static ThreadFactory createThreadFactory() {
@@ -58,40 +78,138 @@ public class SessionEvictionScheduler implements Scheduler<ImmutableSession> {
     }
 
     public SessionEvictionScheduler(Batcher batcher, Evictor<String> evictor, int maxSize, ExecutorService executor) {
+        this(batcher, evictor, maxSize, DEFAULT_BATCH_SIZE, DEFAULT_CONCURRENCY, executor);
+    }
+
+    public SessionEvictionScheduler(Batcher batcher, Evictor<String> evictor, int maxSize, int batchSize, int concurrency, ExecutorService executor) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException(Integer.toString(batchSize));
+        }
+        if (concurrency <= 0) {
+            throw new IllegalArgumentException(Integer.toString(concurrency));
+        }
         this.batcher = batcher;
         this.evictor = evictor;
         this.maxSize = maxSize;
+        this.batchSize = batchSize;
         this.executor = executor;
+        this.segments = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; ++i) {
+            this.segments.add(new LinkedHashMap<String, Long>());
+        }
+    }
+
+    private Map<String, Long> segmentFor(String id) {
+        int hash = id.hashCode();
+        // Spread bits, since session identifiers may share a common suffix
+        hash ^= (hash >>> 16);
+        return this.segments.get((hash & Integer.MAX_VALUE) % this.segments.size());
     }
 
     @Override
     public void cancel(ImmutableSession session) {
-        this.evictionQueue.remove(session.getId());
+        String id = session.getId();
+        Map<String, Long> segment = this.segmentFor(id);
+        synchronized (segment) {
+            if (segment.remove(id) != null) {
+                this.size.decrementAndGet();
+            }
+        }
     }
 
     @Override
     public void schedule(ImmutableSession session) {
-        this.evictionQueue.add(session.getId());
+        String id = session.getId();
+        Map<String, Long> segment = this.segmentFor(id);
+        synchronized (segment) {
+            // Re-insert to move this session to the tail of its segment
+            if (segment.remove(id) == null) {
+                this.size.incrementAndGet();
+            }
+            segment.put(id, this.sequence.incrementAndGet());
+        }
         // Trigger eviction of oldest sessions if necessary
-        while (this.evictionQueue.size() > this.maxSize) {
-            String id = this.evictionQueue.poll();
-            if (id != null) {
-                this.executor.submit(new EvictionTask(id));
+        int excess = this.size.get() - this.maxSize;
+        if (excess > 0) {
+            // In batch mode, evict a full batch of the oldest sessions at once
+            int count = Math.max(excess, this.batchSize);
+            List<String> ids = new ArrayList<>(count);
+            while (ids.size() < count) {
+                String oldest = this.poll();
+                if (oldest == null) break;
+                ids.add(oldest);
             }
+            if (this.batchSize > 1) {
+                if (!ids.isEmpty()) {
+                    this.executor.submit(new EvictionTask(ids));
+                }
+            } else {
+                for (String oldest: ids) {
+                    this.executor.submit(new EvictionTask(Collections.singletonList(oldest)));
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of sessions eligible for eviction.
+     * @return the number of active sessions
+     */
+    public int size() {
+        return this.size.get();
+    }
+
+    /**
+     * Removes the least recently used session across all segments.
+     * @return the identifier of the least recently used session, or null if there are no active sessions.
+     */
+    private String poll() {
+        while (this.size.get() > 0) {
+            Map<String, Long> oldestSegment = null;
+            long oldestSequence = Long.MAX_VALUE;
+            for (Map<String, Long> segment: this.segments) {
+                synchronized (segment) {
+                    Iterator<Long> sequences = segment.values().iterator();
+                    if (sequences.hasNext()) {
+                        long sequence = sequences.next();
+                        if (sequence < oldestSequence) {
+                            oldestSequence = sequence;
+                            oldestSegment = segment;
+                        }
+                    }
+                }
+            }
+            if (oldestSegment == null) return null;
+            synchronized (oldestSegment) {
+                Iterator<String> ids = oldestSegment.keySet().iterator();
+                if (ids.hasNext()) {
+                    String id = ids.next();
+                    ids.remove();
+                    this.size.decrementAndGet();
+                    return id;
+                }
+            }
+            // Segment was concurrently emptied, try again
         }
+        return null;
     }
 
     @Override
     public void close() {
-        this.evictionQueue.clear();
+        for (Map<String, Long> segment: this.segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+        this.size.set(0);
         this.executor.shutdown();
     }
 
     private class EvictionTask implements Runnable {
-        private final String id;
+        private final List<String> ids;
 
-        EvictionTask(String id) {
-            this.id = id;
+        EvictionTask(List<String> ids) {
+            this.ids = ids;
         }
 
         @Override
@@ -99,7 +217,9 @@ public class SessionEvictionScheduler implements Scheduler<ImmutableSession> {
             Batch batch = SessionEvictionScheduler.this.batcher.startBatch();
             boolean success = false;
             try {
-                SessionEvictionScheduler.this.evictor.evict(this.id);
+                for (String id: this.ids) {
+                    SessionEvictionScheduler.this.evictor.evict(id);
+                }
                 success = true;
             } finally {
                 if (success) {
@@ -0,0 +1,243 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.web.infinispan.session;
+
+import java.security.AccessController;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.threads.JBossThreadFactory;
+import org.wildfly.clustering.web.Batch;
+import org.wildfly.clustering.web.Batcher;
+import org.wildfly.clustering.web.infinispan.InfinispanWebLogger;
+import org.wildfly.clustering.web.infinispan.Remover;
+import org.wildfly.clustering.web.infinispan.Scheduler;
+import org.wildfly.clustering.web.session.ImmutableSession;
+import org.wildfly.security.manager.GetAccessControlContextAction;
+
+/**
+ * Session expiration scheduler backed by a hashed timing wheel.
+ * Instead of one scheduled future per session, sessions are hashed into coarse-grained buckets by expiration tick,
+ * such that scheduling and canceling are constant time operations, independent of the number of scheduled sessions.
+ * A single timer thread advances the wheel once per tick and removes any expired sessions in batches.
+ * Sessions may expire up to one tick later than they would using {@link SessionExpirationScheduler}, but never sooner.
+ */
+public class TimingWheelSessionExpirationScheduler implements Scheduler<ImmutableSession> {
+
+    public static final long DEFAULT_TICK_DURATION = TimeUnit.SECONDS.toMillis(1);
+    public static final int DEFAULT_WHEEL_SIZE = 512;
+    public static final int DEFAULT_BATCH_SIZE = 100;
+
+    final ConcurrentMap<String, Expiration> expirations = new ConcurrentHashMap<>();
+    private final List<Set<Expiration>> wheel;
+    private final int mask;
+    private final long tickDuration;
+    private final int batchSize;
+    private final Batcher batcher;
+    private final Remover<String> remover;
+    private final ScheduledExecutorService executor;
+    // Only accessed by the timer thread
+    private long lastTick;
+
+    public TimingWheelSessionExpirationScheduler(Batcher batcher, Remover<String> remover) {
+        this(batcher, remover, DEFAULT_TICK_DURATION, DEFAULT_WHEEL_SIZE, DEFAULT_BATCH_SIZE);
+    }
+
+    public TimingWheelSessionExpirationScheduler(Batcher batcher, Remover<String> remover, long tickDuration, int wheelSize, int batchSize) {
+        this(batcher, remover, tickDuration, wheelSize, batchSize, Executors.newSingleThreadScheduledExecutor(createThreadFactory()));
+    }
+
+    private static ThreadFactory createThreadFactory() {
+        return new JBossThreadFactory(new ThreadGroup(TimingWheelSessionExpirationScheduler.class.getSimpleName()), Boolean.FALSE, null, "%G - %t", null, null, AccessController.doPrivileged(GetAccessControlContextAction.getInstance()));
+    }
+
+    public TimingWheelSessionExpirationScheduler(Batcher batcher, Remover<String> remover, long tickDuration, int wheelSize, int batchSize, ScheduledExecutorService executor) {
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException(Long.toString(tickDuration));
+        }
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException(Integer.toString(batchSize));
+        }
+        this.batcher = batcher;
+        this.remover = remover;
+        this.tickDuration = tickDuration;
+        this.batchSize = batchSize;
+        this.executor = executor;
+        // Round wheel size up to a power of 2, so we can use a mask instead of a modulus
+        int size = (wheelSize > 1) ? Integer.highestOneBit(wheelSize - 1) << 1 : 1;
+        this.mask = size - 1;
+        this.wheel = new ArrayList<>(size);
+        for (int i = 0; i < size; ++i) {
+            this.wheel.add(Collections.newSetFromMap(new ConcurrentHashMap<Expiration, Boolean>()));
+        }
+        this.lastTick = this.currentTick();
+        this.executor.scheduleWithFixedDelay(new TickTask(), tickDuration, tickDuration, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void cancel(ImmutableSession session) {
+        Expiration expiration = this.expirations.remove(session.getId());
+        if (expiration != null) {
+            this.wheel.get(expiration.bucket).remove(expiration);
+        }
+    }
+
+    @Override
+    public void schedule(ImmutableSession session) {
+        long timeout = session.getMetaData().getMaxInactiveInterval(TimeUnit.MILLISECONDS);
+        if (timeout > 0) {
+            String id = session.getId();
+            InfinispanWebLogger.ROOT_LOGGER.tracef("Session %s will expire in %d ms", id, timeout);
+            long time = System.currentTimeMillis() + timeout;
+            // Round up to the next tick, so that we never expire a session early
+            long tick = (time + this.tickDuration - 1) / this.tickDuration;
+            Expiration expiration = new Expiration(id, time, (int) (tick & this.mask));
+            Expiration previous = this.expirations.put(id, expiration);
+            this.wheel.get(expiration.bucket).add(expiration);
+            if (previous != null) {
+                this.wheel.get(previous.bucket).remove(previous);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of sessions currently scheduled for expiration.
+     * @return the number of scheduled sessions
+     */
+    public int size() {
+        return this.expirations.size();
+    }
+
+    @Override
+    public void close() {
+        this.executor.shutdown();
+        this.expirations.clear();
+        for (Set<Expiration> bucket: this.wheel) {
+            bucket.clear();
+        }
+    }
+
+    private long currentTick() {
+        return System.currentTimeMillis() / this.tickDuration;
+    }
+
+    void tick() {
+        this.tick(System.currentTimeMillis());
+    }
+
+    void tick(long now) {
+        long currentTick = now / this.tickDuration;
+        // Process every tick since the last run, bounded by a single rotation of the wheel
+        long firstTick = Math.max(this.lastTick + 1, currentTick - this.mask);
+        List<String> expired = new ArrayList<>();
+        for (long tick = firstTick; tick <= currentTick; ++tick) {
+            Iterator<Expiration> expirations = this.wheel.get((int) (tick & this.mask)).iterator();
+            while (expirations.hasNext()) {
+                Expiration expiration = expirations.next();
+                // Expirations scheduled for a subsequent rotation of the wheel remain in their bucket
+                if (expiration.time <= now) {
+                    expirations.remove();
+                    // Skip expirations that were concurrently canceled or rescheduled
+                    if (this.expirations.remove(expiration.id, expiration)) {
+                        expired.add(expiration.id);
+                    }
+                }
+            }
+        }
+        this.lastTick = currentTick;
+        if (!expired.isEmpty()) {
+            this.expire(expired);
+        }
+    }
+
+    private void expire(List<String> ids) {
+        int size = ids.size();
+        for (int start = 0; start < size; start += this.batchSize) {
+            List<String> batchIds = ids.subList(start, Math.min(start + this.batchSize, size));
+            if (!this.expire(batchIds, false)) {
+                // These sessions were already removed from the wheel, so retry each session within its own batch
+                for (String id: batchIds) {
+                    this.expire(Collections.singletonList(id), true);
+                }
+            }
+        }
+    }
+
+    private boolean expire(List<String> ids, boolean individually) {
+        Batch batch = this.batcher.startBatch();
+        boolean success = false;
+        try {
+            for (String id: ids) {
+                InfinispanWebLogger.ROOT_LOGGER.tracef("Expiring session %s", id);
+                this.remover.remove(id);
+            }
+            success = true;
+        } catch (RuntimeException e) {
+            if (individually) {
+                InfinispanWebLogger.ROOT_LOGGER.failedToExpireSession(e, ids.get(0));
+            } else {
+                InfinispanWebLogger.ROOT_LOGGER.failedToExpireSessions(e, ids.size());
+            }
+        } finally {
+            if (success) {
+                batch.close();
+            } else {
+                batch.discard();
+            }
+        }
+        return success;
+    }
+
+    private class TickTask implements Runnable {
+        @Override
+        public void run() {
+            try {
+                TimingWheelSessionExpirationScheduler.this.tick();
+            } catch (Throwable e) {
+                // An exception escaping this task would cancel all subsequent ticks
+                InfinispanWebLogger.ROOT_LOGGER.failedToProcessExpiredSessions(e);
+            }
+        }
+    }
+
+    // Uses identity equality, so that a rescheduled session never collides with its previous expiration
+    static class Expiration {
+        final String id;
+        final long time;
+        final int bucket;
+
+        Expiration(String id, long time, int bucket) {
+            this.id = id;
+            this.time = time;
+            this.bucket = bucket;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.web.infinispan.session.coarse;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.infinispan.Cache;
+import org.infinispan.context.Flag;
+import org.jboss.as.clustering.infinispan.invoker.CacheInvoker;
+import org.jboss.as.clustering.infinispan.invoker.CacheInvoker.Operation;
+import org.jboss.as.clustering.marshalling.MarshalledValue;
+import org.jboss.as.clustering.marshalling.MarshallingContext;
+import org.wildfly.clustering.web.infinispan.CacheMutator;
+import org.wildfly.clustering.web.infinispan.Mutator;
+import org.wildfly.clustering.web.infinispan.session.SessionAttributeMarshaller;
+import org.wildfly.clustering.web.session.SessionAttributes;
+
+/**
+ * Exposes session attributes for a coarse granularity session whose attributes are replicated via deltas.
+ * Attributes set, removed, or mutable attributes read during a request are collected into a single {@link CoarseSessionAttributesDelta},
+ * written when the session is closed, via {@link #mutate()}, such that unmodified attributes are neither marshalled nor replicated.
+ */
+public class CoarseDeltaSessionAttributes extends CoarseDeltaImmutableSessionAttributes implements SessionAttributes, Mutator {
+    private final Cache<SessionAttributesCacheKey, Object> cache;
+    private final CacheInvoker invoker;
+    private final SessionAttributesCacheKey key;
+    private final Map<String, MarshalledValue<Object, MarshallingContext>> updates = new ConcurrentHashMap<>();
+    private final Set<String> removals = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    public CoarseDeltaSessionAttributes(String id, CoarseSessionAttributesEntry entry, Cache<SessionAttributesCacheKey, Object> cache, CacheInvoker invoker, SessionAttributeMarshaller<Object, MarshalledValue<Object, MarshallingContext>> marshaller) {
+        super(entry, marshaller);
+        this.cache = cache;
+        this.invoker = invoker;
+        this.key = new SessionAttributesCacheKey(id);
+    }
+
+    @Override
+    public Object removeAttribute(String name) {
+        MarshalledValue<Object, MarshallingContext> value = this.getEntry().getAttributes().remove(name);
+        this.updates.remove(name);
+        if (value == null) return null;
+        this.removals.add(name);
+        return this.getMarshaller().read(value);
+    }
+
+    @Override
+    public Object setAttribute(String name, Object attribute) {
+        if (attribute == null) {
+            return this.removeAttribute(name);
+        }
+        MarshalledValue<Object, MarshallingContext> value = this.getMarshaller().write(attribute);
+        MarshalledValue<Object, MarshallingContext> old = this.getEntry().getAttributes().put(name, value);
+        this.removals.remove(name);
+        this.updates.put(name, value);
+        return this.getMarshaller().read(old);
+    }
+
+    @Override
+    public Object getAttribute(String name) {
+        MarshalledValue<Object, MarshallingContext> value = this.getEntry().getAttributes().get(name);
+        Object attribute = this.getMarshaller().read(value);
+        // If the object is mutable, we need to replicate the attribute if it changes before the session is closed
+        if ((attribute != null) && CacheMutator.isMutable(attribute)) {
+            this.updates.putIfAbsent(name, value);
+        }
+        return attribute;
+    }
+
+    /**
+     * Writes the attributes modified since the last mutation as a single delta.
+     */
+    @Override
+    public void mutate() {
+        if (this.updates.isEmpty() && this.removals.isEmpty()) return;
+        final CoarseSessionAttributesDelta delta = new CoarseSessionAttributesDelta(new HashMap<>(this.updates), new HashSet<>(this.removals));
+        this.updates.clear();
+        this.removals.clear();
+        Operation<SessionAttributesCacheKey, Object, Void> operation = new Operation<SessionAttributesCacheKey, Object, Void>() {
+            @Override
+            public Void invoke(Cache<SessionAttributesCacheKey, Object> cache) {
+                // Merged into the existing entry by each owner
+                cache.put(CoarseDeltaSessionAttributes.this.key, delta);
+                return null;
+            }
+        };
+        this.invoker.invoke(this.cache, operation, Flag.SKIP_LOCKING);
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.web.infinispan.session.coarse;
+
+import org.infinispan.Cache;
+import org.infinispan.context.Flag;
+import org.jboss.as.clustering.infinispan.invoker.CacheInvoker;
+import org.jboss.as.clustering.marshalling.MarshalledValue;
+import org.jboss.as.clustering.marshalling.MarshallingContext;
+import org.wildfly.clustering.web.LocalContextFactory;
+import org.wildfly.clustering.web.infinispan.CacheMutator;
+import org.wildfly.clustering.web.infinispan.Mutator;
+import org.wildfly.clustering.web.infinispan.session.InfinispanImmutableSession;
+import org.wildfly.clustering.web.infinispan.session.InfinispanSession;
+import org.wildfly.clustering.web.infinispan.session.SessionAttributeMarshaller;
+import org.wildfly.clustering.web.infinispan.session.SessionFactory;
+import org.wildfly.clustering.web.infinispan.session.SimpleSessionMetaData;
+import org.wildfly.clustering.web.session.ImmutableSession;
+import org.wildfly.clustering.web.session.ImmutableSessionAttributes;
+import org.wildfly.clustering.web.session.Session;
+import org.wildfly.clustering.web.session.SessionContext;
+import org.wildfly.clustering.web.session.SessionMetaData;
+
+/**
+ * {@link SessionFactory} for coarse granularity sessions whose attributes are replicated via deltas.
+ * Like {@link CoarseSessionFactory}, a given session is mapped to 2 co-located cache entries, one containing the session meta data and local context
+ * and the other containing the session attributes.  However, each attribute is marshalled independently, such that a request need only replicate
+ * the attributes it modified, rather than the entire attribute map.
+ */
+public class CoarseDeltaSessionFactory<L> implements SessionFactory<CoarseDeltaSessionEntry<L>, L> {
+
+    private final SessionContext context;
+    private final Cache<String, CoarseSessionCacheEntry<L>> sessionCache;
+    private final Cache<SessionAttributesCacheKey, Object> attributesCache;
+    private final CacheInvoker invoker;
+    private final SessionAttributeMarshaller<Object, MarshalledValue<Object, MarshallingContext>> marshaller;
+    private final LocalContextFactory<L> localContextFactory;
+
+    public CoarseDeltaSessionFactory(Cache<String, CoarseSessionCacheEntry<L>> sessionCache, Cache<SessionAttributesCacheKey, Object> attributesCache, CacheInvoker invoker, SessionContext context, SessionAttributeMarshaller<Object, MarshalledValue<Object, MarshallingContext>> marshaller, LocalContextFactory<L> localContextFactory) {
+        this.sessionCache = sessionCache;
+        this.attributesCache = attributesCache;
+        this.invoker = invoker;
+        this.context = context;
+        this.marshaller = marshaller;
+        this.localContextFactory = localContextFactory;
+    }
+
+    @Override
+    public Session<L> createSession(String id, CoarseDeltaSessionEntry<L> entry) {
+        CoarseSessionCacheEntry<L> cacheEntry = entry.getCacheEntry();
+        SessionMetaData metaData = cacheEntry.getMetaData();
+        final CoarseDeltaSessionAttributes attributes = new CoarseDeltaSessionAttributes(id, entry.getAttributes(), this.attributesCache, this.invoker, this.marshaller);
+        // New entries are written in full when the batch is committed
+        final Mutator attributesMutator = metaData.isNew() ? Mutator.PASSIVE : attributes;
+        final Mutator entryMutator = metaData.isNew() ? Mutator.PASSIVE : new CacheMutator<>(this.sessionCache, this.invoker, id, cacheEntry);
+        Mutator mutator = new Mutator() {
+            @Override
+            public void mutate() {
+                attributesMutator.mutate();
+                entryMutator.mutate();
+            }
+        };
+        return new InfinispanSession<>(id, metaData, attributes, cacheEntry.getLocalContext(), this.localContextFactory, this.context, mutator, this);
+    }
+
+    @Override
+    public ImmutableSession createImmutableSession(String id, CoarseDeltaSessionEntry<L> entry) {
+        CoarseSessionCacheEntry<L> cacheEntry = entry.getCacheEntry();
+        ImmutableSessionAttributes attributes = new CoarseDeltaImmutableSessionAttributes(entry.getAttributes(), this.marshaller);
+        return new InfinispanImmutableSession(id, cacheEntry.getMetaData(), attributes, this.context);
+    }
+
+    @Override
+    public CoarseDeltaSessionEntry<L> createValue(String id) {
+        CoarseSessionCacheEntry<L> cacheEntry = new CoarseSessionCacheEntry<>(new SimpleSessionMetaData());
+        CoarseSessionCacheEntry<L> existingCacheEntry = this.invoker.invoke(this.sessionCache, new CreateOperation<>(id, cacheEntry));
+        if (existingCacheEntry != null) {
+            return new CoarseDeltaSessionEntry<>(existingCacheEntry, this.findAttributes(id));
+        }
+        CoarseSessionAttributesEntry attributes = new CoarseSessionAttributesEntry();
+        Object existingAttributes = this.invoker.invoke(this.attributesCache, new CreateOperation<SessionAttributesCacheKey, Object>(new SessionAttributesCacheKey(id), attributes), Flag.SKIP_LOCKING);
+        return new CoarseDeltaSessionEntry<>(cacheEntry, (existingAttributes != null) ? (CoarseSessionAttributesEntry) existingAttributes : attributes);
+    }
+
+    @Override
+    public CoarseDeltaSessionEntry<L> findValue(String id) {
+        CoarseSessionCacheEntry<L> entry = this.invoker.invoke(this.sessionCache, new FindOperation<String, CoarseSessionCacheEntry<L>>(id));
+        if (entry == null) return null;
+        return new CoarseDeltaSessionEntry<>(entry, this.findAttributes(id));
+    }
+
+    private CoarseSessionAttributesEntry findAttributes(String id) {
+        Object attributes = this.invoker.invoke(this.attributesCache, new FindOperation<SessionAttributesCacheKey, Object>(new SessionAttributesCacheKey(id)), Flag.SKIP_LOCKING);
+        return (attributes != null) ? (CoarseSessionAttributesEntry) attributes : new CoarseSessionAttributesEntry();
+    }
+
+    @Override
+    public void remove(String id) {
+        this.invoker.invoke(this.sessionCache, new RemoveOperation<String, CoarseSessionCacheEntry<L>>(id), Flag.IGNORE_RETURN_VALUES);
+        this.invoker.invoke(this.attributesCache, new RemoveOperation<SessionAttributesCacheKey, Object>(new SessionAttributesCacheKey(id)), Flag.IGNORE_RETURN_VALUES, Flag.SKIP_LOCKING);
+    }
+
+    @Override
+    public void evict(String id) {
+        if (this.invoker.invoke(this.sessionCache, new LockingEvictOperation<String, CoarseSessionCacheEntry<L>>(id), Flag.FAIL_SILENTLY).booleanValue()) {
+            this.invoker.invoke(this.attributesCache, new EvictOperation<SessionAttributesCacheKey, Object>(new SessionAttributesCacheKey(id)), Flag.FAIL_SILENTLY);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.web.infinispan.session.coarse;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.infinispan.atomic.Delta;
+import org.infinispan.atomic.DeltaAware;
+import org.jboss.as.clustering.marshalling.MarshalledValue;
+import org.jboss.as.clustering.marshalling.MarshallingContext;
+
+/**
+ * The attributes of a coarse granularity session that were set or removed by a request.
+ * When put into the cache, Infinispan merges this delta into the existing {@link CoarseSessionAttributesEntry},
+ * such that only the modified attributes are replicated.
+ */
+public class CoarseSessionAttributesDelta implements Delta {
+
+    private final Map<String, MarshalledValue<Object, MarshallingContext>> updates;
+    private final Set<String> removals;
+
+    public CoarseSessionAttributesDelta(Map<String, MarshalledValue<Object, MarshallingContext>> updates, Set<String> removals) {
+        this.updates = updates;
+        this.removals = removals;
+    }
+
+    public Map<String, MarshalledValue<Object, MarshallingContext>> getUpdates() {
+        return this.updates;
+    }
+
+    public Set<String> getRemovals() {
+        return this.removals;
+    }
+
+    @Override
+    public DeltaAware merge(DeltaAware entry) {
+        // Merge into a copy, so that concurrent readers of the existing entry are unaffected
+        Map<String, MarshalledValue<Object, MarshallingContext>> attributes = (entry instanceof CoarseSessionAttributesEntry) ? new ConcurrentHashMap<>(((CoarseSessionAttributesEntry) entry).getAttributes()) : new ConcurrentHashMap<String, MarshalledValue<Object, MarshallingContext>>();
+        for (String removal: this.removals) {
+            attributes.remove(removal);
+        }
+        attributes.putAll(this.updates);
+        return new CoarseSessionAttributesEntry(attributes);
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.web.infinispan.session.coarse;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.jboss.as.clustering.infinispan.io.AbstractSimpleExternalizer;
+import org.jboss.as.clustering.marshalling.MarshalledValue;
+import org.jboss.as.clustering.marshalling.MarshallingContext;
+
+/**
+ * Externalizer for {@link CoarseSessionAttributesDelta}.
+ */
+public class CoarseSessionAttributesDeltaExternalizer extends AbstractSimpleExternalizer<CoarseSessionAttributesDelta> {
+    private static final long serialVersionUID = -4377536519311327916L;
+
+    public CoarseSessionAttributesDeltaExternalizer() {
+        super(CoarseSessionAttributesDelta.class);
+    }
+
+    @Override
+    public void writeObject(ObjectOutput output, CoarseSessionAttributesDelta delta) throws IOException {
+        CoarseSessionAttributesEntryExternalizer.writeAttributes(output, delta.getUpdates());
+        Set<String> removals = delta.getRemovals();
+        output.writeInt(removals.size());
+        for (String removal: removals) {
+            output.writeUTF(removal);
+        }
+    }
+
+    @Override
+    public CoarseSessionAttributesDelta readObject(ObjectInput input) throws IOException, ClassNotFoundException {
+        Map<String, MarshalledValue<Object, MarshallingContext>> updates = new HashMap<>();
+        CoarseSessionAttributesEntryExternalizer.readAttributes(input, updates);
+        int size = input.readInt();
+        Set<String> removals = new HashSet<>(size);
+        for (int i = 0; i < size; ++i) {
+            removals.add(input.readUTF());
+        }
+        return new CoarseSessionAttributesDelta(updates, removals);
+    }
+}
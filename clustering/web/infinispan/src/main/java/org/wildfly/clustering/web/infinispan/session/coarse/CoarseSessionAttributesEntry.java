@@ -0,0 +1,63 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.web.infinispan.session.coarse;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.infinispan.atomic.Delta;
+import org.infinispan.atomic.DeltaAware;
+import org.jboss.as.clustering.marshalling.MarshalledValue;
+import org.jboss.as.clustering.marshalling.MarshallingContext;
+
+/**
+ * Cache entry containing the attributes of a coarse granularity session, where each attribute is marshalled independently.
+ * Modifications to this entry are replicated via a {@link CoarseSessionAttributesDelta}, which is merged into this entry by each owner.
+ */
+public class CoarseSessionAttributesEntry implements DeltaAware {
+
+    private final Map<String, MarshalledValue<Object, MarshallingContext>> attributes;
+
+    public CoarseSessionAttributesEntry() {
+        this(new ConcurrentHashMap<String, MarshalledValue<Object, MarshallingContext>>());
+    }
+
+    public CoarseSessionAttributesEntry(Map<String, MarshalledValue<Object, MarshallingContext>> attributes) {
+        this.attributes = attributes;
+    }
+
+    public Map<String, MarshalledValue<Object, MarshallingContext>> getAttributes() {
+        return this.attributes;
+    }
+
+    @Override
+    public Delta delta() {
+        return new CoarseSessionAttributesDelta(new HashMap<>(this.attributes), Collections.<String>emptySet());
+    }
+
+    @Override
+    public void commit() {
+        // Modifications are tracked by the session attributes, not by this entry
+    }
+}
@@ -21,26 +21,42 @@
  */
 package org.wildfly.clustering.web.infinispan.session.fine;
 
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.infinispan.Cache;
 import org.infinispan.context.Flag;
 import org.jboss.as.clustering.infinispan.invoker.CacheInvoker;
 import org.jboss.as.clustering.infinispan.invoker.CacheInvoker.Operation;
+import org.jboss.as.clustering.marshalling.SimpleMarshalledValue;
 import org.wildfly.clustering.web.infinispan.CacheMutator;
+import org.wildfly.clustering.web.infinispan.Mutator;
 import org.wildfly.clustering.web.infinispan.Remover;
 import org.wildfly.clustering.web.infinispan.session.SessionAttributeMarshaller;
 import org.wildfly.clustering.web.session.SessionAttributes;
 
 /**
  * Exposes session attributes for fine granularity sessions.
+ * Attribute writes, including reads of mutable attributes, are deferred until the session is closed, via {@link #mutate()},
+ * such that each attribute is written at most once per request.
+ * Mutable attributes that were only read are written only if the digest of their serialized form has changed since they were read.
+ * Written values keep the serialized form computed for that comparison, so that they are not marshalled again when replicated.
  * @author Paul Ferraro
  */
-public class FineSessionAttributes<V> extends FineImmutableSessionAttributes<V> implements SessionAttributes {
+public class FineSessionAttributes<V> extends FineImmutableSessionAttributes<V> implements SessionAttributes, Mutator {
     private final Set<String> attributes;
     private final Cache<SessionAttributeCacheKey, V> cache;
     private final CacheInvoker invoker;
     private final SessionAttributeMarshaller<Object, V> marshaller;
+    // Attributes to write when the session is closed
+    private final Map<String, Object> mutations = new ConcurrentHashMap<>();
+    // Digest of the serialized form of mutable attributes as of when they were read
+    private final Map<String, byte[]> snapshots = new ConcurrentHashMap<>();
 
     public FineSessionAttributes(String id, Set<String> attributes, Cache<SessionAttributeCacheKey, V> attributeCache, CacheInvoker invoker, SessionAttributeMarshaller<Object, V> marshaller) {
         super(id, attributes, attributeCache, invoker, marshaller);
@@ -52,7 +68,12 @@ public class FineSessionAttributes<V> extends FineImmutableSessionAttributes<V>
 
     @Override
     public Object removeAttribute(String name) {
-        return this.attributes.remove(name) ? this.marshaller.read(this.invoker.invoke(this.cache, new Remover.RemoveOperation<SessionAttributeCacheKey, V>(this.createKey(name)), Flag.SKIP_LOCKING)) : null;
+        Object pending = this.mutations.remove(name);
+        this.snapshots.remove(name);
+        if (!this.attributes.remove(name)) return null;
+        Object removed = this.marshaller.read(this.invoker.invoke(this.cache, new Remover.RemoveOperation<SessionAttributeCacheKey, V>(this.createKey(name)), Flag.SKIP_LOCKING));
+        // A pending attribute may not yet exist in the cache
+        return (pending != null) ? pending : removed;
     }
 
     @Override
@@ -60,27 +81,96 @@ public class FineSessionAttributes<V> extends FineImmutableSessionAttributes<V>
         if (attribute == null) {
             return this.removeAttribute(name);
         }
-        final SessionAttributeCacheKey key = this.createKey(name);
-        final V value = this.marshaller.write(attribute);
-        Operation<SessionAttributeCacheKey, V, V> operation = new Operation<SessionAttributeCacheKey, V, V>() {
-            @Override
-            public V invoke(Cache<SessionAttributeCacheKey, V> cache) {
-                return cache.put(key, value);
-            }
-        };
-        return this.marshaller.read(this.invoker.invoke(this.cache, operation, this.attributes.add(name) ? new Flag[] { Flag.IGNORE_RETURN_VALUES, Flag.SKIP_LOCKING } : new Flag[] { Flag.SKIP_LOCKING }));
+        Object pending = this.mutations.put(name, attribute);
+        // Explicitly set attributes are always written
+        this.snapshots.remove(name);
+        if (this.attributes.add(name)) return null;
+        if (pending != null) return pending;
+        V value = this.getAttributeValue(this.createKey(name));
+        return (value != null) ? this.marshaller.read(value) : null;
     }
 
     @Override
     public Object getAttribute(String name) {
+        Object pending = this.mutations.get(name);
+        if (pending != null) return pending;
         SessionAttributeCacheKey key = this.createKey(name);
         V value = this.getAttributeValue(key);
         if (value == null) return null;
         Object attribute = this.marshaller.read(value);
-        // If the object is mutable, we need to indicate that the attribute should be replicated
+        // If the object is mutable, we need to replicate the attribute if it changes before the session is closed
         if (CacheMutator.isMutable(attribute)) {
-            new CacheMutator<>(this.cache, this.invoker, key, value, Flag.SKIP_LOCKING).mutate();
+            if (this.mutations.putIfAbsent(name, attribute) == null) {
+                byte[] bytes = getBytes(this.marshaller.write(attribute));
+                if (bytes != null) {
+                    this.snapshots.put(name, digest(bytes));
+                }
+            }
         }
         return attribute;
     }
+
+    /**
+     * Writes all attributes that were set, or mutable attributes that were read and have since changed, in a single cache operation.
+     */
+    @Override
+    public void mutate() {
+        if (this.mutations.isEmpty()) return;
+        final Map<SessionAttributeCacheKey, V> values = new HashMap<>();
+        for (Map.Entry<String, Object> entry : this.mutations.entrySet()) {
+            String name = entry.getKey();
+            V value = this.marshaller.write(entry.getValue());
+            byte[] bytes = serialize(value);
+            byte[] snapshot = this.snapshots.get(name);
+            if ((snapshot == null) || (bytes == null) || !MessageDigest.isEqual(snapshot, digest(bytes))) {
+                values.put(this.createKey(name), value);
+            }
+        }
+        this.mutations.clear();
+        this.snapshots.clear();
+        if (!values.isEmpty()) {
+            Operation<SessionAttributeCacheKey, V, Void> operation = new Operation<SessionAttributeCacheKey, V, Void>() {
+                @Override
+                public Void invoke(Cache<SessionAttributeCacheKey, V> cache) {
+                    cache.putAll(values);
+                    return null;
+                }
+            };
+            this.invoker.invoke(this.cache, operation, Flag.IGNORE_RETURN_VALUES, Flag.SKIP_LOCKING);
+        }
+    }
+
+    private static byte[] getBytes(Object value) {
+        if (value instanceof SimpleMarshalledValue) {
+            try {
+                return ((SimpleMarshalledValue<?>) value).getBytes();
+            } catch (IOException e) {
+                // Treat the attribute as changed
+                return null;
+            }
+        }
+        // Values of other types cannot be compared, so are always written
+        return null;
+    }
+
+    // Unlike getBytes(...), the value keeps its serialized form, which is then not marshalled again when replicated
+    private static byte[] serialize(Object value) {
+        if (value instanceof SimpleMarshalledValue) {
+            try {
+                return ((SimpleMarshalledValue<?>) value).serialize();
+            } catch (IOException e) {
+                // Treat the attribute as changed
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private static byte[] digest(byte[] bytes) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(bytes);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
 }
@@ -0,0 +1,105 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.web.infinispan.session;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+
+import org.jboss.as.clustering.marshalling.MarshallingContext;
+import org.jboss.as.clustering.marshalling.SimpleMarshalledValue;
+import org.jboss.as.clustering.marshalling.SimpleMarshallingContext;
+import org.jboss.as.clustering.marshalling.VersionedMarshallingConfiguration;
+import org.jboss.marshalling.Marshalling;
+import org.jboss.marshalling.MarshallingConfiguration;
+import org.junit.Test;
+
+public class CachingMarshalledValueFactoryTestCase {
+
+    private static MarshallingContext createContext() {
+        VersionedMarshallingConfiguration configuration = new VersionedMarshallingConfiguration() {
+            @Override
+            public int getCurrentMarshallingVersion() {
+                return 0;
+            }
+
+            @Override
+            public MarshallingConfiguration getMarshallingConfiguration(int version) {
+                return new MarshallingConfiguration();
+            }
+        };
+        return new SimpleMarshallingContext(Marshalling.getMarshallerFactory("river", Marshalling.class.getClassLoader()), configuration, Thread.currentThread().getContextClassLoader());
+    }
+
+    @Test
+    public void immutable() throws Exception {
+        MarshallingContext context = createContext();
+        CachingMarshalledValueFactory factory = new CachingMarshalledValueFactory(context);
+        String attribute = new String("value");
+
+        SimpleMarshalledValue<String> value = factory.createMarshalledValue(attribute);
+        assertSame(value, factory.createMarshalledValue(attribute));
+        // Serialized form is retained
+        assertSame(value.getBytes(), value.getBytes());
+        assertEquals(attribute, value.get(context));
+
+        // Equal, but not identical, values are not shared
+        assertNotSame(value, factory.createMarshalledValue(new String("value")));
+    }
+
+    @Test
+    public void evicted() throws Exception {
+        MarshallingContext context = createContext();
+        // All values share a single table entry
+        CachingMarshalledValueFactory factory = new CachingMarshalledValueFactory(context, 1);
+        String attribute = new String("value");
+
+        SimpleMarshalledValue<String> value = factory.createMarshalledValue(attribute);
+        assertSame(value.getBytes(), value.getBytes());
+
+        SimpleMarshalledValue<String> other = factory.createMarshalledValue(new String("other"));
+        assertSame(other.getBytes(), other.getBytes());
+        // Serialized form of the evicted value is no longer retained
+        assertNotSame(value.getBytes(), value.getBytes());
+        assertEquals(attribute, value.get(context));
+    }
+
+    @Test
+    public void mutable() throws Exception {
+        CachingMarshalledValueFactory factory = new CachingMarshalledValueFactory(createContext());
+        ArrayList<String> attribute = new ArrayList<>();
+
+        SimpleMarshalledValue<ArrayList<String>> value = factory.createMarshalledValue(attribute);
+        assertNotSame(value, factory.createMarshalledValue(attribute));
+        assertNotSame(value.getBytes(), value.getBytes());
+    }
+
+    @Test
+    public void disabled() {
+        CachingMarshalledValueFactory factory = new CachingMarshalledValueFactory(createContext(), 0);
+        String attribute = "value";
+
+        assertNotSame(factory.createMarshalledValue(attribute), factory.createMarshalledValue(attribute));
+    }
+}
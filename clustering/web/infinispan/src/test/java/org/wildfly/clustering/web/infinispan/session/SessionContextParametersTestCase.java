@@ -0,0 +1,58 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.web.infinispan.session;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+
+import org.jboss.metadata.javaee.spec.ParamValueMetaData;
+import org.jboss.metadata.web.jboss.JBossWebMetaData;
+import org.junit.Test;
+
+public class SessionContextParametersTestCase {
+
+    @Test
+    public void getIntValue() {
+        assertEquals(16, SessionContextParameters.EXPIRATION_WHEEL_SIZE.getIntValue(createMetaData(SessionContextParameters.EXPIRATION_WHEEL_SIZE, "16")));
+        assertEquals(TimingWheelSessionExpirationScheduler.DEFAULT_WHEEL_SIZE, SessionContextParameters.EXPIRATION_WHEEL_SIZE.getIntValue(mock(JBossWebMetaData.class)));
+        assertEquals(TimingWheelSessionExpirationScheduler.DEFAULT_WHEEL_SIZE, SessionContextParameters.EXPIRATION_WHEEL_SIZE.getIntValue(createMetaData(SessionContextParameters.EXPIRATION_WHEEL_SIZE, "sixteen")));
+    }
+
+    @Test
+    public void getLongValue() {
+        assertEquals(100L, SessionContextParameters.EXPIRATION_TICK_DURATION.getLongValue(createMetaData(SessionContextParameters.EXPIRATION_TICK_DURATION, "100")));
+        assertEquals(TimingWheelSessionExpirationScheduler.DEFAULT_TICK_DURATION, SessionContextParameters.EXPIRATION_TICK_DURATION.getLongValue(mock(JBossWebMetaData.class)));
+        assertEquals(TimingWheelSessionExpirationScheduler.DEFAULT_TICK_DURATION, SessionContextParameters.EXPIRATION_TICK_DURATION.getLongValue(createMetaData(SessionContextParameters.EXPIRATION_TICK_DURATION, "1s")));
+    }
+
+    private static JBossWebMetaData createMetaData(SessionContextParameters parameter, String value) {
+        ParamValueMetaData param = new ParamValueMetaData();
+        param.setParamName(parameter.getName());
+        param.setParamValue(value);
+        JBossWebMetaData metaData = mock(JBossWebMetaData.class);
+        when(metaData.getContextParams()).thenReturn(Collections.singletonList(param));
+        return metaData;
+    }
+}
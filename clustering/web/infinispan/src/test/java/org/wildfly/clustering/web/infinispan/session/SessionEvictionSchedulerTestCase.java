@@ -21,6 +21,7 @@
  */
 package org.wildfly.clustering.web.infinispan.session;
 
+import static org.junit.Assert.assertEquals;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
@@ -71,4 +72,46 @@ public class SessionEvictionSchedulerTestCase {
             verify(batch).close();
         }
     }
+
+    @Test
+    public void batch() {
+        ImmutableSession[] sessions = new ImmutableSession[4];
+        for (int i = 0; i < sessions.length; ++i) {
+            sessions[i] = mock(ImmutableSession.class);
+            when(sessions[i].getId()).thenReturn(Integer.toString(i));
+        }
+        Batcher batcher = mock(Batcher.class);
+        Batch batch = mock(Batch.class);
+        Evictor<String> evictor = mock(Evictor.class);
+        ExecutorService executor = mock(ExecutorService.class);
+        ArgumentCaptor<Runnable> capturedTask = ArgumentCaptor.forClass(Runnable.class);
+
+        try (SessionEvictionScheduler scheduler = new SessionEvictionScheduler(batcher, evictor, 3, 2, 4, executor)) {
+            scheduler.schedule(sessions[0]);
+            scheduler.schedule(sessions[1]);
+            scheduler.schedule(sessions[2]);
+            // Touching a session moves it to the end of the queue
+            scheduler.cancel(sessions[0]);
+            scheduler.schedule(sessions[0]);
+
+            verifyZeroInteractions(executor);
+            assertEquals(3, scheduler.size());
+
+            scheduler.schedule(sessions[3]);
+
+            // Exceeding the maximum evicts a full batch of the least recently used sessions
+            verify(executor).submit(capturedTask.capture());
+            assertEquals(2, scheduler.size());
+
+            when(batcher.startBatch()).thenReturn(batch);
+
+            capturedTask.getValue().run();
+
+            verify(evictor).evict("1");
+            verify(evictor).evict("2");
+            verify(evictor, never()).evict("0");
+            verify(evictor, never()).evict("3");
+            verify(batch).close();
+        }
+    }
 }
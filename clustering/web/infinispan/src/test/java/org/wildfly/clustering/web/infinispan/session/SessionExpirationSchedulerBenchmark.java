@@ -0,0 +1,140 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.web.infinispan.session;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.TimeUnit;
+
+import org.wildfly.clustering.web.Batch;
+import org.wildfly.clustering.web.Batcher;
+import org.wildfly.clustering.web.infinispan.Remover;
+import org.wildfly.clustering.web.infinispan.Scheduler;
+import org.wildfly.clustering.web.session.ImmutableSession;
+import org.wildfly.clustering.web.session.ImmutableSessionAttributes;
+import org.wildfly.clustering.web.session.ImmutableSessionMetaData;
+import org.wildfly.clustering.web.session.SessionContext;
+
+/**
+ * Compares the cost of scheduling and canceling session expiration for a large number of sessions.
+ * Not part of the unit tests, run its main method with the test classpath of this module.
+ */
+public class SessionExpirationSchedulerBenchmark {
+
+    private static final int SESSIONS = Integer.getInteger("sessions", 1000000);
+    private static final int ITERATIONS = Integer.getInteger("iterations", 5);
+
+    public static void main(String... args) {
+        SessionExpirationSchedulerBenchmark benchmark = new SessionExpirationSchedulerBenchmark();
+        benchmark.defaultScheduler();
+        benchmark.timingWheelScheduler();
+    }
+
+    private void defaultScheduler() {
+        Batcher batcher = createBatcher();
+        Remover<String> remover = mock(Remover.class);
+        this.benchmark("default", new SessionExpirationScheduler(batcher, remover));
+    }
+
+    private void timingWheelScheduler() {
+        Batcher batcher = createBatcher();
+        Remover<String> remover = mock(Remover.class);
+        this.benchmark("timing-wheel", new TimingWheelSessionExpirationScheduler(batcher, remover));
+    }
+
+    private static Batcher createBatcher() {
+        Batcher batcher = mock(Batcher.class);
+        when(batcher.startBatch()).thenReturn(mock(Batch.class));
+        return batcher;
+    }
+
+    private void benchmark(String name, Scheduler<ImmutableSession> scheduler) {
+        ImmutableSessionMetaData metaData = mock(ImmutableSessionMetaData.class);
+        when(metaData.getMaxInactiveInterval(TimeUnit.MILLISECONDS)).thenReturn(TimeUnit.MINUTES.toMillis(30));
+        ImmutableSession[] sessions = new ImmutableSession[SESSIONS];
+        for (int i = 0; i < SESSIONS; ++i) {
+            sessions[i] = new BenchmarkSession(Integer.toString(i), metaData);
+        }
+        try {
+            long start = System.nanoTime();
+            for (ImmutableSession session: sessions) {
+                scheduler.schedule(session);
+            }
+            report(name, "schedule", System.nanoTime() - start, SESSIONS);
+            Runtime runtime = Runtime.getRuntime();
+            System.gc();
+            System.out.println(String.format("%s: heap used with %d scheduled sessions: %d MB", name, SESSIONS, (runtime.totalMemory() - runtime.freeMemory()) >> 20));
+
+            // Simulates a request per session, i.e. cancel on findSession(...), reschedule on close()
+            for (int i = 0; i < ITERATIONS; ++i) {
+                start = System.nanoTime();
+                for (ImmutableSession session: sessions) {
+                    scheduler.cancel(session);
+                    scheduler.schedule(session);
+                }
+                report(name, "cancel+schedule", System.nanoTime() - start, SESSIONS);
+            }
+        } finally {
+            scheduler.close();
+        }
+    }
+
+    private static void report(String name, String operation, long nanos, int count) {
+        System.out.println(String.format("%s: %s of %d sessions took %d ms (%d ns/op)", name, operation, count, TimeUnit.NANOSECONDS.toMillis(nanos), nanos / count));
+    }
+
+    private static class BenchmarkSession implements ImmutableSession {
+        private final String id;
+        private final ImmutableSessionMetaData metaData;
+
+        BenchmarkSession(String id, ImmutableSessionMetaData metaData) {
+            this.id = id;
+            this.metaData = metaData;
+        }
+
+        @Override
+        public String getId() {
+            return this.id;
+        }
+
+        @Override
+        public ImmutableSessionMetaData getMetaData() {
+            return this.metaData;
+        }
+
+        @Override
+        public boolean isValid() {
+            return true;
+        }
+
+        @Override
+        public ImmutableSessionAttributes getAttributes() {
+            return null;
+        }
+
+        @Override
+        public SessionContext getContext() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.web.infinispan.session;
+
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.wildfly.clustering.web.Batch;
+import org.wildfly.clustering.web.Batcher;
+import org.wildfly.clustering.web.infinispan.Remover;
+import org.wildfly.clustering.web.session.ImmutableSession;
+import org.wildfly.clustering.web.session.SessionMetaData;
+
+public class TimingWheelSessionExpirationSchedulerTestCase {
+    @Test
+    public void test() {
+        Batcher batcher = mock(Batcher.class);
+        Batch batch = mock(Batch.class);
+        Remover<String> remover = mock(Remover.class);
+        ImmutableSession immortalSession = mock(ImmutableSession.class);
+        ImmutableSession expiringSession = mock(ImmutableSession.class);
+        ImmutableSession canceledSession = mock(ImmutableSession.class);
+        SessionMetaData immortalMetaData = mock(SessionMetaData.class);
+        SessionMetaData shortTimeoutMetaData = mock(SessionMetaData.class);
+        SessionMetaData canceledMetaData = mock(SessionMetaData.class);
+        String expiringSessionId = "expiring";
+        String canceledSessionId = "canceled";
+
+        when(batcher.startBatch()).thenReturn(batch);
+
+        when(immortalSession.isValid()).thenReturn(true);
+        when(expiringSession.isValid()).thenReturn(true);
+        when(canceledSession.isValid()).thenReturn(true);
+
+        when(immortalSession.getMetaData()).thenReturn(immortalMetaData);
+        when(expiringSession.getMetaData()).thenReturn(shortTimeoutMetaData);
+        when(canceledSession.getMetaData()).thenReturn(canceledMetaData);
+
+        when(immortalMetaData.getMaxInactiveInterval(TimeUnit.MILLISECONDS)).thenReturn(0L);
+        when(shortTimeoutMetaData.getMaxInactiveInterval(TimeUnit.MILLISECONDS)).thenReturn(1L);
+        // Would expire within the tick below, unless canceled
+        when(canceledMetaData.getMaxInactiveInterval(TimeUnit.MILLISECONDS)).thenReturn(100L);
+
+        when(expiringSession.getId()).thenReturn(expiringSessionId);
+        when(canceledSession.getId()).thenReturn(canceledSessionId);
+
+        // Ticks are driven explicitly by the test, rather than by the executor
+        ScheduledExecutorService executor = mock(ScheduledExecutorService.class);
+        TimingWheelSessionExpirationScheduler scheduler = new TimingWheelSessionExpirationScheduler(batcher, remover, 10, 8, 10, executor);
+        try {
+            scheduler.schedule(immortalSession);
+            scheduler.schedule(canceledSession);
+            scheduler.schedule(expiringSession);
+
+            scheduler.cancel(canceledSession);
+
+            scheduler.tick(System.currentTimeMillis() + 1000);
+        } finally {
+            scheduler.close();
+        }
+
+        verify(remover).remove(expiringSessionId);
+        verify(remover, never()).remove(canceledSessionId);
+        verify(batch).close();
+    }
+
+    @Test
+    public void failedRemoval() {
+        Batcher batcher = mock(Batcher.class);
+        Batch batch = mock(Batch.class);
+        Remover<String> remover = mock(Remover.class);
+        ImmutableSession failingSession = mock(ImmutableSession.class);
+        ImmutableSession expiringSession = mock(ImmutableSession.class);
+        SessionMetaData metaData = mock(SessionMetaData.class);
+        String failingSessionId = "failing";
+        String expiringSessionId = "expiring";
+
+        when(batcher.startBatch()).thenReturn(batch);
+        when(failingSession.getMetaData()).thenReturn(metaData);
+        when(expiringSession.getMetaData()).thenReturn(metaData);
+        when(metaData.getMaxInactiveInterval(TimeUnit.MILLISECONDS)).thenReturn(1L);
+        when(failingSession.getId()).thenReturn(failingSessionId);
+        when(expiringSession.getId()).thenReturn(expiringSessionId);
+        doThrow(new IllegalStateException()).when(remover).remove(failingSessionId);
+
+        TimingWheelSessionExpirationScheduler scheduler = new TimingWheelSessionExpirationScheduler(batcher, remover, 10, 8, 10, mock(ScheduledExecutorService.class));
+        try {
+            scheduler.schedule(failingSession);
+            scheduler.schedule(expiringSession);
+
+            scheduler.tick(System.currentTimeMillis() + 1000);
+        } finally {
+            scheduler.close();
+        }
+
+        // A failure to expire one session must not prevent the expiration of the other sessions in its batch
+        verify(remover, atLeastOnce()).remove(expiringSessionId);
+        verify(batch).close();
+        verify(batch, times(2)).discard();
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.web.infinispan.session.coarse;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.context.Flag;
+import org.jboss.as.clustering.infinispan.invoker.SimpleCacheInvoker;
+import org.jboss.as.clustering.marshalling.MarshalledValue;
+import org.jboss.as.clustering.marshalling.MarshallingContext;
+import org.jboss.as.clustering.marshalling.SimpleMarshalledValueFactory;
+import org.jboss.as.clustering.marshalling.SimpleMarshallingContext;
+import org.jboss.as.clustering.marshalling.VersionedMarshallingConfiguration;
+import org.jboss.marshalling.Marshalling;
+import org.jboss.marshalling.MarshallingConfiguration;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Matchers;
+import org.wildfly.clustering.web.infinispan.session.MarshalledValueSessionAttributeMarshaller;
+import org.wildfly.clustering.web.infinispan.session.SessionAttributeMarshaller;
+
+public class CoarseDeltaSessionAttributesTestCase {
+    private final String id = "session";
+    private final SessionAttributesCacheKey key = new SessionAttributesCacheKey(this.id);
+    private final AdvancedCache<SessionAttributesCacheKey, Object> cache = mock(AdvancedCache.class);
+    private final CoarseSessionAttributesEntry entry = new CoarseSessionAttributesEntry();
+    private SessionAttributeMarshaller<Object, MarshalledValue<Object, MarshallingContext>> marshaller;
+    private CoarseDeltaSessionAttributes attributes;
+
+    @Before
+    public void init() {
+        VersionedMarshallingConfiguration configuration = new VersionedMarshallingConfiguration() {
+            @Override
+            public int getCurrentMarshallingVersion() {
+                return 0;
+            }
+
+            @Override
+            public MarshallingConfiguration getMarshallingConfiguration(int version) {
+                return new MarshallingConfiguration();
+            }
+        };
+        MarshallingContext context = new SimpleMarshallingContext(Marshalling.getMarshallerFactory("river", Marshalling.class.getClassLoader()), configuration, Thread.currentThread().getContextClassLoader());
+        this.marshaller = new MarshalledValueSessionAttributeMarshaller<>(new SimpleMarshalledValueFactory(context), context);
+        this.attributes = new CoarseDeltaSessionAttributes(this.id, this.entry, this.cache, new SimpleCacheInvoker(), this.marshaller);
+
+        when(this.cache.getAdvancedCache()).thenReturn(this.cache);
+        when(this.cache.withFlags(Matchers.<Flag>anyVararg())).thenReturn(this.cache);
+    }
+
+    @Test
+    public void setAttribute() {
+        this.entry.getAttributes().put("other", this.marshaller.write("value"));
+
+        assertNull(this.attributes.setAttribute("name", "value1"));
+        assertEquals("value1", this.attributes.setAttribute("name", "value2"));
+        assertEquals("value2", this.attributes.getAttribute("name"));
+
+        verify(this.cache, never()).put(any(SessionAttributesCacheKey.class), any());
+
+        this.attributes.mutate();
+
+        ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+        verify(this.cache).put(Matchers.eq(this.key), captor.capture());
+        CoarseSessionAttributesDelta delta = (CoarseSessionAttributesDelta) captor.getValue();
+        // Unmodified attributes are not replicated
+        assertEquals(Collections.singleton("name"), delta.getUpdates().keySet());
+        assertEquals("value2", this.marshaller.read(delta.getUpdates().get("name")));
+        assertTrue(delta.getRemovals().isEmpty());
+    }
+
+    @Test
+    public void removeAttribute() {
+        this.entry.getAttributes().put("name", this.marshaller.write("value"));
+
+        assertEquals("value", this.attributes.removeAttribute("name"));
+        assertNull(this.attributes.removeAttribute("missing"));
+
+        this.attributes.mutate();
+
+        ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+        verify(this.cache).put(Matchers.eq(this.key), captor.capture());
+        CoarseSessionAttributesDelta delta = (CoarseSessionAttributesDelta) captor.getValue();
+        assertTrue(delta.getUpdates().isEmpty());
+        assertEquals(Collections.singleton("name"), delta.getRemovals());
+    }
+
+    @Test
+    public void getMutableAttribute() {
+        this.entry.getAttributes().put("list", this.marshaller.write(new ArrayList<>(Collections.singletonList("value"))));
+
+        List<String> list = (List<String>) this.attributes.getAttribute("list");
+        list.add("other");
+        assertSame(list, this.attributes.getAttribute("list"));
+
+        this.attributes.mutate();
+
+        ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+        verify(this.cache).put(Matchers.eq(this.key), captor.capture());
+        CoarseSessionAttributesDelta delta = (CoarseSessionAttributesDelta) captor.getValue();
+        assertEquals(list, this.marshaller.read(delta.getUpdates().get("list")));
+    }
+
+    @Test
+    public void getImmutableAttribute() {
+        this.entry.getAttributes().put("name", this.marshaller.write("value"));
+
+        assertEquals("value", this.attributes.getAttribute("name"));
+
+        this.attributes.mutate();
+
+        verify(this.cache, never()).put(any(SessionAttributesCacheKey.class), any());
+    }
+
+    @Test
+    public void merge() {
+        this.entry.getAttributes().put("removed", this.marshaller.write("value"));
+        this.entry.getAttributes().put("unchanged", this.marshaller.write("value"));
+        this.entry.getAttributes().put("updated", this.marshaller.write("old"));
+
+        CoarseSessionAttributesDelta delta = new CoarseSessionAttributesDelta(Collections.singletonMap("updated", this.marshaller.write("new")), Collections.singleton("removed"));
+        CoarseSessionAttributesEntry result = (CoarseSessionAttributesEntry) delta.merge(this.entry);
+
+        assertEquals(2, result.getAttributes().size());
+        assertEquals("value", this.marshaller.read(result.getAttributes().get("unchanged")));
+        assertEquals("new", this.marshaller.read(result.getAttributes().get("updated")));
+        // Existing entry is unaffected
+        assertEquals(3, this.entry.getAttributes().size());
+
+        result = (CoarseSessionAttributesEntry) delta.merge(null);
+        assertEquals(Collections.singleton("updated"), result.getAttributes().keySet());
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.web.infinispan.session.fine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyMap;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.context.Flag;
+import org.jboss.as.clustering.infinispan.invoker.SimpleCacheInvoker;
+import org.jboss.as.clustering.marshalling.MarshalledValue;
+import org.jboss.as.clustering.marshalling.MarshallingContext;
+import org.jboss.as.clustering.marshalling.SimpleMarshalledValue;
+import org.jboss.as.clustering.marshalling.SimpleMarshalledValueFactory;
+import org.jboss.as.clustering.marshalling.SimpleMarshallingContext;
+import org.jboss.as.clustering.marshalling.VersionedMarshallingConfiguration;
+import org.jboss.marshalling.Marshalling;
+import org.jboss.marshalling.MarshallingConfiguration;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Matchers;
+import org.wildfly.clustering.web.infinispan.session.MarshalledValueSessionAttributeMarshaller;
+import org.wildfly.clustering.web.infinispan.session.SessionAttributeMarshaller;
+
+public class FineSessionAttributesTestCase {
+    private final String id = "session";
+    private final AdvancedCache<SessionAttributeCacheKey, MarshalledValue<Object, MarshallingContext>> cache = mock(AdvancedCache.class);
+    private final Set<String> names = new HashSet<>();
+    private SessionAttributeMarshaller<Object, MarshalledValue<Object, MarshallingContext>> marshaller;
+    private FineSessionAttributes<MarshalledValue<Object, MarshallingContext>> attributes;
+
+    @Before
+    public void init() {
+        VersionedMarshallingConfiguration configuration = new VersionedMarshallingConfiguration() {
+            @Override
+            public int getCurrentMarshallingVersion() {
+                return 0;
+            }
+
+            @Override
+            public MarshallingConfiguration getMarshallingConfiguration(int version) {
+                return new MarshallingConfiguration();
+            }
+        };
+        MarshallingContext context = new SimpleMarshallingContext(Marshalling.getMarshallerFactory("river", Marshalling.class.getClassLoader()), configuration, Thread.currentThread().getContextClassLoader());
+        this.marshaller = new MarshalledValueSessionAttributeMarshaller<>(new SimpleMarshalledValueFactory(context), context);
+        this.attributes = new FineSessionAttributes<>(this.id, this.names, this.cache, new SimpleCacheInvoker(), this.marshaller);
+
+        when(this.cache.getAdvancedCache()).thenReturn(this.cache);
+        when(this.cache.withFlags(Matchers.<Flag>anyVararg())).thenReturn(this.cache);
+    }
+
+    @Test
+    public void setAttribute() {
+        assertNull(this.attributes.setAttribute("name", "value1"));
+        assertEquals("value1", this.attributes.setAttribute("name", "value2"));
+        assertEquals("value2", this.attributes.getAttribute("name"));
+
+        verify(this.cache, never()).put(any(SessionAttributeCacheKey.class), any(MarshalledValue.class));
+        verify(this.cache, never()).putAll(anyMap());
+
+        this.attributes.mutate();
+
+        ArgumentCaptor<Map> captor = ArgumentCaptor.forClass(Map.class);
+        verify(this.cache).putAll(captor.capture());
+        Map<SessionAttributeCacheKey, MarshalledValue<Object, MarshallingContext>> values = captor.getValue();
+        assertEquals(1, values.size());
+        assertEquals("value2", this.marshaller.read(values.get(new SessionAttributeCacheKey(this.id, "name"))));
+        assertEquals(Collections.singleton("name"), this.names);
+    }
+
+    @Test
+    public void getUnchangedMutableAttribute() {
+        SessionAttributeCacheKey key = new SessionAttributeCacheKey(this.id, "list");
+        this.names.add("list");
+        when(this.cache.get(key)).thenReturn(this.marshaller.write(new ArrayList<>(Collections.singletonList("value"))));
+
+        List<String> list = (List<String>) this.attributes.getAttribute("list");
+        assertEquals(Collections.singletonList("value"), list);
+
+        this.attributes.mutate();
+
+        verify(this.cache, never()).putAll(anyMap());
+    }
+
+    @Test
+    public void getChangedMutableAttribute() {
+        SessionAttributeCacheKey key = new SessionAttributeCacheKey(this.id, "list");
+        this.names.add("list");
+        when(this.cache.get(key)).thenReturn(this.marshaller.write(new ArrayList<>(Collections.singletonList("value"))));
+
+        List<String> list = (List<String>) this.attributes.getAttribute("list");
+        list.add("other");
+        assertSame(list, this.attributes.getAttribute("list"));
+
+        this.attributes.mutate();
+
+        ArgumentCaptor<Map> captor = ArgumentCaptor.forClass(Map.class);
+        verify(this.cache).putAll(captor.capture());
+        Map<SessionAttributeCacheKey, MarshalledValue<Object, MarshallingContext>> values = captor.getValue();
+        assertEquals(list, this.marshaller.read(values.get(key)));
+    }
+
+    @Test
+    public void changedMutableAttributeIsNotMarshalledAgain() throws IOException {
+        SessionAttributeCacheKey key = new SessionAttributeCacheKey(this.id, "counter");
+        this.names.add("counter");
+        Counter counter = new Counter();
+        when(this.cache.get(key)).thenReturn(this.marshaller.write(counter));
+
+        assertSame(counter, this.attributes.getAttribute("counter"));
+        counter.value += 1;
+        int writes = Counter.WRITES.get();
+
+        this.attributes.mutate();
+
+        ArgumentCaptor<Map> captor = ArgumentCaptor.forClass(Map.class);
+        verify(this.cache).putAll(captor.capture());
+        Map<SessionAttributeCacheKey, MarshalledValue<Object, MarshallingContext>> values = captor.getValue();
+        // The written value still holds the attribute itself
+        assertSame(counter, this.marshaller.read(values.get(key)));
+        // Replicating the written value reuses the serialized form computed to detect the change
+        SimpleMarshalledValue<?> value = (SimpleMarshalledValue<?>) values.get(key);
+        byte[] bytes = value.getBytes();
+        assertEquals(writes + 1, Counter.WRITES.get());
+        assertEquals(1, ((Counter) this.marshaller.read(new SimpleMarshalledValue<Object>(bytes))).value);
+    }
+
+    @Test
+    public void removePendingAttribute() {
+        this.attributes.setAttribute("name", "value");
+        assertEquals("value", this.attributes.removeAttribute("name"));
+
+        this.attributes.mutate();
+
+        verify(this.cache, never()).putAll(anyMap());
+        assertEquals(Collections.emptySet(), this.names);
+    }
+
+    static class Counter implements Serializable {
+        private static final long serialVersionUID = 1L;
+        static final AtomicInteger WRITES = new AtomicInteger();
+
+        int value = 0;
+
+        private void writeObject(ObjectOutputStream output) throws IOException {
+            WRITES.incrementAndGet();
+            output.defaultWriteObject();
+        }
+    }
+}
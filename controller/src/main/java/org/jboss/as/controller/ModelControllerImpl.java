@@ -443,6 +443,16 @@ class ModelControllerImpl implements ModelController {
         return model;
     }
 
+    /**
+     * Gets the current version of the model. Unlike the {@link #getRootResource() root resource}, the returned resource
+     * does not reflect any later version of the model.
+     *
+     * @return the root resource of the current model
+     */
+    Resource getCurrentModel() {
+        return model.getDelegate();
+    }
+
     ManagementResourceRegistration getRootRegistration() {
         return rootRegistration;
     }
@@ -676,7 +686,7 @@ class ModelControllerImpl implements ModelController {
 
     /**
      * The root resource, maintains a read-only reference to the current model. All write operations have to performed
-     * after acquiring the write lock on a clone of the underlying model.
+     * after acquiring the write lock on a copy of the underlying model.
      */
     private final class RootResource implements Resource {
 
@@ -73,6 +73,7 @@ import org.jboss.as.controller.operations.global.ReadResourceHandler;
 import org.jboss.as.controller.persistence.ConfigurationPersistenceException;
 import org.jboss.as.controller.persistence.ConfigurationPersister;
 import org.jboss.as.controller.registry.AttributeAccess;
+import org.jboss.as.controller.registry.CopyOnWriteModel;
 import org.jboss.as.controller.registry.DelegatingImmutableManagementResourceRegistration;
 import org.jboss.as.controller.registry.DelegatingManagementResourceRegistration;
 import org.jboss.as.controller.registry.ImmutableManagementResourceRegistration;
@@ -139,6 +140,8 @@ final class OperationContextImpl extends AbstractOperationContext {
     private volatile Resource model;
 
     private volatile Resource originalModel;
+    /** The writable copy of the model, once the model is affected */
+    private volatile CopyOnWriteModel writableModel;
 
     /** Tracks the relationship between domain resources and hosts and server groups */
     private volatile HostServerGroupTracker hostServerGroupTracker;
@@ -477,8 +480,7 @@ final class OperationContextImpl extends AbstractOperationContext {
         checkHostServerGroupTracker(address);
         authorize(false, READ_WRITE_CONFIG);
         if (!isModelAffected()) {
-            takeWriteLock();
-            model = model.clone();
+            copyModelForUpdate();
         }
         affectsModel.put(address, NULL);
         Resource model = this.model;
@@ -497,13 +499,13 @@ final class OperationContextImpl extends AbstractOperationContext {
                         throw MESSAGES.noChildType(key);
                     }
                     final Resource newModel = Resource.Factory.create();
-                    model.registerChild(element, newModel);
+                    writableModel.registerChild(model, element, newModel);
                     model = newModel;
                 } else {
-                    model = requireChild(model, element, address);
+                    model = requireChildForUpdate(model, element, address);
                 }
             } else {
-                model = requireChild(model, element, address);
+                model = requireChildForUpdate(model, element, address);
             }
         }
         if(model == null) {
@@ -592,8 +594,7 @@ final class OperationContextImpl extends AbstractOperationContext {
         checkHostServerGroupTracker(address);
         authorize(false, READ_WRITE_CONFIG);
         if (!isModelAffected()) {
-            takeWriteLock();
-            model = model.clone();
+            copyModelForUpdate();
         }
         affectsModel.put(address, NULL);
         Resource resource = this.model;
@@ -601,8 +602,10 @@ final class OperationContextImpl extends AbstractOperationContext {
             if (element.isMultiTarget()) {
                 throw MESSAGES.cannotWriteTo("*");
             }
-            resource = requireChild(resource, element, address);
+            resource = requireChildForUpdate(resource, element, address);
         }
+        // the caller may update any descendant of the resource
+        writableModel.copyDescendants(resource);
         return resource;
     }
 
@@ -636,8 +639,7 @@ final class OperationContextImpl extends AbstractOperationContext {
         checkHostServerGroupTracker(absoluteAddress);
         authorizeAdd();
         if (!isModelAffected()) {
-            takeWriteLock();
-            model = model.clone();
+            copyModelForUpdate();
         }
         affectsModel.put(absoluteAddress, NULL);
         Resource model = this.model;
@@ -657,11 +659,11 @@ final class OperationContextImpl extends AbstractOperationContext {
                     if(!childrenNames.contains(key)) {
                         throw MESSAGES.noChildType(key);
                     }
-                    model.registerChild(element, toAdd);
+                    writableModel.registerChild(model, element, toAdd);
                     model = toAdd;
                 }
             } else {
-                model = model.getChild(element);
+                model = writableModel.getChildForUpdate(model, element);
                 if (model == null) {
                     PathAddress ancestor = PathAddress.EMPTY_ADDRESS;
                     for (PathElement pe : absoluteAddress) {
@@ -690,8 +692,7 @@ final class OperationContextImpl extends AbstractOperationContext {
         checkHostServerGroupTracker(address);
         authorize(false, READ_WRITE_CONFIG);
         if (!isModelAffected()) {
-            takeWriteLock();
-            model = model.clone();
+            copyModelForUpdate();
         }
         affectsModel.put(address, NULL);
         Resource model = this.model;
@@ -704,7 +705,7 @@ final class OperationContextImpl extends AbstractOperationContext {
             if (! i.hasNext()) {
                 model = model.removeChild(element);
             } else {
-                model = requireChild(model, element, address);
+                model = requireChildForUpdate(model, element, address);
             }
         }
         return model;
@@ -777,6 +778,20 @@ final class OperationContextImpl extends AbstractOperationContext {
         }
     }
 
+    /**
+     * Replaces the model with a writable copy, which initially shares all resources with the current model.
+     */
+    private void copyModelForUpdate() {
+        takeWriteLock();
+        writableModel = new CopyOnWriteModel(modelController.getCurrentModel());
+        model = writableModel.getRoot();
+    }
+
+    private Resource requireChildForUpdate(final Resource resource, final PathElement childPath, final PathAddress fullAddress) {
+        requireChild(resource, childPath, fullAddress);
+        return writableModel.getChildForUpdate(resource, childPath);
+    }
+
     private static Resource requireChild(final Resource resource, final PathElement childPath, final PathAddress fullAddress) {
         if (resource.hasChild(childPath)) {
             return resource.requireChild(childPath);
@@ -68,6 +68,10 @@ public class ModelDescriptionConstants {
     public static final String BLOCKING = "blocking";
     public static final String BOOT_TIME = "boot-time";
     public static final String BYTES = "bytes";
+    public static final String CACHE_HITS = "cache-hits";
+    public static final String CACHE_MAX_ENTRIES = "cache-max-entries";
+    public static final String CACHE_MISSES = "cache-misses";
+    public static final String CACHE_TTL = "cache-ttl";
     public static final String CALLER_TYPE = "caller-type";
     public static final String CANCELLED = "cancelled";
     public static final String CHILD_TYPE = "child-type";
@@ -255,6 +259,13 @@ public class ModelDescriptionConstants {
     public static final String PERSISTENT = "persistent";
     public static final String PLAIN_TEXT = "plain-text";
     public static final String PLATFORM_MBEAN = "platform-mbean";
+    public static final String POOL_CREATED_COUNT = "pool-created-count";
+    public static final String POOL_IDLE_COUNT = "pool-idle-count";
+    public static final String POOL_IDLE_TIMEOUT = "pool-idle-timeout";
+    public static final String POOL_MAX_SIZE = "pool-max-size";
+    public static final String POOL_MIN_SIZE = "pool-min-size";
+    public static final String POOL_REUSED_COUNT = "pool-reused-count";
+    public static final String POOL_VALIDATE = "pool-validate";
     public static final String PORT = "port";
     public static final String PORT_OFFSET = "port-offset";
     public static final String PRINCIPAL_ATTRIBUTE = "principal-attribute";
@@ -49,6 +49,8 @@ public enum Attribute {
     BASE_DN("base-dn"),
     BASE_ROLE("base-role"),
     BOOT_TIME("boot-time"),
+    CACHE_MAX_ENTRIES("cache-max-entries"),
+    CACHE_TTL("cache-ttl"),
     CODE("code"),
     COMPACT("compact"),
     CONNECTION("connection"),
@@ -114,6 +116,10 @@ public enum Attribute {
     PATTERN("pattern"),
     PERMISSION_COMBINATION_POLICY("permission-combination-policy"),
     PLAIN_TEXT("plain-text"),
+    POOL_IDLE_TIMEOUT("pool-idle-timeout"),
+    POOL_MAX_SIZE("pool-max-size"),
+    POOL_MIN_SIZE("pool-min-size"),
+    POOL_VALIDATE("pool-validate"),
     PORT("port"),
     PORT_OFFSET("port-offset"),
     PREFIX("prefix"),
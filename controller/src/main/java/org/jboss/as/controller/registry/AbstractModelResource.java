@@ -143,6 +143,22 @@ public abstract class AbstractModelResource implements Resource {
         return provider.remove(address.getValue());
     }
 
+    /**
+     * Replaces a registered child resource, retaining the iteration order of the children.
+     *
+     * @param address the address of the child
+     * @param resource the new child resource
+     */
+    void replaceChild(final PathElement address, final Resource resource) {
+        final ResourceProvider provider = getProvider(address.getKey());
+        if (provider instanceof DefaultResourceProvider) {
+            ((DefaultResourceProvider) provider).replace(address.getValue(), resource);
+        } else {
+            removeChild(address);
+            registerChild(address, resource);
+        }
+    }
+
     @Override
     public boolean isProxy() {
         return false;
@@ -233,6 +249,12 @@ public abstract class AbstractModelResource implements Resource {
                 return children.remove(name);
             }
         }
+
+        void replace(String name, Resource resource) {
+            synchronized (children) {
+                children.put(name, resource);
+            }
+        }
     }
 
     abstract static class DelegateResource implements ResourceEntry {
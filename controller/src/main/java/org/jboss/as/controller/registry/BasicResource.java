@@ -22,6 +22,7 @@
 
 package org.jboss.as.controller.registry;
 
+import org.jboss.as.controller.PathElement;
 import org.jboss.dmr.ModelNode;
 
 import java.util.ConcurrentModificationException;
@@ -60,20 +61,44 @@ class BasicResource extends AbstractModelResource implements Resource {
     @Override
     public Resource clone() {
         final Resource clone = new BasicResource();
+        copyModel(clone);
+        for(final String childType : getChildTypes()) {
+            for(final ResourceEntry child : getChildren(childType)) {
+                clone.registerChild(child.getPathElement(), child.clone());
+            }
+        }
+        return clone;
+    }
+
+    /**
+     * Creates a copy of this resource that shares its children with this resource.
+     *
+     * @return the copy
+     */
+    BasicResource shallowCopy() {
+        final BasicResource copy = new BasicResource();
+        copyModel(copy);
+        for(final String childType : getChildTypes()) {
+            for(final String childName : getChildrenNames(childType)) {
+                final PathElement element = PathElement.pathElement(childType, childName);
+                final Resource child = getChild(element);
+                if (child != null) {
+                    copy.registerChild(element, child);
+                }
+            }
+        }
+        return copy;
+    }
+
+    private void copyModel(final Resource target) {
         for (;;) {
             try {
-                clone.writeModel(model);
+                target.writeModel(model);
                 break;
             } catch (ConcurrentModificationException ignore) {
                 // TODO horrible hack :(
             }
         }
-        for(final String childType : getChildTypes()) {
-            for(final ResourceEntry child : getChildren(childType)) {
-                clone.registerChild(child.getPathElement(), child.clone());
-            }
-        }
-        return clone;
     }
 
 }
@@ -0,0 +1,127 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.controller.registry;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+import org.jboss.as.controller.PathElement;
+
+/**
+ * A writable copy of a management model, which shares any resource that is not updated with the original model.
+ * <p>
+ * Resources are copied as they are navigated to for update, so that an update of a single resource only copies the
+ * resources on the path from the root to that resource, instead of the entire model. Standard resources, as created by
+ * {@link Resource.Factory#create()}, are copied without their children; any other resource is {@link Resource#clone() cloned}.
+ * </p>
+ *
+ * <p>Concurrency note: resources obtained for update must not be made visible to other threads until all writes are
+ * complete. Resources must only be navigated to for update via this class.</p>
+ */
+public final class CopyOnWriteModel {
+
+    // Resources private to this model
+    private final Set<Resource> owned = Collections.newSetFromMap(new IdentityHashMap<Resource, Boolean>());
+    // Resources private to this model whose children may still be shared with the original model
+    private final Set<Resource> shared = Collections.newSetFromMap(new IdentityHashMap<Resource, Boolean>());
+    private final Resource root;
+
+    /**
+     * Creates a writable copy of the given model.
+     *
+     * @param model the root resource of the original model
+     */
+    public CopyOnWriteModel(final Resource model) {
+        this.root = this.copy(model);
+    }
+
+    /**
+     * Gets the root resource of this model.
+     *
+     * @return the root resource
+     */
+    public Resource getRoot() {
+        return this.root;
+    }
+
+    /**
+     * Gets a child of a resource of this model for update, copying the child if it is still shared with the original model.
+     *
+     * @param parent a resource of this model, obtained for update
+     * @param element the address of the child
+     * @return the child resource, or {@code null} if there is no such child
+     */
+    public synchronized Resource getChildForUpdate(final Resource parent, final PathElement element) {
+        final Resource child = parent.getChild(element);
+        if (child == null || !this.shared.contains(parent) || this.owned.contains(child)) {
+            return child;
+        }
+        final Resource copy = this.copy(child);
+        ((AbstractModelResource) parent).replaceChild(element, copy);
+        return copy;
+    }
+
+    /**
+     * Registers a new child with a resource of this model.
+     *
+     * @param parent a resource of this model, obtained for update
+     * @param element the address of the child
+     * @param child the new child resource
+     */
+    public synchronized void registerChild(final Resource parent, final PathElement element, final Resource child) {
+        parent.registerChild(element, child);
+        this.owned.add(child);
+    }
+
+    /**
+     * Ensures that no descendant of a resource of this model is shared with the original model, such that the
+     * resource can be updated via the {@link Resource} API alone.
+     *
+     * @param resource a resource of this model, obtained for update
+     */
+    public synchronized void copyDescendants(final Resource resource) {
+        if (this.shared.contains(resource)) {
+            for (String childType : resource.getChildTypes()) {
+                for (String childName : resource.getChildrenNames(childType)) {
+                    final Resource child = this.getChildForUpdate(resource, PathElement.pathElement(childType, childName));
+                    if (child != null) {
+                        this.copyDescendants(child);
+                    }
+                }
+            }
+            this.shared.remove(resource);
+        }
+    }
+
+    private Resource copy(final Resource resource) {
+        final Resource copy;
+        if (resource instanceof BasicResource) {
+            copy = ((BasicResource) resource).shallowCopy();
+            this.shared.add(copy);
+        } else {
+            copy = resource.clone();
+        }
+        this.owned.add(copy);
+        return copy;
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.controller.registry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.jboss.as.controller.PathElement;
+import org.junit.Test;
+
+public class CopyOnWriteModelUnitTestCase {
+
+    private static final PathElement A = PathElement.pathElement("subsystem", "a");
+    private static final PathElement B = PathElement.pathElement("subsystem", "b");
+    private static final PathElement C = PathElement.pathElement("subsystem", "c");
+    private static final PathElement CHILD = PathElement.pathElement("child", "x");
+
+    private static Resource createModel() {
+        Resource root = Resource.Factory.create();
+        for (PathElement element : Arrays.asList(A, B, C)) {
+            Resource subsystem = Resource.Factory.create();
+            subsystem.getModel().get("name").set(element.getValue());
+            Resource child = Resource.Factory.create();
+            child.getModel().get("value").set(1);
+            subsystem.registerChild(CHILD, child);
+            root.registerChild(element, subsystem);
+        }
+        return root;
+    }
+
+    @Test
+    public void testUpdateCopiesPathOnly() {
+        Resource original = createModel();
+        CopyOnWriteModel model = new CopyOnWriteModel(original);
+        Resource root = model.getRoot();
+        assertNotSame(original, root);
+
+        Resource b = model.getChildForUpdate(root, B);
+        Resource child = model.getChildForUpdate(b, CHILD);
+        child.getModel().get("value").set(2);
+
+        // the updated path is copied
+        assertNotSame(original.getChild(B), b);
+        assertNotSame(original.getChild(B).getChild(CHILD), child);
+        assertEquals(1, original.getChild(B).getChild(CHILD).getModel().get("value").asInt());
+        assertEquals(2, root.getChild(B).getChild(CHILD).getModel().get("value").asInt());
+        // repeated navigation returns the same copies
+        assertSame(b, model.getChildForUpdate(root, B));
+        assertSame(child, model.getChildForUpdate(b, CHILD));
+        // siblings are shared
+        assertSame(original.getChild(A), root.getChild(A));
+        assertSame(original.getChild(C), root.getChild(C));
+        // and the order of children is retained
+        assertEquals(new ArrayList<String>(original.getChildrenNames("subsystem")), new ArrayList<String>(root.getChildrenNames("subsystem")));
+    }
+
+    @Test
+    public void testRegisterAndRemove() {
+        Resource original = createModel();
+        CopyOnWriteModel model = new CopyOnWriteModel(original);
+        Resource root = model.getRoot();
+
+        Resource added = Resource.Factory.create();
+        model.registerChild(root, PathElement.pathElement("subsystem", "d"), added);
+        assertSame(added, model.getChildForUpdate(root, PathElement.pathElement("subsystem", "d")));
+        root.removeChild(A);
+
+        assertFalse(original.hasChild(PathElement.pathElement("subsystem", "d")));
+        assertTrue(original.hasChild(A));
+        assertFalse(root.hasChild(A));
+    }
+
+    @Test
+    public void testCopyDescendants() {
+        Resource original = createModel();
+        CopyOnWriteModel model = new CopyOnWriteModel(original);
+        Resource root = model.getRoot();
+
+        Resource c = model.getChildForUpdate(root, C);
+        model.copyDescendants(c);
+        Resource child = c.getChild(CHILD);
+        assertNotSame(original.getChild(C).getChild(CHILD), child);
+        child.getModel().get("value").set(3);
+        assertEquals(1, original.getChild(C).getChild(CHILD).getModel().get("value").asInt());
+        assertSame(child, model.getChildForUpdate(c, CHILD));
+    }
+}
@@ -29,6 +29,8 @@ import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.security.DigestOutputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
@@ -131,8 +133,11 @@ public interface ContentRepository {
         private static class ContentRepositoryImpl implements ContentRepository, Service<ContentRepository> {
 
             protected static final String CONTENT = "content";
+            // number of lock stripes guarding the content directories, must be a power of 2
+            private static final int LOCK_STRIPES = 32;
+            private static final int BUFFER_SIZE = 8192;
             private final File repoRoot;
-            protected final MessageDigest messageDigest;
+            private final Object[] locks = new Object[LOCK_STRIPES];
             private final Map<String, Set<Object>> deploymentHashReferences = new HashMap<String, Set<Object>>();
 
             protected ContentRepositoryImpl(final File repoRoot) {
@@ -150,55 +155,102 @@ public interface ContentRepository {
                     throw DeploymentRepositoryMessages.MESSAGES.cannotCreateDirectory(repoRoot.getAbsolutePath());
                 }
                 this.repoRoot = repoRoot;
+                for (int i = 0; i < LOCK_STRIPES; i++) {
+                    this.locks[i] = new Object();
+                }
+                // Fail fast if SHA-1 is not available
+                createMessageDigest();
+            }
 
+            /**
+             * Creates a new SHA-1 digest. Each call to {@link #addContent(InputStream)} uses its own digest, so that
+             * concurrent uploads are not serialized.
+             */
+            protected static MessageDigest createMessageDigest() {
                 try {
-                    this.messageDigest = MessageDigest.getInstance("SHA-1");
+                    return MessageDigest.getInstance("SHA-1");
                 } catch (NoSuchAlgorithmException e) {
                     throw DeploymentRepositoryMessages.MESSAGES.cannotObtainSha1(e, MessageDigest.class.getSimpleName());
                 }
             }
 
+            /**
+             * Gets the lock guarding the content directory of the given hash. The stripe is chosen by the first byte of
+             * the hash, which names the first level directory shared by all content whose hash starts with that byte.
+             */
+            private Object getLock(final byte[] hash) {
+                return locks[hash[0] & (LOCK_STRIPES - 1)];
+            }
+
             @Override
             public byte[] addContent(InputStream stream) throws IOException {
-                byte[] sha1Bytes;
+                final MessageDigest messageDigest = createMessageDigest();
                 File tmp = File.createTempFile(CONTENT, "tmp", repoRoot);
                 FileOutputStream fos = new FileOutputStream(tmp);
-                synchronized (messageDigest) {
-                    messageDigest.reset();
-                    try {
+                try {
+                    if (stream instanceof FileInputStream) {
+                        // local file, let the file system copy it
+                        transferAndHash(((FileInputStream) stream).getChannel(), fos.getChannel(), messageDigest);
+                    } else {
                         DigestOutputStream dos = new DigestOutputStream(fos, messageDigest);
                         BufferedInputStream bis = new BufferedInputStream(stream);
-                        byte[] bytes = new byte[8192];
+                        byte[] bytes = new byte[BUFFER_SIZE];
                         int read;
                         while ((read = bis.read(bytes)) > -1) {
                             dos.write(bytes, 0, read);
                         }
-                        fos.flush();
-                        fos.getFD().sync();
-                        fos.close();
-                        fos = null;
                     }
-                    finally {
-                        safeClose(fos);
-                    }
-                    sha1Bytes = messageDigest.digest();
+                    fos.flush();
+                    fos.getFD().sync();
+                    fos.close();
+                    fos = null;
                 }
-                final File realFile = getDeploymentContentFile(sha1Bytes, true);
-                if(hasContent(sha1Bytes)) {
-                    // we've already got this content
-                    if (!tmp.delete()) {
-                        DeploymentRepositoryLogger.ROOT_LOGGER.cannotDeleteTempFile(tmp.getName());
-                        tmp.deleteOnExit();
+                finally {
+                    safeClose(fos);
+                }
+                final byte[] sha1Bytes = messageDigest.digest();
+                synchronized (getLock(sha1Bytes)) {
+                    final File realFile = getDeploymentContentFile(sha1Bytes, true);
+                    if(hasContent(sha1Bytes)) {
+                        // we've already got this content
+                        if (!tmp.delete()) {
+                            DeploymentRepositoryLogger.ROOT_LOGGER.cannotDeleteTempFile(tmp.getName());
+                            tmp.deleteOnExit();
+                        }
+                        DeploymentRepositoryLogger.ROOT_LOGGER.debugf("Content was already present in repository at location %s", realFile.getAbsolutePath());
+                    } else {
+                        moveTempToPermanent(tmp, realFile);
+                        DeploymentRepositoryLogger.ROOT_LOGGER.contentAdded(realFile.getAbsolutePath());
                     }
-                    DeploymentRepositoryLogger.ROOT_LOGGER.debugf("Content was already present in repository at location %s", realFile.getAbsolutePath());
-                } else {
-                    moveTempToPermanent(tmp, realFile);
-                    DeploymentRepositoryLogger.ROOT_LOGGER.contentAdded(realFile.getAbsolutePath());
                 }
 
                 return sha1Bytes;
             }
 
+            /**
+             * Copies the remaining content of a file channel to another, and updates the digest with the copied content.
+             * The content is copied by the file system, and is then hashed while reading it back from the (cached) copy.
+             */
+            private static void transferAndHash(final FileChannel source, final FileChannel target, final MessageDigest messageDigest) throws IOException {
+                long position = 0;
+                long transferred;
+                while ((transferred = target.transferFrom(source, position, Long.MAX_VALUE - position)) > 0) {
+                    position += transferred;
+                }
+                final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+                long read = 0;
+                while (read < position) {
+                    buffer.clear();
+                    final int count = target.read(buffer, read);
+                    if (count < 0) {
+                        break;
+                    }
+                    buffer.flip();
+                    messageDigest.update(buffer);
+                    read += count;
+                }
+            }
+
             @Override
             public void addContentReference(byte[] hash, Object reference) {
                 String hashString = HashUtil.bytesToHexString(hash);
@@ -341,6 +393,12 @@ public interface ContentRepository {
                     }
                 }
 
+                synchronized (getLock(hash)) {
+                    removeContentFile(hash);
+                }
+            }
+
+            private void removeContentFile(byte[] hash) {
                 File file = getDeploymentContentFile(hash, true);
                 if(!file.delete()) {
                     DeploymentRepositoryLogger.ROOT_LOGGER.cannotDeleteTempFile(file.getName());
@@ -352,7 +410,8 @@ public interface ContentRepository {
                     parent.deleteOnExit();
                 }
                 parent = parent.getParentFile();
-                if (parent.list().length == 0) {
+                final String[] children = parent.list();
+                if (children != null && children.length == 0) {
                     if (!parent.delete()) {
                         DeploymentRepositoryLogger.ROOT_LOGGER.cannotDeleteTempFile(parent.getName());
                         parent.deleteOnExit();
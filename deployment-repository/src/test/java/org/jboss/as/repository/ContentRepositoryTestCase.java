@@ -0,0 +1,143 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.repository;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests of the default {@link ContentRepository}.
+ */
+public class ContentRepositoryTestCase {
+
+    private File root;
+    private ContentRepository repository;
+
+    @Before
+    public void setUp() throws Exception {
+        this.root = File.createTempFile("content-repository", null);
+        Assert.assertTrue(this.root.delete());
+        this.repository = ContentRepository.Factory.create(this.root);
+    }
+
+    @After
+    public void tearDown() {
+        delete(this.root);
+    }
+
+    @Test
+    public void addAndRemove() throws Exception {
+        byte[] content = "content".getBytes("UTF-8");
+        byte[] hash = this.repository.addContent(new ByteArrayInputStream(content));
+
+        Assert.assertArrayEquals(MessageDigest.getInstance("SHA-1").digest(content), hash);
+        Assert.assertTrue(this.repository.hasContent(hash));
+        Assert.assertArrayEquals(hash, this.repository.addContent(new ByteArrayInputStream(content)));
+
+        Object reference = new Object();
+        this.repository.addContentReference(hash, reference);
+        this.repository.removeContent(hash, reference);
+
+        Assert.assertFalse(this.repository.hasContent(hash));
+        Assert.assertEquals(0, this.root.list().length);
+    }
+
+    /**
+     * Adds and removes content whose hashes share their first level directory from concurrent threads, so that the
+     * removal of the directory of one content races with the creation of the other.
+     */
+    @Test
+    public void concurrentAddAndRemoveInSharedDirectory() throws Exception {
+        final List<byte[]> contents = findContentsSharingFirstHashByte(4);
+        final int iterations = 200;
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(contents.size());
+        try {
+            List<Future<Void>> futures = new ArrayList<Future<Void>>(contents.size());
+            for (final byte[] content : contents) {
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        start.await();
+                        for (int i = 0; i < iterations; ++i) {
+                            byte[] hash = ContentRepositoryTestCase.this.repository.addContent(new ByteArrayInputStream(content));
+                            Assert.assertTrue(ContentRepositoryTestCase.this.repository.hasContent(hash));
+                            Object reference = new Object();
+                            ContentRepositoryTestCase.this.repository.addContentReference(hash, reference);
+                            ContentRepositoryTestCase.this.repository.removeContent(hash, reference);
+                            Assert.assertFalse(ContentRepositoryTestCase.this.repository.hasContent(hash));
+                        }
+                        return null;
+                    }
+                }));
+            }
+            start.countDown();
+            for (Future<Void> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Assert.assertEquals(Arrays.toString(this.root.list()), 0, this.root.list().length);
+    }
+
+    private static List<byte[]> findContentsSharingFirstHashByte(int count) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-1");
+        List<List<byte[]>> contentsByFirstByte = new ArrayList<List<byte[]>>(256);
+        for (int i = 0; i < 256; ++i) {
+            contentsByFirstByte.add(new ArrayList<byte[]>(count));
+        }
+        for (int i = 0; ; ++i) {
+            byte[] content = ("content-" + i).getBytes("UTF-8");
+            List<byte[]> contents = contentsByFirstByte.get(digest.digest(content)[0] & 0xff);
+            contents.add(content);
+            if (contents.size() == count) {
+                return contents;
+            }
+        }
+    }
+
+    private static void delete(File file) {
+        File[] files = file.listFiles();
+        if (files != null) {
+            for (File child : files) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
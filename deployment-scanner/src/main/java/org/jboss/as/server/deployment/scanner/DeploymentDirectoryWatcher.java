@@ -0,0 +1,169 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.server.deployment.scanner;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+import static org.jboss.as.server.deployment.scanner.DeploymentScannerLogger.ROOT_LOGGER;
+
+/**
+ * Tracks the paths changed within a deployment directory tree using a {@link WatchService}.
+ * Since a {@link WatchService} only reports changes to the direct children of a registered directory, every directory
+ * of the tree is registered, including directories created after the watcher.
+ * Changes are collected by {@link #poll()}, which never blocks, and consumed by {@link #drainChanges()}.
+ */
+class DeploymentDirectoryWatcher implements Closeable {
+
+    private final WatchService watchService;
+    private final Map<WatchKey, Path> directories = new ConcurrentHashMap<WatchKey, Path>();
+    private final Set<Path> changes = Collections.newSetFromMap(new ConcurrentHashMap<Path, Boolean>());
+    private final AtomicBoolean overflow = new AtomicBoolean(false);
+
+    DeploymentDirectoryWatcher(final File directory) throws IOException {
+        final Path root = directory.toPath();
+        this.watchService = root.getFileSystem().newWatchService();
+        try {
+            this.register(root);
+        } catch (IOException e) {
+            this.close();
+            throw e;
+        } catch (RuntimeException e) {
+            this.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Collects any pending file system events, without blocking.
+     *
+     * @return true if any change was detected since the previous poll, false otherwise
+     */
+    boolean poll() {
+        boolean changed = false;
+        try {
+            WatchKey key = this.watchService.poll();
+            while (key != null) {
+                final Path directory = this.directories.get(key);
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    changed = true;
+                    if (event.kind() == OVERFLOW || directory == null) {
+                        this.overflow.set(true);
+                        continue;
+                    }
+                    final Path path = directory.resolve((Path) event.context());
+                    if (event.kind() == ENTRY_CREATE && Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+                        // Register the new directory before recording the change, so that a scan observing the change
+                        // will not miss subsequent changes within it
+                        try {
+                            this.register(path);
+                        } catch (IOException e) {
+                            // The directory may have already been removed, otherwise treat as a lost event
+                            if (Files.exists(path, LinkOption.NOFOLLOW_LINKS)) {
+                                ROOT_LOGGER.debugf(e, "Failed to watch directory %s", path);
+                                this.overflow.set(true);
+                            }
+                        }
+                    }
+                    this.changes.add(path);
+                }
+                if (!key.reset()) {
+                    // Directory is no longer accessible, e.g. it was deleted
+                    this.directories.remove(key);
+                }
+                key = this.watchService.poll();
+            }
+        } catch (ClosedWatchServiceException e) {
+            // Watcher was closed concurrently
+        }
+        return changed;
+    }
+
+    /**
+     * Returns and clears the paths changed since the previous invocation of this method.
+     *
+     * @return the changed paths, or null if events were lost, in which case any path should be considered changed
+     */
+    Set<Path> drainChanges() {
+        final Set<Path> result = new HashSet<Path>();
+        // Read the overflow flag first, so that no change is lost if an overflow occurs concurrently
+        final boolean lost = this.overflow.getAndSet(false);
+        final Iterator<Path> paths = this.changes.iterator();
+        while (paths.hasNext()) {
+            result.add(paths.next());
+            paths.remove();
+        }
+        return lost ? null : result;
+    }
+
+    @Override
+    public void close() {
+        this.directories.clear();
+        try {
+            this.watchService.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private void register(final Path root) throws IOException {
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path directory, BasicFileAttributes attributes) throws IOException {
+                final WatchKey key = directory.register(DeploymentDirectoryWatcher.this.watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
+                DeploymentDirectoryWatcher.this.directories.put(key, directory);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) throws IOException {
+                // Tolerate files removed while walking the tree
+                if (Files.exists(file, LinkOption.NOFOLLOW_LINKS)) {
+                    throw e;
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
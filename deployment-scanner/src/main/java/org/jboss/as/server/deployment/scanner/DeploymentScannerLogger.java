@@ -247,4 +247,14 @@ public interface DeploymentScannerLogger extends BasicLogger {
     @Message(id = 15018, value = "Deployment %s was previously deployed by this scanner but has been removed from the " +
             "server deployment list by another management tool. Marker file %s is being added to record this fact.")
     void scannerDeploymentRemovedButNotByScanner(String deploymentName, File marker);
+
+    /**
+     * Logs a warning message indicating that the deployment directory cannot be watched for changes.
+     *
+     * @param cause     the cause of the error.
+     * @param directory the deployment directory.
+     */
+    @LogMessage(level = WARN)
+    @Message(id = 15019, value = "Cannot watch deployment directory %s for changes; falling back to periodic scanning")
+    void cannotWatchDeploymentDirectory(@Cause Throwable cause, String directory);
 }
@@ -55,6 +55,7 @@ public class DeploymentScannerService implements Service<DeploymentScanner> {
     private long interval;
     private TimeUnit unit = TimeUnit.MILLISECONDS;
     private boolean enabled;
+    private boolean watchEnabled;
     private boolean autoDeployZipped;
     private boolean autoDeployExploded;
     private boolean autoDeployXml;
@@ -86,6 +87,7 @@ public class DeploymentScannerService implements Service<DeploymentScanner> {
      * @param path              the path
      * @param scanInterval      the scan interval
      * @param scanEnabled       scan enabled
+     * @param watchEnabled      watch the file system for changes instead of polling
      * @param rollbackOnRuntimeFailure rollback on runtime failures
      * @param deploymentTimeout the deployment timeout
      * @param bootTimeService   the deployment scanner used in the boot time scan
@@ -93,11 +95,11 @@ public class DeploymentScannerService implements Service<DeploymentScanner> {
      */
     public static ServiceController<DeploymentScanner> addService(final ServiceTarget serviceTarget, final String name, final String relativeTo, final String path,
                                                                   final Integer scanInterval, TimeUnit unit, final Boolean autoDeployZip,
-                                                                  final Boolean autoDeployExploded, final Boolean autoDeployXml, final Boolean scanEnabled, final Long deploymentTimeout, Boolean rollbackOnRuntimeFailure,
+                                                                  final Boolean autoDeployExploded, final Boolean autoDeployXml, final Boolean scanEnabled, final Boolean watchEnabled, final Long deploymentTimeout, Boolean rollbackOnRuntimeFailure,
                                                                   final List<ServiceController<?>> newControllers, final FileSystemDeploymentService bootTimeService, final ScheduledExecutorService scheduledExecutorService,
                                                                   final ServiceListener<Object>... listeners) {
         final DeploymentScannerService service = new DeploymentScannerService(relativeTo, path, scanInterval, unit, autoDeployZip,
-                autoDeployExploded, autoDeployXml, scanEnabled, deploymentTimeout, rollbackOnRuntimeFailure, bootTimeService);
+                autoDeployExploded, autoDeployXml, scanEnabled, watchEnabled, deploymentTimeout, rollbackOnRuntimeFailure, bootTimeService);
         final ServiceName serviceName = getServiceName(name);
 
         ServiceBuilder<DeploymentScanner> builder = serviceTarget.addService(serviceName, service)
@@ -114,7 +116,7 @@ public class DeploymentScannerService implements Service<DeploymentScanner> {
     }
 
     DeploymentScannerService(final String relativeTo, final String path, final Integer interval, final TimeUnit unit, final Boolean autoDeployZipped,
-                             final Boolean autoDeployExploded, final Boolean autoDeployXml, final Boolean enabled, final Long deploymentTimeout,
+                             final Boolean autoDeployExploded, final Boolean autoDeployXml, final Boolean enabled, final Boolean watchEnabled, final Long deploymentTimeout,
                              final Boolean rollbackOnRuntimeFailure, final FileSystemDeploymentService bootTimeService) {
         this.relativeTo = relativeTo;
         this.path = path;
@@ -124,6 +126,7 @@ public class DeploymentScannerService implements Service<DeploymentScanner> {
         this.autoDeployExploded = autoDeployExploded == null ? false : autoDeployExploded.booleanValue();
         this.autoDeployXml = autoDeployXml == null ? true : autoDeployXml.booleanValue();
         this.enabled = enabled == null ? true : enabled.booleanValue();
+        this.watchEnabled = watchEnabled == null ? false : watchEnabled.booleanValue();
         this.rollbackOnRuntimeFailure = rollbackOnRuntimeFailure;
         this.deploymentTimeout = deploymentTimeout;
         this.scanner = bootTimeService;
@@ -157,6 +160,7 @@ public class DeploymentScannerService implements Service<DeploymentScanner> {
                 final FileSystemDeploymentService scanner = new FileSystemDeploymentService(relativeTo, new File(pathName),
                         relativePath, factory, scheduledExecutorValue.getValue());
 
+                scanner.setWatchEnabled(watchEnabled);
                 scanner.setScanInterval(unit.toMillis(interval));
                 scanner.setAutoDeployExplodedContent(autoDeployExploded);
                 scanner.setAutoDeployZippedContent(autoDeployZipped);
@@ -27,6 +27,7 @@ import java.io.File;
 import java.io.FileFilter;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -106,6 +107,23 @@ class FileSystemDeploymentService implements DeploymentScanner {
      */
     static final long DEFAULT_DEPLOYMENT_TIMEOUT = 600;
 
+    /**
+     * Interval in ms at which pending file system events are collected, while watching for changes.
+     * A scan is triggered once no further events are collected within an interval.
+     */
+    static final long WATCH_POLL_INTERVAL = 500;
+
+    /**
+     * Max delay in ms of a scan triggered by a continuous burst of file system events
+     */
+    static final long WATCH_MAX_SCAN_DELAY = 5000;
+
+    /**
+     * Min interval in ms of the full scans still performed while watching for changes, which detect deployment
+     * changes made by other management clients
+     */
+    static final long WATCH_MIN_SCAN_INTERVAL = 60000;
+
     private File deploymentDir;
     private long scanInterval = 0;
     private volatile boolean scanEnabled = false;
@@ -114,7 +132,13 @@ class FileSystemDeploymentService implements DeploymentScanner {
     private ScheduledFuture<?> scanTask;
     private ScheduledFuture<?> rescanIncompleteTask;
     private ScheduledFuture<?> rescanUndeployTask;
+    private ScheduledFuture<?> watchTask;
+    private volatile boolean watchEnabled = false;
+    private volatile DeploymentDirectoryWatcher watcher;
     private final Lock scanLock = new ReentrantLock();
+    // Timestamps of exploded content, reused while the watcher observes no change to the content; guarded by scanLock
+    private final Map<Path, Long> explodedTimestamps = new HashMap<Path, Long>();
+    private DeploymentDirectoryWatcher timestampsWatcher;
 
     private final Map<String, DeploymentMarker> deployed = new HashMap<String, DeploymentMarker>();
     private final HashSet<String> ignoredMissingDeployments = new HashSet<String>();
@@ -153,6 +177,36 @@ class FileSystemDeploymentService implements DeploymentScanner {
 
     private final DeploymentScanRunnable scanRunnable = new DeploymentScanRunnable();
 
+    private class DeploymentWatchRunnable implements Runnable {
+
+        private final DeploymentDirectoryWatcher watcher;
+        // Time of the first change not yet scanned, or 0 if none; only accessed by this task, which never runs concurrently
+        private long pendingSince = 0;
+
+        DeploymentWatchRunnable(final DeploymentDirectoryWatcher watcher) {
+            this.watcher = watcher;
+        }
+
+        @Override
+        public void run() {
+            try {
+                final boolean changed = watcher.poll();
+                final long now = System.currentTimeMillis();
+                if (changed && pendingSince == 0) {
+                    pendingSince = now;
+                }
+                // Coalesce bursts of changes, e.g. while content is being copied, unless they persist for too long
+                if (pendingSince == 0 || (changed && now - pendingSince < WATCH_MAX_SCAN_DELAY)) {
+                    return;
+                }
+                pendingSince = 0;
+                scan(false, deploymentOperations, false);
+            } catch (Exception e) {
+                ROOT_LOGGER.scanException(e, deploymentDir.getAbsolutePath());
+            }
+        }
+    }
+
     FileSystemDeploymentService(final String relativeTo, final File deploymentDir, final File relativeToDir,
                                 final DeploymentOperations.Factory deploymentOperationsFactory, final ScheduledExecutorService scheduledExecutor)
             throws OperationFailedException {
@@ -241,6 +295,22 @@ class FileSystemDeploymentService implements DeploymentScanner {
         startScan();
     }
 
+    @Override
+    public boolean isWatchEnabled() {
+        return watchEnabled;
+    }
+
+    @Override
+    public synchronized void setWatchEnabled(boolean watchEnabled) {
+        if (watchEnabled != this.watchEnabled) {
+            this.watchEnabled = watchEnabled;
+            if (scanEnabled) {
+                cancelScan();
+                startScan();
+            }
+        }
+    }
+
     @Override
     public void setDeploymentTimeout(long deploymentTimeout) {
         this.deploymentTimeout = deploymentTimeout;
@@ -356,6 +426,8 @@ class FileSystemDeploymentService implements DeploymentScanner {
             if (scanEnabled || oneOffScan) { // confirm the scan is still wanted
                 ROOT_LOGGER.tracef("Scanning directory %s for deployment content changes", deploymentDir.getAbsolutePath());
 
+                invalidateExplodedTimestamps();
+
                 ScanContext scanContext = new ScanContext(deploymentOperations);
                 if (!forcedUndeployScan)
                     // skip directory scan since only undeployment required
@@ -397,7 +469,7 @@ class FileSystemDeploymentService implements DeploymentScanner {
                 // Deal with any incomplete or non-scannable auto-deploy content
                 ScanStatus status = handleAutoDeployFailures(scanContext);
                 if (status != ScanStatus.PROCEED) {
-                    if (status == ScanStatus.RETRY && scanInterval > 1000) {
+                    if (status == ScanStatus.RETRY && (scanInterval > 1000 || watcher != null)) {
                         // in finally block, schedule a non-repeating task to try again more quickly
                         scheduleRescan = true;
                     }
@@ -629,7 +701,7 @@ class FileSystemDeploymentService implements DeploymentScanner {
                     scanContext.ignoredMissingDeployments.add(deploymentName);
                     continue;
                 }
-                long timestamp = getDeploymentTimestamp(deploymentFile);
+                long timestamp = getScannedDeploymentTimestamp(deploymentFile);
                 final String path = relativeTo == null ? deploymentFile.getAbsolutePath() : relativePath + deploymentName; // TODO:
                 // sub-directories
                 // in
@@ -647,7 +719,7 @@ class FileSystemDeploymentService implements DeploymentScanner {
                 boolean autoDeployable = child.isDirectory() ? autoDeployExploded : autoDeployZip;
                 if (autoDeployable) {
                     if (!isAutoDeployDisabled(child)) {
-                        long timestamp = getDeploymentTimestamp(child);
+                        long timestamp = getScannedDeploymentTimestamp(child);
                         if (isFailedOrUndeployed(directory, fileName, timestamp)) continue;
 
                         DeploymentMarker marker = deployed.get(fileName);
@@ -782,6 +854,50 @@ class FileSystemDeploymentService implements DeploymentScanner {
         return new File(parent, name + SKIP_DEPLOY).exists() || new File(parent, name + DO_DEPLOY).exists();
     }
 
+    /**
+     * Gets the timestamp of the given deployment. While watching for changes, the timestamp of exploded content
+     * is only recomputed if a change within the content was observed since the previous scan.
+     * Invoke with the scan lock held.
+     */
+    private long getScannedDeploymentTimestamp(File deploymentFile) {
+        if (timestampsWatcher == null || !deploymentFile.isDirectory()) {
+            return getDeploymentTimestamp(deploymentFile);
+        }
+        final Path path = deploymentFile.toPath();
+        Long timestamp = explodedTimestamps.get(path);
+        if (timestamp == null) {
+            timestamp = getDeploymentTimestamp(deploymentFile);
+            explodedTimestamps.put(path, timestamp);
+        }
+        return timestamp;
+    }
+
+    /**
+     * Discards the cached timestamps of any exploded content changed since the previous scan.
+     * Invoke with the scan lock held.
+     */
+    private void invalidateExplodedTimestamps() {
+        final DeploymentDirectoryWatcher watcher = this.watcher;
+        if (watcher != timestampsWatcher) {
+            // Changes made while no watcher was active are unknown
+            explodedTimestamps.clear();
+            timestampsWatcher = watcher;
+        }
+        if (watcher != null) {
+            final Set<Path> changes = watcher.drainChanges();
+            if (changes == null) {
+                explodedTimestamps.clear();
+            } else if (!explodedTimestamps.isEmpty()) {
+                for (Path change : changes) {
+                    // A change invalidates the timestamp of any enclosing content
+                    for (Path path = change; path != null; path = path.getParent()) {
+                        explodedTimestamps.remove(path);
+                    }
+                }
+            }
+        }
+    }
+
     private long getDeploymentTimestamp(File deploymentFile) {
         if (deploymentFile.isDirectory()) {
             // Scan for most recent file
@@ -920,7 +1036,17 @@ class FileSystemDeploymentService implements DeploymentScanner {
 
     private synchronized void startScan() {
         if (scanEnabled) {
-            if (scanInterval > 0) {
+            if (scanInterval > 0 && watchEnabled && watcher == null) {
+                watcher = createWatcher();
+                if (watcher != null) {
+                    watchTask = scheduledExecutor.scheduleWithFixedDelay(new DeploymentWatchRunnable(watcher), WATCH_POLL_INTERVAL, WATCH_POLL_INTERVAL, TimeUnit.MILLISECONDS);
+                }
+            }
+            if (watcher != null) {
+                // Scans are triggered by changes, so only scan periodically to detect changes made by other management clients
+                final long interval = Math.max(scanInterval, WATCH_MIN_SCAN_INTERVAL);
+                scanTask = scheduledExecutor.scheduleWithFixedDelay(scanRunnable, 0, interval, TimeUnit.MILLISECONDS);
+            } else if (scanInterval > 0) {
                 scanTask = scheduledExecutor.scheduleWithFixedDelay(scanRunnable, 0, scanInterval, TimeUnit.MILLISECONDS);
             } else {
                 scanTask = scheduledExecutor.schedule(scanRunnable, scanInterval, TimeUnit.MILLISECONDS);
@@ -928,10 +1054,27 @@ class FileSystemDeploymentService implements DeploymentScanner {
         }
     }
 
+    private DeploymentDirectoryWatcher createWatcher() {
+        try {
+            return new DeploymentDirectoryWatcher(deploymentDir);
+        } catch (Exception e) {
+            ROOT_LOGGER.cannotWatchDeploymentDirectory(e, deploymentDir.getAbsolutePath());
+            return null;
+        }
+    }
+
     /**
      * Invoke with the object monitor held
      */
     private void cancelScan() {
+        if (watchTask != null) {
+            watchTask.cancel(false);
+            watchTask = null;
+        }
+        if (watcher != null) {
+            watcher.close();
+            watcher = null;
+        }
         if (rescanIncompleteTask != null) {
             rescanIncompleteTask.cancel(false);
             rescanIncompleteTask = null;
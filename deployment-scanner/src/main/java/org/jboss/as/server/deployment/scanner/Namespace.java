@@ -34,12 +34,13 @@ UNKNOWN(null),
     DEPLOYMENT_SCANNER_1_0("urn:jboss:domain:deployment-scanner:1.0"),
     DEPLOYMENT_SCANNER_1_1("urn:jboss:domain:deployment-scanner:1.1"),
     DEPLOYMENT_SCANNER_1_2("urn:jboss:domain:deployment-scanner:1.2"),
+    DEPLOYMENT_SCANNER_1_3("urn:jboss:domain:deployment-scanner:1.3"),
     ;
 
     /**
      * The current namespace version.
      */
-    public static final Namespace CURRENT = DEPLOYMENT_SCANNER_1_2;
+    public static final Namespace CURRENT = DEPLOYMENT_SCANNER_1_3;
 
     private final String name;
 
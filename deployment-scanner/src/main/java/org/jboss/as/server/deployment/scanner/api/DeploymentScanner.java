@@ -55,6 +55,23 @@ public interface DeploymentScanner {
      */
     void setScanInterval(long scanInterval);
 
+    /**
+     * Gets whether the scanner watches the file system for changes, such that the repository is only scanned
+     * when a change is detected, instead of at every scan interval.
+     *
+     * @return true if the file system is watched for changes
+     */
+    boolean isWatchEnabled();
+
+    /**
+     * Sets whether the scanner watches the file system for changes, such that the repository is only scanned
+     * when a change is detected, instead of at every scan interval. If the file system cannot be watched,
+     * the scanner falls back to periodic scanning.
+     *
+     * @param watchEnabled true if the file system should be watched for changes
+     */
+    void setWatchEnabled(boolean watchEnabled);
+
     /**
      * Start the scanner, if not already started, using a default {@link DeploymentOperations}.
      *
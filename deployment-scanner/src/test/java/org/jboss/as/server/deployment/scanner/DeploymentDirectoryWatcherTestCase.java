@@ -0,0 +1,133 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.server.deployment.scanner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests of {@link DeploymentDirectoryWatcher}.
+ */
+public class DeploymentDirectoryWatcherTestCase {
+
+    private static final long TIMEOUT = TimeUnit.SECONDS.toMillis(30);
+
+    private Path root;
+    private DeploymentDirectoryWatcher watcher;
+
+    @Before
+    public void setup() throws IOException {
+        this.root = Files.createTempDirectory(DeploymentDirectoryWatcherTestCase.class.getSimpleName());
+        Files.createDirectories(this.root.resolve("existing.war").resolve("WEB-INF"));
+        this.watcher = new DeploymentDirectoryWatcher(this.root.toFile());
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        this.watcher.close();
+        Files.walkFileTree(this.root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path directory, IOException e) throws IOException {
+                Files.delete(directory);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    @Test
+    public void noChanges() {
+        assertFalse(this.watcher.poll());
+        assertEquals(Collections.emptySet(), this.watcher.drainChanges());
+    }
+
+    @Test
+    public void fileCreated() throws Exception {
+        Path file = Files.createFile(this.root.resolve("test.jar"));
+
+        Set<Path> changes = this.awaitChanges(file);
+        assertTrue(changes.contains(file));
+
+        // Changes are only reported once
+        assertEquals(Collections.emptySet(), this.watcher.drainChanges());
+    }
+
+    @Test
+    public void nestedFileChanged() throws Exception {
+        Path file = Files.createFile(this.root.resolve("existing.war").resolve("WEB-INF").resolve("web.xml"));
+
+        assertTrue(this.awaitChanges(file).contains(file));
+    }
+
+    @Test
+    public void fileInNewDirectoryCreated() throws Exception {
+        Path directory = Files.createDirectory(this.root.resolve("new.war"));
+        assertTrue(this.awaitChanges(directory).contains(directory));
+
+        // New directories are watched as well
+        Path file = Files.createFile(directory.resolve("index.html"));
+        assertTrue(this.awaitChanges(file).contains(file));
+    }
+
+    @Test
+    public void closed() throws Exception {
+        this.watcher.close();
+        Files.createFile(this.root.resolve("test.jar"));
+
+        assertFalse(this.watcher.poll());
+    }
+
+    private Set<Path> awaitChanges(Path expected) throws InterruptedException {
+        Set<Path> changes = new HashSet<Path>();
+        long start = System.currentTimeMillis();
+        while (!changes.contains(expected) && (System.currentTimeMillis() - start < TIMEOUT)) {
+            this.watcher.poll();
+            Set<Path> drained = this.watcher.drainChanges();
+            assertTrue(drained != null);
+            changes.addAll(drained);
+            Thread.sleep(10);
+        }
+        return changes;
+    }
+}
@@ -865,6 +865,14 @@ public interface DomainManagementMessages {
     @Message(id = 15298, value = "The password must be different from the username")
     PasswordValidationException passwordUsernameMatchError();
 
+    /**
+     * Error message if a pooled LDAP connection is used after it has been closed.
+     *
+     * @return a {@link NamingException} for the error.
+     */
+    @Message(id = 15299, value = "The LDAP connection has already been closed.")
+    NamingException ldapConnectionClosed();
+
     /*
      * Logging IDs 15200 to 15299 are reserved for domain management, the file DomainManagementLogger also contains messages in
      * this range commencing 15200.
@@ -25,6 +25,10 @@ package org.jboss.as.domain.management.connections.ldap;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP_ADDR;
 import static org.jboss.as.domain.management.connections.ldap.LdapConnectionResourceDefinition.SECURITY_REALM;
 import static org.jboss.as.domain.management.connections.ldap.LdapConnectionResourceDefinition.INITIAL_CONTEXT_FACTORY;
+import static org.jboss.as.domain.management.connections.ldap.LdapConnectionResourceDefinition.POOL_IDLE_TIMEOUT;
+import static org.jboss.as.domain.management.connections.ldap.LdapConnectionResourceDefinition.POOL_MAX_SIZE;
+import static org.jboss.as.domain.management.connections.ldap.LdapConnectionResourceDefinition.POOL_MIN_SIZE;
+import static org.jboss.as.domain.management.connections.ldap.LdapConnectionResourceDefinition.POOL_VALIDATE;
 import static org.jboss.as.domain.management.connections.ldap.LdapConnectionResourceDefinition.URL;
 import static org.jboss.as.domain.management.connections.ldap.LdapConnectionResourceDefinition.SEARCH_DN;
 import static org.jboss.as.domain.management.connections.ldap.LdapConnectionResourceDefinition.SEARCH_CREDENTIAL;
@@ -101,7 +105,13 @@ public class LdapConnectionAddHandler extends AbstractAddStepHandler {
         ModelNode searchCredentialNode = SEARCH_CREDENTIAL.resolveModelAttribute(context, model);
         String searchCredential = searchCredentialNode.isDefined() ? searchCredentialNode.asString() : null;
 
-        return connectionManagerService.setConfiguration(initialContextFactory, url, searchDn, searchCredential);
+        int poolMaxSize = POOL_MAX_SIZE.resolveModelAttribute(context, model).asInt();
+        int poolMinSize = POOL_MIN_SIZE.resolveModelAttribute(context, model).asInt();
+        long poolIdleTimeout = POOL_IDLE_TIMEOUT.resolveModelAttribute(context, model).asLong();
+        boolean poolValidate = POOL_VALIDATE.resolveModelAttribute(context, model).asBoolean();
+
+        return connectionManagerService.setConfiguration(initialContextFactory, url, searchDn, searchCredential, poolMaxSize,
+                poolMinSize, poolIdleTimeout, poolValidate);
     }
 
 }
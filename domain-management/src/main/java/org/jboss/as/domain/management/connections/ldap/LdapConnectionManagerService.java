@@ -26,6 +26,7 @@ import static org.jboss.as.domain.management.DomainManagementLogger.SECURITY_LOG
 import java.util.Hashtable;
 
 import javax.naming.Context;
+import javax.naming.directory.DirContext;
 import javax.naming.directory.InitialDirContext;
 import javax.net.ssl.SSLContext;
 
@@ -54,26 +55,47 @@ public class LdapConnectionManagerService implements Service<LdapConnectionManag
 
     private volatile Config configuration;
     private volatile Hashtable<String, String> properties = new Hashtable<String, String>();
+    private volatile LdapConnectionPool pool;
 
     public LdapConnectionManagerService() {
     }
 
-    Config setConfiguration(final String initialContextFactory, final String url, final String searchDn, final String searchCredential) {
+    Config setConfiguration(final String initialContextFactory, final String url, final String searchDn, final String searchCredential,
+            final int poolMaxSize, final int poolMinSize, final long poolIdleTimeout, final boolean poolValidate) {
         Config configuration = new Config();
         configuration.initialContextFactory = initialContextFactory;
         configuration.url = url;
         configuration.searchDn = searchDn;
         configuration.searchCredential = searchCredential;
+        configuration.poolMaxSize = poolMaxSize;
+        configuration.poolMinSize = poolMinSize;
+        configuration.poolIdleTimeout = poolIdleTimeout;
+        configuration.poolValidate = poolValidate;
 
         try {
             return this.configuration;
         } finally {
-            this.configuration = configuration;
+            setConfiguration(configuration);
         }
     }
 
-    void setConfiguration(final Config configuration) {
+    synchronized void setConfiguration(final Config configuration) {
         this.configuration = configuration;
+        resetPool();
+    }
+
+    /**
+     * Replace the connection pool so that subsequent connections use the current configuration, connections already
+     * established are closed once they are returned.
+     */
+    private synchronized void resetPool() {
+        final Config configuration = this.configuration;
+        LdapConnectionPool previous = pool;
+        pool = new LdapConnectionPool(configuration.poolMaxSize, configuration.poolMinSize, configuration.poolIdleTimeout,
+                configuration.poolValidate);
+        if (previous != null) {
+            previous.close();
+        }
     }
 
     /*
@@ -84,6 +106,10 @@ public class LdapConnectionManagerService implements Service<LdapConnectionManag
     }
 
     public synchronized void stop(StopContext context) {
+        LdapConnectionPool pool = this.pool;
+        if (pool != null) {
+            pool.clear();
+        }
     }
 
     public synchronized LdapConnectionManagerService getValue() throws IllegalStateException, IllegalArgumentException {
@@ -103,6 +129,9 @@ public class LdapConnectionManagerService implements Service<LdapConnectionManag
         properties.put(name, value);
 
         this.properties = properties;
+        if (configuration != null) {
+            resetPool();
+        }
     }
 
     synchronized void removeProperty(final String name) {
@@ -110,6 +139,9 @@ public class LdapConnectionManagerService implements Service<LdapConnectionManag
         properties.remove(name);
 
         this.properties = properties;
+        if (configuration != null) {
+            resetPool();
+        }
     }
 
     void setPropertyImmediate(final String name, final String value) {
@@ -121,7 +153,30 @@ public class LdapConnectionManagerService implements Service<LdapConnectionManag
      */
 
     public Object getConnection() throws Exception {
-        return getConnection(getFullProperties(configuration), getSSLContext(false));
+        final Config configuration = this.configuration;
+        return pool.getContext(new LdapConnectionPool.ContextFactory() {
+
+            @Override
+            public DirContext createContext() throws Exception {
+                return getConnection(getFullProperties(configuration), getSSLContext(false));
+            }
+        });
+    }
+
+    /*
+     * Connection Pool Statistics
+     */
+
+    int getPoolIdleCount() {
+        return pool.getIdleCount();
+    }
+
+    long getPoolCreatedCount() {
+        return pool.getCreatedCount();
+    }
+
+    long getPoolReusedCount() {
+        return pool.getReusedCount();
     }
 
     public Object getConnection(String principal, String credential) throws Exception {
@@ -133,7 +188,7 @@ public class LdapConnectionManagerService implements Service<LdapConnectionManag
         return getConnection(connectionProperties, getSSLContext(true));
     }
 
-    private Object getConnection(final Hashtable<String, String> properties, final SSLContext sslContext) throws Exception {
+    private DirContext getConnection(final Hashtable<String, String> properties, final SSLContext sslContext) throws Exception {
         ClassLoader old = WildFlySecurityManager.getCurrentContextClassLoaderPrivileged();
         try {
             if (sslContext != null) {
@@ -214,6 +269,10 @@ public class LdapConnectionManagerService implements Service<LdapConnectionManag
         private String url;
         private String searchDn;
         private String searchCredential;
+        private int poolMaxSize;
+        private int poolMinSize;
+        private long poolIdleTimeout;
+        private boolean poolValidate;
     }
 
 }
@@ -0,0 +1,268 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.domain.management.connections.ldap;
+
+import static org.jboss.as.domain.management.DomainManagementLogger.SECURITY_LOGGER;
+import static org.jboss.as.domain.management.DomainManagementMessages.MESSAGES;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.naming.CommunicationException;
+import javax.naming.NamingException;
+import javax.naming.ServiceUnavailableException;
+import javax.naming.directory.DirContext;
+
+/**
+ * A pool of the {@link DirContext} instances connected using the search credentials of an LDAP connection.
+ *
+ * Borrowed contexts are returned to the pool when closed, unless the pool already holds its maximum number of idle
+ * contexts or the context failed with a communication error.  Idle contexts are discarded once idle for longer than the idle
+ * timeout, provided that at least the minimum number of idle contexts remain, and are optionally validated before they are
+ * reused.
+ */
+class LdapConnectionPool {
+
+    private static final String[] NO_ATTRIBUTES = new String[0];
+
+    private final int maxSize;
+    private final int minSize;
+    private final long idleTimeout;
+    private final boolean validate;
+    private final LinkedList<PooledContext> idle = new LinkedList<PooledContext>();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong reused = new AtomicLong();
+    private boolean closed = false;
+
+    LdapConnectionPool(final int maxSize, final int minSize, final long idleTimeout, final boolean validate) {
+        this.maxSize = maxSize;
+        this.minSize = minSize;
+        this.idleTimeout = idleTimeout;
+        this.validate = validate;
+    }
+
+    /**
+     * Obtain a pooled context, creating a new connection using the supplied factory if no valid idle context is available.
+     *
+     * @param factory the factory for new connections.
+     * @return a context that is returned to this pool when closed.
+     */
+    DirContext getContext(final ContextFactory factory) throws Exception {
+        PooledContext pooled;
+        while ((pooled = poll()) != null) {
+            if (validate && isValid(pooled.context) == false) {
+                SECURITY_LOGGER.trace("Discarding invalid pooled LDAP connection.");
+                safeClose(pooled.context);
+                continue;
+            }
+            reused.incrementAndGet();
+            return pooled.borrow();
+        }
+
+        DirContext context = factory.createContext();
+        if (maxSize <= 0) {
+            return context;
+        }
+        created.incrementAndGet();
+        return new PooledContext(context).borrow();
+    }
+
+    /**
+     * Discard all idle contexts, e.g. after the connection configuration has changed.
+     */
+    void clear() {
+        List<PooledContext> discarded;
+        synchronized (idle) {
+            discarded = new ArrayList<PooledContext>(idle);
+            idle.clear();
+        }
+        for (PooledContext current : discarded) {
+            safeClose(current.context);
+        }
+    }
+
+    /**
+     * Discard all idle contexts and close any subsequently returned contexts.
+     */
+    void close() {
+        synchronized (idle) {
+            closed = true;
+        }
+        clear();
+    }
+
+    int getIdleCount() {
+        synchronized (idle) {
+            return idle.size();
+        }
+    }
+
+    long getCreatedCount() {
+        return created.get();
+    }
+
+    long getReusedCount() {
+        return reused.get();
+    }
+
+    private PooledContext poll() {
+        List<PooledContext> expired = null;
+        PooledContext result;
+        synchronized (idle) {
+            if (idleTimeout > 0 && idle.size() > minSize) {
+                long expiry = System.currentTimeMillis() - idleTimeout;
+                // The least recently returned contexts are at the tail.
+                Iterator<PooledContext> iterator = idle.descendingIterator();
+                while (iterator.hasNext() && idle.size() > minSize) {
+                    PooledContext current = iterator.next();
+                    if (current.returned > expiry) {
+                        break;
+                    }
+                    iterator.remove();
+                    if (expired == null) {
+                        expired = new ArrayList<PooledContext>();
+                    }
+                    expired.add(current);
+                }
+            }
+            result = idle.pollFirst();
+        }
+        if (expired != null) {
+            for (PooledContext current : expired) {
+                safeClose(current.context);
+            }
+        }
+        return result;
+    }
+
+    private void release(final PooledContext pooled) {
+        boolean retained = false;
+        if (pooled.broken == false) {
+            synchronized (idle) {
+                if (closed == false && idle.size() < maxSize) {
+                    pooled.returned = System.currentTimeMillis();
+                    idle.addFirst(pooled);
+                    retained = true;
+                }
+            }
+        }
+        if (retained == false) {
+            safeClose(pooled.context);
+        }
+    }
+
+    private static boolean isValid(final DirContext context) {
+        try {
+            // A lightweight read of the root DSE that returns no attributes.
+            context.getAttributes("", NO_ATTRIBUTES);
+            return true;
+        } catch (NamingException e) {
+            return false;
+        }
+    }
+
+    private static void safeClose(final DirContext context) {
+        try {
+            context.close();
+        } catch (Exception ignored) {
+        }
+    }
+
+    /**
+     * Factory for the connections held by the pool.
+     */
+    interface ContextFactory {
+        DirContext createContext() throws Exception;
+    }
+
+    private class PooledContext {
+
+        private final DirContext context;
+        private volatile boolean broken = false;
+        private long returned;
+
+        private PooledContext(final DirContext context) {
+            this.context = context;
+        }
+
+        private DirContext borrow() {
+            return (DirContext) Proxy.newProxyInstance(DirContext.class.getClassLoader(), new Class<?>[] { DirContext.class },
+                    new BorrowedContextHandler(this));
+        }
+    }
+
+    /**
+     * Delegates to the pooled context until the borrower closes it, at which point the pooled context is released.
+     */
+    private class BorrowedContextHandler implements InvocationHandler {
+
+        private final PooledContext pooled;
+        private boolean closed = false;
+
+        private BorrowedContextHandler(final PooledContext pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if ("close".equals(name) && method.getParameterTypes().length == 0) {
+                synchronized (this) {
+                    if (closed == false) {
+                        closed = true;
+                        release(pooled);
+                    }
+                }
+                return null;
+            }
+            if (method.getDeclaringClass() == Object.class) {
+                if ("equals".equals(name)) {
+                    return proxy == args[0];
+                } else if ("hashCode".equals(name)) {
+                    return System.identityHashCode(proxy);
+                }
+            }
+            synchronized (this) {
+                if (closed) {
+                    throw MESSAGES.ldapConnectionClosed();
+                }
+            }
+            try {
+                return method.invoke(pooled.context, args);
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof CommunicationException || cause instanceof ServiceUnavailableException) {
+                    pooled.broken = true;
+                }
+                throw cause;
+            }
+        }
+    }
+}
@@ -23,19 +23,29 @@
 package org.jboss.as.domain.management.connections.ldap;
 
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.LDAP_CONNECTION;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.NAME;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP_ADDR;
 
+import org.jboss.as.controller.AbstractRuntimeOnlyHandler;
 import org.jboss.as.controller.AttributeDefinition;
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.PathAddress;
 import org.jboss.as.controller.PathElement;
 import org.jboss.as.controller.SimpleAttributeDefinition;
 import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
 import org.jboss.as.controller.SimpleResourceDefinition;
 import org.jboss.as.controller.descriptions.ModelDescriptionConstants;
+import org.jboss.as.controller.client.helpers.MeasurementUnit;
 import org.jboss.as.controller.descriptions.common.ControllerResolver;
+import org.jboss.as.controller.operations.validation.IntRangeValidator;
+import org.jboss.as.controller.operations.validation.LongRangeValidator;
 import org.jboss.as.controller.operations.validation.StringLengthValidator;
 import org.jboss.as.controller.registry.ManagementResourceRegistration;
 import org.jboss.as.controller.registry.OperationEntry;
 import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.ModelType;
+import org.jboss.msc.service.ServiceController;
 
 /**
  * {@link org.jboss.as.controller.ResourceDefinition} for a connection factory for an LDAP-based security store.
@@ -64,7 +74,32 @@ public class LdapConnectionResourceDefinition extends SimpleResourceDefinition {
     public static final SimpleAttributeDefinition INITIAL_CONTEXT_FACTORY = new SimpleAttributeDefinitionBuilder(ModelDescriptionConstants.INITIAL_CONTEXT_FACTORY, ModelType.STRING, true)
             .setAllowExpression(true).setDefaultValue(new ModelNode(DEFAULT_INITIAL_CONTEXT)).setValidator(new StringLengthValidator(1, Integer.MAX_VALUE, true, true)).build();
 
-    public static final AttributeDefinition[] ATTRIBUTE_DEFINITIONS = {URL, SEARCH_DN, SEARCH_CREDENTIAL, SECURITY_REALM, INITIAL_CONTEXT_FACTORY};
+    public static final SimpleAttributeDefinition POOL_MAX_SIZE = new SimpleAttributeDefinitionBuilder(ModelDescriptionConstants.POOL_MAX_SIZE, ModelType.INT, true)
+            .setAllowExpression(true).setDefaultValue(new ModelNode(0)).setValidator(new IntRangeValidator(0, true, true)).build();
+
+    public static final SimpleAttributeDefinition POOL_MIN_SIZE = new SimpleAttributeDefinitionBuilder(ModelDescriptionConstants.POOL_MIN_SIZE, ModelType.INT, true)
+            .setAllowExpression(true).setDefaultValue(new ModelNode(0)).setValidator(new IntRangeValidator(0, true, true)).build();
+
+    public static final SimpleAttributeDefinition POOL_IDLE_TIMEOUT = new SimpleAttributeDefinitionBuilder(ModelDescriptionConstants.POOL_IDLE_TIMEOUT, ModelType.LONG, true)
+            .setAllowExpression(true).setDefaultValue(new ModelNode(300000L)).setValidator(new LongRangeValidator(0, Long.MAX_VALUE, true, true))
+            .setMeasurementUnit(MeasurementUnit.MILLISECONDS).build();
+
+    public static final SimpleAttributeDefinition POOL_VALIDATE = new SimpleAttributeDefinitionBuilder(ModelDescriptionConstants.POOL_VALIDATE, ModelType.BOOLEAN, true)
+            .setAllowExpression(true).setDefaultValue(new ModelNode(true)).build();
+
+    public static final AttributeDefinition[] ATTRIBUTE_DEFINITIONS = {URL, SEARCH_DN, SEARCH_CREDENTIAL, SECURITY_REALM, INITIAL_CONTEXT_FACTORY,
+            POOL_MAX_SIZE, POOL_MIN_SIZE, POOL_IDLE_TIMEOUT, POOL_VALIDATE};
+
+    public static final SimpleAttributeDefinition POOL_IDLE_COUNT = new SimpleAttributeDefinitionBuilder(ModelDescriptionConstants.POOL_IDLE_COUNT, ModelType.INT, true)
+            .setStorageRuntime().build();
+
+    public static final SimpleAttributeDefinition POOL_CREATED_COUNT = new SimpleAttributeDefinitionBuilder(ModelDescriptionConstants.POOL_CREATED_COUNT, ModelType.LONG, true)
+            .setStorageRuntime().build();
+
+    public static final SimpleAttributeDefinition POOL_REUSED_COUNT = new SimpleAttributeDefinitionBuilder(ModelDescriptionConstants.POOL_REUSED_COUNT, ModelType.LONG, true)
+            .setStorageRuntime().build();
+
+    public static final AttributeDefinition[] METRICS = {POOL_IDLE_COUNT, POOL_CREATED_COUNT, POOL_REUSED_COUNT};
 
     public static final LdapConnectionResourceDefinition INSTANCE = new LdapConnectionResourceDefinition();
 
@@ -85,6 +120,37 @@ public class LdapConnectionResourceDefinition extends SimpleResourceDefinition {
 
         LdapConnectionWriteAttributeHandler writeHandler = new LdapConnectionWriteAttributeHandler();
         writeHandler.registerAttributes(resourceRegistration);
+
+        for (AttributeDefinition metric : METRICS) {
+            resourceRegistration.registerMetric(metric, LdapConnectionPoolMetricsHandler.INSTANCE);
+        }
+    }
+
+    /**
+     * Handler for reading the statistics of the connection pool of an ldap management connection.
+     */
+    private static class LdapConnectionPoolMetricsHandler extends AbstractRuntimeOnlyHandler {
+
+        private static final LdapConnectionPoolMetricsHandler INSTANCE = new LdapConnectionPoolMetricsHandler();
+
+        @Override
+        protected void executeRuntimeStep(OperationContext context, ModelNode operation) throws OperationFailedException {
+            String name = PathAddress.pathAddress(operation.require(OP_ADDR)).getLastElement().getValue();
+            String attributeName = operation.require(NAME).asString();
+            ServiceController<?> controller = context.getServiceRegistry(false).getService(
+                    LdapConnectionManagerService.ServiceUtil.createServiceName(name));
+            if (controller != null && controller.getState() == ServiceController.State.UP) {
+                LdapConnectionManagerService service = LdapConnectionManagerService.class.cast(controller.getValue());
+                if (ModelDescriptionConstants.POOL_IDLE_COUNT.equals(attributeName)) {
+                    context.getResult().set(service.getPoolIdleCount());
+                } else if (ModelDescriptionConstants.POOL_CREATED_COUNT.equals(attributeName)) {
+                    context.getResult().set(service.getPoolCreatedCount());
+                } else if (ModelDescriptionConstants.POOL_REUSED_COUNT.equals(attributeName)) {
+                    context.getResult().set(service.getPoolReusedCount());
+                }
+            }
+            context.stepCompleted();
+        }
     }
 
 }
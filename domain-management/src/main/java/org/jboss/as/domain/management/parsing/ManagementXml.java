@@ -565,6 +565,22 @@ public class ManagementXml {
                         LdapConnectionResourceDefinition.INITIAL_CONTEXT_FACTORY.parseAndSetParameter(value, add, reader);
                         break;
                     }
+                    case POOL_MAX_SIZE: {
+                        LdapConnectionResourceDefinition.POOL_MAX_SIZE.parseAndSetParameter(value, add, reader);
+                        break;
+                    }
+                    case POOL_MIN_SIZE: {
+                        LdapConnectionResourceDefinition.POOL_MIN_SIZE.parseAndSetParameter(value, add, reader);
+                        break;
+                    }
+                    case POOL_IDLE_TIMEOUT: {
+                        LdapConnectionResourceDefinition.POOL_IDLE_TIMEOUT.parseAndSetParameter(value, add, reader);
+                        break;
+                    }
+                    case POOL_VALIDATE: {
+                        LdapConnectionResourceDefinition.POOL_VALIDATE.parseAndSetParameter(value, add, reader);
+                        break;
+                    }
                     default: {
                         throw unexpectedAttribute(reader, i);
                     }
@@ -1430,6 +1446,20 @@ public class ManagementXml {
                         LdapAuthenticationResourceDefinition.ALLOW_EMPTY_PASSWORDS.parseAndSetParameter(value, ldapAuthentication, reader);
                         break;
                     }
+                    case CACHE_TTL: {
+                        if (expectedNs == Namespace.DOMAIN_1_4) {
+                            throw unexpectedAttribute(reader, i);
+                        }
+                        LdapAuthenticationResourceDefinition.CACHE_TTL.parseAndSetParameter(value, ldapAuthentication, reader);
+                        break;
+                    }
+                    case CACHE_MAX_ENTRIES: {
+                        if (expectedNs == Namespace.DOMAIN_1_4) {
+                            throw unexpectedAttribute(reader, i);
+                        }
+                        LdapAuthenticationResourceDefinition.CACHE_MAX_ENTRIES.parseAndSetParameter(value, ldapAuthentication, reader);
+                        break;
+                    }
                     default: {
                         throw unexpectedAttribute(reader, i);
                     }
@@ -1812,6 +1842,14 @@ public class ManagementXml {
                         LdapAuthorizationResourceDefinition.CONNECTION.parseAndSetParameter(value, ldapAuthorization, reader);
                         break;
                     }
+                    case CACHE_TTL: {
+                        LdapAuthorizationResourceDefinition.CACHE_TTL.parseAndSetParameter(value, ldapAuthorization, reader);
+                        break;
+                    }
+                    case CACHE_MAX_ENTRIES: {
+                        LdapAuthorizationResourceDefinition.CACHE_MAX_ENTRIES.parseAndSetParameter(value, ldapAuthorization, reader);
+                        break;
+                    }
                     default: {
                         throw unexpectedAttribute(reader, i);
                     }
@@ -3039,6 +3077,8 @@ public class ManagementXml {
             LdapAuthenticationResourceDefinition.RECURSIVE.marshallAsAttribute(userLdap, writer);
             LdapAuthenticationResourceDefinition.USER_DN.marshallAsAttribute(userLdap, writer);
             LdapAuthenticationResourceDefinition.ALLOW_EMPTY_PASSWORDS.marshallAsAttribute(userLdap, writer);
+            LdapAuthenticationResourceDefinition.CACHE_TTL.marshallAsAttribute(userLdap, writer);
+            LdapAuthenticationResourceDefinition.CACHE_MAX_ENTRIES.marshallAsAttribute(userLdap, writer);
 
             if (LdapAuthenticationResourceDefinition.USERNAME_FILTER.isMarshallable(userLdap)) {
                 writer.writeEmptyElement(Element.USERNAME_FILTER.getLocalName());
@@ -3111,6 +3151,8 @@ public class ManagementXml {
     private void writeLdapAuthorization(XMLExtendedStreamWriter writer, ModelNode ldapNode) throws XMLStreamException {
         writer.writeStartElement(Element.LDAP.getLocalName());
         LdapAuthorizationResourceDefinition.CONNECTION.marshallAsAttribute(ldapNode, writer);
+        LdapAuthorizationResourceDefinition.CACHE_TTL.marshallAsAttribute(ldapNode, writer);
+        LdapAuthorizationResourceDefinition.CACHE_MAX_ENTRIES.marshallAsAttribute(ldapNode, writer);
         if (ldapNode.hasDefined(USERNAME_TO_DN)) {
             ModelNode usenameToDn = ldapNode.require(USERNAME_TO_DN);
             if (usenameToDn.hasDefined(USERNAME_IS_DN) || usenameToDn.hasDefined(USERNAME_FILTER)
@@ -3207,6 +3249,10 @@ public class ManagementXml {
             LdapConnectionResourceDefinition.SEARCH_CREDENTIAL.marshallAsAttribute(connection, writer);
             LdapConnectionResourceDefinition.SECURITY_REALM.marshallAsAttribute(connection, writer);
             LdapConnectionResourceDefinition.INITIAL_CONTEXT_FACTORY.marshallAsAttribute(connection, writer);
+            LdapConnectionResourceDefinition.POOL_MAX_SIZE.marshallAsAttribute(connection, writer);
+            LdapConnectionResourceDefinition.POOL_MIN_SIZE.marshallAsAttribute(connection, writer);
+            LdapConnectionResourceDefinition.POOL_IDLE_TIMEOUT.marshallAsAttribute(connection, writer);
+            LdapConnectionResourceDefinition.POOL_VALIDATE.marshallAsAttribute(connection, writer);
             if (connection.hasDefined(PROPERTY)) {
                 List<Property> propertyList = connection.get(PROPERTY).asPropertyList();
                 if (propertyList.size() > 0) {
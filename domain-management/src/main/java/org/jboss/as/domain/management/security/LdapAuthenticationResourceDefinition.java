@@ -92,7 +92,7 @@ public class LdapAuthenticationResourceDefinition extends LdapResourceDefinition
             .build();
 
     public static final AttributeDefinition[] ATTRIBUTE_DEFINITIONS = {
-        CONNECTION, BASE_DN, RECURSIVE, USER_DN, ALLOW_EMPTY_PASSWORDS, USERNAME_FILTER, ADVANCED_FILTER
+        CONNECTION, BASE_DN, RECURSIVE, USER_DN, ALLOW_EMPTY_PASSWORDS, USERNAME_FILTER, ADVANCED_FILTER, CACHE_TTL, CACHE_MAX_ENTRIES
     };
 
     public LdapAuthenticationResourceDefinition() {
@@ -106,6 +106,7 @@ public class LdapAuthenticationResourceDefinition extends LdapResourceDefinition
     public void registerAttributes(ManagementResourceRegistration resourceRegistration) {
         SecurityRealmChildWriteAttributeHandler handler = new LdapAuthenticationWriteHandler();
         handler.registerAttributes(resourceRegistration);
+        registerCacheMetrics(resourceRegistration, true);
     }
 
     protected static void validateAttributeCombination(ModelNode operation) throws OperationFailedException {
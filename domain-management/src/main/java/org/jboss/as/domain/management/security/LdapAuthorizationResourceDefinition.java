@@ -50,7 +50,7 @@ import org.jboss.dmr.ModelNode;
  */
 public class LdapAuthorizationResourceDefinition extends LdapResourceDefinition {
 
-    private static final AttributeDefinition[] ATTRIBUTE_DEFINITIONS = { CONNECTION };
+    private static final AttributeDefinition[] ATTRIBUTE_DEFINITIONS = { CONNECTION, CACHE_TTL, CACHE_MAX_ENTRIES };
 
     private static final LdapAuthorizationValidatingHandler VALIDATION_INSTANCE = new LdapAuthorizationValidatingHandler();
     static final LdapAuthorizationChildRemoveHandler REMOVE_INSTANCE = new LdapAuthorizationChildRemoveHandler();
@@ -77,6 +77,7 @@ public class LdapAuthorizationResourceDefinition extends LdapResourceDefinition
     public void registerAttributes(ManagementResourceRegistration resourceRegistration) {
         SecurityRealmChildWriteAttributeHandler handler = new SecurityRealmChildWriteAttributeHandler(ATTRIBUTE_DEFINITIONS);
         handler.registerAttributes(resourceRegistration);
+        registerCacheMetrics(resourceRegistration, false);
     }
 
     /**
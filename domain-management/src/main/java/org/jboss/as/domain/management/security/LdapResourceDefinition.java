@@ -22,17 +22,27 @@
 
 package org.jboss.as.domain.management.security;
 
+import org.jboss.as.controller.AbstractRuntimeOnlyHandler;
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
 import org.jboss.as.controller.OperationStepHandler;
 import org.jboss.as.controller.PathElement;
 import org.jboss.as.controller.SimpleAttributeDefinition;
 import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
 import org.jboss.as.controller.SimpleResourceDefinition;
+import org.jboss.as.controller.client.helpers.MeasurementUnit;
 import org.jboss.as.controller.descriptions.ModelDescriptionConstants;
 import org.jboss.as.controller.descriptions.ResourceDescriptionResolver;
+import org.jboss.as.controller.operations.validation.IntRangeValidator;
+import org.jboss.as.controller.operations.validation.LongRangeValidator;
 import org.jboss.as.controller.operations.validation.StringLengthValidator;
 import org.jboss.as.controller.registry.AttributeAccess;
+import org.jboss.as.controller.registry.ManagementResourceRegistration;
 import org.jboss.as.controller.registry.OperationEntry.Flag;
+import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.ModelType;
+import org.jboss.msc.service.ServiceController;
+import org.jboss.msc.service.ServiceName;
 
 /**
  * {@link ResourceDefinition} for a management security realm's LDAP-based Authentication / Authorization resource.
@@ -47,9 +57,72 @@ public abstract class LdapResourceDefinition extends SimpleResourceDefinition {
             .setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)
             .build();
 
+    public static final SimpleAttributeDefinition CACHE_TTL = new SimpleAttributeDefinitionBuilder(ModelDescriptionConstants.CACHE_TTL, ModelType.LONG, true)
+            .setDefaultValue(new ModelNode(0L))
+            .setValidator(new LongRangeValidator(0, Long.MAX_VALUE, true, true))
+            .setMeasurementUnit(MeasurementUnit.MILLISECONDS)
+            .setAllowExpression(true)
+            .setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)
+            .build();
+
+    public static final SimpleAttributeDefinition CACHE_MAX_ENTRIES = new SimpleAttributeDefinitionBuilder(ModelDescriptionConstants.CACHE_MAX_ENTRIES, ModelType.INT, true)
+            .setDefaultValue(new ModelNode(1000))
+            .setValidator(new IntRangeValidator(1, true, true))
+            .setAllowExpression(true)
+            .setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)
+            .build();
+
+    public static final SimpleAttributeDefinition CACHE_HITS = new SimpleAttributeDefinitionBuilder(ModelDescriptionConstants.CACHE_HITS, ModelType.LONG, true)
+            .setStorageRuntime()
+            .build();
+
+    public static final SimpleAttributeDefinition CACHE_MISSES = new SimpleAttributeDefinitionBuilder(ModelDescriptionConstants.CACHE_MISSES, ModelType.LONG, true)
+            .setStorageRuntime()
+            .build();
+
     public LdapResourceDefinition(PathElement pathElement, ResourceDescriptionResolver descriptionResolver,
             OperationStepHandler addHandler, OperationStepHandler removeHandler, Flag addRestartLevel, Flag removeRestartLevel) {
         super(pathElement, descriptionResolver, addHandler, removeHandler, addRestartLevel, removeRestartLevel);
     }
 
+    /**
+     * Register the metrics of the cache of search results.
+     *
+     * @param resourceRegistration the registration of this resource.
+     * @param authentication whether the cache of the LDAP authentication service, rather than the authorization service, is read.
+     */
+    protected static void registerCacheMetrics(ManagementResourceRegistration resourceRegistration, boolean authentication) {
+        LdapCacheMetricsHandler handler = new LdapCacheMetricsHandler(authentication);
+        resourceRegistration.registerMetric(CACHE_HITS, handler);
+        resourceRegistration.registerMetric(CACHE_MISSES, handler);
+    }
+
+    private static class LdapCacheMetricsHandler extends AbstractRuntimeOnlyHandler {
+
+        private final boolean authentication;
+
+        private LdapCacheMetricsHandler(final boolean authentication) {
+            this.authentication = authentication;
+        }
+
+        @Override
+        protected void executeRuntimeStep(OperationContext context, ModelNode operation) throws OperationFailedException {
+            String realmName = ManagementUtil.getSecurityRealmName(operation);
+            boolean hits = ModelDescriptionConstants.CACHE_HITS.equals(operation.require(ModelDescriptionConstants.NAME).asString());
+            ServiceName serviceName = authentication ? UserLdapCallbackHandler.ServiceUtil.createServiceName(realmName)
+                    : LdapSubjectSupplementalService.ServiceUtil.createServiceName(realmName);
+            ServiceController<?> controller = context.getServiceRegistry(false).getService(serviceName);
+            if (controller != null && controller.getState() == ServiceController.State.UP) {
+                if (authentication) {
+                    UserLdapCallbackHandler service = UserLdapCallbackHandler.class.cast(controller.getValue());
+                    context.getResult().set(hits ? service.getCacheHits() : service.getCacheMisses());
+                } else {
+                    LdapSubjectSupplementalService service = LdapSubjectSupplementalService.class.cast(controller.getValue());
+                    context.getResult().set(hits ? service.getCacheHits() : service.getCacheMisses());
+                }
+            }
+            context.stepCompleted();
+        }
+    }
+
 }
@@ -0,0 +1,130 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.domain.management.security;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A cache of the results of LDAP searches performed by a security realm, each result is retained for a fixed time to live.
+ *
+ * A cache with a non-positive time to live never retains any results but still records misses.
+ *
+ * @param <K> the type of the search key.
+ * @param <V> the type of the search result.
+ */
+class LdapSearchCache<K, V> {
+
+    private final ConcurrentMap<K, CachedResult<V>> results = new ConcurrentHashMap<K, CachedResult<V>>();
+    private final long timeToLive;
+    private final int maxEntries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    LdapSearchCache(final long timeToLive, final int maxEntries) {
+        this.timeToLive = timeToLive;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Obtain a cached search result.
+     *
+     * @param key the search key.
+     * @return the cached result or {@code null} if no result is cached or it has expired.
+     */
+    V get(final K key) {
+        if (timeToLive > 0) {
+            CachedResult<V> cached = results.get(key);
+            if (cached != null) {
+                if (cached.expiry > System.currentTimeMillis()) {
+                    hits.incrementAndGet();
+                    return cached.value;
+                }
+                results.remove(key, cached);
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Cache the result of a search.
+     *
+     * @param key the search key.
+     * @param value the search result.
+     */
+    void put(final K key, final V value) {
+        if (timeToLive > 0) {
+            long now = System.currentTimeMillis();
+            if (results.size() >= maxEntries) {
+                makeRoom(now);
+            }
+            results.put(key, new CachedResult<V>(value, now + timeToLive));
+        }
+    }
+
+    void clear() {
+        results.clear();
+    }
+
+    long getHits() {
+        return hits.get();
+    }
+
+    long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Remove the expired results, or if none have expired an arbitrary result, to keep the cache within its maximum size.
+     */
+    private void makeRoom(final long now) {
+        Iterator<CachedResult<V>> iterator = results.values().iterator();
+        boolean removed = false;
+        while (iterator.hasNext()) {
+            if (iterator.next().expiry <= now) {
+                iterator.remove();
+                removed = true;
+            }
+        }
+        if (removed == false) {
+            iterator = results.values().iterator();
+            if (iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+    }
+
+    private static final class CachedResult<V> {
+        private final V value;
+        private final long expiry;
+
+        private CachedResult(final V value, final long expiry) {
+            this.value = value;
+            this.expiry = expiry;
+        }
+    }
+}
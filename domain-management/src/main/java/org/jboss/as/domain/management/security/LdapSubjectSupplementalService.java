@@ -22,8 +22,11 @@
 
 package org.jboss.as.domain.management.security;
 
+import static org.jboss.as.domain.management.DomainManagementLogger.SECURITY_LOGGER;
+
 import java.io.IOException;
 import java.security.Principal;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
@@ -69,13 +72,16 @@ public class LdapSubjectSupplementalService implements Service<SubjectSupplement
     private final boolean forceUserDnSearch;
     private final boolean iterative;
     private final GroupName groupName;
+    private final LdapSearchCache<String, Set<RealmGroup>> groupCache;
 
-    public LdapSubjectSupplementalService(final String realmName, final boolean shareConnection, final boolean forceUserDnSearch, final boolean iterative, final GroupName groupName) {
+    public LdapSubjectSupplementalService(final String realmName, final boolean shareConnection, final boolean forceUserDnSearch, final boolean iterative, final GroupName groupName,
+            final long cacheTtl, final int cacheMaxEntries) {
         this.realmName = realmName;
         this.shareConnection = shareConnection;
         this.forceUserDnSearch = forceUserDnSearch;
         this.iterative = iterative;
         this.groupName = groupName;
+        this.groupCache = new LdapSearchCache<String, Set<RealmGroup>>(cacheTtl, cacheMaxEntries);
     }
 
     /*
@@ -92,7 +98,7 @@ public class LdapSubjectSupplementalService implements Service<SubjectSupplement
     }
 
     public void stop(StopContext context) {
-
+        groupCache.clear();
     }
 
     /*
@@ -110,6 +116,18 @@ public class LdapSubjectSupplementalService implements Service<SubjectSupplement
         return groupSearcherInjector;
     }
 
+    /*
+     *  Cache Statistics
+     */
+
+    long getCacheHits() {
+        return groupCache.getHits();
+    }
+
+    long getCacheMisses() {
+        return groupCache.getMisses();
+    }
+
     /*
      * SubjectSupplementalService Method
      */
@@ -141,12 +159,20 @@ public class LdapSubjectSupplementalService implements Service<SubjectSupplement
             Set<Principal> principals = subject.getPrincipals();
 
             try {
-                dirContext = getSearchContext();
-
                 // In general we expect exactly one RealmUser, however we could cope with multiple
                 // identities so load the groups for them all.
                 for (RealmUser current : users) {
-                    principals.addAll(loadGroups(current));
+                    Set<RealmGroup> groups = groupCache.get(current.getName());
+                    if (groups == null) {
+                        if (dirContext == null) {
+                            dirContext = getSearchContext();
+                        }
+                        groups = Collections.unmodifiableSet(loadGroups(current));
+                        groupCache.put(current.getName(), groups);
+                    } else {
+                        SECURITY_LOGGER.tracef("Using cached groups for user '%s'", current.getName());
+                    }
+                    principals.addAll(groups);
                 }
 
             } catch (Exception e) {
@@ -157,6 +183,10 @@ public class LdapSubjectSupplementalService implements Service<SubjectSupplement
             } finally {
                 safeClose(dirContext);
                 dirContext = null;
+                // A connection shared by authentication is not needed if the groups were cached.
+                if (shareConnection) {
+                    safeClose((Context) sharedState.remove(DirContext.class.getName()));
+                }
             }
         }
 
@@ -269,7 +269,10 @@ public class SecurityRealmAddHandler implements OperationStepHandler {
         final boolean recursive = LdapAuthenticationResourceDefinition.RECURSIVE.resolveModelAttribute(context, ldap).asBoolean();
         final boolean allowEmptyPasswords = LdapAuthenticationResourceDefinition.ALLOW_EMPTY_PASSWORDS.resolveModelAttribute(context, ldap).asBoolean();
         final String userDn = LdapAuthenticationResourceDefinition.USER_DN.resolveModelAttribute(context, ldap).asString();
-        UserLdapCallbackHandler ldapCallbackHandler = new UserLdapCallbackHandler(baseDn, usernameAttribute, advancedFilter, recursive, userDn, allowEmptyPasswords, shareConnection);
+        final long cacheTtl = LdapAuthenticationResourceDefinition.CACHE_TTL.resolveModelAttribute(context, ldap).asLong();
+        final int cacheMaxEntries = LdapAuthenticationResourceDefinition.CACHE_MAX_ENTRIES.resolveModelAttribute(context, ldap).asInt();
+        UserLdapCallbackHandler ldapCallbackHandler = new UserLdapCallbackHandler(baseDn, usernameAttribute, advancedFilter, recursive, userDn, allowEmptyPasswords, shareConnection,
+                cacheTtl, cacheMaxEntries);
 
         ServiceBuilder<?> ldapBuilder = serviceTarget.addService(ldapServiceName, ldapCallbackHandler);
         String connectionManager = LdapAuthenticationResourceDefinition.CONNECTION.resolveModelAttribute(context, ldap).asString();
@@ -476,7 +479,11 @@ public class SecurityRealmAddHandler implements OperationStepHandler {
 
         String connectionName = LdapAuthorizationResourceDefinition.CONNECTION.resolveModelAttribute(context, ldap).asString();
 
-        LdapSubjectSupplementalService service = new LdapSubjectSupplementalService(realmName, shareConnection, forceUserDnSearch, iterative, groupName);
+        long cacheTtl = LdapAuthorizationResourceDefinition.CACHE_TTL.resolveModelAttribute(context, ldap).asLong();
+        int cacheMaxEntries = LdapAuthorizationResourceDefinition.CACHE_MAX_ENTRIES.resolveModelAttribute(context, ldap).asInt();
+
+        LdapSubjectSupplementalService service = new LdapSubjectSupplementalService(realmName, shareConnection, forceUserDnSearch, iterative, groupName,
+                cacheTtl, cacheMaxEntries);
         ServiceBuilder<SubjectSupplementalService> ldapBuilder = serviceTarget.addService(ldapName, service)
                 .setInitialMode(ON_DEMAND);
         LdapConnectionManagerService.ServiceUtil.addDependency(ldapBuilder, service.getConnectionManagerInjector(), connectionName, false);
@@ -78,10 +78,11 @@ public class UserLdapCallbackHandler implements Service<CallbackHandlerService>,
     private final String userDn;
     private final boolean allowEmptyPassword;
     private final boolean shareConnection;
+    private final LdapSearchCache<String, String> userDnCache;
     protected final int searchTimeLimit = 10000; // TODO - Maybe make configurable.
 
     public UserLdapCallbackHandler(String baseDn, String userNameAttribute, String advancedFilter, boolean recursive,
-                                   String userDn, boolean allowEmptyPassword, boolean shareConnection) {
+                                   String userDn, boolean allowEmptyPassword, boolean shareConnection, long cacheTtl, int cacheMaxEntries) {
         this.baseDn = baseDn;
         if (userNameAttribute == null && advancedFilter == null) {
             throw MESSAGES.oneOfRequired(USERNAME_ATTRIBUTE, ADVANCED_FILTER);
@@ -92,6 +93,7 @@ public class UserLdapCallbackHandler implements Service<CallbackHandlerService>,
         this.userDn = userDn;
         this.allowEmptyPassword = allowEmptyPassword;
         this.shareConnection = shareConnection;
+        this.userDnCache = new LdapSearchCache<String, String>(cacheTtl, cacheMaxEntries);
     }
 
     /*
@@ -126,6 +128,7 @@ public class UserLdapCallbackHandler implements Service<CallbackHandlerService>,
     }
 
     public void stop(StopContext context) {
+        userDnCache.clear();
     }
 
     public CallbackHandlerService getValue() throws IllegalStateException, IllegalArgumentException {
@@ -140,6 +143,18 @@ public class UserLdapCallbackHandler implements Service<CallbackHandlerService>,
         return connectionManager;
     }
 
+    /*
+     *  Cache Statistics
+     */
+
+    long getCacheHits() {
+        return userDnCache.getHits();
+    }
+
+    long getCacheMisses() {
+        return userDnCache.getMisses();
+    }
+
 
     /*
      *  CallbackHandler Method
@@ -203,48 +218,52 @@ public class UserLdapCallbackHandler implements Service<CallbackHandlerService>,
             DirContext userContext = null;
             NamingEnumeration<SearchResult> searchEnumeration = null;
             try {
-                // 1 - Obtain Connection to LDAP
-                searchContext = (DirContext) connectionManager.getConnection();
-                // 2 - Search to identify the DN of the user connecting
-                SearchControls searchControls = new SearchControls();
-                if (recursive) {
-                    SECURITY_LOGGER.trace("Performing recursive search");
-                    searchControls.setSearchScope(SearchControls.SUBTREE_SCOPE);
-                } else {
-                    SECURITY_LOGGER.trace("Performing single level search");
-                    searchControls.setSearchScope(SearchControls.ONELEVEL_SCOPE);
-                }
-                searchControls.setReturningAttributes(new String[] { userDn });
-                searchControls.setTimeLimit(searchTimeLimit);
-
-                Object[] filterArguments = new Object[] { username };
-                String filter = usernameAttribute != null ? "(" + usernameAttribute + "={0})" : advancedFilter;
-                SECURITY_LOGGER.tracef("Searching for user '%s' using filter '%s'.", username, filter);
+                String distinguishedUserDN = userDnCache.get(username);
+                if (distinguishedUserDN == null) {
+                    // 1 - Obtain Connection to LDAP
+                    searchContext = (DirContext) connectionManager.getConnection();
+                    // 2 - Search to identify the DN of the user connecting
+                    SearchControls searchControls = new SearchControls();
+                    if (recursive) {
+                        SECURITY_LOGGER.trace("Performing recursive search");
+                        searchControls.setSearchScope(SearchControls.SUBTREE_SCOPE);
+                    } else {
+                        SECURITY_LOGGER.trace("Performing single level search");
+                        searchControls.setSearchScope(SearchControls.ONELEVEL_SCOPE);
+                    }
+                    searchControls.setReturningAttributes(new String[] { userDn });
+                    searchControls.setTimeLimit(searchTimeLimit);
 
-                searchEnumeration = searchContext.search(baseDn, filter, filterArguments, searchControls);
-                if (searchEnumeration.hasMore() == false) {
-                    SECURITY_LOGGER.tracef("User '%s' not found in directory.", username);
-                    throw MESSAGES.userNotFoundInDirectory(username);
-                }
+                    Object[] filterArguments = new Object[] { username };
+                    String filter = usernameAttribute != null ? "(" + usernameAttribute + "={0})" : advancedFilter;
+                    SECURITY_LOGGER.tracef("Searching for user '%s' using filter '%s'.", username, filter);
 
-                String distinguishedUserDN = null;
+                    searchEnumeration = searchContext.search(baseDn, filter, filterArguments, searchControls);
+                    if (searchEnumeration.hasMore() == false) {
+                        SECURITY_LOGGER.tracef("User '%s' not found in directory.", username);
+                        throw MESSAGES.userNotFoundInDirectory(username);
+                    }
 
-                SearchResult result = searchEnumeration.next();
-                Attributes attributes = result.getAttributes();
-                if (attributes != null) {
-                    Attribute dn = attributes.get(userDn);
-                    if (dn != null) {
-                        distinguishedUserDN = (String) dn.get();
+                    SearchResult result = searchEnumeration.next();
+                    Attributes attributes = result.getAttributes();
+                    if (attributes != null) {
+                        Attribute dn = attributes.get(userDn);
+                        if (dn != null) {
+                            distinguishedUserDN = (String) dn.get();
+                        }
                     }
-                }
-                if (distinguishedUserDN == null) {
-                    if (result.isRelative() == true) {
-                        distinguishedUserDN = result.getName() + ("".equals(baseDn) ? "" : "," + baseDn);
-                    } else {
-                        String name = result.getName();
-                        SECURITY_LOGGER.tracef("Can't follow referral for authentication: %s", name);
-                        throw MESSAGES.nameNotFound(name);
+                    if (distinguishedUserDN == null) {
+                        if (result.isRelative() == true) {
+                            distinguishedUserDN = result.getName() + ("".equals(baseDn) ? "" : "," + baseDn);
+                        } else {
+                            String name = result.getName();
+                            SECURITY_LOGGER.tracef("Can't follow referral for authentication: %s", name);
+                            throw MESSAGES.nameNotFound(name);
+                        }
                     }
+                    userDnCache.put(username, distinguishedUserDN);
+                } else {
+                    SECURITY_LOGGER.tracef("Using cached DN for user '%s'", username);
                 }
                 SECURITY_LOGGER.tracef("DN '%s' found for user '%s'", distinguishedUserDN, username);
 
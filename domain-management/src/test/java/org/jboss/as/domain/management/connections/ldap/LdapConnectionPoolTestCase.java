@@ -0,0 +1,243 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.domain.management.connections.ldap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.naming.CommunicationException;
+import javax.naming.NamingException;
+import javax.naming.directory.Attributes;
+import javax.naming.directory.DirContext;
+
+import org.junit.Test;
+
+/**
+ * Test case for the pooling of LDAP search connections.
+ */
+public class LdapConnectionPoolTestCase {
+
+    @Test
+    public void testReuse() throws Exception {
+        LdapConnectionPool pool = new LdapConnectionPool(2, 0, 0, false);
+        MockContextFactory factory = new MockContextFactory();
+
+        DirContext first = pool.getContext(factory);
+        first.close();
+        assertEquals(1, pool.getIdleCount());
+
+        DirContext second = pool.getContext(factory);
+        assertNotSame(first, second);
+        assertEquals(0, pool.getIdleCount());
+
+        Attributes attributes = mock(Attributes.class);
+        when(factory.get(0).getAttributes("cn=test")).thenReturn(attributes);
+        assertSame(attributes, second.getAttributes("cn=test"));
+        second.close();
+
+        assertEquals(1, factory.contexts.size());
+        assertEquals(1, pool.getCreatedCount());
+        assertEquals(1, pool.getReusedCount());
+        verify(factory.get(0), never()).close();
+    }
+
+    @Test
+    public void testClosedContextNotUsable() throws Exception {
+        LdapConnectionPool pool = new LdapConnectionPool(2, 0, 0, false);
+        MockContextFactory factory = new MockContextFactory();
+
+        DirContext context = pool.getContext(factory);
+        context.close();
+        // a second close must not return the context to the pool again
+        context.close();
+        assertEquals(1, pool.getIdleCount());
+
+        try {
+            context.getAttributes("cn=test");
+            fail("Closed context should not be usable");
+        } catch (NamingException expected) {
+        }
+    }
+
+    @Test
+    public void testMaxSize() throws Exception {
+        LdapConnectionPool pool = new LdapConnectionPool(1, 0, 0, false);
+        MockContextFactory factory = new MockContextFactory();
+
+        DirContext first = pool.getContext(factory);
+        DirContext second = pool.getContext(factory);
+        first.close();
+        second.close();
+
+        assertEquals(1, pool.getIdleCount());
+        verify(factory.get(0), never()).close();
+        verify(factory.get(1)).close();
+    }
+
+    @Test
+    public void testPoolingDisabled() throws Exception {
+        LdapConnectionPool pool = new LdapConnectionPool(0, 0, 0, false);
+        MockContextFactory factory = new MockContextFactory();
+
+        DirContext context = pool.getContext(factory);
+        assertSame(factory.get(0), context);
+        context.close();
+
+        assertEquals(0, pool.getIdleCount());
+        assertEquals(0, pool.getCreatedCount());
+        verify(factory.get(0)).close();
+    }
+
+    @Test
+    public void testBrokenContextDiscarded() throws Exception {
+        LdapConnectionPool pool = new LdapConnectionPool(2, 0, 0, false);
+        MockContextFactory factory = new MockContextFactory();
+
+        DirContext context = pool.getContext(factory);
+        when(factory.get(0).getAttributes("cn=test")).thenThrow(new CommunicationException());
+        try {
+            context.getAttributes("cn=test");
+            fail("Expected a CommunicationException");
+        } catch (CommunicationException expected) {
+        }
+        context.close();
+
+        assertEquals(0, pool.getIdleCount());
+        verify(factory.get(0)).close();
+
+        pool.getContext(factory).close();
+        assertEquals(2, factory.contexts.size());
+    }
+
+    @Test
+    public void testOtherFailureRetainsContext() throws Exception {
+        LdapConnectionPool pool = new LdapConnectionPool(2, 0, 0, false);
+        MockContextFactory factory = new MockContextFactory();
+
+        DirContext context = pool.getContext(factory);
+        when(factory.get(0).getAttributes("cn=test")).thenThrow(new NamingException());
+        try {
+            context.getAttributes("cn=test");
+            fail("Expected a NamingException");
+        } catch (NamingException expected) {
+        }
+        context.close();
+
+        assertEquals(1, pool.getIdleCount());
+        verify(factory.get(0), never()).close();
+    }
+
+    @Test
+    public void testIdleExpiry() throws Exception {
+        LdapConnectionPool pool = new LdapConnectionPool(2, 0, 100, false);
+        MockContextFactory factory = new MockContextFactory();
+
+        pool.getContext(factory).close();
+        Thread.sleep(300);
+
+        pool.getContext(factory).close();
+
+        assertEquals(2, factory.contexts.size());
+        assertEquals(0, pool.getReusedCount());
+        verify(factory.get(0)).close();
+        assertEquals(1, pool.getIdleCount());
+    }
+
+    @Test
+    public void testIdleExpiryRetainsMinSize() throws Exception {
+        LdapConnectionPool pool = new LdapConnectionPool(2, 1, 100, false);
+        MockContextFactory factory = new MockContextFactory();
+
+        pool.getContext(factory).close();
+        Thread.sleep(300);
+
+        pool.getContext(factory).close();
+
+        assertEquals(1, factory.contexts.size());
+        assertEquals(1, pool.getReusedCount());
+        verify(factory.get(0), never()).close();
+    }
+
+    @Test
+    public void testValidation() throws Exception {
+        LdapConnectionPool pool = new LdapConnectionPool(2, 0, 0, true);
+        MockContextFactory factory = new MockContextFactory();
+
+        pool.getContext(factory).close();
+        pool.getContext(factory).close();
+        assertEquals(1, factory.contexts.size());
+        verify(factory.get(0)).getAttributes(eq(""), any(String[].class));
+
+        when(factory.get(0).getAttributes(eq(""), any(String[].class))).thenThrow(new NamingException());
+        pool.getContext(factory).close();
+
+        assertEquals(2, factory.contexts.size());
+        verify(factory.get(0)).close();
+        assertEquals(1, pool.getReusedCount());
+    }
+
+    @Test
+    public void testClose() throws Exception {
+        LdapConnectionPool pool = new LdapConnectionPool(2, 0, 0, false);
+        MockContextFactory factory = new MockContextFactory();
+
+        DirContext idle = pool.getContext(factory);
+        DirContext borrowed = pool.getContext(factory);
+        idle.close();
+
+        pool.close();
+        assertEquals(0, pool.getIdleCount());
+        verify(factory.get(0)).close();
+
+        // contexts returned after the pool is closed are closed too
+        borrowed.close();
+        assertEquals(0, pool.getIdleCount());
+        verify(factory.get(1)).close();
+    }
+
+    private static class MockContextFactory implements LdapConnectionPool.ContextFactory {
+        final List<DirContext> contexts = new ArrayList<DirContext>();
+
+        @Override
+        public DirContext createContext() throws Exception {
+            DirContext context = mock(DirContext.class);
+            contexts.add(context);
+            return context;
+        }
+
+        DirContext get(int index) {
+            return contexts.get(index);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.domain.management.security;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+/**
+ * Test case for the cache of LDAP search results.
+ */
+public class LdapSearchCacheTestCase {
+
+    @Test
+    public void testHitsAndMisses() {
+        LdapSearchCache<String, String> cache = new LdapSearchCache<String, String>(60000, 10);
+
+        assertNull(cache.get("user"));
+        cache.put("user", "cn=user");
+        assertEquals("cn=user", cache.get("user"));
+        assertEquals("cn=user", cache.get("user"));
+
+        assertEquals(2, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void testTimeToLive() throws Exception {
+        LdapSearchCache<String, String> cache = new LdapSearchCache<String, String>(100, 10);
+
+        cache.put("user", "cn=user");
+        assertEquals("cn=user", cache.get("user"));
+
+        Thread.sleep(300);
+
+        assertNull(cache.get("user"));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void testDisabled() {
+        LdapSearchCache<String, String> cache = new LdapSearchCache<String, String>(0, 10);
+
+        cache.put("user", "cn=user");
+        assertNull(cache.get("user"));
+        assertEquals(0, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void testMaxEntries() {
+        int maxEntries = 5;
+        LdapSearchCache<String, String> cache = new LdapSearchCache<String, String>(60000, maxEntries);
+
+        for (int i = 0; i < 20; i++) {
+            cache.put("user" + i, "cn=user" + i);
+        }
+        // the most recently cached result is always retained
+        assertEquals("cn=user19", cache.get("user19"));
+
+        int cached = 0;
+        for (int i = 0; i < 20; i++) {
+            if (cache.get("user" + i) != null) {
+                cached++;
+            }
+        }
+        assertEquals(maxEntries, cached);
+    }
+
+    @Test
+    public void testMaxEntriesRemovesExpiredFirst() throws Exception {
+        LdapSearchCache<String, String> cache = new LdapSearchCache<String, String>(200, 2);
+
+        cache.put("expired", "cn=expired");
+        Thread.sleep(400);
+        cache.put("first", "cn=first");
+        cache.put("second", "cn=second");
+
+        assertEquals("cn=first", cache.get("first"));
+        assertEquals("cn=second", cache.get("second"));
+        assertNull(cache.get("expired"));
+    }
+
+    @Test
+    public void testClear() {
+        LdapSearchCache<String, String> cache = new LdapSearchCache<String, String>(60000, 10);
+
+        cache.put("user", "cn=user");
+        cache.clear();
+        assertNull(cache.get("user"));
+    }
+}
@@ -585,6 +585,22 @@ public interface EjbLogger extends BasicLogger {
     @Message(id = 14265, value = "Error during transaction recovery")
     void errorDuringTransactionRecovery(@Cause Throwable cause);
 
+    @LogMessage(level = WARN)
+    @Message(id = 14266, value = "Discarding incomplete write at the end of timer journal %s, truncating to %d bytes")
+    void truncatedTimerJournal(File file, long size);
+
+    @LogMessage(level = WARN)
+    @Message(id = 14267, value = "Failed to refresh timers for %s from the database")
+    void timerRefreshFailed(@Cause Throwable cause, String timedObjectId);
+
+    @LogMessage(level = ERROR)
+    @Message(id = 14268, value = "Failed to process method invocation request received on channel %s")
+    void failedToProcessInvocationRequest(@Cause Throwable cause, Channel channel);
+
+    @LogMessage(level = ERROR)
+    @Message(id = 14269, value = "Exception running scheduled task for timer %s")
+    void exceptionRunningScheduledTimerTask(String timerId, @Cause Throwable cause);
+
 
 
     // Don't add message ids greater that 14299!!! If you need more first check what EjbMessages is
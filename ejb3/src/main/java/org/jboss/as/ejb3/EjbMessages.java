@@ -2488,6 +2488,9 @@ public interface EjbMessages {
     @Message(id = 14588, value = "CMP Entity Beans are not supported")
     DeploymentUnitProcessingException cmpEntityBeansAreNotSupported();
 
+    @Message(id = 14589, value = "Timer journal segment %s is corrupt at position %d")
+    IOException corruptTimerJournal(File file, long position);
+
     // STOP!!! Don't add message ids greater that 14599!!! If you need more first check what EjbLogger is
     // using and take more (lower) numbers from the available range for this module. If the range for the module is
     // all used, go to https://community.jboss.org/docs/DOC-16810 and allocate another block for this subsystem
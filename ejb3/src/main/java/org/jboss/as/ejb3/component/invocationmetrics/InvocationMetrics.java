@@ -29,10 +29,16 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.concurrent.atomic.AtomicReference;
+
+import org.jboss.as.ejb3.util.LatencyHistogram;
+import org.jboss.as.server.util.jdk8backported.LongAdder;
 
 /**
+ * Invocation statistics of a component.
+ * Counters are striped, so that recording an invocation neither allocates nor contends on a single atomic variable.
+ *
  * @author <a href="mailto:cdewolf@redhat.com">Carlo de Wolf</a>
  */
 public class InvocationMetrics {
@@ -40,11 +46,15 @@ public class InvocationMetrics {
         final long invocations;
         final long executionTime;
         final long waitTime;
+        final LatencyHistogram.Snapshot executionTimeHistogram;
+        final LatencyHistogram.Snapshot waitTimeHistogram;
 
-        private Values(final long invocations, final long waitTime, final long executionTime) {
+        private Values(final long invocations, final long waitTime, final long executionTime, final LatencyHistogram.Snapshot waitTimeHistogram, final LatencyHistogram.Snapshot executionTimeHistogram) {
             this.invocations = invocations;
             this.executionTime = executionTime;
             this.waitTime = waitTime;
+            this.executionTimeHistogram = executionTimeHistogram;
+            this.waitTimeHistogram = waitTimeHistogram;
         }
 
         public long getExecutionTime() {
@@ -58,40 +68,76 @@ public class InvocationMetrics {
         public long getWaitTime() {
             return waitTime;
         }
+
+        public LatencyHistogram.Snapshot getExecutionTimeHistogram() {
+            return executionTimeHistogram;
+        }
+
+        public LatencyHistogram.Snapshot getWaitTimeHistogram() {
+            return waitTimeHistogram;
+        }
+    }
+
+    static class Counters {
+        final LongAdder invocations = new LongAdder();
+        // in nanoseconds
+        final LongAdder executionTime = new LongAdder();
+        final LongAdder waitTime = new LongAdder();
+
+        void record(final long waitTime, final long executionTime) {
+            this.invocations.increment();
+            this.waitTime.add(waitTime);
+            this.executionTime.add(executionTime);
+        }
     }
 
-    private final AtomicReference<Values> values = new AtomicReference<Values>(new Values(0, 0, 0));
+    static class MethodCounters extends Counters {
+        final LatencyHistogram executionTimeHistogram = new LatencyHistogram();
+        final LatencyHistogram waitTimeHistogram = new LatencyHistogram();
+
+        @Override
+        void record(final long waitTime, final long executionTime) {
+            super.record(waitTime, executionTime);
+            this.waitTimeHistogram.record(waitTime, TimeUnit.NANOSECONDS);
+            this.executionTimeHistogram.record(executionTime, TimeUnit.NANOSECONDS);
+        }
+
+        Values getValues() {
+            return new Values(this.invocations.sum(), toMillis(this.waitTime), toMillis(this.executionTime), this.waitTimeHistogram.getSnapshot(), this.executionTimeHistogram.getSnapshot());
+        }
+    }
+
+    private final Counters values = new Counters();
     private final AtomicLong concurrent = new AtomicLong(0);
     private final AtomicLong peakConcurrent = new AtomicLong(0);
 
-    private final ConcurrentMap<String, AtomicReference<Values>> methods = new ConcurrentHashMap<String, AtomicReference<Values>>();
+    private final ConcurrentMap<String, MethodCounters> methods = new ConcurrentHashMap<String, MethodCounters>();
 
+    /**
+     * Records a finished invocation.
+     * @param method the invoked method
+     * @param invocationWaitTime the time, in nanoseconds, spent waiting to obtain an instance
+     * @param invocationExecutionTime the time, in nanoseconds, spent executing the invocation
+     */
     void finishInvocation(final Method method, final long invocationWaitTime, final long invocationExecutionTime) {
         concurrent.decrementAndGet();
-        for(;;) {
-            final Values oldv = values.get();
-            final Values newv = new Values(oldv.invocations + 1, oldv.waitTime + invocationWaitTime, oldv.executionTime + invocationExecutionTime);
-            if (values.compareAndSet(oldv, newv))
-                break;
-        }
-        final AtomicReference<Values> methodValues = ref(methods, method.getName());
-        for (;;) {
-            final Values oldv = methodValues.get();
-            final Values newv = new Values(oldv.invocations + 1, oldv.waitTime + invocationWaitTime, oldv.executionTime + invocationExecutionTime);
-            if (methodValues.compareAndSet(oldv, newv))
-                break;
-        }
+        values.record(invocationWaitTime, invocationExecutionTime);
+        counters(methods, method.getName()).record(invocationWaitTime, invocationExecutionTime);
     }
 
-    private static AtomicReference<Values> ref(final ConcurrentMap<String, AtomicReference<Values>> map, final String key) {
-        AtomicReference<Values> ref = map.get(key);
-        if (ref == null) {
-            ref = new AtomicReference<Values>(new Values(0, 0, 0));
-            final AtomicReference<Values> prevRef = map.putIfAbsent(key, ref);
-            if (prevRef != null)
-                ref = prevRef;
+    private static MethodCounters counters(final ConcurrentMap<String, MethodCounters> map, final String key) {
+        MethodCounters counters = map.get(key);
+        if (counters == null) {
+            counters = new MethodCounters();
+            final MethodCounters prevCounters = map.putIfAbsent(key, counters);
+            if (prevCounters != null)
+                counters = prevCounters;
         }
-        return ref;
+        return counters;
+    }
+
+    static long toMillis(final LongAdder nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos.sum());
     }
 
     public long getConcurrent() {
@@ -99,11 +145,11 @@ public class InvocationMetrics {
     }
 
     public long getExecutionTime() {
-        return values.get().executionTime;
+        return toMillis(values.executionTime);
     }
 
     public long getInvocations() {
-        return values.get().invocations;
+        return values.invocations.sum();
     }
 
     public Map<String, Values> getMethods() {
@@ -113,7 +159,7 @@ public class InvocationMetrics {
                 return new AbstractSet<Entry<String, Values>>() {
                     @Override
                     public Iterator<Entry<String, Values>> iterator() {
-                        final Iterator<Entry<String, AtomicReference<Values>>> delegate = methods.entrySet().iterator();
+                        final Iterator<Entry<String, MethodCounters>> delegate = methods.entrySet().iterator();
                         return new Iterator<Entry<String, Values>>() {
                             @Override
                             public boolean hasNext() {
@@ -122,7 +168,7 @@ public class InvocationMetrics {
 
                             @Override
                             public Entry<String, Values> next() {
-                                final Entry<String, AtomicReference<Values>> next = delegate.next();
+                                final Entry<String, MethodCounters> next = delegate.next();
                                 return new Entry<String, Values>() {
                                     @Override
                                     public String getKey() {
@@ -131,7 +177,7 @@ public class InvocationMetrics {
 
                                     @Override
                                     public Values getValue() {
-                                        return next.getValue().get();
+                                        return next.getValue().getValues();
                                     }
 
                                     @Override
@@ -162,7 +208,7 @@ public class InvocationMetrics {
     }
 
     public long getWaitTime() {
-        return values.get().waitTime;
+        return toMillis(values.waitTime);
     }
 
     void startInvocation() {
@@ -0,0 +1,237 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.pool.affinity;
+
+import static org.jboss.as.ejb3.EjbLogger.ROOT_LOGGER;
+import static org.jboss.as.ejb3.EjbMessages.MESSAGES;
+
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.jboss.as.ejb3.pool.AbstractPool;
+import org.jboss.as.ejb3.pool.PoolStatistics;
+import org.jboss.as.ejb3.pool.StatelessObjectFactory;
+import org.jboss.as.ejb3.util.LatencyHistogram;
+
+/**
+ * A pool with a maximum size, whose free instances are held in lock-free structures.
+ * <p/>
+ * Like {@link org.jboss.as.ejb3.pool.strictmax.StrictMaxPool}, at most maxSize instances may be in use at any given time,
+ * but the monitor guarding the free list is replaced by a set of affinity slots, backed by a lock-free LIFO stack.
+ * The number of slots defaults to the number of available processors, rounded down to a power of 2, and each thread
+ * is assigned a home slot by its thread id. Threads are not bound to processors, so threads sharing a home slot
+ * merely compete for it, falling back to the shared stack.
+ * A thread first tries to reuse the instance it last released into its home slot, then the shared stack,
+ * and finally steals an instance parked in another slot, before creating a new instance.
+ */
+public class ThreadAffinityPool<T> extends AbstractPool<T> implements PoolStatistics {
+
+    /**
+     * A non-fair semaphore limiting the number of instances in use to maxSize.
+     */
+    private final Semaphore semaphore;
+    /**
+     * The maximum number of instances allowed in the pool
+     */
+    private final int maxSize;
+    /**
+     * The time to wait for the semaphore.
+     */
+    private final long timeout;
+    private final TimeUnit timeUnit;
+    /**
+     * Free instances with affinity to a given slot, indexed by thread id modulo the number of slots
+     */
+    private final AtomicReferenceArray<T> slots;
+    private final int mask;
+    /**
+     * Free instances that did not fit into an affinity slot
+     */
+    private final ConcurrentLinkedDeque<T> shared = new ConcurrentLinkedDeque<T>();
+    /**
+     * The number of free instances, bounded by maxSize
+     */
+    private final AtomicInteger idle = new AtomicInteger();
+    private final LatencyHistogram acquisitionWaitTimes = new LatencyHistogram();
+
+    public ThreadAffinityPool(StatelessObjectFactory<T> factory, int maxSize, long timeout, TimeUnit timeUnit) {
+        this(factory, maxSize, timeout, timeUnit, Runtime.getRuntime().availableProcessors());
+    }
+
+    public ThreadAffinityPool(StatelessObjectFactory<T> factory, int maxSize, long timeout, TimeUnit timeUnit, int concurrency) {
+        super(factory);
+        this.maxSize = maxSize;
+        this.semaphore = new Semaphore(maxSize, false);
+        this.timeout = timeout;
+        this.timeUnit = timeUnit;
+        // Round down to a power of 2, but never use more slots than there are instances
+        int slots = Integer.highestOneBit(Math.max(Math.min(concurrency, maxSize), 1));
+        this.slots = new AtomicReferenceArray<T>(slots);
+        this.mask = slots - 1;
+    }
+
+    public void discard(T ctx) {
+        if (ROOT_LOGGER.isTraceEnabled()) {
+            ROOT_LOGGER.tracef("Discard instance %s#%s", this, ctx);
+        }
+
+        semaphore.release();
+
+        // Let the super do any other remove stuff
+        super.doRemove(ctx);
+    }
+
+    public int getCurrentSize() {
+        return getCreateCount() - getRemoveCount();
+    }
+
+    public int getAvailableCount() {
+        return semaphore.availablePermits();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        throw MESSAGES.methodNotImplemented();
+    }
+
+    @Override
+    public LatencyHistogram.Snapshot getAcquisitionWaitTimes() {
+        return acquisitionWaitTimes.getSnapshot();
+    }
+
+    /**
+     * Get an instance without identity.
+     * Can be used by finders,create-methods, and activation
+     *
+     * @return Context /w instance
+     */
+    public T get() {
+        final long start = System.nanoTime();
+        // Avoid the timed acquire, and its interruption check, when a permit is immediately available
+        if (!semaphore.tryAcquire()) {
+            try {
+                boolean acquired = semaphore.tryAcquire(timeout, timeUnit);
+                if (!acquired)
+                    throw MESSAGES.failedToAcquirePermit(timeout, timeUnit);
+            } catch (InterruptedException e) {
+                throw MESSAGES.acquireSemaphoreInterrupted();
+            }
+        }
+        acquisitionWaitTimes.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        T bean = poll();
+        if (bean != null) {
+            return bean;
+        }
+
+        try {
+            // Pool is empty, create an instance
+            bean = create();
+        } finally {
+            if (bean == null) {
+                semaphore.release();
+            }
+        }
+        return bean;
+    }
+
+    /**
+     * Return an instance after invocation.
+     * <p/>
+     * Called in 2 cases:
+     * a) Done with finder method
+     * b) Just removed
+     *
+     * @param obj
+     */
+    public void release(T obj) {
+        if (ROOT_LOGGER.isTraceEnabled()) {
+            ROOT_LOGGER.tracef("%s/%s Free instance: %s", idle.get(), maxSize, this);
+        }
+
+        if (idle.incrementAndGet() <= maxSize) {
+            // Add the unused context back into the pool, preferring this thread's slot
+            if (!slots.compareAndSet(home(), null, obj)) {
+                shared.offerFirst(obj);
+            }
+        } else {
+            idle.decrementAndGet();
+            destroy(obj);
+        }
+        semaphore.release();
+    }
+
+    @Override
+    @Deprecated
+    public void remove(T ctx) {
+        if (ROOT_LOGGER.isTraceEnabled()) {
+            ROOT_LOGGER.tracef("Removing instance: %s#%s", this, ctx);
+        }
+
+        semaphore.release();
+        // let the super do the other remove stuff
+        super.doRemove(ctx);
+    }
+
+    public void start() {
+    }
+
+    public void stop() {
+        T obj = poll();
+        while (obj != null) {
+            destroy(obj);
+            obj = poll();
+        }
+    }
+
+    // The home slot of the current thread, which does not depend on the processor it currently runs on
+    private int home() {
+        return (int) Thread.currentThread().getId() & mask;
+    }
+
+    private T poll() {
+        final int home = home();
+        T bean = take(home);
+        if (bean == null) {
+            bean = shared.pollFirst();
+        }
+        // Steal from the slots of other threads
+        for (int i = 1; (bean == null) && (i <= mask); ++i) {
+            bean = take((home + i) & mask);
+        }
+        if (bean != null) {
+            idle.decrementAndGet();
+        }
+        return bean;
+    }
+
+    private T take(int slot) {
+        // Read before writing, to avoid invalidating the cache line of an empty slot
+        return (slots.get(slot) != null) ? slots.getAndSet(slot, null) : null;
+    }
+}
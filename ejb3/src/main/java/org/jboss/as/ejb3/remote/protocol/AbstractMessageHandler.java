@@ -120,6 +120,50 @@ public abstract class AbstractMessageHandler implements MessageHandler {
         }
     }
 
+    /**
+     * Writes out the exception using a marshaller from the passed pool, which is returned to the pool once the exception
+     * has been written out successfully
+     */
+    protected void writeException(final ChannelAssociation channelAssociation, final MarshallingPool marshallingPool,
+                                  final short invocationId, final Throwable t,
+                                  final Map<String, Object> attachments) throws IOException {
+        final DataOutputStream outputStream;
+        final MessageOutputStream messageOutputStream;
+        try {
+            messageOutputStream = channelAssociation.acquireChannelMessageOutputStream();
+        } catch (Exception e) {
+            throw EjbMessages.MESSAGES.failedToOpenMessageOutputStream(e);
+        }
+        outputStream = new DataOutputStream(messageOutputStream);
+        try {
+            // write the header
+            outputStream.write(HEADER_INVOCATION_EXCEPTION);
+            // write the invocation id
+            outputStream.writeShort(invocationId);
+            // write out the exception
+            final Marshaller marshaller = marshallingPool.acquireMarshaller();
+            boolean success = false;
+            try {
+                this.startMarshalling(marshaller, outputStream);
+                marshaller.writeObject(t);
+                // write the attachments
+                this.writeAttachments(marshaller, attachments);
+                // finish marshalling
+                marshaller.finish();
+                success = true;
+            } finally {
+                if (success) {
+                    marshallingPool.releaseMarshaller(marshaller);
+                } else {
+                    marshaller.close();
+                }
+            }
+        } finally {
+            channelAssociation.releaseChannelMessageOutputStream(messageOutputStream);
+            outputStream.close();
+        }
+    }
+
     protected void writeInvocationFailure(final ChannelAssociation channelAssociation, final byte messageHeader, final short invocationId, final String failureMessage) throws IOException {
         final DataOutputStream dataOutputStream;
         final MessageOutputStream messageOutputStream;
@@ -190,6 +234,18 @@ public abstract class AbstractMessageHandler implements MessageHandler {
      */
     protected org.jboss.marshalling.Marshaller prepareForMarshalling(final org.jboss.marshalling.MarshallerFactory marshallerFactory, final DataOutput dataOutput) throws IOException {
         final org.jboss.marshalling.Marshaller marshaller = this.getMarshaller(marshallerFactory);
+        this.startMarshalling(marshaller, dataOutput);
+        return marshaller;
+    }
+
+    /**
+     * Starts the passed (possibly pooled) {@link org.jboss.marshalling.Marshaller}, so that it marshals to the passed {@link java.io.DataOutput dataOutput}
+     *
+     * @param marshaller The marshaller
+     * @param dataOutput The {@link java.io.DataOutput} to which the data will be marshalled
+     * @throws IOException
+     */
+    protected void startMarshalling(final org.jboss.marshalling.Marshaller marshaller, final DataOutput dataOutput) throws IOException {
         final OutputStream outputStream = new OutputStream() {
             @Override
             public void write(int b) throws IOException {
@@ -210,8 +266,6 @@ public abstract class AbstractMessageHandler implements MessageHandler {
         final ByteOutput byteOutput = Marshalling.createByteOutput(outputStream);
         // start the marshaller
         marshaller.start(byteOutput);
-
-        return marshaller;
     }
 
     /**
@@ -222,12 +276,16 @@ public abstract class AbstractMessageHandler implements MessageHandler {
      * @throws IOException
      */
     private org.jboss.marshalling.Marshaller getMarshaller(final org.jboss.marshalling.MarshallerFactory marshallerFactory) throws IOException {
+        return marshallerFactory.createMarshaller(createMarshallingConfiguration());
+    }
+
+    static MarshallingConfiguration createMarshallingConfiguration() {
         final MarshallingConfiguration marshallingConfiguration = new MarshallingConfiguration();
         marshallingConfiguration.setClassTable(ProtocolV1ClassTable.INSTANCE);
         marshallingConfiguration.setObjectTable(ProtocolV1ObjectTable.INSTANCE);
         marshallingConfiguration.setVersion(2);
         marshallingConfiguration.setSerializedCreator(new SunReflectiveCreator());
-        return marshallerFactory.createMarshaller(marshallingConfiguration);
+        return marshallingConfiguration;
     }
 
     /**
@@ -279,12 +337,16 @@ public abstract class AbstractMessageHandler implements MessageHandler {
      * @throws IOException
      */
     private Unmarshaller getUnMarshaller(final MarshallerFactory marshallerFactory, final ClassResolver classResolver) throws IOException {
+        return marshallerFactory.createUnmarshaller(createUnMarshallingConfiguration(classResolver));
+    }
+
+    static MarshallingConfiguration createUnMarshallingConfiguration(final ClassResolver classResolver) {
         final MarshallingConfiguration marshallingConfiguration = new MarshallingConfiguration();
         marshallingConfiguration.setVersion(2);
         marshallingConfiguration.setClassTable(ProtocolV1ClassTable.INSTANCE);
         marshallingConfiguration.setObjectTable(ProtocolV1ObjectTable.INSTANCE);
         marshallingConfiguration.setClassResolver(classResolver);
         marshallingConfiguration.setSerializedCreator(new SunReflectiveCreator());
-        return marshallerFactory.createUnmarshaller(marshallingConfiguration);
+        return marshallingConfiguration;
     }
 }
@@ -0,0 +1,168 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.remote.protocol;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import org.jboss.marshalling.AbstractClassResolver;
+import org.jboss.marshalling.Marshaller;
+import org.jboss.marshalling.MarshallerFactory;
+import org.jboss.marshalling.Unmarshaller;
+
+/**
+ * A bounded pool of {@link Marshaller}s and {@link Unmarshaller}s for the EJB remoting protocol, so that neither they
+ * nor their configuration need to be created for every message.
+ * <p>
+ * Each pooled {@link Unmarshaller} owns a class resolver whose class loader can be switched midway through a stream, e.g.
+ * to the deployment class loader of the invoked EJB once it has been identified. A marshaller or unmarshaller that
+ * failed while in use should not be returned to the pool.
+ * </p>
+ */
+public class MarshallingPool {
+
+    public static final int DEFAULT_CAPACITY = 16;
+
+    private final MarshallerFactory marshallerFactory;
+    private final BlockingQueue<Marshaller> marshallers;
+    private final BlockingQueue<PooledUnmarshaller> unmarshallers;
+
+    public MarshallingPool(final MarshallerFactory marshallerFactory) {
+        this(marshallerFactory, DEFAULT_CAPACITY);
+    }
+
+    public MarshallingPool(final MarshallerFactory marshallerFactory, final int capacity) {
+        this.marshallerFactory = marshallerFactory;
+        this.marshallers = new ArrayBlockingQueue<Marshaller>(capacity);
+        this.unmarshallers = new ArrayBlockingQueue<PooledUnmarshaller>(capacity);
+    }
+
+    /**
+     * Returns a pooled {@link Marshaller}, or a new one if the pool is empty
+     *
+     * @return a marshaller that is not yet started
+     * @throws IOException
+     */
+    public Marshaller acquireMarshaller() throws IOException {
+        final Marshaller marshaller = this.marshallers.poll();
+        if (marshaller != null) {
+            return marshaller;
+        }
+        return this.marshallerFactory.createMarshaller(AbstractMessageHandler.createMarshallingConfiguration());
+    }
+
+    /**
+     * Returns a {@link Marshaller} which has successfully finished marshalling to the pool
+     *
+     * @param marshaller The marshaller
+     */
+    public void releaseMarshaller(final Marshaller marshaller) {
+        try {
+            marshaller.clearClassCache();
+        } catch (IOException e) {
+            // don't reuse it
+            return;
+        }
+        this.marshallers.offer(marshaller);
+    }
+
+    /**
+     * Returns a pooled {@link Unmarshaller}, or a new one if the pool is empty
+     *
+     * @param classLoader The class loader initially used to resolve classes
+     * @return an unmarshaller that is not yet started
+     * @throws IOException
+     */
+    public PooledUnmarshaller acquireUnmarshaller(final ClassLoader classLoader) throws IOException {
+        PooledUnmarshaller unmarshaller = this.unmarshallers.poll();
+        if (unmarshaller == null) {
+            final ClassLoaderSwitchingClassResolver classResolver = new ClassLoaderSwitchingClassResolver();
+            unmarshaller = new PooledUnmarshaller(this.marshallerFactory.createUnmarshaller(AbstractMessageHandler.createUnMarshallingConfiguration(classResolver)), classResolver);
+        }
+        unmarshaller.switchClassLoader(classLoader);
+        return unmarshaller;
+    }
+
+    /**
+     * Returns an {@link Unmarshaller} to the pool, finishing it first if necessary
+     *
+     * @param unmarshaller The unmarshaller
+     */
+    public void releaseUnmarshaller(final PooledUnmarshaller unmarshaller) {
+        // don't retain a reference to the deployment class loader
+        unmarshaller.switchClassLoader(null);
+        try {
+            final Unmarshaller delegate = unmarshaller.getUnmarshaller();
+            delegate.finish();
+            delegate.clearInstanceCache();
+            delegate.clearClassCache();
+        } catch (IOException e) {
+            // don't reuse it
+            return;
+        }
+        this.unmarshallers.offer(unmarshaller);
+    }
+
+    /**
+     * An {@link Unmarshaller} along with the class resolver it was configured with
+     */
+    public static final class PooledUnmarshaller {
+        private final Unmarshaller unmarshaller;
+        private final ClassLoaderSwitchingClassResolver classResolver;
+
+        PooledUnmarshaller(final Unmarshaller unmarshaller, final ClassLoaderSwitchingClassResolver classResolver) {
+            this.unmarshaller = unmarshaller;
+            this.classResolver = classResolver;
+        }
+
+        public Unmarshaller getUnmarshaller() {
+            return this.unmarshaller;
+        }
+
+        /**
+         * Sets the class loader used to resolve classes for the remainder of the current stream
+         *
+         * @param classLoader The class loader
+         */
+        public void switchClassLoader(final ClassLoader classLoader) {
+            this.classResolver.switchClassLoader(classLoader);
+        }
+    }
+
+    /**
+     * A mutable {@link org.jboss.marshalling.ClassResolver}
+     */
+    private static class ClassLoaderSwitchingClassResolver extends AbstractClassResolver {
+
+        private volatile ClassLoader currentClassLoader;
+
+        void switchClassLoader(final ClassLoader newCL) {
+            this.currentClassLoader = newCL;
+        }
+
+        @Override
+        protected ClassLoader getClassLoader() {
+            return this.currentClassLoader;
+        }
+    }
+}
@@ -22,11 +22,14 @@
 
 package org.jboss.as.ejb3.remote.protocol.versionone;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectStreamException;
+import java.io.SequenceInputStream;
 import java.lang.reflect.Method;
 import java.util.HashMap;
 import java.util.Map;
@@ -48,6 +51,7 @@ import org.jboss.as.ejb3.component.stateless.StatelessSessionComponent;
 import org.jboss.as.ejb3.deployment.DeploymentRepository;
 import org.jboss.as.ejb3.deployment.EjbDeploymentInformation;
 import org.jboss.as.ejb3.remote.RemoteAsyncInvocationCancelStatusService;
+import org.jboss.as.ejb3.remote.protocol.MarshallingPool;
 import org.jboss.ejb.client.Affinity;
 import org.jboss.ejb.client.EJBClientInvocationContext;
 import org.jboss.ejb.client.EJBLocator;
@@ -55,9 +59,9 @@ import org.jboss.ejb.client.EntityEJBLocator;
 import org.jboss.ejb.client.SessionID;
 import org.jboss.ejb.client.StatefulEJBLocator;
 import org.jboss.invocation.InterceptorContext;
-import org.jboss.marshalling.AbstractClassResolver;
 import org.jboss.marshalling.Marshaller;
 import org.jboss.marshalling.MarshallerFactory;
+import org.jboss.marshalling.Marshalling;
 import org.jboss.marshalling.Unmarshaller;
 import org.jboss.remoting3.MessageOutputStream;
 import org.wildfly.security.manager.WildFlySecurityManager;
@@ -74,20 +78,79 @@ class MethodInvocationMessageHandler extends EJBIdentifierBasedMessageHandler {
     private static final byte HEADER_METHOD_INVOCATION_RESPONSE = 0x05;
     private static final byte HEADER_ASYNC_METHOD_NOTIFICATION = 0x0E;
 
+    private static final int MESSAGE_BUFFER_SIZE = 512;
+    // Larger messages are not buffered, but unmarshalled from the channel as they are received
+    static final int MAX_BUFFERED_MESSAGE_SIZE = 1024 * 1024;
+
     private final ExecutorService executorService;
     private final MarshallerFactory marshallerFactory;
+    private final MarshallingPool marshallingPool;
     private final RemoteAsyncInvocationCancelStatusService remoteAsyncInvocationCancelStatus;
 
-    MethodInvocationMessageHandler(final DeploymentRepository deploymentRepository, final org.jboss.marshalling.MarshallerFactory marshallerFactory, final ExecutorService executorService,
-                                   final RemoteAsyncInvocationCancelStatusService asyncInvocationCancelStatus) {
+    MethodInvocationMessageHandler(final DeploymentRepository deploymentRepository, final org.jboss.marshalling.MarshallerFactory marshallerFactory, final MarshallingPool marshallingPool,
+                                   final ExecutorService executorService, final RemoteAsyncInvocationCancelStatusService asyncInvocationCancelStatus) {
         super(deploymentRepository);
         this.marshallerFactory = marshallerFactory;
+        this.marshallingPool = marshallingPool;
         this.executorService = executorService;
         this.remoteAsyncInvocationCancelStatus = asyncInvocationCancelStatus;
     }
 
     @Override
     public void processMessage(final ChannelAssociation channelAssociation, final InputStream inputStream) throws IOException {
+        // only buffer the message on the channel thread, so that unmarshalling large arguments does not hold up other
+        // messages on the same channel. The message is unmarshalled and the method invoked on a separate thread
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream(MESSAGE_BUFFER_SIZE);
+        if (bufferMessage(inputStream, buffer, MAX_BUFFERED_MESSAGE_SIZE)) {
+            final byte[] message = buffer.toByteArray();
+            executorService.submit(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        final Runnable invocation = MethodInvocationMessageHandler.this.unmarshalInvocation(channelAssociation, new ByteArrayInputStream(message));
+                        if (invocation != null) {
+                            // we are already on a separate thread, so invoke the method and write out the response right away
+                            invocation.run();
+                        }
+                    } catch (Throwable t) {
+                        EjbLogger.ROOT_LOGGER.failedToProcessInvocationRequest(t, channelAssociation.getChannel());
+                        // no more messages can be sent or received on this channel
+                        IoUtils.safeClose(channelAssociation.getChannel());
+                    }
+                }
+            });
+        } else {
+            // the message is too large to be held in memory, so the rest of it is unmarshalled on the channel thread
+            // as it is received, and only the method is invoked on a separate thread
+            final Runnable invocation = this.unmarshalInvocation(channelAssociation, new SequenceInputStream(new ByteArrayInputStream(buffer.toByteArray()), inputStream));
+            if (invocation != null) {
+                executorService.submit(invocation);
+            }
+        }
+    }
+
+    /**
+     * Reads a message into the passed buffer, unless it is larger than the passed limit
+     *
+     * @return true if the whole message was read, false if the rest of the message remains to be read from the stream
+     */
+    static boolean bufferMessage(final InputStream inputStream, final ByteArrayOutputStream message, final int limit) throws IOException {
+        final byte[] buffer = new byte[MESSAGE_BUFFER_SIZE];
+        while (message.size() < limit) {
+            final int read = inputStream.read(buffer, 0, Math.min(buffer.length, limit - message.size()));
+            if (read == -1) {
+                return true;
+            }
+            message.write(buffer, 0, read);
+        }
+        return false;
+    }
+
+    /**
+     * Unmarshals an invocation request and returns the task which invokes the method, or null if the invocation
+     * failed and the failure has already been written out to the client
+     */
+    private Runnable unmarshalInvocation(final ChannelAssociation channelAssociation, final InputStream inputStream) throws IOException {
 
         final DataInputStream input = new DataInputStream(inputStream);
         // read the invocation id
@@ -104,11 +167,37 @@ class MethodInvocationMessageHandler extends EJBIdentifierBasedMessageHandler {
             methodParamTypes = signature.split(String.valueOf(METHOD_PARAM_TYPE_SEPARATOR));
         }
 
-        // read the Locator
-        // we use a mutable ClassResolver, so that we can switch to a different (and correct deployment CL)
+        // the pooled unmarshaller uses a mutable ClassResolver, so that we can switch to a different (and correct deployment CL)
         // midway through the unmarshalling of the stream
-        final ClassLoaderSwitchingClassResolver classResolver = new ClassLoaderSwitchingClassResolver(Thread.currentThread().getContextClassLoader());
-        final Unmarshaller unmarshaller = this.prepareForUnMarshalling(this.marshallerFactory, classResolver, input);
+        final MarshallingPool.PooledUnmarshaller pooledUnmarshaller = this.marshallingPool.acquireUnmarshaller(WildFlySecurityManager.getCurrentContextClassLoaderPrivileged());
+        Runnable invocation = null;
+        boolean success = false;
+        try {
+            final Unmarshaller unmarshaller = pooledUnmarshaller.getUnmarshaller();
+            unmarshaller.start(Marshalling.createByteInput(input));
+            invocation = this.readInvocation(channelAssociation, invocationId, methodName, methodParamTypes, pooledUnmarshaller);
+            success = true;
+        } catch (InvocationUnmarshallingException e) {
+            // write out the failure
+            this.writeException(channelAssociation, this.marshallingPool, invocationId, e.getCause(), null);
+        } finally {
+            // an unmarshaller that failed midway through a stream is not reused
+            if (success) {
+                this.marshallingPool.releaseUnmarshaller(pooledUnmarshaller);
+            } else {
+                pooledUnmarshaller.getUnmarshaller().close();
+            }
+        }
+        return invocation;
+    }
+
+    /**
+     * Reads the rest of the invocation request and returns the task which invokes the method, or null if the
+     * invocation failed and the failure has already been written out to the client
+     */
+    private Runnable readInvocation(final ChannelAssociation channelAssociation, final short invocationId, final String methodName, final String[] methodParamTypes,
+                                    final MarshallingPool.PooledUnmarshaller pooledUnmarshaller) throws IOException, InvocationUnmarshallingException {
+        final Unmarshaller unmarshaller = pooledUnmarshaller.getUnmarshaller();
         // read the EJB info
         final String appName;
         final String moduleName;
@@ -125,16 +214,15 @@ class MethodInvocationMessageHandler extends EJBIdentifierBasedMessageHandler {
         final EjbDeploymentInformation ejbDeploymentInformation = this.findEJB(appName, moduleName, distinctName, beanName);
         if (ejbDeploymentInformation == null) {
             this.writeNoSuchEJBFailureMessage(channelAssociation, invocationId, appName, moduleName, distinctName, beanName, null);
-            return;
+            return null;
         }
         final ClassLoader tccl = WildFlySecurityManager.getCurrentContextClassLoaderPrivileged();
-        Runnable runnable = null;
         try {
             //set the correct TCCL for unmarshalling
             WildFlySecurityManager.setCurrentContextClassLoaderPrivileged(ejbDeploymentInformation.getDeploymentClassLoader());
             // now switch the CL to the EJB deployment's CL so that the unmarshaller can use the
             // correct CL for the rest of the unmarshalling of the stream
-            classResolver.switchClassLoader(ejbDeploymentInformation.getDeploymentClassLoader());
+            pooledUnmarshaller.switchClassLoader(ejbDeploymentInformation.getDeploymentClassLoader());
             // read the Locator
             final EJBLocator<?> locator;
             try {
@@ -146,13 +234,13 @@ class MethodInvocationMessageHandler extends EJBIdentifierBasedMessageHandler {
             // Make sure it's a remote view
             if (!ejbDeploymentInformation.isRemoteView(viewClassName)) {
                 this.writeNoSuchEJBFailureMessage(channelAssociation, invocationId, appName, moduleName, distinctName, beanName, viewClassName);
-                return;
+                return null;
             }
             final ComponentView componentView = ejbDeploymentInformation.getView(viewClassName);
             final Method invokedMethod = this.findMethod(componentView, methodName, methodParamTypes);
             if (invokedMethod == null) {
                 this.writeNoSuchEJBMethodFailureMessage(channelAssociation, invocationId, appName, moduleName, distinctName, beanName, viewClassName, methodName, methodParamTypes);
-                return;
+                return null;
             }
 
             final Object[] methodParams = new Object[methodParamTypes.length];
@@ -162,9 +250,7 @@ class MethodInvocationMessageHandler extends EJBIdentifierBasedMessageHandler {
                     try {
                         methodParams[i] = unmarshaller.readObject();
                     } catch (Throwable e) {
-                        // write out the failure
-                        MethodInvocationMessageHandler.this.writeException(channelAssociation, MethodInvocationMessageHandler.this.marshallerFactory, invocationId, e, null);
-                        return;
+                        throw new InvocationUnmarshallingException(e);
                     }
                 }
             }
@@ -173,14 +259,12 @@ class MethodInvocationMessageHandler extends EJBIdentifierBasedMessageHandler {
             try {
                 attachments = this.readAttachments(unmarshaller);
             } catch (Throwable e) {
-                // write out the failure
-                MethodInvocationMessageHandler.this.writeException(channelAssociation, MethodInvocationMessageHandler.this.marshallerFactory, invocationId, e, null);
-                return;
+                throw new InvocationUnmarshallingException(e);
             }
             // done with unmarshalling
             unmarshaller.finish();
 
-            runnable = new Runnable() {
+            return new Runnable() {
 
                 @Override
                 public void run() {
@@ -210,7 +294,7 @@ class MethodInvocationMessageHandler extends EJBIdentifierBasedMessageHandler {
                                 MethodInvocationMessageHandler.this.writeNoSuchEJBFailureMessage(channelAssociation, invocationId, appName, moduleName, distinctName, beanName, viewClassName);
                             } else {
                                 // write out the failure
-                                MethodInvocationMessageHandler.this.writeException(channelAssociation, MethodInvocationMessageHandler.this.marshallerFactory, invocationId, throwable, attachments);
+                                MethodInvocationMessageHandler.this.writeException(channelAssociation, MethodInvocationMessageHandler.this.marshallingPool, invocationId, throwable, attachments);
                             }
                         } catch (Throwable ioe) {
                             // we couldn't write out a method invocation failure message. So let's at least log the
@@ -259,8 +343,6 @@ class MethodInvocationMessageHandler extends EJBIdentifierBasedMessageHandler {
         } finally {
             WildFlySecurityManager.setCurrentContextClassLoaderPrivileged(tccl);
         }
-        // invoke the method and write out the response on a separate thread
-        executorService.submit(runnable);
     }
 
     private Affinity getWeakAffinity(final StatefulSessionComponent statefulSessionComponent, final StatefulEJBLocator<?> statefulEJBLocator) {
@@ -368,12 +450,23 @@ class MethodInvocationMessageHandler extends EJBIdentifierBasedMessageHandler {
             // write the invocation id
             outputStream.writeShort(invocationId);
             // write out the result
-            final Marshaller marshaller = this.prepareForMarshalling(this.marshallerFactory, outputStream);
-            marshaller.writeObject(result);
-            // write the attachments
-            this.writeAttachments(marshaller, attachments);
-            // finish marshalling
-            marshaller.finish();
+            final Marshaller marshaller = this.marshallingPool.acquireMarshaller();
+            boolean success = false;
+            try {
+                this.startMarshalling(marshaller, outputStream);
+                marshaller.writeObject(result);
+                // write the attachments
+                this.writeAttachments(marshaller, attachments);
+                // finish marshalling
+                marshaller.finish();
+                success = true;
+            } finally {
+                if (success) {
+                    this.marshallingPool.releaseMarshaller(marshaller);
+                } else {
+                    marshaller.close();
+                }
+            }
         } finally {
             channelAssociation.releaseChannelMessageOutputStream(messageOutputStream);
             outputStream.close();
@@ -402,29 +495,14 @@ class MethodInvocationMessageHandler extends EJBIdentifierBasedMessageHandler {
     }
 
     /**
-     * A mutable {@link org.jboss.marshalling.ClassResolver}
+     * Signals that the arguments or attachments of an invocation request could not be unmarshalled, a failure which is
+     * reported to the client
      */
-    private class ClassLoaderSwitchingClassResolver extends AbstractClassResolver {
-
-        private ClassLoader currentClassLoader;
-
-        ClassLoaderSwitchingClassResolver(final ClassLoader classLoader) {
-            this.currentClassLoader = classLoader;
-        }
-
-        /**
-         * Sets the passed <code>newCL</code> as the classloader which will be returned on
-         * subsequent calls to {@link #getClassLoader()}
-         *
-         * @param newCL
-         */
-        void switchClassLoader(final ClassLoader newCL) {
-            this.currentClassLoader = newCL;
-        }
+    private static final class InvocationUnmarshallingException extends Exception {
+        private static final long serialVersionUID = -2613528466306208385L;
 
-        @Override
-        protected ClassLoader getClassLoader() {
-            return this.currentClassLoader;
+        InvocationUnmarshallingException(final Throwable cause) {
+            super(cause);
         }
     }
 }
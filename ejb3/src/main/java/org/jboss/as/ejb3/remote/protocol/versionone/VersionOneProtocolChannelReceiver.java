@@ -42,6 +42,7 @@ import org.jboss.as.ejb3.deployment.ModuleDeployment;
 import org.jboss.as.ejb3.remote.EJBRemoteTransactionsRepository;
 import org.jboss.as.ejb3.remote.RegistryCollector;
 import org.jboss.as.ejb3.remote.RemoteAsyncInvocationCancelStatusService;
+import org.jboss.as.ejb3.remote.protocol.MarshallingPool;
 import org.jboss.as.ejb3.remote.protocol.MessageHandler;
 import org.jboss.as.network.ClientMapping;
 import org.jboss.marshalling.MarshallerFactory;
@@ -72,6 +73,7 @@ public class VersionOneProtocolChannelReceiver implements Channel.Receiver, Depl
     protected final DeploymentRepository deploymentRepository;
     protected final EJBRemoteTransactionsRepository transactionsRepository;
     protected final MarshallerFactory marshallerFactory;
+    protected final MarshallingPool marshallingPool;
     protected final ExecutorService executorService;
     protected final RegistryCollector<String, List<ClientMapping>> clientMappingRegistryCollector;
     protected final Set<ClusterTopologyUpdateListener> clusterTopologyUpdateListeners = Collections.synchronizedSet(new HashSet<ClusterTopologyUpdateListener>());
@@ -81,6 +83,7 @@ public class VersionOneProtocolChannelReceiver implements Channel.Receiver, Depl
                                              final EJBRemoteTransactionsRepository transactionsRepository, final RegistryCollector<String, List<ClientMapping>> clientMappingRegistryCollector,
                                              final MarshallerFactory marshallerFactory, final ExecutorService executorService, final RemoteAsyncInvocationCancelStatusService asyncInvocationCancelStatusService) {
         this.marshallerFactory = marshallerFactory;
+        this.marshallingPool = new MarshallingPool(marshallerFactory);
         this.channelAssociation = channelAssociation;
         this.executorService = executorService;
         this.deploymentRepository = deploymentRepository;
@@ -167,7 +170,7 @@ public class VersionOneProtocolChannelReceiver implements Channel.Receiver, Depl
     protected MessageHandler getMessageHandler(final byte header) {
         switch (header) {
             case HEADER_INVOCATION_REQUEST:
-                return new MethodInvocationMessageHandler(this.deploymentRepository, this.marshallerFactory, this.executorService, this.remoteAsyncInvocationCancelStatus);
+                return new MethodInvocationMessageHandler(this.deploymentRepository, this.marshallerFactory, this.marshallingPool, this.executorService, this.remoteAsyncInvocationCancelStatus);
             case HEADER_INVOCATION_CANCELLATION_REQUEST:
                 return new InvocationCancellationMessageHandler(this.remoteAsyncInvocationCancelStatus);
             case HEADER_SESSION_OPEN_REQUEST:
@@ -447,6 +447,13 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>
                 case INSTANCE_ACQUISITION_TIMEOUT_UNIT:
                     StrictMaxPoolResourceDefinition.INSTANCE_ACQUISITION_TIMEOUT_UNIT.parseAndSetParameter(value, operation, reader);
                     break;
+                case THREAD_AFFINITY:
+                    // Only supported as of the 2.0 schema
+                    if (this.getExpectedNamespace().compareTo(EJB3SubsystemNamespace.EJB3_2_0) < 0) {
+                        throw unexpectedAttribute(reader, i);
+                    }
+                    StrictMaxPoolResourceDefinition.THREAD_AFFINITY.parseAndSetParameter(value, operation, reader);
+                    break;
 
                 default:
                     throw unexpectedAttribute(reader, i);
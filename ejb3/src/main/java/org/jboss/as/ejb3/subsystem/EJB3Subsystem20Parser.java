@@ -160,6 +160,10 @@ public class EJB3Subsystem20Parser extends EJB3Subsystem14Parser {
                     TimerServiceResourceDefinition.DEFAULT_DATA_STORE.parseAndSetParameter(value,timerServiceAdd,reader);
                     break;
                 }
+                case SCHEDULER_THREADS: {
+                    TimerServiceResourceDefinition.SCHEDULER_THREADS.parseAndSetParameter(value,timerServiceAdd,reader);
+                    break;
+                }
                 default:
                     throw unexpectedAttribute(reader, i);
             }
@@ -199,6 +203,7 @@ public class EJB3Subsystem20Parser extends EJB3Subsystem14Parser {
     private void parseFileDataStore(final XMLExtendedStreamReader reader, final List<ModelNode> operations) throws XMLStreamException {
         String dataStorePath = null;
         String dataStorePathRelativeTo = null;
+        ModelNode journal = null;
         String name = null;
         final EnumSet<EJB3SubsystemXMLAttribute> required = EnumSet.of(EJB3SubsystemXMLAttribute.NAME, EJB3SubsystemXMLAttribute.PATH);
         final int count = reader.getAttributeCount();
@@ -226,6 +231,12 @@ public class EJB3Subsystem20Parser extends EJB3Subsystem14Parser {
                     }
                     dataStorePathRelativeTo = FileDataStoreResourceDefinition.RELATIVE_TO.parse(value, reader).asString();
                     break;
+                case JOURNAL:
+                    if (journal != null) {
+                        throw unexpectedAttribute(reader, i);
+                    }
+                    journal = FileDataStoreResourceDefinition.JOURNAL.parse(value, reader);
+                    break;
                 default:
                     throw unexpectedAttribute(reader, i);
             }
@@ -244,6 +255,9 @@ public class EJB3Subsystem20Parser extends EJB3Subsystem14Parser {
         if (dataStorePathRelativeTo != null) {
             fileDataStoreAdd.get(RELATIVE_TO).set(dataStorePathRelativeTo);
         }
+        if (journal != null) {
+            fileDataStoreAdd.get(FileDataStoreResourceDefinition.JOURNAL.getName()).set(journal);
+        }
         operations.add(fileDataStoreAdd);
         requireNoContent(reader);
     }
@@ -276,6 +290,9 @@ public class EJB3Subsystem20Parser extends EJB3Subsystem14Parser {
                 case PARTITION:
                     DatabaseDataStoreResourceDefinition.PARTITION.parseAndSetParameter(value, databaseDataStore, reader);
                     break;
+                case REFRESH_INTERVAL:
+                    DatabaseDataStoreResourceDefinition.REFRESH_INTERVAL.parseAndSetParameter(value, databaseDataStore, reader);
+                    break;
                 default:
                     throw unexpectedAttribute(reader, i);
             }
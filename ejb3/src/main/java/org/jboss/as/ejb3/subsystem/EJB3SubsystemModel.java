@@ -67,6 +67,7 @@ public interface EJB3SubsystemModel {
 
     String RELATIVE_TO = "relative-to";
     String PATH = "path";
+    String JOURNAL = "journal";
 
     String DEFAULT_SINGLETON_BEAN_ACCESS_TIMEOUT = "default-singleton-bean-access-timeout";
     String DEFAULT_STATEFUL_BEAN_ACCESS_TIMEOUT = "default-stateful-bean-access-timeout";
@@ -76,6 +77,8 @@ public interface EJB3SubsystemModel {
     String SERVICE = "service";
     String TIMER = "timer";
     String TIMER_SERVICE = "timer-service";
+    String SCHEDULER_THREADS = "scheduler-threads";
+    String THREAD_AFFINITY = "thread-affinity";
     String THREAD_POOL = "thread-pool";
     String THREAD_POOL_NAME = "thread-pool-name";
     String DEFAULT = "default";
@@ -107,6 +110,7 @@ public interface EJB3SubsystemModel {
     String DATABASE = "database";
     String DATABASE_DATA_STORE = "database-data-store";
     String PARTITION  = "partition";
+    String REFRESH_INTERVAL = "refresh-interval";
 
     PathElement REMOTE_SERVICE_PATH = PathElement.pathElement(SERVICE, REMOTE);
     PathElement ASYNC_SERVICE_PATH = PathElement.pathElement(SERVICE, ASYNC);
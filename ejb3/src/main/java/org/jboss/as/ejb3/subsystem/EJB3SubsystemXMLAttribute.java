@@ -56,6 +56,8 @@ public enum EJB3SubsystemXMLAttribute {
     INSTANCE_ACQUISITION_TIMEOUT("instance-acquisition-timeout"),
     INSTANCE_ACQUISITION_TIMEOUT_UNIT("instance-acquisition-timeout-unit"),
 
+    JOURNAL("journal"),
+
     KEEPALIVE_TIME("keepalive-time"),
 
     MAX_POOL_SIZE("max-pool-size"),
@@ -72,12 +74,15 @@ public enum EJB3SubsystemXMLAttribute {
     PATH("path"),
     POOL_NAME("pool-name"),
 
+    REFRESH_INTERVAL("refresh-interval"),
     RELATIVE_TO("relative-to"),
     RESOURCE_ADAPTER_NAME("resource-adapter-name"),
 
+    SCHEDULER_THREADS("scheduler-threads"),
     SESSIONS_PATH("sessions-path"),
     SUBDIRECTORY_COUNT("subdirectory-count"),
 
+    THREAD_AFFINITY("thread-affinity"),
     THREAD_POOL_NAME("thread-pool-name"),
     TYPE("type"),
 
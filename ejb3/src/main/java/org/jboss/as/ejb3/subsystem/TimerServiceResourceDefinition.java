@@ -30,8 +30,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.regex.Pattern;
 
+import org.jboss.as.controller.AbstractRuntimeOnlyHandler;
 import org.jboss.as.controller.AttributeDefinition;
 import org.jboss.as.controller.ControllerMessages;
+import org.jboss.as.controller.ObjectTypeAttributeDefinition;
+import org.jboss.as.controller.OperationContext;
 import org.jboss.as.controller.OperationFailedException;
 import org.jboss.as.controller.PathAddress;
 import org.jboss.as.controller.PathElement;
@@ -41,6 +44,7 @@ import org.jboss.as.controller.SimpleAttributeDefinition;
 import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
 import org.jboss.as.controller.SimpleResourceDefinition;
 import org.jboss.as.controller.descriptions.ModelDescriptionConstants;
+import org.jboss.as.controller.operations.validation.IntRangeValidator;
 import org.jboss.as.controller.registry.AttributeAccess;
 import org.jboss.as.controller.registry.ManagementResourceRegistration;
 import org.jboss.as.controller.registry.OperationEntry;
@@ -57,8 +61,12 @@ import org.jboss.as.controller.transform.description.DiscardAttributeChecker;
 import org.jboss.as.controller.transform.description.RejectAttributeChecker;
 import org.jboss.as.controller.transform.description.ResourceTransformationDescriptionBuilder;
 import org.jboss.as.ejb3.EjbMessages;
+import org.jboss.as.ejb3.deployment.processors.TimerServiceDeploymentProcessor;
+import org.jboss.as.ejb3.subsystem.deployment.AbstractEJBComponentResourceDefinition;
+import org.jboss.as.ejb3.timerservice.spi.TimerScheduler;
 import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.ModelType;
+import org.jboss.msc.service.ServiceController;
 
 /**
  * {@link org.jboss.as.controller.ResourceDefinition} for the timer-service resource.
@@ -79,6 +87,18 @@ public class TimerServiceResourceDefinition extends SimpleResourceDefinition {
                     //.setDefaultValue(new ModelNode("default-file-store")) //for backward compatibility!
                     .build();
 
+    /**
+     * Number of threads triggering timeouts, defaults to the number of available processors if undefined.
+     */
+    static final SimpleAttributeDefinition SCHEDULER_THREADS =
+            new SimpleAttributeDefinitionBuilder(EJB3SubsystemModel.SCHEDULER_THREADS, ModelType.INT, true)
+                    .setAllowExpression(true)
+                    .setValidator(new IntRangeValidator(1, Integer.MAX_VALUE, true, true))
+                    .setFlags(AttributeAccess.Flag.RESTART_ALL_SERVICES)
+                    .build();
+
+    static final ObjectTypeAttributeDefinition FIRING_LAG = AbstractEJBComponentResourceDefinition.createHistogramAttribute("firing-lag");
+
     public static final Map<String, AttributeDefinition> ATTRIBUTES ;
 
     private final PathManager pathManager;
@@ -87,6 +107,7 @@ public class TimerServiceResourceDefinition extends SimpleResourceDefinition {
         Map<String, AttributeDefinition> map = new LinkedHashMap<String, AttributeDefinition>();
         map.put(THREAD_POOL_NAME.getName(), THREAD_POOL_NAME);
         map.put(DEFAULT_DATA_STORE.getName(), DEFAULT_DATA_STORE);
+        map.put(SCHEDULER_THREADS.getName(), SCHEDULER_THREADS);
 
         ATTRIBUTES = Collections.unmodifiableMap(map);
     }
@@ -105,6 +126,7 @@ public class TimerServiceResourceDefinition extends SimpleResourceDefinition {
         for (AttributeDefinition attr : ATTRIBUTES.values()) {
             resourceRegistration.registerReadWriteAttribute(attr, null, new ReloadRequiredWriteAttributeHandler(attr));
         }
+        resourceRegistration.registerMetric(FIRING_LAG, FiringLagHandler.INSTANCE);
     }
 
     @Override
@@ -129,6 +151,8 @@ public class TimerServiceResourceDefinition extends SimpleResourceDefinition {
         DataStoreTransformer dataStoreTransformer = new DataStoreTransformer(rejectPathExpressions);
         timerService.getAttributeBuilder()
                 .setDiscard(DiscardAttributeChecker.ALWAYS, EJB3SubsystemModel.DEFAULT_DATA_STORE)//this is ok, as default-data-store only has any sense with new model, but it is always set!
+                .setDiscard(DiscardAttributeChecker.UNDEFINED, SCHEDULER_THREADS)
+                .addRejectCheck(RejectAttributeChecker.DEFINED, SCHEDULER_THREADS)
                 .end();
         timerService.discardOperations(ModelDescriptionConstants.ADD);
         timerService.setCustomResourceTransformer(dataStoreTransformer);
@@ -140,6 +164,10 @@ public class TimerServiceResourceDefinition extends SimpleResourceDefinition {
             }
         });
 
+        fileDataStore = fileDataStore.getAttributeBuilder()
+                .setDiscard(new DiscardAttributeChecker.DiscardAttributeValueChecker(false, true, new ModelNode(false)), FileDataStoreResourceDefinition.JOURNAL)
+                .addRejectCheck(RejectAttributeChecker.DEFINED, FileDataStoreResourceDefinition.JOURNAL)
+                .end();
         if (rejectPathExpressions) {
             fileDataStore = fileDataStore.getAttributeBuilder()
                 .addRejectCheck(RejectAttributeChecker.SIMPLE_EXPRESSIONS, FileDataStoreResourceDefinition.PATH)
@@ -152,6 +180,20 @@ public class TimerServiceResourceDefinition extends SimpleResourceDefinition {
 
     }
 
+    private static class FiringLagHandler extends AbstractRuntimeOnlyHandler {
+        static final FiringLagHandler INSTANCE = new FiringLagHandler();
+
+        @Override
+        protected void executeRuntimeStep(OperationContext context, ModelNode operation) throws OperationFailedException {
+            ServiceController<?> controller = context.getServiceRegistry(false).getService(TimerServiceDeploymentProcessor.TIMER_SERVICE_NAME);
+            if (controller != null && controller.getState() == ServiceController.State.UP) {
+                TimerScheduler scheduler = (TimerScheduler) controller.getValue();
+                AbstractEJBComponentResourceDefinition.setHistogram(context.getResult(), scheduler.getFiringLag());
+            }
+            context.stepCompleted();
+        }
+    }
+
     private static class DataStoreTransformer implements CombinedTransformer {
 
         private final Pattern EXPRESSION_PATTERN = Pattern.compile(".*\\$\\{.*\\}.*");
@@ -199,7 +241,8 @@ public class TimerServiceResourceDefinition extends SimpleResourceDefinition {
                 fileStore = new ModelNode();
             } else if ((untransformedModel.hasDefined(EJB3SubsystemModel.DATABASE_DATA_STORE)
                             && untransformedModel.get(EJB3SubsystemModel.DATABASE_DATA_STORE).keys().size() > 0)
-                        || untransformedModel.get(EJB3SubsystemModel.FILE_DATA_STORE).keys().size() > 1) {
+                        || untransformedModel.get(EJB3SubsystemModel.FILE_DATA_STORE).keys().size() > 1
+                        || (fileStore.hasDefined(EJB3SubsystemModel.JOURNAL) && !fileStore.get(EJB3SubsystemModel.JOURNAL).equals(new ModelNode(false)))) {
                 rejectIncompatibleDataStores(context, address);
             }
 
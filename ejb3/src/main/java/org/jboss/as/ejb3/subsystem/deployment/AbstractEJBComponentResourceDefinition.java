@@ -41,6 +41,7 @@ import org.jboss.as.ejb3.component.EJBComponent;
 import org.jboss.as.ejb3.component.invocationmetrics.InvocationMetrics;
 import org.jboss.as.ejb3.component.stateful.StatefulSessionComponent;
 import org.jboss.as.ejb3.subsystem.EJB3Extension;
+import org.jboss.as.ejb3.util.LatencyHistogram;
 import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.ModelType;
 
@@ -80,7 +81,11 @@ public abstract class AbstractEJBComponentResourceDefinition extends SimpleResou
             .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
             .build();
 
-    private static final AttributeDefinition METHODS = ObjectTypeAttributeDefinition.Builder.of("methods", EXECUTION_TIME, INVOCATIONS, WAIT_TIME)
+    private static final String EXECUTION_TIME_HISTOGRAM = "execution-time-histogram";
+    private static final String WAIT_TIME_HISTOGRAM = "wait-time-histogram";
+
+    private static final AttributeDefinition METHODS = ObjectTypeAttributeDefinition.Builder.of("methods", EXECUTION_TIME, INVOCATIONS, WAIT_TIME,
+                    createHistogramAttribute(EXECUTION_TIME_HISTOGRAM), createHistogramAttribute(WAIT_TIME_HISTOGRAM))
             .setAllowNull(false)
             .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
             .build();
@@ -126,6 +131,37 @@ public abstract class AbstractEJBComponentResourceDefinition extends SimpleResou
             .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME).build();
     public static final SimpleAttributeDefinition POOL_MAX_SIZE = new SimpleAttributeDefinitionBuilder("pool-max-size", ModelType.INT, false)
             .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME).build();
+    public static final ObjectTypeAttributeDefinition POOL_ACQUISITION_WAIT_TIME = createHistogramAttribute("pool-acquisition-wait-time");
+
+    // Histogram attributes
+
+    private static final String COUNT = "count";
+    private static final String P50 = "p50";
+    private static final String P99 = "p99";
+    private static final String P999 = "p999";
+    private static final String MAX = "max";
+
+    public static ObjectTypeAttributeDefinition createHistogramAttribute(String name) {
+        return ObjectTypeAttributeDefinition.Builder.of(name, histogramField(COUNT), histogramField(P50), histogramField(P99), histogramField(P999), histogramField(MAX))
+                .setAllowNull(true)
+                .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+                .build();
+    }
+
+    private static AttributeDefinition histogramField(String name) {
+        return new SimpleAttributeDefinitionBuilder(name, ModelType.LONG)
+                .setAllowNull(false)
+                .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+                .build();
+    }
+
+    public static void setHistogram(final ModelNode result, final LatencyHistogram.Snapshot snapshot) {
+        result.get(COUNT).set(snapshot.getCount());
+        result.get(P50).set(snapshot.getValueAtPercentile(50));
+        result.get(P99).set(snapshot.getValueAtPercentile(99));
+        result.get(P999).set(snapshot.getValueAtPercentile(99.9));
+        result.get(MAX).set(snapshot.getMaxValue());
+    }
 
     private final EJBComponentType componentType;
 
@@ -153,6 +189,7 @@ public abstract class AbstractEJBComponentResourceDefinition extends SimpleResou
             resourceRegistration.registerReadOnlyAttribute(POOL_REMOVE_COUNT, handler);
             resourceRegistration.registerReadOnlyAttribute(POOL_CURRENT_SIZE, handler);
             resourceRegistration.registerReadWriteAttribute(POOL_MAX_SIZE, handler, handler);
+            resourceRegistration.registerReadOnlyAttribute(POOL_ACQUISITION_WAIT_TIME, handler);
         }
 
         if (componentType.equals(EJBComponentType.STATEFUL)) {
@@ -210,6 +247,8 @@ public abstract class AbstractEJBComponentResourceDefinition extends SimpleResou
                     result.get("execution-time").set(values.getExecutionTime());
                     result.get("invocations").set(values.getInvocations());
                     result.get("wait-time").set(values.getWaitTime());
+                    setHistogram(result.get(EXECUTION_TIME_HISTOGRAM), values.getExecutionTimeHistogram());
+                    setHistogram(result.get(WAIT_TIME_HISTOGRAM), values.getWaitTimeHistogram());
                     context.getResult().get(entry.getKey()).set(result);
                 }
             }
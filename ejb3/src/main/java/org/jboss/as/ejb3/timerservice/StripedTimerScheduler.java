@@ -0,0 +1,124 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.timerservice;
+
+import java.security.AccessController;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.as.ejb3.EjbLogger;
+import org.jboss.as.ejb3.timerservice.spi.TimerScheduler;
+import org.jboss.as.ejb3.util.LatencyHistogram;
+import org.jboss.threads.JBossThreadFactory;
+import org.wildfly.security.manager.action.GetAccessControlContextAction;
+
+/**
+ * {@link TimerScheduler} that spreads timeouts across a number of independent single threaded schedulers.
+ * <p>
+ * Unlike a single {@link java.util.Timer}, whose one thread and one queue lock serialize every timeout of the server,
+ * each timer is assigned to a stripe by the hash of its identifier, such that scheduling, cancelling and triggering
+ * timeouts of different timers rarely contend. Cancelled timeouts are removed from their queue immediately,
+ * rather than lingering until their scheduled time.
+ * </p>
+ */
+public class StripedTimerScheduler implements TimerScheduler {
+
+    private final ScheduledThreadPoolExecutor[] stripes;
+    private final LatencyHistogram firingLag = new LatencyHistogram();
+
+    public StripedTimerScheduler(int concurrency) {
+        this(concurrency, new JBossThreadFactory(new ThreadGroup(StripedTimerScheduler.class.getSimpleName()), Boolean.TRUE, null, "%G - %t", null, null, AccessController.doPrivileged(GetAccessControlContextAction.getInstance())));
+    }
+
+    public StripedTimerScheduler(int concurrency, ThreadFactory threadFactory) {
+        if (concurrency <= 0) {
+            throw new IllegalArgumentException(Integer.toString(concurrency));
+        }
+        this.stripes = new ScheduledThreadPoolExecutor[concurrency];
+        for (int i = 0; i < concurrency; ++i) {
+            ScheduledThreadPoolExecutor stripe = new ScheduledThreadPoolExecutor(1, threadFactory);
+            stripe.setRemoveOnCancelPolicy(true);
+            stripe.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+            this.stripes[i] = stripe;
+        }
+    }
+
+    @Override
+    public Future<?> schedule(String timerId, Runnable task, long delay, TimeUnit unit) {
+        return this.stripe(timerId).schedule(new LagRecordingTask(timerId, task, unit.toNanos(delay), 0), delay, unit);
+    }
+
+    @Override
+    public Future<?> scheduleAtFixedRate(String timerId, Runnable task, long delay, long period, TimeUnit unit) {
+        return this.stripe(timerId).scheduleAtFixedRate(new LagRecordingTask(timerId, task, unit.toNanos(delay), unit.toNanos(period)), delay, period, unit);
+    }
+
+    @Override
+    public LatencyHistogram.Snapshot getFiringLag() {
+        return this.firingLag.getSnapshot();
+    }
+
+    /**
+     * Stops triggering timeouts.
+     */
+    public void shutdown() {
+        for (ScheduledThreadPoolExecutor stripe : this.stripes) {
+            stripe.shutdownNow();
+        }
+    }
+
+    private ScheduledThreadPoolExecutor stripe(String timerId) {
+        int hash = timerId.hashCode();
+        // Spread the hash, as timer identifiers tend to differ mostly in their high order bits
+        hash ^= (hash >>> 16);
+        return this.stripes[(hash & Integer.MAX_VALUE) % this.stripes.length];
+    }
+
+    private class LagRecordingTask implements Runnable {
+        private final String timerId;
+        private final Runnable task;
+        private final long period;
+        // Only accessed by the scheduler, whose subsequent executions of a given task never overlap
+        private long expected;
+
+        LagRecordingTask(String timerId, Runnable task, long delay, long period) {
+            this.timerId = timerId;
+            this.task = task;
+            this.period = period;
+            this.expected = System.nanoTime() + delay;
+        }
+
+        @Override
+        public void run() {
+            StripedTimerScheduler.this.firingLag.record(System.nanoTime() - this.expected, TimeUnit.NANOSECONDS);
+            this.expected += this.period;
+            try {
+                this.task.run();
+            } catch (Throwable e) {
+                // An exception would otherwise suppress all subsequent executions of a periodic task
+                EjbLogger.ROOT_LOGGER.exceptionRunningScheduledTimerTask(this.timerId, e);
+            }
+        }
+    }
+}
@@ -21,6 +21,8 @@
  */
 package org.jboss.as.ejb3.timerservice;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.io.Serializable;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
@@ -35,7 +37,11 @@ import java.util.ListIterator;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import javax.ejb.EJBException;
 import javax.ejb.ScheduleExpression;
@@ -63,6 +69,7 @@ import org.jboss.as.ejb3.subsystem.deployment.TimerServiceResource;
 import org.jboss.as.ejb3.timerservice.persistence.TimerPersistence;
 import org.jboss.as.ejb3.timerservice.spi.ScheduleTimer;
 import org.jboss.as.ejb3.timerservice.spi.TimedObjectInvoker;
+import org.jboss.as.ejb3.timerservice.spi.TimerScheduler;
 import org.jboss.as.ejb3.timerservice.task.TimerTask;
 import org.jboss.invocation.InterceptorContext;
 import org.jboss.logging.Logger;
@@ -105,7 +112,7 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
 
     private final InjectedValue<ExecutorService> executorServiceInjectedValue = new InjectedValue<ExecutorService>();
 
-    private final InjectedValue<java.util.Timer> timerInjectedValue = new InjectedValue<java.util.Timer>();
+    private final InjectedValue<TimerScheduler> timerSchedulerInjectedValue = new InjectedValue<TimerScheduler>();
 
     private final InjectedValue<TimedObjectInvoker> timedObjectInvoker = new InjectedValue<TimedObjectInvoker>();
 
@@ -122,12 +129,12 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
     /**
      * All timers which were created by this {@link TimerService}
      */
-    private final Map<String, TimerImpl> timers = Collections.synchronizedMap(new HashMap<String, TimerImpl>());
+    private final Map<String, TimerImpl> timers = new ConcurrentHashMap<String, TimerImpl>();
 
     /**
-     * Holds the {@link java.util.concurrent.Future} of each of the timer tasks that have been scheduled
+     * Holds the {@link Task} wrapping the {@link java.util.concurrent.Future} of each of the timer tasks that have been scheduled
      */
-    private final Map<String, java.util.TimerTask> scheduledTimerFutures = new HashMap<String, java.util.TimerTask>();
+    private final ConcurrentMap<String, Task<?>> scheduledTimerFutures = new ConcurrentHashMap<String, Task<?>>();
 
     /**
      * Key that is used to store timers that are waiting on transaction completion in the transaction local
@@ -145,6 +152,11 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
 
     private volatile boolean started = false;
 
+    /**
+     * Registration for timers that are changed in the persistent store by other nodes
+     */
+    private volatile Closeable timerChangeRegistration;
+
     static {
         final Set<TimerState> states = new HashSet<TimerState>();
         states.add(TimerState.CANCELED);
@@ -200,6 +212,9 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
         // restore the timers
         started = true;
         restoreTimers(timers);
+        if (timerPersistence.getOptionalValue() != null) {
+            timerChangeRegistration = timerPersistence.getValue().registerChangeListener(invoker.getTimedObjectId(), new PersistentTimerChangeListener());
+        }
         // register ourselves to the TimerServiceRegistry (if any)
         if (timerServiceRegistry != null) {
             timerServiceRegistry.registerTimerService(this);
@@ -212,6 +227,14 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
         if (timerServiceRegistry != null) {
             timerServiceRegistry.unRegisterTimerService(this);
         }
+        if (timerChangeRegistration != null) {
+            try {
+                timerChangeRegistration.close();
+            } catch (IOException e) {
+                ROOT_LOGGER.debug("Failed to unregister timer change listener", e);
+            }
+            timerChangeRegistration = null;
+        }
         suspendTimers();
         timerPersistence.getValue().timerUndeployed(timedObjectInvoker.getValue().getTimedObjectId());
         started = false;
@@ -388,12 +411,10 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
         Object pk = currentPrimaryKey();
         final Set<Timer> activeTimers = new HashSet<Timer>();
         // get all active timers for this timerservice
-        synchronized (this.timers) {
-            for (final TimerImpl timer : this.timers.values()) {
-                if (timer.isActive()) {
-                    if (timer.getPrimaryKey() == null || timer.getPrimaryKey().equals(pk)) {
-                        activeTimers.add(timer);
-                    }
+        for (final TimerImpl timer : this.timers.values()) {
+            if (timer.isActive()) {
+                if (timer.getPrimaryKey() == null || timer.getPrimaryKey().equals(pk)) {
+                    activeTimers.add(timer);
                 }
             }
         }
@@ -611,6 +632,57 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
         }
     }
 
+    /**
+     * Claims the current timeout of the passed <code>timer</code> on behalf of this node.
+     * <p>
+     * Non-persistent timers, and persistent timers whose store is not shared between nodes, are always claimed.
+     * </p>
+     *
+     * @param timer       The timer that is about to time out
+     * @param nextTimeout The next timeout of the timer
+     * @return true if this node should invoke the timeout
+     */
+    public boolean claimTimeout(final TimerImpl timer, final Date nextTimeout) {
+        if (!timer.isTimerPersistent() || timerPersistence.getOptionalValue() == null || !timerPersistence.getValue().isShared()) {
+            return true;
+        }
+        return timerPersistence.getValue().claimTimeout(timer, nextTimeout);
+    }
+
+    /**
+     * Begins the transaction within which the current timeout of the passed <code>timer</code> is claimed and invoked,
+     * if the store of the timer is shared between nodes. The claim is then rolled back if the timeout fails,
+     * such that the timeout can be claimed again.
+     *
+     * @param timer The timer that is about to time out
+     * @return true if a transaction was begun, which must then be completed using {@link #endTimeout(boolean)}
+     */
+    public boolean beginTimeout(final TimerImpl timer) {
+        if (!timer.isTimerPersistent() || timerPersistence.getOptionalValue() == null || !timerPersistence.getValue().isShared()) {
+            return false;
+        }
+        startNewTx();
+        return true;
+    }
+
+    /**
+     * Completes the transaction begun by {@link #beginTimeout(TimerImpl)}.
+     *
+     * @param commit true to commit the transaction, false to roll it back
+     * @throws javax.ejb.EJBException If the transaction could not be completed
+     */
+    public void endTimeout(final boolean commit) {
+        try {
+            if (commit) {
+                transactionManager.commit();
+            } else {
+                transactionManager.rollback();
+            }
+        } catch (Exception e) {
+            throw new EJBException(e);
+        }
+    }
+
     public void cancelTimer(final TimerImpl timer) {
         timer.lock();
         boolean release = true;
@@ -840,42 +912,47 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
      * Creates and schedules a {@link org.jboss.as.ejb3.timerservice.task.TimerTask} for the next timeout of the passed <code>timer</code>
      */
     protected void scheduleTimeout(TimerImpl timer, boolean newTimer) {
-        synchronized (scheduledTimerFutures) {
-            if (!newTimer && !scheduledTimerFutures.containsKey(timer.getId())) {
-                //this timer has been cancelled by another thread. We just return
-                return;
-            }
-
-            Date nextExpiration = timer.getNextExpiration();
-            if (nextExpiration == null) {
-                ROOT_LOGGER.nextExpirationIsNull(timer);
-                return;
-            }
-            // create the timer task
-            final TimerTask<?> timerTask = timer.getTimerTask();
-            // find out how long is it away from now
-            long delay = nextExpiration.getTime() - System.currentTimeMillis();
-            // if in past, then trigger immediately
-            if (delay < 0) {
-                delay = 0;
-            }
-            long intervalDuration = timer.getInterval();
-            final Task task = new Task(timerTask);
-            if (intervalDuration > 0) {
-                ROOT_LOGGER.debug("Scheduling timer " + timer + " at fixed rate, starting at " + delay
-                        + " milliseconds from now with repeated interval=" + intervalDuration);
-                // schedule the task
-                this.timerInjectedValue.getValue().scheduleAtFixedRate(task, delay, intervalDuration);
-                // maintain it in timerservice for future use (like cancellation)
-                this.scheduledTimerFutures.put(timer.getId(), task);
-            } else {
-                ROOT_LOGGER.debug("Scheduling a single action timer " + timer + " starting at " + delay + " milliseconds from now");
-                // schedule the task
-                this.timerInjectedValue.getValue().schedule(task, delay);
-                // maintain it in timerservice for future use (like cancellation)
-                this.scheduledTimerFutures.put(timer.getId(), task);
+        if (!newTimer && !scheduledTimerFutures.containsKey(timer.getId())) {
+            //this timer has been cancelled by another thread. We just return
+            return;
+        }
 
+        Date nextExpiration = timer.getNextExpiration();
+        if (nextExpiration == null) {
+            ROOT_LOGGER.nextExpirationIsNull(timer);
+            return;
+        }
+        // create the timer task
+        final TimerTask<?> timerTask = timer.getTimerTask();
+        // find out how long is it away from now
+        long delay = nextExpiration.getTime() - System.currentTimeMillis();
+        // if in past, then trigger immediately
+        if (delay < 0) {
+            delay = 0;
+        }
+        long intervalDuration = timer.getInterval();
+        final Task<?> task = new Task(timerTask);
+        // maintain it in timerservice for future use (like cancellation) before it can possibly be triggered
+        if (newTimer) {
+            final Task<?> previous = this.scheduledTimerFutures.put(timer.getId(), task);
+            if (previous != null) {
+                //the timer was already scheduled, e.g. by a concurrent refresh of the persistent store
+                previous.cancel();
             }
+        } else if (this.scheduledTimerFutures.replace(timer.getId(), task) == null) {
+            //this timer has been cancelled by another thread in the meantime
+            return;
+        }
+        final TimerScheduler scheduler = this.timerSchedulerInjectedValue.getValue();
+        if (intervalDuration > 0) {
+            ROOT_LOGGER.debug("Scheduling timer " + timer + " at fixed rate, starting at " + delay
+                    + " milliseconds from now with repeated interval=" + intervalDuration);
+            // schedule the task
+            task.setFuture(scheduler.scheduleAtFixedRate(timer.getId(), task, delay, intervalDuration, TimeUnit.MILLISECONDS));
+        } else {
+            ROOT_LOGGER.debug("Scheduling a single action timer " + timer + " starting at " + delay + " milliseconds from now");
+            // schedule the task
+            task.setFuture(scheduler.schedule(timer.getId(), task, delay, TimeUnit.MILLISECONDS));
         }
     }
 
@@ -885,19 +962,15 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
      * @param timer
      */
     protected void cancelTimeout(final TimerImpl timer) {
-        synchronized (this.scheduledTimerFutures) {
-            java.util.TimerTask timerTask = this.scheduledTimerFutures.remove(timer.getId());
-            if (timerTask != null) {
-                timerTask.cancel();
-            }
+        Task<?> task = this.scheduledTimerFutures.remove(timer.getId());
+        if (task != null) {
+            task.cancel();
         }
     }
 
     public void invokeTimeout(final TimerImpl timer) {
-        synchronized (this.scheduledTimerFutures) {
-            if (this.scheduledTimerFutures.containsKey(timer.getId())) {
-                timer.getTimerTask().run();
-            }
+        if (this.scheduledTimerFutures.containsKey(timer.getId())) {
+            timer.getTimerTask().run();
         }
     }
 
@@ -1065,8 +1138,8 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
         return executorServiceInjectedValue;
     }
 
-    public InjectedValue<java.util.Timer> getTimerInjectedValue() {
-        return timerInjectedValue;
+    public InjectedValue<TimerScheduler> getTimerSchedulerInjectedValue() {
+        return timerSchedulerInjectedValue;
     }
 
     public InjectedValue<TimerPersistence> getTimerPersistence() {
@@ -1097,6 +1170,49 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
         this.resource.timerRemoved(timerId);
     }
 
+    /**
+     * Applies changes made to the persistent timers of this timer service by other nodes
+     */
+    private class PersistentTimerChangeListener implements TimerPersistence.TimerChangeListener {
+
+        @Override
+        public TimerServiceImpl getTimerService() {
+            return TimerServiceImpl.this;
+        }
+
+        @Override
+        public Collection<String> getTimerIds() {
+            final List<String> ids = new ArrayList<String>();
+            for (TimerImpl timer : timers.values()) {
+                if (timer.isTimerPersistent()) {
+                    ids.add(timer.getId());
+                }
+            }
+            return ids;
+        }
+
+        @Override
+        public void timerAdded(final TimerImpl timer) {
+            if (!started || ineligibleTimerStates.contains(timer.getState())) {
+                return;
+            }
+            if (timers.containsKey(timer.getId())) {
+                return;
+            }
+            ROOT_LOGGER.debug("Starting timer created by another node: " + timer);
+            startTimer(timer);
+        }
+
+        @Override
+        public void timerRemoved(final String timerId) {
+            final TimerImpl timer = timers.get(timerId);
+            if (timer != null && timer.isTimerPersistent()) {
+                ROOT_LOGGER.debug("Removing timer removed by another node: " + timer);
+                expireTimer(timer);
+            }
+        }
+    }
+
     private class TimerCreationTransactionSynchronization implements Synchronization {
         /**
          * The timer being managed in the transaction
@@ -1171,9 +1287,11 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
         }
     }
 
-    private class Task<T extends TimerImpl> extends java.util.TimerTask {
+    private class Task<T extends TimerImpl> implements Runnable {
 
         private final TimerTask<T> delegate;
+        private volatile Future<?> future;
+        private volatile boolean cancelled = false;
 
         public Task(final TimerTask<T> delegate) {
             this.delegate = delegate;
@@ -1181,16 +1299,30 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
 
         @Override
         public void run() {
+            if (cancelled) {
+                return;
+            }
             final ExecutorService executor = executorServiceInjectedValue.getOptionalValue();
             if (executor != null) {
                 executor.submit(delegate);
             }
         }
 
-        @Override
-        public boolean cancel() {
+        void setFuture(final Future<?> future) {
+            this.future = future;
+            // the task may have been cancelled before it was scheduled
+            if (cancelled) {
+                future.cancel(false);
+            }
+        }
+
+        public void cancel() {
+            cancelled = true;
             delegate.cancel();
-            return super.cancel();
+            final Future<?> future = this.future;
+            if (future != null) {
+                future.cancel(false);
+            }
         }
     }
 
@@ -21,6 +21,9 @@
  */
 package org.jboss.as.ejb3.timerservice.persistence;
 
+import java.io.Closeable;
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 
 import org.jboss.as.ejb3.timerservice.TimerImpl;
@@ -64,4 +67,48 @@ public interface TimerPersistence {
      */
     List<TimerImpl> loadActiveTimers(String timedObjectId, final TimerServiceImpl timerService);
 
+    /**
+     * @return true if the store is shared by several nodes, in which case each timeout must be claimed before it is invoked
+     */
+    boolean isShared();
+
+    /**
+     * Claims the current timeout of the given timer on behalf of this node. If the store is shared by several nodes
+     * using the same partition only a single node will successfully claim a given timeout.
+     *
+     * @param timer       The timer that is about to time out
+     * @param nextTimeout The next timeout of the timer, or null if this is its last timeout
+     * @return true if this node should invoke the timeout, false if it has already been claimed by another node
+     */
+    boolean claimTimeout(TimerImpl timer, Date nextTimeout);
+
+    /**
+     * Registers a listener that is notified of timers for the given object that were created or removed by other
+     * nodes sharing this store.
+     *
+     * @param timedObjectId The timed object id
+     * @param listener      The listener
+     * @return A handle that unregisters the listener when closed
+     */
+    Closeable registerChangeListener(String timedObjectId, TimerChangeListener listener);
+
+    /**
+     * Listener for timers that were changed in the store by another node
+     */
+    interface TimerChangeListener {
+
+        /**
+         * @return The timer service that the listener belongs to, used to create any newly loaded timers
+         */
+        TimerServiceImpl getTimerService();
+
+        /**
+         * @return The ids of the persistent timers currently known to the timer service
+         */
+        Collection<String> getTimerIds();
+
+        void timerAdded(TimerImpl timer);
+
+        void timerRemoved(String timerId);
+    }
 }
@@ -29,6 +29,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
 import java.lang.reflect.Method;
+import java.security.AccessController;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -36,13 +37,30 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 import javax.sql.DataSource;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.SystemException;
+import javax.transaction.TransactionManager;
+import javax.transaction.TransactionSynchronizationRegistry;
 
 import org.jboss.as.ejb3.EjbLogger;
+import org.jboss.as.ejb3.component.stateful.CurrentSynchronizationCallback;
 import org.jboss.as.ejb3.timerservice.CalendarTimer;
 import org.jboss.as.ejb3.timerservice.TimerImpl;
 import org.jboss.as.ejb3.timerservice.TimerServiceImpl;
@@ -65,18 +83,34 @@ import org.jboss.msc.service.StartContext;
 import org.jboss.msc.service.StartException;
 import org.jboss.msc.service.StopContext;
 import org.jboss.msc.value.InjectedValue;
+import org.jboss.threads.JBossThreadFactory;
 import org.jboss.util.Base64;
+import org.wildfly.security.manager.action.GetAccessControlContextAction;
 
 /**
+ * Timer persistence backed by a database table.
+ * <p>
+ * Changes made to timers within a transaction are written as a single JDBC batch before the transaction completes.
+ * If a refresh interval is configured, the store is considered to be shared by the nodes that use the same partition.
+ * Timers created or removed by other nodes are then picked up by periodically comparing the ids of the stored timers
+ * with those known locally, and the nodes split the execution of timers between them, as each timeout must first be
+ * claimed by a conditional update of the timer row.
+ * </p>
+ *
  * @author Stuart Douglas
  */
 public class DatabaseTimerPersistence implements TimerPersistence, Service<DatabaseTimerPersistence> {
 
     private final InjectedValue<ManagedReferenceFactory> dataSourceInjectedValue = new InjectedValue<ManagedReferenceFactory>();
     private final InjectedValue<ModuleLoader> moduleLoader = new InjectedValue<ModuleLoader>();
+    private final InjectedValue<TransactionManager> transactionManager = new InjectedValue<TransactionManager>();
+    private final InjectedValue<TransactionSynchronizationRegistry> transactionSynchronizationRegistry = new InjectedValue<TransactionSynchronizationRegistry>();
+    private final ConcurrentMap<String, TimerChangeListener> listeners = new ConcurrentHashMap<String, TimerChangeListener>();
     private final String name;
     private final String database;
     private final String partition;
+    private final long refreshInterval;
+    private volatile ScheduledExecutorService refreshExecutor;
     private volatile ManagedReference managedReference;
     private volatile DataSource dataSource;
     private volatile Properties sql;
@@ -89,11 +123,22 @@ public class DatabaseTimerPersistence implements TimerPersistence, Service<Datab
     private static final String LOAD_ALL_TIMERS = "load-all-timers";
     private static final String LOAD_TIMER = "load-timer";
     private static final String DELETE_TIMER = "delete-timer";
+    private static final String CLAIM_TIMER = "claim-timer";
+    private static final String LOAD_TIMER_IDS = "load-timer-ids";
 
     public DatabaseTimerPersistence(final String name, final String database, String partition) {
+        this(name, database, partition, 0);
+    }
+
+    /**
+     * @param refreshInterval The interval, in milliseconds, at which timers changed by other nodes are refreshed,
+     *                        or 0 to disable refreshing
+     */
+    public DatabaseTimerPersistence(final String name, final String database, String partition, final long refreshInterval) {
         this.name = name;
         this.database = database;
         this.partition = partition;
+        this.refreshInterval = refreshInterval;
     }
 
     @Override
@@ -115,15 +160,31 @@ public class DatabaseTimerPersistence implements TimerPersistence, Service<Datab
             safeClose(stream);
         }
         runCreateTable();
+        if (refreshInterval > 0) {
+            final ThreadFactory threadFactory = new JBossThreadFactory(new ThreadGroup(DatabaseTimerPersistence.class.getSimpleName()), Boolean.TRUE, null, "%G - %t", null, null, AccessController.doPrivileged(GetAccessControlContextAction.getInstance()));
+            refreshExecutor = Executors.newSingleThreadScheduledExecutor(threadFactory);
+            refreshExecutor.scheduleWithFixedDelay(new RefreshTask(), refreshInterval, refreshInterval, TimeUnit.MILLISECONDS);
+        }
     }
 
     @Override
     public void stop(final StopContext context) {
+        if (refreshExecutor != null) {
+            refreshExecutor.shutdownNow();
+            refreshExecutor = null;
+        }
+        listeners.clear();
         managedReference.release();
         managedReference = null;
         dataSource = null;
     }
 
+    // Used for testing purposes only
+    void setDataSource(final DataSource dataSource, final Properties sql) {
+        this.dataSource = dataSource;
+        this.sql = sql;
+    }
+
     void runCreateTable() {
         String loadTimer = sql(LOAD_TIMER);
         Connection connection = null;
@@ -199,42 +260,247 @@ public class DatabaseTimerPersistence implements TimerPersistence, Service<Datab
 
     @Override
     public void persistTimer(final TimerImpl timerEntity) {
+        if (isTransactionActive()) {
+            //defer the write, so all changes made within this transaction are written as a single batch
+            final TransactionSynchronizationRegistry registry = transactionSynchronizationRegistry.getValue();
+            final String key = transactionKey();
+            PersistTransactionSynchronization batch = (PersistTransactionSynchronization) registry.getResource(key);
+            if (batch == null) {
+                batch = new PersistTransactionSynchronization();
+                registry.registerInterposedSynchronization(batch);
+                registry.putResource(key, batch);
+            }
+            batch.addTimer(timerEntity);
+            return;
+        }
         Connection connection = null;
         PreparedStatement statement = null;
-        ResultSet resultSet = null;
         try {
             connection = dataSource.getConnection();
-            if (timerEntity.getState() == TimerState.CANCELED ||
-                    timerEntity.getState() == TimerState.EXPIRED) {
-                String deleteTimer = sql(DELETE_TIMER);
-                statement = connection.prepareStatement(deleteTimer);
-                statement.setString(1, timerEntity.getTimedObjectId());
-                statement.setString(2, timerEntity.getId());
-                statement.setString(3, partition);
-                statement.execute();
+            if (isRemoved(timerEntity)) {
+                statement = connection.prepareStatement(sql(DELETE_TIMER));
+                deleteParameters(timerEntity, statement);
             } else {
-                String updateTimer = sql(UPDATE_TIMER);
-                statement = connection.prepareStatement(updateTimer);
-                statement.setTimestamp(1, timestamp(timerEntity.getNextExpiration()));
-                statement.setTimestamp(2, timestamp(timerEntity.getPreviousRun()));
-                statement.setString(3, timerEntity.getState().name());
-                statement.setString(4, timerEntity.getTimedObjectId());
-                statement.setString(5, timerEntity.getId());
-                statement.setString(6, partition);
-                statement.execute();
+                statement = connection.prepareStatement(sql(UPDATE_TIMER));
+                updateParameters(timerEntity, statement);
             }
+            statement.execute();
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        } finally {
+            safeClose(statement);
+            safeClose(connection);
+        }
+    }
+
+    /**
+     * Writes the given timers using one batch of deletes and one batch of updates
+     */
+    void persistTimers(final Collection<TimerImpl> timers) {
+        Connection connection = null;
+        PreparedStatement delete = null;
+        PreparedStatement update = null;
+        try {
+            connection = dataSource.getConnection();
+            for (TimerImpl timer : timers) {
+                if (isRemoved(timer)) {
+                    if (delete == null) {
+                        delete = connection.prepareStatement(sql(DELETE_TIMER));
+                    }
+                    deleteParameters(timer, delete);
+                    delete.addBatch();
+                } else {
+                    if (update == null) {
+                        update = connection.prepareStatement(sql(UPDATE_TIMER));
+                    }
+                    updateParameters(timer, update);
+                    update.addBatch();
+                }
+            }
+            if (delete != null) {
+                delete.executeBatch();
+            }
+            if (update != null) {
+                update.executeBatch();
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        } finally {
+            safeClose(delete);
+            safeClose(update);
+            safeClose(connection);
+        }
+    }
+
+    private static boolean isRemoved(final TimerImpl timerEntity) {
+        return timerEntity.getState() == TimerState.CANCELED ||
+                timerEntity.getState() == TimerState.EXPIRED;
+    }
+
+    private void deleteParameters(final TimerImpl timerEntity, final PreparedStatement statement) throws SQLException {
+        statement.setString(1, timerEntity.getTimedObjectId());
+        statement.setString(2, timerEntity.getId());
+        statement.setString(3, partition);
+    }
+
+    private void updateParameters(final TimerImpl timerEntity, final PreparedStatement statement) throws SQLException {
+        statement.setTimestamp(1, timestamp(timerEntity.getNextExpiration()));
+        statement.setTimestamp(2, timestamp(timerEntity.getPreviousRun()));
+        statement.setString(3, timerEntity.getState().name());
+        statement.setString(4, timerEntity.getTimedObjectId());
+        statement.setString(5, timerEntity.getId());
+        statement.setString(6, partition);
+    }
+
+    /**
+     * Changes are only batched while the transaction is still active, otherwise they are written immediately
+     */
+    private boolean isTransactionActive() {
+        try {
+            return transactionManager.getValue().getStatus() == Status.STATUS_ACTIVE && !isBeforeCompletion();
+        } catch (SystemException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private boolean isBeforeCompletion() {
+        final CurrentSynchronizationCallback.CallbackType type = CurrentSynchronizationCallback.get();
+        if (type != null) {
+            return type == CurrentSynchronizationCallback.CallbackType.BEFORE_COMPLETION;
+        }
+        return false;
+    }
+
+    private String transactionKey() {
+        return "org.jboss.as.ejb3.databaseTimerTransactionKey." + name;
+    }
+
+    @Override
+    public boolean isShared() {
+        return refreshInterval > 0;
+    }
+
+    /**
+     * The claim is made using a connection enlisted in the current transaction, if any, so that it is rolled back
+     * together with the transaction of the timeout.
+     */
+    @Override
+    public boolean claimTimeout(final TimerImpl timer, final Date nextTimeout) {
+        final Date currentTimeout = timer.getNextExpiration();
+        if (!isShared() || currentTimeout == null) {
+            return true;
+        }
+        Connection connection = null;
+        PreparedStatement statement = null;
+        try {
+            connection = dataSource.getConnection();
+            //only succeeds if no other node has already moved the timer on to its next timeout
+            statement = connection.prepareStatement(sql(CLAIM_TIMER));
+            statement.setTimestamp(1, timestamp(nextTimeout));
+            statement.setString(2, timer.getTimedObjectId());
+            statement.setString(3, timer.getId());
+            statement.setString(4, partition);
+            statement.setTimestamp(5, timestamp(currentTimeout));
+            return statement.executeUpdate() == 1;
         } catch (SQLException e) {
             throw new RuntimeException(e);
         } finally {
-            safeClose(resultSet);
             safeClose(statement);
             safeClose(connection);
         }
     }
 
+    @Override
+    public Closeable registerChangeListener(final String timedObjectId, final TimerChangeListener listener) {
+        if (refreshInterval > 0) {
+            listeners.put(timedObjectId, listener);
+        }
+        return new Closeable() {
+            @Override
+            public void close() {
+                listeners.remove(timedObjectId, listener);
+            }
+        };
+    }
+
     @Override
     public void timerUndeployed(final String timedObjectId) {
+        listeners.remove(timedObjectId);
+    }
 
+    /**
+     * Compares the ids of the stored timers with those known to the listener, loading only timers that were
+     * created by other nodes since the last refresh.
+     */
+    void refresh(final String timedObjectId, final TimerChangeListener listener) {
+        //the known ids must be read first, so that a timer created locally after the query is never reported as removed
+        final Set<String> knownIds = new HashSet<String>(listener.getTimerIds());
+        final Set<String> storedIds = loadTimerIds(timedObjectId);
+        for (String timerId : knownIds) {
+            if (!storedIds.contains(timerId)) {
+                listener.timerRemoved(timerId);
+            }
+        }
+        for (String timerId : storedIds) {
+            if (!knownIds.contains(timerId)) {
+                final TimerImpl timer = loadTimer(timedObjectId, timerId, listener.getTimerService());
+                if (timer != null) {
+                    listener.timerAdded(timer);
+                }
+            }
+        }
+    }
+
+    private Set<String> loadTimerIds(final String timedObjectId) {
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+        try {
+            connection = dataSource.getConnection();
+            statement = connection.prepareStatement(sql(LOAD_TIMER_IDS));
+            statement.setString(1, timedObjectId);
+            statement.setString(2, partition);
+            resultSet = statement.executeQuery();
+            final Set<String> ids = new HashSet<String>();
+            while (resultSet.next()) {
+                ids.add(resultSet.getString(1));
+            }
+            return ids;
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        } finally {
+            safeClose(resultSet);
+            safeClose(statement);
+            safeClose(connection);
+        }
+    }
+
+    private TimerImpl loadTimer(final String timedObjectId, final String timerId, final TimerServiceImpl timerService) {
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+        try {
+            connection = dataSource.getConnection();
+            statement = connection.prepareStatement(sql(LOAD_TIMER));
+            statement.setString(1, timedObjectId);
+            statement.setString(2, timerId);
+            statement.setString(3, partition);
+            resultSet = statement.executeQuery();
+            if (resultSet.next()) {
+                try {
+                    return timerFromResult(resultSet, timerService);
+                } catch (Exception e) {
+                    EjbLogger.ROOT_LOGGER.timerReinstatementFailed(timedObjectId, timerId, e);
+                }
+            }
+            return null;
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        } finally {
+            safeClose(resultSet);
+            safeClose(statement);
+            safeClose(connection);
+        }
     }
 
     @Override
@@ -439,6 +705,47 @@ public class DatabaseTimerPersistence implements TimerPersistence, Service<Datab
         return moduleLoader;
     }
 
+    public InjectedValue<TransactionManager> getTransactionManager() {
+        return transactionManager;
+    }
+
+    public InjectedValue<TransactionSynchronizationRegistry> getTransactionSynchronizationRegistry() {
+        return transactionSynchronizationRegistry;
+    }
+
+    private final class PersistTransactionSynchronization implements Synchronization {
+
+        //the most recent version of each timer changed within the transaction
+        private final Map<String, TimerImpl> timers = new LinkedHashMap<String, TimerImpl>();
+
+        void addTimer(final TimerImpl timer) {
+            timers.put(timer.getId(), timer);
+        }
+
+        @Override
+        public void beforeCompletion() {
+            //the connection is still enlisted in the transaction, so the batch commits or rolls back with it
+            persistTimers(timers.values());
+        }
+
+        @Override
+        public void afterCompletion(final int status) {
+        }
+    }
+
+    private final class RefreshTask implements Runnable {
+        @Override
+        public void run() {
+            for (Map.Entry<String, TimerChangeListener> entry : listeners.entrySet()) {
+                try {
+                    refresh(entry.getKey(), entry.getValue());
+                } catch (Throwable t) {
+                    EjbLogger.ROOT_LOGGER.timerRefreshFailed(t, entry.getKey());
+                }
+            }
+        }
+    }
+
     private static void safeClose(final Closeable resource) {
         try {
             if (resource != null) {
@@ -49,15 +49,25 @@ import javax.transaction.Synchronization;
 import javax.transaction.SystemException;
 import javax.transaction.TransactionManager;
 import javax.transaction.TransactionSynchronizationRegistry;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.locks.Lock;
@@ -69,6 +79,10 @@ import static org.jboss.as.ejb3.EjbMessages.MESSAGES;
 /**
  * File based persistent timer store.
  * <p/>
+ * By default, each timer is stored in its own file, which is rewritten on every change.
+ * In journal mode, the timers of each timed object are instead stored in an append-only {@link TimerJournal},
+ * to which the changes of a given transaction are written as a single batch.
+ * <p/>
  * TODO: this is fairly hackey at the moment, it should be registered as an XA resource to support proper XA semantics
  *
  * @author Stuart Douglas
@@ -76,6 +90,7 @@ import static org.jboss.as.ejb3.EjbMessages.MESSAGES;
 public class FileTimerPersistence implements TimerPersistence, Service<FileTimerPersistence> {
 
     private final boolean createIfNotExists;
+    private final boolean journal;
     private MarshallerFactory factory;
     private MarshallingConfiguration configuration;
     private final InjectedValue<TransactionManager> transactionManager = new InjectedValue<TransactionManager>();
@@ -89,9 +104,15 @@ public class FileTimerPersistence implements TimerPersistence, Service<FileTimer
 
     private final ConcurrentMap<String, Lock> locks = new ConcurrentHashMap<String, Lock>();
     private final ConcurrentMap<String, String> directories = new ConcurrentHashMap<String, String>();
+    private final ConcurrentMap<String, TimerJournal> journals = new ConcurrentHashMap<String, TimerJournal>();
 
     public FileTimerPersistence(final boolean createIfNotExists, final String path, final String pathRelativeTo) {
+        this(createIfNotExists, path, pathRelativeTo, false);
+    }
+
+    public FileTimerPersistence(final boolean createIfNotExists, final String path, final String pathRelativeTo, final boolean journal) {
         this.createIfNotExists = createIfNotExists;
+        this.journal = journal;
         this.path = path;
         this.pathRelativeTo = pathRelativeTo;
     }
@@ -125,6 +146,10 @@ public class FileTimerPersistence implements TimerPersistence, Service<FileTimer
 
     @Override
     public void stop(final StopContext context) {
+        for (TimerJournal journal : journals.values()) {
+            closeJournal(journal);
+        }
+        journals.clear();
         locks.clear();
         directories.clear();
         if (callbackHandle != null) {
@@ -163,6 +188,10 @@ public class FileTimerPersistence implements TimerPersistence, Service<FileTimer
             if (status == Status.STATUS_NO_TRANSACTION ||
                     status == Status.STATUS_UNKNOWN || isBeforeCompletion()
                     || status == Status.STATUS_COMMITTED) {
+                if (journal) {
+                    writeJournal(timer.getTimedObjectId(), Collections.singletonList(timer), newTimer ? Collections.singleton(timer.getId()) : Collections.<String>emptySet());
+                    return;
+                }
                 Map<String, TimerImpl> map = getTimers(timer.getTimedObjectId(), timer.getTimerService());
                 if (timer.getState() == TimerState.CANCELED ||
                         timer.getState() == TimerState.EXPIRED) {
@@ -174,6 +203,19 @@ public class FileTimerPersistence implements TimerPersistence, Service<FileTimer
                     map.put(timer.getId(), timer);
                     writeFile(timer);
                 }
+            } else if (journal) {
+                final TransactionSynchronizationRegistry registry = transactionSynchronizationRegistry.getValue();
+                //all changes to the timers of this object within this transaction are written as a single batch
+                final String batchKey = journalTransactionKey(timer.getTimedObjectId());
+                JournalTransactionSynchronization batch = (JournalTransactionSynchronization) registry.getResource(batchKey);
+                if (batch == null) {
+                    batch = new JournalTransactionSynchronization(lock, timer.getTimedObjectId());
+                    registry.registerInterposedSynchronization(batch);
+                    registry.putResource(batchKey, batch);
+                }
+                batch.addTimer(timer.getId(), newTimer);
+                //update the most recent version of the timer to be persisted
+                registry.putResource(timerTransactionKey(timer), timer);
             } else {
 
                 final String key = timerTransactionKey(timer);
@@ -193,7 +235,15 @@ public class FileTimerPersistence implements TimerPersistence, Service<FileTimer
     }
 
     private String timerTransactionKey(final TimerImpl TimerImpl) {
-        return "org.jboss.as.ejb3.timerTransactionKey." + TimerImpl.getId();
+        return timerTransactionKey(TimerImpl.getId());
+    }
+
+    private String timerTransactionKey(final String timerId) {
+        return "org.jboss.as.ejb3.timerTransactionKey." + timerId;
+    }
+
+    private String journalTransactionKey(final String timedObjectId) {
+        return "org.jboss.as.ejb3.timerJournalTransactionKey." + timedObjectId;
     }
 
     @Override
@@ -203,12 +253,38 @@ public class FileTimerPersistence implements TimerPersistence, Service<FileTimer
             lock.lock();
             locks.remove(timedObjectId);
             directories.remove(timedObjectId);
+            final TimerJournal journal = journals.remove(timedObjectId);
+            if (journal != null) {
+                closeJournal(journal);
+            }
         } finally {
             lock.unlock();
         }
 
     }
 
+    @Override
+    public boolean isShared() {
+        //the file store is never shared between nodes
+        return false;
+    }
+
+    @Override
+    public boolean claimTimeout(final TimerImpl timer, final Date nextTimeout) {
+        //the file store is never shared between nodes
+        return true;
+    }
+
+    @Override
+    public Closeable registerChangeListener(final String timedObjectId, final TimerChangeListener listener) {
+        //timers in the file store can only be changed by this node
+        return new Closeable() {
+            @Override
+            public void close() {
+            }
+        };
+    }
+
     private boolean isBeforeCompletion() {
         final CurrentSynchronizationCallback.CallbackType type = CurrentSynchronizationCallback.get();
         if (type != null) {
@@ -272,7 +348,110 @@ public class FileTimerPersistence implements TimerPersistence, Service<FileTimer
      * @return The timers for the object
      */
     private Map<String, TimerImpl> getTimers(final String timedObjectId, final TimerServiceImpl timerService) {
-        return loadTimersFromFile(timedObjectId, timerService);
+        return journal ? loadTimersFromJournal(timedObjectId, timerService) : loadTimersFromFile(timedObjectId, timerService);
+    }
+
+    private Map<String, TimerImpl> loadTimersFromJournal(final String timedObjectId, final TimerServiceImpl timerService) {
+        final Map<String, TimerImpl> timers = new HashMap<String, TimerImpl>();
+        try {
+            final TimerJournal journal = journals.get(timedObjectId);
+            //all timers are read via a single sequential pass over the journal
+            final Map<String, byte[]> entities = (journal != null) ? journal.read() : openJournal(timedObjectId);
+            for (Map.Entry<String, byte[]> entry : entities.entrySet()) {
+                try {
+                    timers.put(entry.getKey(), createTimer(unmarshal(entry.getValue()), timerService));
+                } catch (Exception e) {
+                    ROOT_LOGGER.timerReinstatementFailed(timedObjectId, entry.getKey(), e);
+                }
+            }
+        } catch (Exception e) {
+            ROOT_LOGGER.failToRestoreTimersForObjectId(timedObjectId, e);
+        }
+        return timers;
+    }
+
+    /**
+     * Opens the journal of the given timed object, importing any timers previously stored in separate files.
+     * Should be called under lock
+     *
+     * @param timedObjectId The timed object id
+     * @return The serialized timers of the object, keyed by timer id
+     */
+    private Map<String, byte[]> openJournal(final String timedObjectId) throws IOException {
+        final File directory = new File(getDirectory(timedObjectId));
+        final TimerJournal journal = new TimerJournal(directory);
+        final Map<String, byte[]> entities = journal.open();
+        final File[] files = directory.listFiles();
+        if (files != null) {
+            final Map<String, byte[]> imported = new LinkedHashMap<String, byte[]>();
+            final List<File> importedFiles = new ArrayList<File>();
+            for (File file : files) {
+                if (!file.isFile() || file.getName().startsWith(TimerJournal.SEGMENT_PREFIX)) {
+                    continue;
+                }
+                try {
+                    final byte[] bytes = readFile(file);
+                    imported.put(unmarshal(bytes).getId(), bytes);
+                    importedFiles.add(file);
+                } catch (Exception e) {
+                    ROOT_LOGGER.failToRestoreTimersFromFile(file, e);
+                }
+            }
+            if (!imported.isEmpty()) {
+                journal.write(imported, Collections.<String>emptyList());
+                entities.putAll(imported);
+                for (File file : importedFiles) {
+                    file.delete();
+                }
+            }
+        }
+        journals.put(timedObjectId, journal);
+        return entities;
+    }
+
+    private TimerJournal getJournal(final String timedObjectId) throws IOException {
+        TimerJournal journal = journals.get(timedObjectId);
+        if (journal == null) {
+            openJournal(timedObjectId);
+            journal = journals.get(timedObjectId);
+        }
+        return journal;
+    }
+
+    private void closeJournal(final TimerJournal journal) {
+        try {
+            journal.close();
+        } catch (IOException e) {
+            ROOT_LOGGER.failToCloseFile(e);
+        }
+    }
+
+    /**
+     * Writes the changes to the given timers to the journal of their timed object via a single fsync. Should be called under lock
+     *
+     * @param timedObjectId The timed object id
+     * @param timers The most recent versions of the changed timers
+     * @param newTimerIds The ids of the timers that were created, rather than updated
+     */
+    private void writeJournal(final String timedObjectId, final Collection<TimerImpl> timers, final Set<String> newTimerIds) {
+        try {
+            final TimerJournal journal = getJournal(timedObjectId);
+            final Map<String, byte[]> updated = new LinkedHashMap<String, byte[]>();
+            final List<String> removed = new ArrayList<String>();
+            for (TimerImpl timer : timers) {
+                if (timer.getState() == TimerState.CANCELED ||
+                        timer.getState() == TimerState.EXPIRED) {
+                    removed.add(timer.getId());
+                } else if (newTimerIds.contains(timer.getId()) || journal.contains(timer.getId())) {
+                    //if it is not a new timer and is not in the journal then it has
+                    //been removed by another thread.
+                    updated.put(timer.getId(), marshal(createEntity(timer)));
+                }
+            }
+            journal.write(updated, removed);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
     }
 
     private Map<String, TimerImpl> loadTimersFromFile(final String timedObjectId, final TimerServiceImpl timerService) {
@@ -288,6 +467,10 @@ public class FileTimerPersistence implements TimerPersistence, Service<FileTimer
             }
             Unmarshaller unmarshaller = factory.createUnmarshaller(configuration);
             for (File timerFile : file.listFiles()) {
+                if (timerFile.getName().startsWith(TimerJournal.SEGMENT_PREFIX)) {
+                    //left behind by a previous run in journal mode
+                    continue;
+                }
                 FileInputStream in = null;
                 try {
                     in = new FileInputStream(timerFile);
@@ -295,39 +478,7 @@ public class FileTimerPersistence implements TimerPersistence, Service<FileTimer
 
                     final TimerEntity entity = unmarshaller.readObject(TimerEntity.class);
 
-                    //we load the legacy timer entity class, and turn it into a timer state
-
-                    TimerImpl.Builder builder;
-                    if (entity instanceof CalendarTimerEntity) {
-                        CalendarTimerEntity c = (CalendarTimerEntity) entity;
-                        builder = CalendarTimer.builder()
-                                .setScheduleExprSecond(c.getSecond())
-                                .setScheduleExprMinute(c.getMinute())
-                                .setScheduleExprHour(c.getHour())
-                                .setScheduleExprDayOfWeek(c.getDayOfWeek())
-                                .setScheduleExprDayOfMonth(c.getDayOfMonth())
-                                .setScheduleExprMonth(c.getMonth())
-                                .setScheduleExprYear(c.getYear())
-                                .setScheduleExprStartDate(c.getStartDate())
-                                .setScheduleExprEndDate(c.getEndDate())
-                                .setScheduleExprTimezone(c.getTimezone())
-                                .setAutoTimer(c.isAutoTimer())
-                                .setTimeoutMethod(CalendarTimer.getTimeoutMethod(c.getTimeoutMethod(), timerService.getTimedObjectInvoker().getValue()));
-                    } else {
-                        builder = TimerImpl.builder();
-                    }
-                    builder.setId(entity.getId())
-                            .setTimedObjectId(entity.getTimedObjectId())
-                            .setInitialDate(entity.getInitialDate())
-                            .setRepeatInterval(entity.getInterval())
-                            .setNextDate(entity.getNextDate())
-                            .setPreviousRun(entity.getPreviousRun())
-                            .setInfo(entity.getInfo())
-                            .setPrimaryKey(entity.getPrimaryKey())
-                            .setTimerState(entity.getTimerState())
-                            .setPersistent(true);
-
-                    timers.put(entity.getId(), builder.build(timerService));
+                    timers.put(entity.getId(), createTimer(entity, timerService));
                     unmarshaller.finish();
                 } catch (Exception e) {
                     ROOT_LOGGER.failToRestoreTimersFromFile(timerFile, e);
@@ -348,6 +499,83 @@ public class FileTimerPersistence implements TimerPersistence, Service<FileTimer
         return timers;
     }
 
+    private TimerImpl createTimer(final TimerEntity entity, final TimerServiceImpl timerService) {
+        //we load the legacy timer entity class, and turn it into a timer state
+        TimerImpl.Builder builder;
+        if (entity instanceof CalendarTimerEntity) {
+            CalendarTimerEntity c = (CalendarTimerEntity) entity;
+            builder = CalendarTimer.builder()
+                    .setScheduleExprSecond(c.getSecond())
+                    .setScheduleExprMinute(c.getMinute())
+                    .setScheduleExprHour(c.getHour())
+                    .setScheduleExprDayOfWeek(c.getDayOfWeek())
+                    .setScheduleExprDayOfMonth(c.getDayOfMonth())
+                    .setScheduleExprMonth(c.getMonth())
+                    .setScheduleExprYear(c.getYear())
+                    .setScheduleExprStartDate(c.getStartDate())
+                    .setScheduleExprEndDate(c.getEndDate())
+                    .setScheduleExprTimezone(c.getTimezone())
+                    .setAutoTimer(c.isAutoTimer())
+                    .setTimeoutMethod(CalendarTimer.getTimeoutMethod(c.getTimeoutMethod(), timerService.getTimedObjectInvoker().getValue()));
+        } else {
+            builder = TimerImpl.builder();
+        }
+        builder.setId(entity.getId())
+                .setTimedObjectId(entity.getTimedObjectId())
+                .setInitialDate(entity.getInitialDate())
+                .setRepeatInterval(entity.getInterval())
+                .setNextDate(entity.getNextDate())
+                .setPreviousRun(entity.getPreviousRun())
+                .setInfo(entity.getInfo())
+                .setPrimaryKey(entity.getPrimaryKey())
+                .setTimerState(entity.getTimerState())
+                .setPersistent(true);
+        return builder.build(timerService);
+    }
+
+    private TimerEntity createEntity(final TimerImpl timer) {
+        if (timer instanceof CalendarTimer) {
+            return new CalendarTimerEntity((CalendarTimer) timer);
+        }
+        return new TimerEntity(timer);
+    }
+
+    private byte[] marshal(final TimerEntity entity) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final Marshaller marshaller = factory.createMarshaller(configuration);
+        marshaller.start(new OutputStreamByteOutput(bytes));
+        marshaller.writeObject(entity);
+        marshaller.finish();
+        return bytes.toByteArray();
+    }
+
+    private TimerEntity unmarshal(final byte[] bytes) throws IOException, ClassNotFoundException {
+        final Unmarshaller unmarshaller = factory.createUnmarshaller(configuration);
+        unmarshaller.start(new InputStreamByteInput(new ByteArrayInputStream(bytes)));
+        final TimerEntity entity = unmarshaller.readObject(TimerEntity.class);
+        unmarshaller.finish();
+        return entity;
+    }
+
+    private static byte[] readFile(final File file) throws IOException {
+        final FileInputStream in = new FileInputStream(file);
+        try {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream((int) file.length());
+            final byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                bytes.write(buffer, 0, read);
+            }
+            return bytes.toByteArray();
+        } finally {
+            try {
+                in.close();
+            } catch (IOException e) {
+                ROOT_LOGGER.failToCloseFile(e);
+            }
+        }
+    }
+
     private File fileName(String timedObjectId, String timerId) {
         return new File(getDirectory(timedObjectId) + File.separator + timerId.replace(File.separator, "-"));
     }
@@ -386,12 +614,7 @@ public class FileTimerPersistence implements TimerPersistence, Service<FileTimer
             return;
         }
 
-        final TimerEntity entity;
-        if (timer instanceof CalendarTimer) {
-            entity = new CalendarTimerEntity((CalendarTimer) timer);
-        } else {
-            entity = new TimerEntity(timer);
-        }
+        final TimerEntity entity = createEntity(timer);
 
         FileOutputStream fileOutputStream = null;
         try {
@@ -467,6 +690,53 @@ public class FileTimerPersistence implements TimerPersistence, Service<FileTimer
 
     }
 
+    private final class JournalTransactionSynchronization implements Synchronization {
+
+        private final Lock lock;
+        private final String timedObjectId;
+        private final Set<String> timerIds = new LinkedHashSet<String>();
+        private final Set<String> newTimerIds = new HashSet<String>();
+        private final List<TimerImpl> timers = new ArrayList<TimerImpl>();
+
+        public JournalTransactionSynchronization(final Lock lock, final String timedObjectId) {
+            this.lock = lock;
+            this.timedObjectId = timedObjectId;
+        }
+
+        void addTimer(final String timerId, final boolean newTimer) {
+            timerIds.add(timerId);
+            if (newTimer) {
+                newTimerIds.add(timerId);
+            }
+        }
+
+        @Override
+        public void beforeCompletion() {
+            //get the latest version of each entity
+            for (String timerId : timerIds) {
+                final TimerImpl timer = (TimerImpl) transactionSynchronizationRegistry.getValue().getResource(timerTransactionKey(timerId));
+                if (timer != null) {
+                    timers.add(timer);
+                }
+            }
+        }
+
+        @Override
+        public void afterCompletion(final int status) {
+            if (timers.isEmpty()) {
+                return;
+            }
+            try {
+                lock.lock();
+                if (status == Status.STATUS_COMMITTED) {
+                    writeJournal(timedObjectId, timers, newTimerIds);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
     public InjectedValue<TransactionManager> getTransactionManager() {
         return transactionManager;
     }
@@ -0,0 +1,499 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.timerservice.persistence.filestore;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import static org.jboss.as.ejb3.EjbLogger.ROOT_LOGGER;
+import static org.jboss.as.ejb3.EjbMessages.MESSAGES;
+
+/**
+ * Append-only journal of the persistent timers of a single timed object.
+ * <p/>
+ * Each change to a timer is appended as a checksummed record to the current segment of the journal,
+ * and a batch of changes is made durable via a single fsync. The live records are indexed in memory by timer id,
+ * so that the journal can be compacted, once mostly obsolete, by copying the live records into a new snapshot segment
+ * that supersedes all previous segments. The timers are restored by reading all segments sequentially.
+ * <p/>
+ * This class is not thread safe, callers are expected to guard access to a given journal.
+ */
+class TimerJournal implements Closeable {
+
+    static final long DEFAULT_MAX_SEGMENT_SIZE = 16 * 1024 * 1024;
+    static final long DEFAULT_COMPACTION_THRESHOLD = 1024 * 1024;
+
+    static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+    private static final int MAGIC = 0x454A424A;
+    // Segment types
+    private static final byte LOG = 0;
+    private static final byte SNAPSHOT = 1;
+    private static final int SEGMENT_HEADER_SIZE = 5;
+    // Record types
+    private static final byte PUT = 0;
+    private static final byte REMOVE = 1;
+    // Record length + checksum
+    private static final int RECORD_HEADER_SIZE = 8;
+
+    private final File directory;
+    private final long maxSegmentSize;
+    private final long compactionThreshold;
+    private final Map<String, Location> index = new HashMap<String, Location>();
+    private long liveBytes = 0;
+    private long totalBytes = 0;
+    private long segment = -1;
+    private FileChannel channel;
+
+    TimerJournal(File directory) {
+        this(directory, DEFAULT_MAX_SEGMENT_SIZE, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    TimerJournal(File directory, long maxSegmentSize, long compactionThreshold) {
+        this.directory = directory;
+        this.maxSegmentSize = maxSegmentSize;
+        this.compactionThreshold = compactionThreshold;
+    }
+
+    /**
+     * Opens this journal, recovering from any incomplete write to the end of its last segment.
+     * Any invalid record within a previous segment, which cannot be the result of an interrupted write, is an error.
+     *
+     * @return the payload of each live timer, keyed by timer id
+     */
+    Map<String, byte[]> open() throws IOException {
+        if (!this.directory.exists() && !this.directory.mkdirs()) {
+            throw new IOException(this.directory.getAbsolutePath());
+        }
+        // Discard any snapshot whose compaction did not complete
+        File[] incomplete = this.directory.listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return name.startsWith(SEGMENT_PREFIX) && name.endsWith(TEMPORARY_SUFFIX);
+            }
+        });
+        if (incomplete != null) {
+            for (File file : incomplete) {
+                file.delete();
+            }
+        }
+        Map<String, byte[]> timers = this.replay(true);
+        if (this.segment < 0) {
+            this.segment = 0;
+            this.channel = this.createSegment(this.segmentFile(this.segment), LOG);
+        } else {
+            this.channel = openSegment(this.segmentFile(this.segment));
+        }
+        return timers;
+    }
+
+    /**
+     * Reads the payload of each live timer via a single sequential pass over the segments of this journal.
+     *
+     * @return the payload of each live timer, keyed by timer id
+     */
+    Map<String, byte[]> read() throws IOException {
+        return this.replay(false);
+    }
+
+    boolean contains(String timerId) {
+        return this.index.containsKey(timerId);
+    }
+
+    /**
+     * Durably appends a batch of changes to this journal.
+     *
+     * @param puts the new payload of each added or updated timer, keyed by timer id
+     * @param removes the ids of removed timers
+     */
+    void write(Map<String, byte[]> puts, List<String> removes) throws IOException {
+        if (puts.isEmpty() && removes.isEmpty()) {
+            return;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(bytes);
+        Map<String, Location> locations = new LinkedHashMap<String, Location>();
+        long position = this.channel.position();
+        for (Map.Entry<String, byte[]> entry : puts.entrySet()) {
+            int size = writeRecord(output, PUT, entry.getKey(), entry.getValue());
+            locations.put(entry.getKey(), new Location(this.segment, position, size));
+            position += size;
+        }
+        for (String timerId : removes) {
+            if (this.index.containsKey(timerId)) {
+                position += writeRecord(output, REMOVE, timerId, null);
+                locations.put(timerId, null);
+            }
+        }
+        output.flush();
+        ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+        long start = this.channel.position();
+        try {
+            while (buffer.hasRemaining()) {
+                this.channel.write(buffer);
+            }
+            this.channel.force(false);
+        } catch (IOException e) {
+            // Discard any partially written records, so that subsequent records are not appended after them
+            try {
+                this.channel.truncate(start);
+                this.channel.position(start);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+        this.totalBytes += bytes.size();
+
+        for (Map.Entry<String, Location> entry : locations.entrySet()) {
+            Location location = entry.getValue();
+            Location previous = (location != null) ? this.index.put(entry.getKey(), location) : this.index.remove(entry.getKey());
+            if (previous != null) {
+                this.liveBytes -= previous.size;
+            }
+            if (location != null) {
+                this.liveBytes += location.size;
+            }
+        }
+
+        if ((this.totalBytes > this.compactionThreshold) && (this.liveBytes * 2 < this.totalBytes)) {
+            this.compact();
+        } else if (this.channel.size() > this.maxSegmentSize) {
+            this.channel.close();
+            this.segment += 1;
+            this.channel = this.createSegment(this.segmentFile(this.segment), LOG);
+        }
+    }
+
+    /**
+     * Copies all live records into a new snapshot segment, and deletes all previous segments.
+     * The snapshot only supersedes the previous segments once complete, so compaction is safe to interrupt.
+     */
+    void compact() throws IOException {
+        long previousSegment = this.segment;
+        File snapshotFile = this.segmentFile(previousSegment + 1);
+        File temporaryFile = new File(this.directory, snapshotFile.getName() + TEMPORARY_SUFFIX);
+        FileChannel snapshot = this.createSegment(temporaryFile, SNAPSHOT);
+        Map<String, Location> index = new HashMap<String, Location>();
+        long position = snapshot.position();
+        // Copy records segment by segment, in order of position, such that each segment is read sequentially
+        List<Map.Entry<String, Location>> entries = new ArrayList<Map.Entry<String, Location>>(this.index.entrySet());
+        Collections.sort(entries, LocationComparator.INSTANCE);
+        FileChannel source = null;
+        long sourceSegment = -1;
+        try {
+            for (Map.Entry<String, Location> entry : entries) {
+                Location location = entry.getValue();
+                if (location.segment != sourceSegment) {
+                    if (source != null) {
+                        source.close();
+                    }
+                    source = (location.segment == previousSegment) ? null : new RandomAccessFile(this.segmentFile(location.segment), "r").getChannel();
+                    sourceSegment = location.segment;
+                }
+                FileChannel channel = (source != null) ? source : this.channel;
+                long transferred = 0;
+                while (transferred < location.size) {
+                    transferred += channel.transferTo(location.position + transferred, location.size - transferred, snapshot);
+                }
+                index.put(entry.getKey(), new Location(previousSegment + 1, position, location.size));
+                position += location.size;
+            }
+            snapshot.force(false);
+            snapshot.close();
+            if (!temporaryFile.renameTo(snapshotFile)) {
+                throw new IOException(snapshotFile.getAbsolutePath());
+            }
+        } catch (IOException e) {
+            snapshot.close();
+            temporaryFile.delete();
+            throw e;
+        } finally {
+            if (source != null) {
+                source.close();
+            }
+        }
+        this.channel.close();
+        this.channel = openSegment(snapshotFile);
+        this.segment = previousSegment + 1;
+        this.index.clear();
+        this.index.putAll(index);
+        this.totalBytes = this.liveBytes;
+        // Make the rename durable before deleting the segments superseded by the snapshot
+        this.syncDirectory();
+        for (long segment : this.segments()) {
+            if (segment < this.segment) {
+                this.segmentFile(segment).delete();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.channel != null) {
+            this.channel.close();
+            this.channel = null;
+        }
+        this.index.clear();
+    }
+
+    private Map<String, byte[]> replay(boolean recover) throws IOException {
+        Map<String, byte[]> timers = new HashMap<String, byte[]>();
+        long[] segments = this.segments();
+        // Skip all segments superseded by the most recent snapshot
+        int first = 0;
+        for (int i = segments.length - 1; i > 0; --i) {
+            if (this.segmentType(segments[i]) == SNAPSHOT) {
+                first = i;
+                break;
+            }
+        }
+        for (int i = first; i < segments.length; ++i) {
+            long segment = segments[i];
+            File file = this.segmentFile(segment);
+            long valid = this.replay(segment, file, timers, recover);
+            if ((valid < file.length()) && (i < segments.length - 1)) {
+                // Only the last segment can end with an interrupted write, as segments are only appended to
+                throw MESSAGES.corruptTimerJournal(file, valid);
+            }
+            if (recover) {
+                if (valid < file.length()) {
+                    // An incomplete write, most likely interrupted by a crash, discard it
+                    ROOT_LOGGER.truncatedTimerJournal(file, valid);
+                    RandomAccessFile truncate = new RandomAccessFile(file, "rw");
+                    try {
+                        truncate.setLength(valid);
+                    } finally {
+                        truncate.close();
+                    }
+                }
+                this.totalBytes += valid - SEGMENT_HEADER_SIZE;
+                this.segment = segment;
+            }
+        }
+        if (recover) {
+            for (int i = 0; i < first; ++i) {
+                this.segmentFile(segments[i]).delete();
+            }
+        }
+        return timers;
+    }
+
+    // Returns the position following the last valid record of the specified segment
+    private long replay(long segment, File file, Map<String, byte[]> timers, boolean recover) throws IOException {
+        InputStream in = new FileInputStream(file);
+        try {
+            DataInputStream input = new DataInputStream(new BufferedInputStream(in));
+            if (input.readInt() != MAGIC) {
+                throw new IOException(file.getAbsolutePath());
+            }
+            input.readByte();
+            long position = SEGMENT_HEADER_SIZE;
+            CRC32 crc = new CRC32();
+            while (true) {
+                byte[] body;
+                try {
+                    int length = input.readInt();
+                    long checksum = input.readInt() & 0xFFFFFFFFL;
+                    if ((length <= 0) || (length > file.length() - position - RECORD_HEADER_SIZE)) {
+                        return position;
+                    }
+                    body = new byte[length];
+                    input.readFully(body);
+                    crc.reset();
+                    crc.update(body);
+                    if (crc.getValue() != checksum) {
+                        return position;
+                    }
+                } catch (EOFException e) {
+                    return position;
+                }
+                DataInputStream record = new DataInputStream(new ByteArrayInputStream(body));
+                byte type = record.readByte();
+                String timerId = record.readUTF();
+                int size = RECORD_HEADER_SIZE + body.length;
+                if (type == PUT) {
+                    timers.put(timerId, Arrays.copyOfRange(body, body.length - record.available(), body.length));
+                    if (recover) {
+                        Location previous = this.index.put(timerId, new Location(segment, position, size));
+                        if (previous != null) {
+                            this.liveBytes -= previous.size;
+                        }
+                        this.liveBytes += size;
+                    }
+                } else {
+                    timers.remove(timerId);
+                    if (recover) {
+                        Location previous = this.index.remove(timerId);
+                        if (previous != null) {
+                            this.liveBytes -= previous.size;
+                        }
+                    }
+                }
+                position += size;
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    private static int writeRecord(DataOutputStream output, byte type, String timerId, byte[] payload) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream body = new DataOutputStream(bytes);
+        body.writeByte(type);
+        body.writeUTF(timerId);
+        if (payload != null) {
+            body.write(payload);
+        }
+        body.flush();
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+        output.writeInt(bytes.size());
+        output.writeInt((int) crc.getValue());
+        bytes.writeTo(output);
+        return RECORD_HEADER_SIZE + bytes.size();
+    }
+
+    private FileChannel createSegment(File file, byte type) throws IOException {
+        FileChannel channel = new RandomAccessFile(file, "rw").getChannel();
+        channel.truncate(0);
+        ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_SIZE);
+        header.putInt(MAGIC).put(type).flip();
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+        return channel;
+    }
+
+    // Flushes the entries of the journal directory, where the platform supports it
+    private void syncDirectory() throws IOException {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(this.directory.toPath(), StandardOpenOption.READ);
+        } catch (IOException e) {
+            // e.g. Windows, which does not allow a directory to be opened
+            return;
+        }
+        try {
+            channel.force(true);
+        } finally {
+            channel.close();
+        }
+    }
+
+    private static FileChannel openSegment(File file) throws IOException {
+        FileChannel channel = new RandomAccessFile(file, "rw").getChannel();
+        channel.position(channel.size());
+        return channel;
+    }
+
+    private byte segmentType(long segment) throws IOException {
+        DataInputStream input = new DataInputStream(new FileInputStream(this.segmentFile(segment)));
+        try {
+            return (input.readInt() == MAGIC) ? input.readByte() : LOG;
+        } catch (EOFException e) {
+            return LOG;
+        } finally {
+            input.close();
+        }
+    }
+
+    private File segmentFile(long segment) {
+        return new File(this.directory, SEGMENT_PREFIX + segment + SEGMENT_SUFFIX);
+    }
+
+    // Returns the numbers of the existing segments, in ascending order
+    private long[] segments() {
+        String[] names = this.directory.list(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+            }
+        });
+        if (names == null) {
+            return new long[0];
+        }
+        long[] segments = new long[names.length];
+        int count = 0;
+        for (String name : names) {
+            try {
+                segments[count] = Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+                count += 1;
+            } catch (NumberFormatException e) {
+                // Not a segment
+            }
+        }
+        segments = Arrays.copyOf(segments, count);
+        Arrays.sort(segments);
+        return segments;
+    }
+
+    private static class Location {
+        final long segment;
+        final long position;
+        final int size;
+
+        Location(long segment, long position, int size) {
+            this.segment = segment;
+            this.position = position;
+            this.size = size;
+        }
+    }
+
+    private static class LocationComparator implements Comparator<Map.Entry<String, Location>> {
+        static final LocationComparator INSTANCE = new LocationComparator();
+
+        @Override
+        public int compare(Map.Entry<String, Location> entry1, Map.Entry<String, Location> entry2) {
+            Location location1 = entry1.getValue();
+            Location location2 = entry2.getValue();
+            if (location1.segment != location2.segment) {
+                return (location1.segment < location2.segment) ? -1 : 1;
+            }
+            return (location1.position < location2.position) ? -1 : ((location1.position == location2.position) ? 0 : 1);
+        }
+    }
+}
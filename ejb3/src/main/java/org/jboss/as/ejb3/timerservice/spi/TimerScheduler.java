@@ -0,0 +1,67 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.timerservice.spi;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.as.ejb3.util.LatencyHistogram;
+
+/**
+ * Schedules the timeouts of the timers of all timer services of a server.
+ * <p>
+ * A {@link TimerScheduler} is only responsible for triggering a timeout at the appropriate time,
+ * the timeout method itself is expected to be invoked asynchronously by the triggered task.
+ * </p>
+ */
+public interface TimerScheduler {
+
+    /**
+     * Schedules a single action timeout.
+     *
+     * @param timerId the identifier of the timer
+     * @param task the task triggered by the timeout
+     * @param delay the delay before the timeout
+     * @param unit the unit of the delay
+     * @return a future with which the timeout can be cancelled
+     */
+    Future<?> schedule(String timerId, Runnable task, long delay, TimeUnit unit);
+
+    /**
+     * Schedules a recurring timeout at a fixed rate.
+     *
+     * @param timerId the identifier of the timer
+     * @param task the task triggered by each timeout
+     * @param delay the delay before the first timeout
+     * @param period the interval between subsequent timeouts
+     * @param unit the unit of the delay and period
+     * @return a future with which the timeouts can be cancelled
+     */
+    Future<?> scheduleAtFixedRate(String timerId, Runnable task, long delay, long period, TimeUnit unit);
+
+    /**
+     * Returns the distribution of the lag between the scheduled time of a timeout and the time it was actually triggered.
+     *
+     * @return a snapshot of the firing lag histogram
+     */
+    LatencyHistogram.Snapshot getFiringLag();
+}
@@ -141,48 +141,97 @@ public class TimerTask<T extends TimerImpl> implements Runnable {
                 return;
             }
 
-            //we lock the timer for this check, because if a cancel is in progress then
-            //we do not want to do the isActive check, but wait for the cancelling transaction to finish
-            //one way or another
-            timer.lock();
+            // nodes sharing a timer store claim each timeout within a transaction that is only committed
+            // once the timeout was invoked, so that the timeout can be claimed again if it fails
+            boolean transaction = false;
+            boolean completed = false;
             try {
-                if (!timer.isActive()) {
-                    ROOT_LOGGER.debug("Timer is not active, skipping this scheduled execution at: " + now + "for " + timer);
-                    return;
-                }
-                // set the current date as the "previous run" of the timer.
-                timer.setPreviousRun(new Date());
-                Date nextTimeout = this.calculateNextTimeout(timer);
-                timer.setNextTimeout(nextTimeout);
-                // change the state to mark it as in timeout method
-                timer.setTimerState(TimerState.IN_TIMEOUT);
-
-                // persist changes
-                timerService.persistTimer(timer, false);
+                final Date currentTimeout;
+                final Date nextTimeout;
+                //we lock the timer for this check, because if a cancel is in progress then
+                //we do not want to do the isActive check, but wait for the cancelling transaction to finish
+                //one way or another
+                timer.lock();
+                try {
+                    if (!timer.isActive()) {
+                        ROOT_LOGGER.debug("Timer is not active, skipping this scheduled execution at: " + now + "for " + timer);
+                        return;
+                    }
+                    currentTimeout = timer.getNextExpiration();
+                    nextTimeout = this.calculateNextTimeout(timer);
+                    transaction = timerService.beginTimeout(timer);
+                    if (!timerService.claimTimeout(timer, nextTimeout)) {
+                        if (transaction) {
+                            transaction = false;
+                            timerService.endTimeout(false);
+                        }
+                        ROOT_LOGGER.debug("Timeout was claimed by another node, skipping this scheduled execution at: " + now + " for " + timer);
+                        timer.setNextTimeout(nextTimeout);
+                        if (nextTimeout == null) {
+                            // the node that claimed the last timeout takes care of removing the timer
+                            timerService.expireTimer(timer);
+                        } else {
+                            scheduleTimeoutIfRequired(timer);
+                        }
+                        return;
+                    }
+                    // set the current date as the "previous run" of the timer.
+                    timer.setPreviousRun(new Date());
+                    timer.setNextTimeout(nextTimeout);
+                    // change the state to mark it as in timeout method
+                    timer.setTimerState(TimerState.IN_TIMEOUT);
 
-            } finally {
-                timer.unlock();
-            }
-            try {
-                // invoke timeout
-                this.callTimeout(timer);
-            } catch (BeanRemovedException e) {
-                ROOT_LOGGER.debugf("Removing timer %s as EJB has been removed ", timer);
-                timer.cancel();
-            } catch (Exception e) {
-                ROOT_LOGGER.errorInvokeTimeout(timer, e);
+                    // persist changes
+                    timerService.persistTimer(timer, false);
+
+                } finally {
+                    timer.unlock();
+                }
                 try {
-                    ROOT_LOGGER.timerRetried(timer);
-                    retryTimeout(timer);
-                } catch (Exception retryException) {
-                    // that's it, we can't do anything more. Let's just log the exception
-                    // and return
-                    ROOT_LOGGER.errorDuringRetryTimeout(timer, retryException);
+                    // invoke timeout
+                    this.callTimeout(timer);
+                } catch (BeanRemovedException e) {
+                    ROOT_LOGGER.debugf("Removing timer %s as EJB has been removed ", timer);
+                    timer.cancel();
+                } catch (Exception e) {
+                    ROOT_LOGGER.errorInvokeTimeout(timer, e);
+                    boolean retry = true;
+                    if (transaction) {
+                        // the claim was rolled back along with the timeout, so it is claimed again for the retry
+                        transaction = false;
+                        timerService.endTimeout(false);
+                        transaction = timerService.beginTimeout(timer);
+                        retry = this.reclaimTimeout(timer, currentTimeout, nextTimeout);
+                        if (!retry) {
+                            ROOT_LOGGER.debug("Timeout was claimed by another node after it failed, skipping its retry for " + timer);
+                        }
+                    }
+                    if (retry) {
+                        try {
+                            ROOT_LOGGER.timerRetried(timer);
+                            retryTimeout(timer);
+                        } catch (Exception retryException) {
+                            // that's it, we can't do anything more. Let's just log the exception
+                            // and return
+                            ROOT_LOGGER.errorDuringRetryTimeout(timer, retryException);
+                            if (transaction) {
+                                // the timeout is not retried again, so its claim must outlive the failed retry
+                                transaction = false;
+                                timerService.endTimeout(false);
+                                this.reclaimTimeout(timer, currentTimeout, nextTimeout);
+                            }
+                        }
+                    }
+                } finally {
+                    this.postTimeoutProcessing(timer);
+                    //if it has expired we need to persist it
+                    timerService.persistTimer(timer, false);
                 }
+                completed = true;
             } finally {
-                this.postTimeoutProcessing(timer);
-                //if it has expired we need to persist it
-                timerService.persistTimer(timer, false);
+                if (transaction) {
+                    timerService.endTimeout(completed);
+                }
             }
         } catch (Exception e) {
             ROOT_LOGGER.exceptionRunningTimerTask(timerId, timedObjectId, e);
@@ -192,6 +241,16 @@ public class TimerTask<T extends TimerImpl> implements Runnable {
     protected void scheduleTimeoutIfRequired(TimerImpl timer) {
     }
 
+    // Claims a timeout again, once its previous claim was rolled back
+    private boolean reclaimTimeout(TimerImpl timer, Date currentTimeout, Date nextTimeout) {
+        timer.setNextTimeout(currentTimeout);
+        try {
+            return timerService.claimTimeout(timer, nextTimeout);
+        } finally {
+            timer.setNextTimeout(nextTimeout);
+        }
+    }
+
     protected void callTimeout(TimerImpl timer) throws Exception {
         timerService.getInvoker().callTimeout(timer);
     }
@@ -0,0 +1,160 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.util;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.as.server.util.jdk8backported.LongAdder;
+
+/**
+ * A lock-free histogram of latencies with a bounded relative error, in the spirit of HdrHistogram.
+ * Values are recorded in microseconds into log-linear buckets: values below {@link #LINEAR_BUCKETS} are recorded exactly,
+ * while each subsequent power of 2 is divided into {@link #SUB_BUCKETS} buckets, yielding a relative error of at most 12.5%.
+ * Each bucket is a {@link LongAdder}, so that concurrent invocations of similar latency, which hit the same bucket, do not
+ * contend on a single counter.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    static final int LINEAR_BUCKETS = SUB_BUCKETS << 1;
+    // Covers up to 2^40 microseconds (~12 days), larger values are recorded in the last bucket
+    private static final int MAX_EXPONENT = 40;
+    private static final int BUCKETS = LINEAR_BUCKETS + (MAX_EXPONENT - SUB_BUCKET_BITS - 1) * SUB_BUCKETS;
+
+    private final LongAdder[] counts = new LongAdder[BUCKETS];
+
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; ++i) {
+            this.counts[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records the specified latency.
+     * @param value a latency
+     * @param unit the unit of the latency
+     */
+    public void record(long value, TimeUnit unit) {
+        this.counts[index(unit.toMicros(value))].increment();
+    }
+
+    static int index(long micros) {
+        if (micros < LINEAR_BUCKETS) {
+            return (micros < 0) ? 0 : (int) micros;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        if (exponent >= MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        int subBucket = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return LINEAR_BUCKETS + (exponent - SUB_BUCKET_BITS - 1) * SUB_BUCKETS + subBucket;
+    }
+
+    // Returns the highest value, in microseconds, recorded in the specified bucket
+    static long highestValue(int index) {
+        if (index < LINEAR_BUCKETS) {
+            return index;
+        }
+        int offset = index - LINEAR_BUCKETS;
+        int exponent = (offset / SUB_BUCKETS) + SUB_BUCKET_BITS + 1;
+        long subBucket = offset % SUB_BUCKETS;
+        long lowest = (1L << exponent) + (subBucket << (exponent - SUB_BUCKET_BITS));
+        return lowest + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+
+    /**
+     * Returns a copy of the counts of this histogram.
+     * Buckets are read one at a time, so values recorded concurrently may or may not be reflected in the snapshot.
+     * @return a snapshot of this histogram
+     */
+    public Snapshot getSnapshot() {
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; ++i) {
+            counts[i] = this.counts[i].sum();
+        }
+        return new Snapshot(counts);
+    }
+
+    /**
+     * Resets all recorded values.
+     * Values recorded concurrently may or may not be retained.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; ++i) {
+            this.counts[i].reset();
+        }
+    }
+
+    public static class Snapshot {
+        private final long[] counts;
+        private final long count;
+
+        Snapshot(long[] counts) {
+            this.counts = counts;
+            long count = 0;
+            for (long value: counts) {
+                count += value;
+            }
+            this.count = count;
+        }
+
+        /**
+         * Returns the number of recorded values.
+         * @return the number of recorded values
+         */
+        public long getCount() {
+            return this.count;
+        }
+
+        /**
+         * Returns the value below which the specified percentage of recorded values fall.
+         * @param percentile a percentile between 0 and 100
+         * @return a latency in microseconds, or 0 if no values were recorded
+         */
+        public long getValueAtPercentile(double percentile) {
+            if (this.count == 0) return 0;
+            long threshold = Math.max(1, (long) Math.ceil((Math.min(percentile, 100d) / 100d) * this.count));
+            long total = 0;
+            for (int i = 0; i < this.counts.length; ++i) {
+                total += this.counts[i];
+                if (total >= threshold) {
+                    return highestValue(i);
+                }
+            }
+            return highestValue(this.counts.length - 1);
+        }
+
+        /**
+         * Returns the maximum recorded value.
+         * @return a latency in microseconds, or 0 if no values were recorded
+         */
+        public long getMaxValue() {
+            for (int i = this.counts.length - 1; i >= 0; --i) {
+                if (this.counts[i] > 0) {
+                    return highestValue(i);
+                }
+            }
+            return 0;
+        }
+    }
+}
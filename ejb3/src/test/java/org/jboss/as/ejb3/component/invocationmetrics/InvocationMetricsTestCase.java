@@ -0,0 +1,83 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.component.invocationmetrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class InvocationMetricsTestCase {
+
+    @Test
+    public void testConcurrentInvocations() throws Exception {
+        final InvocationMetrics metrics = new InvocationMetrics();
+        final Method method = Object.class.getMethod("toString");
+        final int threads = 4;
+        final int invocations = 10000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Void>> futures = new ArrayList<Future<Void>>();
+            for (int i = 0; i < threads; ++i) {
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        for (int j = 0; j < invocations; ++j) {
+                            metrics.startInvocation();
+                            metrics.finishInvocation(method, TimeUnit.MICROSECONDS.toNanos(100), TimeUnit.MILLISECONDS.toNanos(1));
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        long total = threads * invocations;
+        assertEquals(total, metrics.getInvocations());
+        assertEquals(total, metrics.getExecutionTime());
+        assertEquals(total / 10, metrics.getWaitTime());
+        assertEquals(0, metrics.getConcurrent());
+        assertTrue(metrics.getPeakConcurrent() > 0);
+
+        InvocationMetrics.Values values = metrics.getMethods().get("toString");
+        assertEquals(total, values.getInvocations());
+        assertEquals(total, values.getExecutionTimeHistogram().getCount());
+        long p50 = values.getExecutionTimeHistogram().getValueAtPercentile(50);
+        assertTrue(Long.toString(p50), p50 >= 1000 && p50 < 1125);
+        long waitP99 = values.getWaitTimeHistogram().getValueAtPercentile(99);
+        assertTrue(Long.toString(waitP99), waitP99 >= 100 && waitP99 < 113);
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.remote.protocol;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.jboss.marshalling.Marshaller;
+import org.jboss.marshalling.MarshallerFactory;
+import org.jboss.marshalling.Marshalling;
+import org.jboss.marshalling.MarshallingConfiguration;
+import org.jboss.marshalling.Unmarshaller;
+import org.jboss.marshalling.river.RiverMarshallerFactory;
+import org.junit.Test;
+
+public class MarshallingPoolTestCase {
+
+    private final MarshallingPool pool = new MarshallingPool(new RiverMarshallerFactory());
+
+    @Test
+    public void releasedMarshallerIsReused() throws IOException {
+        Marshaller marshaller = this.pool.acquireMarshaller();
+        this.pool.releaseMarshaller(marshaller);
+        assertSame(marshaller, this.pool.acquireMarshaller());
+    }
+
+    @Test
+    public void acquiredMarshallerIsNotShared() throws IOException {
+        Marshaller marshaller = this.pool.acquireMarshaller();
+        assertNotSame(marshaller, this.pool.acquireMarshaller());
+    }
+
+    @Test
+    public void capacity() throws IOException {
+        MarshallingPool pool = new MarshallingPool(new RiverMarshallerFactory(), 1);
+        Marshaller marshaller1 = pool.acquireMarshaller();
+        Marshaller marshaller2 = pool.acquireMarshaller();
+        pool.releaseMarshaller(marshaller1);
+        pool.releaseMarshaller(marshaller2);
+
+        assertSame(marshaller1, pool.acquireMarshaller());
+        Marshaller marshaller3 = pool.acquireMarshaller();
+        assertNotSame(marshaller1, marshaller3);
+        assertNotSame(marshaller2, marshaller3);
+    }
+
+    @Test
+    public void releasedUnmarshallerIsReused() throws Exception {
+        for (int i = 0; i < 2; ++i) {
+            assertEquals("value" + i, this.unmarshal(this.marshal("value" + i)));
+        }
+        MarshallingPool.PooledUnmarshaller unmarshaller = this.pool.acquireUnmarshaller(this.getClass().getClassLoader());
+        this.pool.releaseUnmarshaller(unmarshaller);
+        assertSame(unmarshaller, this.pool.acquireUnmarshaller(this.getClass().getClassLoader()));
+    }
+
+    @Test
+    public void failedUnmarshallerIsNotReused() throws IOException {
+        MarshallerFactory factory = mock(MarshallerFactory.class);
+        Unmarshaller unmarshaller = mock(Unmarshaller.class);
+        when(factory.createUnmarshaller(any(MarshallingConfiguration.class))).thenReturn(unmarshaller);
+        doThrow(new IOException()).when(unmarshaller).clearClassCache();
+        MarshallingPool pool = new MarshallingPool(factory);
+
+        pool.releaseUnmarshaller(pool.acquireUnmarshaller(this.getClass().getClassLoader()));
+        pool.acquireUnmarshaller(this.getClass().getClassLoader());
+
+        verify(factory, times(2)).createUnmarshaller(any(MarshallingConfiguration.class));
+    }
+
+    private byte[] marshal(Object value) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        Marshaller marshaller = this.pool.acquireMarshaller();
+        marshaller.start(Marshalling.createByteOutput(output));
+        marshaller.writeObject(value);
+        marshaller.finish();
+        this.pool.releaseMarshaller(marshaller);
+        return output.toByteArray();
+    }
+
+    private Object unmarshal(byte[] bytes) throws IOException, ClassNotFoundException {
+        MarshallingPool.PooledUnmarshaller unmarshaller = this.pool.acquireUnmarshaller(this.getClass().getClassLoader());
+        unmarshaller.getUnmarshaller().start(Marshalling.createByteInput(new ByteArrayInputStream(bytes)));
+        Object value = unmarshaller.getUnmarshaller().readObject();
+        this.pool.releaseUnmarshaller(unmarshaller);
+        return value;
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.remote.protocol.versionone;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class MethodInvocationMessageHandlerTestCase {
+
+    @Test
+    public void bufferMessage() throws IOException {
+        byte[] message = new byte[2000];
+        Arrays.fill(message, (byte) 1);
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+        assertTrue(MethodInvocationMessageHandler.bufferMessage(new ByteArrayInputStream(message), buffer, message.length + 1));
+        assertArrayEquals(message, buffer.toByteArray());
+    }
+
+    @Test
+    public void bufferLargeMessage() throws IOException {
+        byte[] message = new byte[2000];
+        Arrays.fill(message, (byte) 1);
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        InputStream input = new ByteArrayInputStream(message);
+
+        assertFalse(MethodInvocationMessageHandler.bufferMessage(input, buffer, 1000));
+        assertEquals(1000, buffer.size());
+        // the rest of the message remains in the stream
+        assertEquals(1000, input.available());
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.timerservice.persistence.database;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Properties;
+
+import javax.sql.DataSource;
+
+import org.jboss.as.ejb3.timerservice.TimerImpl;
+import org.jboss.as.ejb3.timerservice.TimerState;
+import org.jboss.as.ejb3.timerservice.persistence.TimerPersistence.TimerChangeListener;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DatabaseTimerPersistenceTestCase {
+
+    private final DataSource dataSource = mock(DataSource.class);
+    private final Connection connection = mock(Connection.class);
+    private final Properties sql = new Properties();
+
+    @Before
+    public void init() throws SQLException {
+        when(this.dataSource.getConnection()).thenReturn(this.connection);
+        this.sql.setProperty("update-timer", "update");
+        this.sql.setProperty("delete-timer", "delete");
+        this.sql.setProperty("claim-timer", "claim");
+        this.sql.setProperty("load-timer", "load");
+        this.sql.setProperty("load-timer-ids", "load-ids");
+    }
+
+    @Test
+    public void claimTimeout() throws SQLException {
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(this.connection.prepareStatement("claim")).thenReturn(statement);
+        TimerImpl timer = createTimer("timer", TimerState.ACTIVE);
+        Date currentTimeout = timer.getNextExpiration();
+        Date nextTimeout = new Date(currentTimeout.getTime() + 1000);
+        DatabaseTimerPersistence persistence = this.createPersistence(1000);
+
+        when(statement.executeUpdate()).thenReturn(1);
+        assertTrue(persistence.claimTimeout(timer, nextTimeout));
+        verify(statement).setTimestamp(1, new Timestamp(nextTimeout.getTime()));
+        verify(statement).setString(2, "object");
+        verify(statement).setString(3, "timer");
+        verify(statement).setString(4, "partition");
+        verify(statement).setTimestamp(5, new Timestamp(currentTimeout.getTime()));
+
+        // Another node already moved the timer on to its next timeout
+        when(statement.executeUpdate()).thenReturn(0);
+        assertFalse(persistence.claimTimeout(timer, nextTimeout));
+
+        verify(statement, times(2)).close();
+        verify(this.connection, times(2)).close();
+    }
+
+    @Test
+    public void claimTimeoutOfUnsharedStore() throws SQLException {
+        TimerImpl timer = createTimer("timer", TimerState.ACTIVE);
+        DatabaseTimerPersistence persistence = this.createPersistence(0);
+
+        assertFalse(persistence.isShared());
+        assertTrue(persistence.claimTimeout(timer, new Date(timer.getNextExpiration().getTime() + 1000)));
+        verifyZeroInteractions(this.dataSource);
+    }
+
+    @Test
+    public void persistTimers() throws SQLException {
+        PreparedStatement delete = mock(PreparedStatement.class);
+        PreparedStatement update = mock(PreparedStatement.class);
+        when(this.connection.prepareStatement("delete")).thenReturn(delete);
+        when(this.connection.prepareStatement("update")).thenReturn(update);
+        DatabaseTimerPersistence persistence = this.createPersistence(0);
+
+        persistence.persistTimers(Arrays.asList(createTimer("timer1", TimerState.CANCELED), createTimer("timer2", TimerState.ACTIVE), createTimer("timer3", TimerState.EXPIRED), createTimer("timer4", TimerState.IN_TIMEOUT)));
+
+        // All changes are written using a single connection, with one batch of each kind of statement
+        verify(this.dataSource).getConnection();
+        verify(this.connection).prepareStatement("delete");
+        verify(this.connection).prepareStatement("update");
+        verify(delete).setString(2, "timer1");
+        verify(delete).setString(2, "timer3");
+        verify(update).setString(5, "timer2");
+        verify(update).setString(5, "timer4");
+        verify(update).setString(3, TimerState.IN_TIMEOUT.name());
+        verify(delete, times(2)).addBatch();
+        verify(update, times(2)).addBatch();
+        verify(delete).executeBatch();
+        verify(update).executeBatch();
+        verify(delete, never()).executeUpdate();
+        verify(update, never()).executeUpdate();
+        verify(delete).close();
+        verify(update).close();
+        verify(this.connection).close();
+    }
+
+    @Test
+    public void refresh() throws SQLException {
+        PreparedStatement loadIds = mock(PreparedStatement.class);
+        ResultSet ids = mock(ResultSet.class);
+        when(this.connection.prepareStatement("load-ids")).thenReturn(loadIds);
+        when(loadIds.executeQuery()).thenReturn(ids);
+        when(ids.next()).thenReturn(true, true, false);
+        when(ids.getString(1)).thenReturn("timer1", "timer2");
+        PreparedStatement load = mock(PreparedStatement.class);
+        ResultSet timers = mock(ResultSet.class);
+        when(this.connection.prepareStatement("load")).thenReturn(load);
+        when(load.executeQuery()).thenReturn(timers);
+        // timer2 was removed again before it could be loaded
+        when(timers.next()).thenReturn(false);
+        TimerChangeListener listener = mock(TimerChangeListener.class);
+        when(listener.getTimerIds()).thenReturn(Arrays.asList("timer1", "timer3"));
+        DatabaseTimerPersistence persistence = this.createPersistence(1000);
+
+        persistence.refresh("object", listener);
+
+        verify(loadIds).setString(1, "object");
+        verify(loadIds).setString(2, "partition");
+        verify(listener).timerRemoved("timer3");
+        verify(listener, never()).timerRemoved("timer1");
+        // Only timers not yet known are loaded
+        verify(this.connection).prepareStatement("load");
+        verify(load).setString(2, "timer2");
+        verify(listener, never()).timerAdded(any(TimerImpl.class));
+    }
+
+    private DatabaseTimerPersistence createPersistence(long refreshInterval) {
+        DatabaseTimerPersistence persistence = new DatabaseTimerPersistence("test", null, "partition", refreshInterval);
+        persistence.setDataSource(this.dataSource, this.sql);
+        return persistence;
+    }
+
+    private static TimerImpl createTimer(String id, TimerState state) {
+        TimerImpl timer = mock(TimerImpl.class);
+        when(timer.getId()).thenReturn(id);
+        when(timer.getTimedObjectId()).thenReturn("object");
+        when(timer.getState()).thenReturn(state);
+        when(timer.getNextExpiration()).thenReturn(new Date(System.currentTimeMillis()));
+        when(timer.getPreviousRun()).thenReturn(null);
+        return timer;
+    }
+}
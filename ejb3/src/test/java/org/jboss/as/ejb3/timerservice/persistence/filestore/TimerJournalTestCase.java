@@ -0,0 +1,181 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.timerservice.persistence.filestore;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Collections;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TimerJournalTestCase {
+
+    private File directory;
+
+    @Before
+    public void init() throws IOException {
+        this.directory = File.createTempFile("timer-journal", null);
+        this.directory.delete();
+    }
+
+    @After
+    public void destroy() {
+        File[] files = this.directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        this.directory.delete();
+    }
+
+    @Test
+    public void writeAndReload() throws IOException {
+        TimerJournal journal = new TimerJournal(this.directory);
+        assertTrue(journal.open().isEmpty());
+        journal.write(Collections.singletonMap("timer1", bytes("1")), Collections.<String>emptyList());
+        journal.write(Collections.singletonMap("timer2", bytes("2")), Collections.<String>emptyList());
+        journal.write(Collections.singletonMap("timer1", bytes("1'")), Collections.singletonList("timer2"));
+        assertTrue(journal.contains("timer1"));
+        assertFalse(journal.contains("timer2"));
+
+        Map<String, byte[]> timers = journal.read();
+        assertEquals(1, timers.size());
+        assertArrayEquals(bytes("1'"), timers.get("timer1"));
+        journal.close();
+
+        journal = new TimerJournal(this.directory);
+        timers = journal.open();
+        assertEquals(1, timers.size());
+        assertArrayEquals(bytes("1'"), timers.get("timer1"));
+        assertTrue(journal.contains("timer1"));
+        journal.close();
+    }
+
+    @Test
+    public void incompleteWrite() throws IOException {
+        TimerJournal journal = new TimerJournal(this.directory);
+        journal.open();
+        journal.write(Collections.singletonMap("timer", bytes("value")), Collections.<String>emptyList());
+        journal.close();
+
+        // Simulate a write interrupted by a crash
+        File[] segments = this.directory.listFiles();
+        assertEquals(1, segments.length);
+        long length = segments[0].length();
+        FileOutputStream output = new FileOutputStream(segments[0], true);
+        try {
+            output.write(new byte[] { 0, 0, 0, 100, 1, 2, 3 });
+        } finally {
+            output.close();
+        }
+
+        journal = new TimerJournal(this.directory);
+        Map<String, byte[]> timers = journal.open();
+        assertEquals(1, timers.size());
+        assertArrayEquals(bytes("value"), timers.get("timer"));
+        assertEquals(length, segments[0].length());
+
+        // Subsequent writes must be readable
+        journal.write(Collections.singletonMap("timer", bytes("value'")), Collections.<String>emptyList());
+        journal.close();
+        journal = new TimerJournal(this.directory);
+        assertArrayEquals(bytes("value'"), journal.open().get("timer"));
+        journal.close();
+    }
+
+    @Test
+    public void corruptSegment() throws IOException {
+        // Roll over to a new segment every couple of records, without compacting
+        TimerJournal journal = new TimerJournal(this.directory, 64, Long.MAX_VALUE);
+        journal.open();
+        for (int i = 0; i < 5; ++i) {
+            journal.write(Collections.singletonMap("timer" + i, bytes("01234567890123456789")), Collections.<String>emptyList());
+        }
+        journal.close();
+        assertTrue(this.directory.listFiles().length > 1);
+
+        // A corrupt record before the last segment is not the result of an interrupted write
+        File segment = new File(this.directory, TimerJournal.SEGMENT_PREFIX + "0.log");
+        long length = segment.length();
+        RandomAccessFile file = new RandomAccessFile(segment, "rw");
+        try {
+            file.seek(length - 1);
+            file.write('x');
+        } finally {
+            file.close();
+        }
+
+        journal = new TimerJournal(this.directory);
+        try {
+            journal.open();
+            fail("Corrupt segment was not detected");
+        } catch (IOException e) {
+            // Expected
+        } finally {
+            journal.close();
+        }
+        // The corrupt segment must not have been truncated
+        assertEquals(length, segment.length());
+    }
+
+    @Test
+    public void compact() throws IOException {
+        TimerJournal journal = new TimerJournal(this.directory, 1024, 512);
+        journal.open();
+        for (int i = 0; i < 1000; ++i) {
+            journal.write(Collections.singletonMap("timer" + (i % 10), bytes(Integer.toString(i))), Collections.<String>emptyList());
+        }
+        journal.write(Collections.<String, byte[]>emptyMap(), Collections.singletonList("timer0"));
+        journal.close();
+
+        long size = 0;
+        for (File file : this.directory.listFiles()) {
+            size += file.length();
+        }
+        // 1000 records would be well over 10KB without compaction
+        assertTrue(Long.toString(size), size < 2048);
+
+        journal = new TimerJournal(this.directory);
+        Map<String, byte[]> timers = journal.open();
+        assertEquals(9, timers.size());
+        for (int i = 1; i < 10; ++i) {
+            assertArrayEquals(bytes(Integer.toString(990 + i)), timers.get("timer" + i));
+        }
+        journal.close();
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes();
+    }
+}
@@ -24,8 +24,10 @@ package org.jboss.as.messaging;
 
 import static org.jboss.as.messaging.MessagingMessages.MESSAGES;
 
+import org.hornetq.api.config.HornetQDefaultConfiguration;
 import org.hornetq.core.security.CheckType;
 import org.hornetq.core.security.Role;
+import org.hornetq.core.settings.HierarchicalRepositoryChangeListener;
 import org.jboss.as.security.plugins.SecurityDomainContext;
 import org.jboss.security.SecurityContext;
 import org.jboss.security.SecurityContextAssociation;
@@ -33,21 +35,51 @@ import org.jboss.security.SecurityContextFactory;
 import org.jboss.security.SimplePrincipal;
 
 import javax.security.auth.Subject;
+import java.nio.charset.Charset;
 import java.security.AccessController;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.security.Principal;
 import java.security.PrivilegedAction;
+import java.security.SecureRandom;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * HornetQ security manager delegating to a security domain.
+ *
+ * The outcome of each check is cached per user, set of roles and {@link CheckType} for the security invalidation interval
+ * of the server, so that frequent checks of the same user do not each require a round trip to the security domain.
+ * The cache is cleared whenever the security settings of the server change.
+ */
+public class HornetQSecurityManagerAS7 implements org.hornetq.spi.core.security.HornetQSecurityManager, HierarchicalRepositoryChangeListener {
+
+    static final int MAX_CACHED_DECISIONS = 1000;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
 
-public class HornetQSecurityManagerAS7 implements org.hornetq.spi.core.security.HornetQSecurityManager {
     private SecurityDomainContext securityDomainContext;
     private String defaultUser = null;
     private String defaultPassword = null;
+    private final long decisionTimeout;
+    private final ConcurrentMap<DecisionKey, Decision> decisions = new ConcurrentHashMap<DecisionKey, Decision>();
 
     public HornetQSecurityManagerAS7(SecurityDomainContext sdc) {
+        this(sdc, HornetQDefaultConfiguration.getDefaultSecurityInvalidationInterval());
+    }
+
+    /**
+     * @param sdc the security domain to delegate to
+     * @param decisionTimeout the time in milliseconds for which the outcome of a check is cached, 0 disables caching
+     */
+    public HornetQSecurityManagerAS7(SecurityDomainContext sdc, long decisionTimeout) {
         securityDomainContext = sdc;
         defaultUser = HornetQDefaultCredentials.getUsername();
         defaultPassword = HornetQDefaultCredentials.getPassword();
+        this.decisionTimeout = decisionTimeout;
     }
 
     @Override
@@ -58,7 +90,16 @@ public class HornetQSecurityManagerAS7 implements org.hornetq.spi.core.security.
         if (securityDomainContext == null)
             throw MESSAGES.securityDomainContextNotSet();
 
-        return securityDomainContext.getAuthenticationManager().isValid(new SimplePrincipal(username), password, new Subject());
+        final DecisionKey key = new DecisionKey(username, null, null);
+        final Boolean cached = getCachedDecision(key, password);
+        if (cached != null)
+            return cached;
+
+        final boolean authenticated = securityDomainContext.getAuthenticationManager().isValid(new SimplePrincipal(username), password, new Subject());
+        if (authenticated) {
+            cacheDecision(key, password, authenticated);
+        }
+        return authenticated;
     }
 
     @Override
@@ -69,6 +110,11 @@ public class HornetQSecurityManagerAS7 implements org.hornetq.spi.core.security.
         if (securityDomainContext == null)
             throw MESSAGES.securityDomainContextNotSet();
 
+        final DecisionKey key = new DecisionKey(username, roles, checkType);
+        final Boolean cached = getCachedDecision(key, password);
+        if (cached != null)
+            return cached;
+
         final Subject subject = new Subject();
 
         // The authentication call here changes the subject and that subject must be used later.  That is why we don't call validateUser(String, String) here.
@@ -110,11 +156,57 @@ public class HornetQSecurityManagerAS7 implements org.hornetq.spi.core.security.
                     return authenticated;
                 }
             });
+            // Only checks of authenticated users are cached, failed logins are always passed to the security domain
+            cacheDecision(new DecisionKey(username, new HashSet<Role>(roles), checkType), password, authenticated);
         }
 
         return authenticated;
     }
 
+    /**
+     * Clears the cached outcomes of previous checks, as the roles matching an address have changed.
+     */
+    @Override
+    public void onChange() {
+        decisions.clear();
+    }
+
+    private Boolean getCachedDecision(DecisionKey key, String password) {
+        if (decisionTimeout <= 0)
+            return null;
+
+        final Decision decision = decisions.get(key);
+        if (decision == null)
+            return null;
+        if (decision.isExpired(System.currentTimeMillis())) {
+            decisions.remove(key, decision);
+            return null;
+        }
+        return decision.matches(password) ? decision.result : null;
+    }
+
+    private void cacheDecision(DecisionKey key, String password, boolean result) {
+        if (decisionTimeout <= 0)
+            return;
+
+        final long now = System.currentTimeMillis();
+        if (decisions.size() >= MAX_CACHED_DECISIONS) {
+            Iterator<Map.Entry<DecisionKey, Decision>> entries = decisions.entrySet().iterator();
+            while (entries.hasNext()) {
+                if (entries.next().getValue().isExpired(now)) {
+                    entries.remove();
+                }
+            }
+            if (decisions.size() >= MAX_CACHED_DECISIONS)
+                return;
+        }
+        decisions.put(key, new Decision(password, result, now + decisionTimeout));
+    }
+
+    int getCachedDecisionCount() {
+        return decisions.size();
+    }
+
 
     @Override
     public void addUser(String s, String s1) {
@@ -142,10 +234,89 @@ public class HornetQSecurityManagerAS7 implements org.hornetq.spi.core.security.
 
     @Override
     public void stop() throws Exception {
+        decisions.clear();
     }
 
     @Override
     public boolean isStarted() {
         return false;
     }
+
+    private static final class DecisionKey {
+        private final String username;
+        private final Set<Role> roles;
+        private final CheckType checkType;
+        private final int hashCode;
+
+        DecisionKey(String username, Set<Role> roles, CheckType checkType) {
+            this.username = username;
+            this.roles = roles;
+            this.checkType = checkType;
+            int result = (username != null) ? username.hashCode() : 0;
+            result = 31 * result + ((roles != null) ? roles.hashCode() : 0);
+            result = 31 * result + ((checkType != null) ? checkType.hashCode() : 0);
+            this.hashCode = result;
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            if (this == object)
+                return true;
+            if (!(object instanceof DecisionKey))
+                return false;
+            DecisionKey key = (DecisionKey) object;
+            return (hashCode == key.hashCode) && (checkType == key.checkType)
+                    && ((username != null) ? username.equals(key.username) : key.username == null)
+                    && ((roles != null) ? roles.equals(key.roles) : key.roles == null);
+        }
+    }
+
+    /**
+     * The outcome of a check. Only a salted digest of the password it was made for is kept, never the password itself.
+     */
+    private static final class Decision {
+        private static final SecureRandom RANDOM = new SecureRandom();
+        private static final int SALT_LENGTH = 16;
+
+        private final byte[] salt;
+        private final byte[] digest;
+        final boolean result;
+        private final long expiration;
+
+        Decision(String password, boolean result, long expiration) {
+            this.salt = new byte[SALT_LENGTH];
+            RANDOM.nextBytes(this.salt);
+            this.digest = digest(this.salt, password);
+            this.result = result;
+            this.expiration = expiration;
+        }
+
+        boolean isExpired(long now) {
+            return now >= expiration;
+        }
+
+        boolean matches(String password) {
+            if (this.digest == null || password == null)
+                return this.digest == null && password == null;
+            return MessageDigest.isEqual(this.digest, digest(this.salt, password));
+        }
+
+        private static byte[] digest(byte[] salt, String password) {
+            if (password == null)
+                return null;
+            try {
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                digest.update(salt);
+                return digest.digest(password.getBytes(UTF_8));
+            } catch (NoSuchAlgorithmException e) {
+                // every Java platform is required to support SHA-256
+                throw new IllegalStateException(e);
+            }
+        }
+    }
 }
@@ -266,10 +266,13 @@ class HornetQService implements Service<HornetQServer> {
             }
 
             // security
-            HornetQSecurityManagerAS7 hornetQSecurityManagerAS7 = new HornetQSecurityManagerAS7(securityDomainContextValue.getValue());
+            HornetQSecurityManagerAS7 hornetQSecurityManagerAS7 = new HornetQSecurityManagerAS7(securityDomainContextValue.getValue(),
+                    configuration.getSecurityInvalidationInterval());
 
             // Now start the server
             server = new HornetQServerImpl(configuration, mbeanServer.getOptionalValue(), hornetQSecurityManagerAS7);
+            // discard cached security decisions whenever security settings are changed
+            server.getSecurityRepository().registerListener(hornetQSecurityManagerAS7);
             if (HornetQDefaultConfiguration.getDefaultClusterPassword().equals(server.getConfiguration().getClusterPassword())) {
                 server.getConfiguration().setClusterPassword(java.util.UUID.randomUUID().toString());
             }
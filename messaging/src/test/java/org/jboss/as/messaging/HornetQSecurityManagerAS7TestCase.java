@@ -0,0 +1,170 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.messaging;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anySetOf;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.security.Principal;
+import java.util.Collections;
+import java.util.Set;
+
+import javax.security.auth.Subject;
+
+import org.hornetq.core.security.CheckType;
+import org.hornetq.core.security.Role;
+import org.jboss.as.security.plugins.SecurityDomainContext;
+import org.jboss.security.AuthenticationManager;
+import org.jboss.security.AuthorizationManager;
+import org.jboss.security.SimplePrincipal;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the caching of security decisions by {@link HornetQSecurityManagerAS7}.
+ */
+public class HornetQSecurityManagerAS7TestCase {
+
+    private static final String USER = "guest";
+    private static final String PASSWORD = "secret";
+
+    private final SecurityDomainContext context = mock(SecurityDomainContext.class);
+    private final AuthenticationManager authenticationManager = mock(AuthenticationManager.class);
+    private final AuthorizationManager authorizationManager = mock(AuthorizationManager.class);
+
+    @Before
+    public void setUp() {
+        when(context.getAuthenticationManager()).thenReturn(authenticationManager);
+        when(context.getAuthorizationManager()).thenReturn(authorizationManager);
+        when(authenticationManager.getSecurityDomain()).thenReturn("other");
+        when(authenticationManager.isValid(any(Principal.class), eq(PASSWORD), any(Subject.class))).thenReturn(true);
+        when(authorizationManager.doesUserHaveRole(any(Principal.class), anySetOf(Principal.class))).thenReturn(true);
+    }
+
+    @Test
+    public void testCachedValidation() {
+        HornetQSecurityManagerAS7 manager = new HornetQSecurityManagerAS7(context, 60000);
+
+        assertTrue(manager.validateUser(USER, PASSWORD));
+        assertTrue(manager.validateUser(USER, PASSWORD));
+        assertEquals(1, manager.getCachedDecisionCount());
+        verify(authenticationManager, times(1)).isValid(eq(new SimplePrincipal(USER)), eq(PASSWORD), any(Subject.class));
+    }
+
+    @Test
+    public void testDifferentPasswordIsNotCached() {
+        HornetQSecurityManagerAS7 manager = new HornetQSecurityManagerAS7(context, 60000);
+
+        assertTrue(manager.validateUser(USER, PASSWORD));
+        assertFalse(manager.validateUser(USER, "wrong"));
+        assertFalse(manager.validateUser(USER, null));
+        verify(authenticationManager, times(3)).isValid(eq(new SimplePrincipal(USER)), any(), any(Subject.class));
+        // failed logins are not cached
+        assertEquals(1, manager.getCachedDecisionCount());
+    }
+
+    @Test
+    public void testCacheKey() {
+        HornetQSecurityManagerAS7 manager = new HornetQSecurityManagerAS7(context, 60000);
+        Set<Role> producers = Collections.singleton(new Role("producer", true, false, false, false, false, false, false));
+        Set<Role> consumers = Collections.singleton(new Role("consumer", false, true, false, false, false, false, false));
+
+        assertTrue(manager.validateUserAndRole(USER, PASSWORD, producers, CheckType.SEND));
+        assertTrue(manager.validateUserAndRole(USER, PASSWORD, producers, CheckType.SEND));
+        verify(authorizationManager, times(1)).doesUserHaveRole(any(Principal.class), anySetOf(Principal.class));
+
+        // a different check type, set of roles or user is a different decision
+        assertTrue(manager.validateUserAndRole(USER, PASSWORD, producers, CheckType.CONSUME));
+        assertTrue(manager.validateUserAndRole(USER, PASSWORD, consumers, CheckType.SEND));
+        assertTrue(manager.validateUserAndRole("admin", PASSWORD, producers, CheckType.SEND));
+        // validating the user only is a different decision too
+        assertTrue(manager.validateUser(USER, PASSWORD));
+        verify(authorizationManager, times(4)).doesUserHaveRole(any(Principal.class), anySetOf(Principal.class));
+        verify(authenticationManager, times(5)).isValid(any(Principal.class), eq(PASSWORD), any(Subject.class));
+        assertEquals(5, manager.getCachedDecisionCount());
+    }
+
+    @Test
+    public void testExpiration() throws Exception {
+        HornetQSecurityManagerAS7 manager = new HornetQSecurityManagerAS7(context, 50);
+
+        assertTrue(manager.validateUser(USER, PASSWORD));
+        Thread.sleep(100);
+        assertTrue(manager.validateUser(USER, PASSWORD));
+        verify(authenticationManager, times(2)).isValid(eq(new SimplePrincipal(USER)), eq(PASSWORD), any(Subject.class));
+    }
+
+    @Test
+    public void testEvictionWhenFull() throws Exception {
+        HornetQSecurityManagerAS7 manager = new HornetQSecurityManagerAS7(context, 60000);
+        for (int i = 0; i < HornetQSecurityManagerAS7.MAX_CACHED_DECISIONS; i++) {
+            assertTrue(manager.validateUser(USER + i, PASSWORD));
+        }
+        assertEquals(HornetQSecurityManagerAS7.MAX_CACHED_DECISIONS, manager.getCachedDecisionCount());
+
+        // no decision has expired yet, so there is no room for another one
+        assertTrue(manager.validateUser(USER, PASSWORD));
+        assertTrue(manager.validateUser(USER, PASSWORD));
+        assertEquals(HornetQSecurityManagerAS7.MAX_CACHED_DECISIONS, manager.getCachedDecisionCount());
+        verify(authenticationManager, times(2)).isValid(eq(new SimplePrincipal(USER)), eq(PASSWORD), any(Subject.class));
+
+        // expired decisions are evicted to make room
+        manager = new HornetQSecurityManagerAS7(context, 50);
+        for (int i = 0; i < HornetQSecurityManagerAS7.MAX_CACHED_DECISIONS; i++) {
+            manager.validateUser(USER + i, PASSWORD);
+        }
+        Thread.sleep(100);
+        assertTrue(manager.validateUser(USER, PASSWORD));
+        assertEquals(1, manager.getCachedDecisionCount());
+    }
+
+    @Test
+    public void testOnChange() {
+        HornetQSecurityManagerAS7 manager = new HornetQSecurityManagerAS7(context, 60000);
+
+        assertTrue(manager.validateUser(USER, PASSWORD));
+        assertEquals(1, manager.getCachedDecisionCount());
+        manager.onChange();
+        assertEquals(0, manager.getCachedDecisionCount());
+        assertTrue(manager.validateUser(USER, PASSWORD));
+        verify(authenticationManager, times(2)).isValid(eq(new SimplePrincipal(USER)), eq(PASSWORD), any(Subject.class));
+    }
+
+    @Test
+    public void testCachingDisabled() {
+        HornetQSecurityManagerAS7 manager = new HornetQSecurityManagerAS7(context, 0);
+
+        assertTrue(manager.validateUser(USER, PASSWORD));
+        assertTrue(manager.validateUser(USER, PASSWORD));
+        assertEquals(0, manager.getCachedDecisionCount());
+        verify(authenticationManager, times(2)).isValid(eq(new SimplePrincipal(USER)), eq(PASSWORD), any(Subject.class));
+    }
+}
@@ -27,10 +27,14 @@ import static org.jboss.as.naming.NamingMessages.MESSAGES;
 import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.NavigableSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.naming.Binding;
 import javax.naming.CannotProceedException;
@@ -46,6 +50,7 @@ import javax.naming.event.NamingListener;
 import javax.naming.spi.ResolveResult;
 
 import org.jboss.as.naming.deployment.ContextNames;
+import org.jboss.as.naming.util.CacheStatistics;
 import org.jboss.msc.service.ServiceController;
 import org.jboss.msc.service.ServiceName;
 import org.jboss.msc.service.ServiceRegistry;
@@ -56,6 +61,13 @@ import org.jboss.msc.service.ServiceRegistry;
  * @author Eduardo Martins
  */
 public class ServiceBasedNamingStore implements NamingStore {
+    /**
+     * Max number of cached lookups per store, once exceeded the cache is cleared
+     */
+    static final int LOOKUP_CACHE_SIZE = 1024;
+
+    private static final CacheStatistics LOOKUP_CACHE_STATISTICS = new CacheStatistics();
+
     private final Name EMPTY_NAME = new CompositeName();
     private Name baseName;
     private final ServiceRegistry serviceRegistry;
@@ -63,6 +75,20 @@ public class ServiceBasedNamingStore implements NamingStore {
 
     private ConcurrentSkipListSet<ServiceName> boundServices = new ConcurrentSkipListSet<ServiceName>();
 
+    // Resolved bindings of previous lookups, by looked up name
+    private final ConcurrentMap<Name, CachedLookup> lookupCache = new ConcurrentHashMap<Name, CachedLookup>();
+    // Incremented whenever the bound services change, to detect lookups resolved concurrently with a change
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Get the hit and miss counts of the lookup caches of all service based naming stores.
+     *
+     * @return the cache statistics
+     */
+    public static CacheStatistics getLookupCacheStatistics() {
+        return LOOKUP_CACHE_STATISTICS;
+    }
+
     public ServiceBasedNamingStore(final ServiceRegistry serviceRegistry, final ServiceName serviceNameBase) {
         this.serviceRegistry = serviceRegistry;
         this.serviceNameBase = serviceNameBase;
@@ -77,19 +103,37 @@ public class ServiceBasedNamingStore implements NamingStore {
         if (name.isEmpty()) {
             return new NamingContext(EMPTY_NAME, this, null);
         }
+        final CachedLookup cached = lookupCache.get(name);
+        if (cached != null) {
+            final Object obj = lookup(name, cached, dereference);
+            if (obj != null) {
+                LOOKUP_CACHE_STATISTICS.hit();
+                return obj;
+            }
+            // The binding no longer resolves as cached, so resolve it again
+            lookupCache.remove(name, cached);
+        }
+        LOOKUP_CACHE_STATISTICS.miss();
+        final long generation = this.generation.get();
         final ServiceName lookupName = buildServiceName(name);
-        Object obj = lookup(name.toString(), lookupName, dereference);
+        final ServiceController<?> controller = serviceRegistry.getService(lookupName);
+        Object obj = lookup(name.toString(), lookupName, controller, dereference);
         if (obj == null) {
             final ServiceName lower = boundServices.lower(lookupName);
             if (lower != null && lower.isParentOf(lookupName)) {
                 // Parent might be a reference or a link
-                obj = lookup(name.toString(), lower, dereference);
+                final ServiceController<?> lowerController = serviceRegistry.getService(lower);
+                obj = lookup(name.toString(), lower, lowerController, dereference);
                 //if the lower is a context that has been explicitly bound then
                 //we do not return a resolve result, as this will result in an
                 //infinite loop
                 if (!(obj instanceof NamingContext)) {
                     checkReferenceForContinuation(name, obj);
-                    return new ResolveResult(obj, suffix(lower, lookupName));
+                    final Name remainingName = suffix(lower, lookupName);
+                    if (lowerController != null) {
+                        cache(name, new CachedLookup(lookupName, lower, lowerController, (Name) remainingName.clone()), generation);
+                    }
+                    return new ResolveResult(obj, remainingName);
                 }
             }
 
@@ -99,14 +143,66 @@ public class ServiceBasedNamingStore implements NamingStore {
                     //the binder service returned null
                     return null;
                 }
+                cache(name, new CachedLookup(lookupName, null, null, null), generation);
                 return new NamingContext((Name) name.clone(), this, null);
             }
             throw new NameNotFoundException(name.toString() + " -- " + lookupName);
         }
 
+        if (boundServices.contains(lookupName)) {
+            cache(name, new CachedLookup(lookupName, lookupName, controller, null), generation);
+        }
         return obj;
     }
 
+    /**
+     * Resolves a lookup using the binding resolved by a previous lookup of the same name.
+     *
+     * @return the resolved object, or null if the binding no longer resolves as cached
+     */
+    private Object lookup(final Name name, final CachedLookup cached, boolean dereference) throws NamingException {
+        if (cached.controller == null) {
+            return new NamingContext((Name) name.clone(), this, null);
+        }
+        final Object obj = lookup(name.toString(), cached.bindingName, cached.controller, dereference);
+        if (cached.remainingName == null) {
+            return obj;
+        }
+        if (obj == null || obj instanceof NamingContext) {
+            return null;
+        }
+        checkReferenceForContinuation(name, obj);
+        return new ResolveResult(obj, (Name) cached.remainingName.clone());
+    }
+
+    private void cache(final Name name, final CachedLookup lookup, final long generation) {
+        final ConcurrentMap<Name, CachedLookup> lookupCache = this.lookupCache;
+        if (lookupCache.size() >= LOOKUP_CACHE_SIZE) {
+            lookupCache.clear();
+        }
+        final Name key = (Name) name.clone();
+        lookupCache.put(key, lookup);
+        // Discard the lookup if it may have been resolved before a concurrent change of the bound services
+        if (this.generation.get() != generation) {
+            lookupCache.remove(key, lookup);
+        }
+    }
+
+    /**
+     * Discards any cached lookup whose resolution may depend on the given bound service, i.e. lookups of the service
+     * itself, of its parent contexts, or of names within the service.
+     */
+    private void invalidate(final ServiceName serviceName) {
+        generation.incrementAndGet();
+        final Iterator<CachedLookup> lookups = lookupCache.values().iterator();
+        while (lookups.hasNext()) {
+            final ServiceName lookupName = lookups.next().lookupName;
+            if (lookupName.isParentOf(serviceName) || serviceName.isParentOf(lookupName)) {
+                lookups.remove();
+            }
+        }
+    }
+
     private void checkReferenceForContinuation(final Name name, final Object object) throws CannotProceedException {
         if (object instanceof Reference) {
             if (((Reference) object).get("nns") != null) {
@@ -123,7 +219,10 @@ public class ServiceBasedNamingStore implements NamingStore {
     }
 
     private Object lookup(final String name, final ServiceName lookupName, boolean dereference) throws NamingException {
-        final ServiceController<?> controller = serviceRegistry.getService(lookupName);
+        return lookup(name, lookupName, serviceRegistry.getService(lookupName), dereference);
+    }
+
+    private Object lookup(final String name, final ServiceName lookupName, final ServiceController<?> controller, boolean dereference) throws NamingException {
         final Object object;
         if (controller != null) {
             try {
@@ -244,6 +343,8 @@ public class ServiceBasedNamingStore implements NamingStore {
 
     public void close() throws NamingException {
         boundServices.clear();
+        generation.incrementAndGet();
+        lookupCache.clear();
     }
 
     public void addNamingListener(Name target, int scope, NamingListener listener) {
@@ -258,10 +359,12 @@ public class ServiceBasedNamingStore implements NamingStore {
             throw MESSAGES.serviceAlreadyBound(serviceName);
         }
         boundServices.add(serviceName);
+        invalidate(serviceName);
     }
 
     public void remove(final ServiceName serviceName) {
         boundServices.remove(serviceName);
+        invalidate(serviceName);
     }
 
     protected ServiceName buildServiceName(final Name name) {
@@ -354,4 +457,21 @@ public class ServiceBasedNamingStore implements NamingStore {
         }
         return new CompositeName();
     }
+
+    private static class CachedLookup {
+        // The service name of the looked up name
+        final ServiceName lookupName;
+        // The bound service resolving the lookup, or null if the looked up name is a context
+        final ServiceName bindingName;
+        final ServiceController<?> controller;
+        // The name remaining to be resolved relative to the bound object, or null if the bound object is the result
+        final Name remainingName;
+
+        CachedLookup(final ServiceName lookupName, final ServiceName bindingName, final ServiceController<?> controller, final Name remainingName) {
+            this.lookupName = lookupName;
+            this.bindingName = bindingName;
+            this.controller = controller;
+            this.remainingName = remainingName;
+        }
+    }
 }
@@ -22,13 +22,23 @@
 
 package org.jboss.as.naming.subsystem;
 
+import org.jboss.as.controller.AbstractRuntimeOnlyHandler;
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
 import org.jboss.as.controller.PathElement;
+import org.jboss.as.controller.SimpleAttributeDefinition;
+import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
 import org.jboss.as.controller.SimpleOperationDefinition;
 import org.jboss.as.controller.SimpleOperationDefinitionBuilder;
 import org.jboss.as.controller.SimpleResourceDefinition;
 import org.jboss.as.controller.descriptions.ModelDescriptionConstants;
+import org.jboss.as.controller.registry.ManagementResourceRegistration;
 import org.jboss.as.controller.registry.OperationEntry;
+import org.jboss.as.naming.ServiceBasedNamingStore;
 import org.jboss.as.naming.management.JndiViewOperation;
+import org.jboss.as.naming.util.CacheStatistics;
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ModelType;
 
 /**
  * {@link org.jboss.as.controller.ResourceDefinition} for the Naming subsystem's root management resource.
@@ -44,11 +54,41 @@ public class NamingSubsystemRootResourceDefinition extends SimpleResourceDefinit
             .withFlag(OperationEntry.Flag.RUNTIME_ONLY)
             .build();
 
+    static final SimpleAttributeDefinition LOOKUP_CACHE_HITS = createMetric(NamingSubsystemModel.LOOKUP_CACHE_HITS);
+    static final SimpleAttributeDefinition LOOKUP_CACHE_MISSES = createMetric(NamingSubsystemModel.LOOKUP_CACHE_MISSES);
+
     private NamingSubsystemRootResourceDefinition() {
         super(PathElement.pathElement(ModelDescriptionConstants.SUBSYSTEM, NamingExtension.SUBSYSTEM_NAME),
                 NamingExtension.getResourceDescriptionResolver(NamingExtension.SUBSYSTEM_NAME),
                 NamingSubsystemAdd.INSTANCE, NamingSubsystemRemove.INSTANCE);
     }
 
+    private static SimpleAttributeDefinition createMetric(final String name) {
+        return new SimpleAttributeDefinitionBuilder(name, ModelType.LONG, false)
+                .setStorageRuntime()
+                .build();
+    }
+
+    static void registerMetrics(final ManagementResourceRegistration registration) {
+        final CacheStatistics lookupCache = ServiceBasedNamingStore.getLookupCacheStatistics();
+        registration.registerMetric(LOOKUP_CACHE_HITS, new CacheStatisticsHandler(lookupCache, true));
+        registration.registerMetric(LOOKUP_CACHE_MISSES, new CacheStatisticsHandler(lookupCache, false));
+    }
+
+    private static class CacheStatisticsHandler extends AbstractRuntimeOnlyHandler {
+        private final CacheStatistics statistics;
+        private final boolean hits;
+
+        CacheStatisticsHandler(final CacheStatistics statistics, final boolean hits) {
+            this.statistics = statistics;
+            this.hits = hits;
+        }
+
+        @Override
+        protected void executeRuntimeStep(OperationContext context, ModelNode operation) throws OperationFailedException {
+            context.getResult().set(hits ? statistics.getHits() : statistics.getMisses());
+            context.stepCompleted();
+        }
+    }
 
 }
@@ -31,11 +31,13 @@ import javax.naming.CompositeName;
 import javax.naming.Context;
 import javax.naming.Name;
 import javax.naming.NameClassPair;
+import javax.naming.NameNotFoundException;
 import javax.naming.NameParser;
 import javax.naming.NamingEnumeration;
 import javax.naming.NamingException;
 
 import org.jboss.msc.service.Service;
+import org.jboss.msc.service.ServiceController;
 import org.jboss.msc.service.ServiceContainer;
 import org.jboss.msc.service.ServiceName;
 import org.jboss.msc.service.StartContext;
@@ -386,6 +388,55 @@ public class ServiceBasedNamingStoreTestCase {
         }
     }
 
+    @Test
+    public void testCachedLookupBinding() throws Exception {
+        final ServiceName bindingName = ServiceName.JBOSS.append("foo", "cached");
+        final Object value = new Object();
+        bindObject(bindingName, value);
+
+        final long hits = ServiceBasedNamingStore.getLookupCacheStatistics().getHits();
+        assertEquals(value, store.lookup(new CompositeName("foo/cached")));
+        assertEquals(value, store.lookup(new CompositeName("foo/cached")));
+        assertTrue(ServiceBasedNamingStore.getLookupCacheStatistics().getHits() > hits);
+
+        store.remove(bindingName);
+        final ServiceController<?> controller = container.getRequiredService(bindingName);
+        controller.setMode(ServiceController.Mode.REMOVE);
+        for (int i = 0; i < 100 && container.getService(bindingName) != null; i++) {
+            Thread.sleep(50);
+        }
+        try {
+            store.lookup(new CompositeName("foo/cached"));
+            fail("Should have thrown name not found");
+        } catch (NameNotFoundException expected) {
+        }
+    }
+
+    @Test
+    public void testCachedLookupParentContext() throws Exception {
+        final ServiceName bindingName = ServiceName.JBOSS.append("foo", "bar");
+        store.add(bindingName);
+        assertTrue(store.lookup(new CompositeName("foo")) instanceof Context);
+        assertTrue(store.lookup(new CompositeName("foo")) instanceof Context);
+
+        store.remove(bindingName);
+        try {
+            store.lookup(new CompositeName("foo"));
+            fail("Should have thrown name not found");
+        } catch (NameNotFoundException expected) {
+        }
+    }
+
+    @Test
+    public void testCachedLookupParentContextRebound() throws Exception {
+        store.add(ServiceName.JBOSS.append("foo", "bar"));
+        assertTrue(store.lookup(new CompositeName("foo")) instanceof Context);
+
+        final Object value = new Object();
+        bindObject(ServiceName.JBOSS.append("foo"), value);
+        assertEquals(value, store.lookup(new CompositeName("foo")));
+    }
+
     private void assertContains(final List<? extends NameClassPair> list, String name, Class<?> type) {
         for (NameClassPair value : list) {
             if (value instanceof Binding) {
@@ -73,12 +73,14 @@ import javax.transaction.TransactionManager;
 import org.infinispan.manager.EmbeddedCacheManager;
 import org.jboss.as.clustering.infinispan.subsystem.EmbeddedCacheManagerService;
 import org.jboss.as.controller.AbstractAddStepHandler;
+import org.jboss.as.controller.AttributeDefinition;
 import org.jboss.as.controller.OperationContext;
 import org.jboss.as.controller.OperationFailedException;
 import org.jboss.as.controller.OperationStepHandler;
 import org.jboss.as.controller.PathAddress;
 import org.jboss.as.controller.ServiceVerificationHandler;
 import org.jboss.as.controller.registry.Resource;
+import org.jboss.as.security.plugins.AuthenticationCacheConfiguration;
 import org.jboss.as.security.plugins.SecurityDomainContext;
 import org.jboss.as.security.service.JaasConfigurationService;
 import org.jboss.as.security.service.SecurityDomainService;
@@ -134,6 +136,9 @@ class SecurityDomainAdd extends AbstractAddStepHandler {
 
     protected void populateModel(ModelNode operation, ModelNode model) throws OperationFailedException {
         SecurityDomainResourceDefinition.CACHE_TYPE.validateAndSet(operation, model);
+        for (AttributeDefinition attribute : SecurityDomainResourceDefinition.CACHE_ATTRIBUTES) {
+            attribute.validateAndSet(operation, model);
+        }
     }
 
     protected void performRuntime(OperationContext context, ModelNode operation, final ModelNode model, final ServiceVerificationHandler verificationHandler, final List<ServiceController<?>> newControllers) {
@@ -160,9 +165,10 @@ class SecurityDomainAdd extends AbstractAddStepHandler {
         final ApplicationPolicy applicationPolicy = createApplicationPolicy(context, securityDomain, model);
         final JSSESecurityDomain jsseSecurityDomain = createJSSESecurityDomain(context, securityDomain, model);
         final String cacheType = getAuthenticationCacheType(model);
+        final AuthenticationCacheConfiguration cacheConfiguration = getAuthenticationCacheConfiguration(context, model);
 
         final SecurityDomainService securityDomainService = new SecurityDomainService(securityDomain,
-                applicationPolicy, jsseSecurityDomain, cacheType);
+                applicationPolicy, jsseSecurityDomain, cacheType, cacheConfiguration);
         final ServiceTarget target = context.getServiceTarget();
         // some login modules may require the TransactionManager
         final Injector<TransactionManager> transactionManagerInjector = new Injector<TransactionManager>() {
@@ -658,4 +664,16 @@ class SecurityDomainAdd extends AbstractAddStepHandler {
 
         return type;
     }
+
+    static AuthenticationCacheConfiguration getAuthenticationCacheConfiguration(OperationContext context, ModelNode node)
+            throws OperationFailedException {
+        ModelNode maxEntries = SecurityDomainResourceDefinition.CACHE_MAX_ENTRIES.resolveModelAttribute(context, node);
+        ModelNode concurrencyLevel = SecurityDomainResourceDefinition.CACHE_CONCURRENCY_LEVEL.resolveModelAttribute(context, node);
+        ModelNode lifespan = SecurityDomainResourceDefinition.CACHE_LIFESPAN.resolveModelAttribute(context, node);
+        ModelNode maxIdle = SecurityDomainResourceDefinition.CACHE_MAX_IDLE.resolveModelAttribute(context, node);
+        return new AuthenticationCacheConfiguration(maxEntries.isDefined() ? maxEntries.asInt() : null,
+                concurrencyLevel.isDefined() ? concurrencyLevel.asInt() : null,
+                lifespan.isDefined() ? lifespan.asLong() : null,
+                maxIdle.isDefined() ? maxIdle.asLong() : null);
+    }
 }
@@ -68,6 +68,7 @@ import java.util.Set;
 import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
 
+import org.jboss.as.controller.AttributeDefinition;
 import org.jboss.as.controller.PathAddress;
 import org.jboss.as.controller.PathElement;
 import org.jboss.as.controller.PropertiesAttributeDefinition;
@@ -189,6 +190,9 @@ public class SecuritySubsystemParser implements XMLStreamConstants, XMLElementRe
                 writer.writeAttribute(Attribute.NAME.getLocalName(), policy.getName());
                 ModelNode policyDetails = policy.getValue();
                 SecurityDomainResourceDefinition.CACHE_TYPE.marshallAsAttribute(policyDetails, writer);
+                for (AttributeDefinition attribute : SecurityDomainResourceDefinition.CACHE_ATTRIBUTES) {
+                    attribute.marshallAsAttribute(policyDetails, writer);
+                }
                 writeSecurityDomainContent(writer, policyDetails);
                 writer.writeEndElement();
             }
@@ -218,6 +222,9 @@ public class SecuritySubsystemParser implements XMLStreamConstants, XMLElementRe
         Set<String> keys = policyDetails.keys();
         keys.remove(NAME);
         keys.remove(CACHE_TYPE);
+        for (AttributeDefinition attribute : SecurityDomainResourceDefinition.CACHE_ATTRIBUTES) {
+            keys.remove(attribute.getName());
+        }
 
         for (String key : keys) {
             Element element = Element.forName(key);
@@ -424,6 +431,8 @@ public class SecuritySubsystemParser implements XMLStreamConstants, XMLElementRe
     }
 
     private void parseSecurityDomain(List<ModelNode> list, XMLExtendedStreamReader reader, PathAddress parentAddress) throws XMLStreamException {
+        // the authentication cache attributes were introduced in version 1.3 of the schema
+        Namespace schemaVer = Namespace.forUri(reader.getNamespaceURI());
         ModelNode op = Util.createAddOperation();
         list.add(op);
         PathElement secDomainPath = null;
@@ -446,6 +455,26 @@ public class SecuritySubsystemParser implements XMLStreamConstants, XMLElementRe
                     SecurityDomainResourceDefinition.CACHE_TYPE.parseAndSetParameter(value, op, reader);
                     break;
                 }
+                case CACHE_MAX_ENTRIES: {
+                    if (schemaVer != Namespace.SECURITY_1_3) { throw unexpectedAttribute(reader, i); }
+                    SecurityDomainResourceDefinition.CACHE_MAX_ENTRIES.parseAndSetParameter(value, op, reader);
+                    break;
+                }
+                case CACHE_CONCURRENCY_LEVEL: {
+                    if (schemaVer != Namespace.SECURITY_1_3) { throw unexpectedAttribute(reader, i); }
+                    SecurityDomainResourceDefinition.CACHE_CONCURRENCY_LEVEL.parseAndSetParameter(value, op, reader);
+                    break;
+                }
+                case CACHE_LIFESPAN: {
+                    if (schemaVer != Namespace.SECURITY_1_3) { throw unexpectedAttribute(reader, i); }
+                    SecurityDomainResourceDefinition.CACHE_LIFESPAN.parseAndSetParameter(value, op, reader);
+                    break;
+                }
+                case CACHE_MAX_IDLE: {
+                    if (schemaVer != Namespace.SECURITY_1_3) { throw unexpectedAttribute(reader, i); }
+                    SecurityDomainResourceDefinition.CACHE_MAX_IDLE.parseAndSetParameter(value, op, reader);
+                    break;
+                }
                 default:
                     throw unexpectedAttribute(reader, i);
             }
@@ -743,8 +772,8 @@ public class SecuritySubsystemParser implements XMLStreamConstants, XMLElementRe
         Namespace schemaVer = Namespace.forUri(reader.getNamespaceURI());
         EnumSet<Attribute> required = EnumSet.of(Attribute.CODE);
         EnumSet<Attribute> notAllowed;
-        // in version 1.2 of the schema the optional flag attribute has been included.
-        if (schemaVer == Namespace.SECURITY_1_2) {
+        // since version 1.2 of the schema the optional flag attribute has been included.
+        if (schemaVer == Namespace.SECURITY_1_2 || schemaVer == Namespace.SECURITY_1_3) {
             notAllowed = EnumSet.of(Attribute.TYPE);
         }
         // in earlier versions of the schema, the flag attribute was missing (not allowed).
@@ -0,0 +1,70 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.security.plugins;
+
+/**
+ * Settings of the authentication cache of a security domain.
+ * Unspecified settings are {@code null}, in which case the default cache uses its defaults,
+ * and an Infinispan cache retains the settings of its base configuration.
+ */
+public class AuthenticationCacheConfiguration {
+
+    public static final int DEFAULT_MAX_ENTRIES = 1000;
+    public static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+
+    public static final AuthenticationCacheConfiguration DEFAULT = new AuthenticationCacheConfiguration(null, null, null, null);
+
+    private final Integer maxEntries;
+    private final Integer concurrencyLevel;
+    private final Long lifespan;
+    private final Long maxIdle;
+
+    /**
+     * @param maxEntries the maximum number of cached principals
+     * @param concurrencyLevel the expected number of concurrently updating threads
+     * @param lifespan the time, in milliseconds, after which a cached principal expires
+     * @param maxIdle the time, in milliseconds, after which a cached principal expires if it was not accessed
+     */
+    public AuthenticationCacheConfiguration(Integer maxEntries, Integer concurrencyLevel, Long lifespan, Long maxIdle) {
+        this.maxEntries = maxEntries;
+        this.concurrencyLevel = concurrencyLevel;
+        this.lifespan = lifespan;
+        this.maxIdle = maxIdle;
+    }
+
+    public Integer getMaxEntries() {
+        return maxEntries;
+    }
+
+    public Integer getConcurrencyLevel() {
+        return concurrencyLevel;
+    }
+
+    public Long getLifespan() {
+        return lifespan;
+    }
+
+    public Long getMaxIdle() {
+        return maxIdle;
+    }
+}
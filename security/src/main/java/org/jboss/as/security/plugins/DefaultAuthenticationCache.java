@@ -0,0 +1,230 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.security.plugins;
+
+import java.security.Principal;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.infinispan.commons.equivalence.AnyEquivalence;
+import org.infinispan.util.concurrent.BoundedConcurrentHashMap;
+import org.infinispan.util.concurrent.BoundedConcurrentHashMap.Eviction;
+import org.jboss.security.authentication.JBossCachedAuthenticationManager.DomainInfo;
+
+/**
+ * Default authentication cache, bounded by a maximum number of entries using LIRS eviction.
+ * If a lifespan or a maximum idle time is configured, expired entries are detected when they are looked up,
+ * at which point they are removed and logged out, as if they had never been cached.
+ */
+public class DefaultAuthenticationCache extends BoundedConcurrentHashMap<Principal, DomainInfo> implements AuthenticationCacheStatistics {
+
+    private static final long serialVersionUID = -4313837532385916519L;
+
+    private final transient ExpirationAwareEvictionListener listener;
+    private final transient ConcurrentMap<Principal, Timestamps> timestamps;
+    private final long lifespan;
+    private final long maxIdle;
+    private final boolean expirable;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * @param maxEntries the maximum number of cached principals
+     * @param concurrencyLevel the expected number of concurrently updating threads
+     * @param lifespan the time, in milliseconds, after which an entry expires, or a non-positive value if entries never expire
+     * @param maxIdle the time, in milliseconds, after which an entry expires if not accessed, or a non-positive value if entries never expire
+     */
+    public DefaultAuthenticationCache(int maxEntries, int concurrencyLevel, long lifespan, long maxIdle) {
+        this(maxEntries, concurrencyLevel, lifespan, maxIdle, new ExpirationAwareEvictionListener());
+    }
+
+    private DefaultAuthenticationCache(int maxEntries, int concurrencyLevel, long lifespan, long maxIdle, ExpirationAwareEvictionListener listener) {
+        super(maxEntries, concurrencyLevel, Eviction.LIRS, listener, AnyEquivalence.<Principal>getInstance(), AnyEquivalence.<DomainInfo>getInstance());
+        this.listener = listener;
+        this.timestamps = listener.timestamps;
+        this.lifespan = lifespan;
+        this.maxIdle = maxIdle;
+        this.expirable = (lifespan > 0) || (maxIdle > 0);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public DomainInfo get(Object key) {
+        DomainInfo domainInfo = super.get(key);
+        if ((domainInfo != null) && expirable) {
+            Timestamps entryTimestamps = timestamps.get(key);
+            // Ignore timestamps of a concurrently replaced entry
+            if ((entryTimestamps != null) && (entryTimestamps.domainInfo == domainInfo)) {
+                long now = System.currentTimeMillis();
+                if (entryTimestamps.isExpired(now, lifespan, maxIdle)) {
+                    if (super.remove(key, domainInfo)) {
+                        timestamps.remove(key, entryTimestamps);
+                        listener.evictions.incrementAndGet();
+                        domainInfo.logout();
+                    }
+                    domainInfo = null;
+                } else {
+                    entryTimestamps.accessed = now;
+                }
+            }
+        }
+        if (domainInfo != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+        return domainInfo;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public DomainInfo put(Principal key, DomainInfo value) {
+        DomainInfo previous = super.put(key, value);
+        track(key, value);
+        return previous;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public DomainInfo putIfAbsent(Principal key, DomainInfo value) {
+        DomainInfo previous = super.putIfAbsent(key, value);
+        if (previous == null) {
+            track(key, value);
+        }
+        return previous;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public DomainInfo replace(Principal key, DomainInfo value) {
+        DomainInfo previous = super.replace(key, value);
+        if (previous != null) {
+            track(key, value);
+        }
+        return previous;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean replace(Principal key, DomainInfo oldValue, DomainInfo newValue) {
+        boolean replaced = super.replace(key, oldValue, newValue);
+        if (replaced) {
+            track(key, newValue);
+        }
+        return replaced;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public DomainInfo remove(Object key) {
+        DomainInfo removed = super.remove(key);
+        if (removed != null) {
+            timestamps.remove(key);
+            removed.logout();
+        }
+        return removed;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean remove(Object key, Object value) {
+        boolean removed = super.remove(key, value);
+        if (removed) {
+            timestamps.remove(key);
+        }
+        return removed;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void clear() {
+        Collection<DomainInfo> values = values();
+        for (DomainInfo domainInfo : values) {
+            domainInfo.logout();
+        }
+        super.clear();
+        timestamps.clear();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long getHits() {
+        return hits.get();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long getEvictions() {
+        return listener.evictions.get();
+    }
+
+    private void track(Principal key, DomainInfo value) {
+        if (expirable) {
+            timestamps.put(key, new Timestamps(value, System.currentTimeMillis()));
+        }
+    }
+
+    static class Timestamps {
+        final DomainInfo domainInfo;
+        final long created;
+        volatile long accessed;
+
+        Timestamps(DomainInfo domainInfo, long created) {
+            this.domainInfo = domainInfo;
+            this.created = created;
+            this.accessed = created;
+        }
+
+        boolean isExpired(long now, long lifespan, long maxIdle) {
+            return ((lifespan > 0) && (now - created >= lifespan)) || ((maxIdle > 0) && (now - accessed >= maxIdle));
+        }
+    }
+
+    static class ExpirationAwareEvictionListener extends AuthenticationCacheEvictionListener {
+        final ConcurrentMap<Principal, Timestamps> timestamps = new ConcurrentHashMap<Principal, Timestamps>();
+        final AtomicLong evictions = new AtomicLong();
+
+        /** {@inheritDoc} */
+        @Override
+        public void onEntryEviction(Map<Principal, DomainInfo> evicted) {
+            for (Entry<Principal, DomainInfo> entry : evicted.entrySet()) {
+                Timestamps entryTimestamps = timestamps.get(entry.getKey());
+                if ((entryTimestamps != null) && (entryTimestamps.domainInfo == entry.getValue())) {
+                    timestamps.remove(entry.getKey(), entryTimestamps);
+                }
+            }
+            evictions.addAndGet(evicted.size());
+            super.onEntryEviction(evicted);
+        }
+    }
+}
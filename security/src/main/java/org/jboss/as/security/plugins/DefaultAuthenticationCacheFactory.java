@@ -23,12 +23,8 @@
 package org.jboss.as.security.plugins;
 
 import java.security.Principal;
-import java.util.Collection;
 import java.util.concurrent.ConcurrentMap;
 
-import org.infinispan.commons.equivalence.AnyEquivalence;
-import org.infinispan.util.concurrent.BoundedConcurrentHashMap;
-import org.infinispan.util.concurrent.BoundedConcurrentHashMap.Eviction;
 import org.jboss.security.authentication.JBossCachedAuthenticationManager.DomainInfo;
 
 /**
@@ -38,37 +34,29 @@ import org.jboss.security.authentication.JBossCachedAuthenticationManager.Domain
  */
 public class DefaultAuthenticationCacheFactory {
 
+    private final AuthenticationCacheConfiguration configuration;
+
+    public DefaultAuthenticationCacheFactory() {
+        this(AuthenticationCacheConfiguration.DEFAULT);
+    }
+
+    public DefaultAuthenticationCacheFactory(AuthenticationCacheConfiguration configuration) {
+        this.configuration = configuration;
+    }
+
     /**
      * Returns a default cache implementation
      *
      * @return cache implementation
      */
     public ConcurrentMap<Principal, DomainInfo> getCache() {
-        ConcurrentMap<Principal, DomainInfo> map = new BoundedConcurrentHashMap<Principal, DomainInfo>(
-                1000, 16, Eviction.LIRS, new AuthenticationCacheEvictionListener(), AnyEquivalence.<Principal>getInstance(), AnyEquivalence.<DomainInfo>getInstance()) {
-
-            private static final long serialVersionUID = 1459490003748298538L;
-
-            /** {@inheritDoc} */
-            @Override
-            public DomainInfo remove(Object key) {
-                DomainInfo removed = super.remove(key);
-                if (removed != null) {
-                    removed.logout();
-                }
-                return removed;
-            }
-
-            /** {@inheritDoc} */
-            @Override
-            public void clear() {
-                Collection<DomainInfo> values = values();
-                for (DomainInfo domainInfo : values) {
-                    domainInfo.logout();
-                }
-                super.clear();
-            }
-        };
-        return map;
+        Integer maxEntries = configuration.getMaxEntries();
+        Integer concurrencyLevel = configuration.getConcurrencyLevel();
+        Long lifespan = configuration.getLifespan();
+        Long maxIdle = configuration.getMaxIdle();
+        return new DefaultAuthenticationCache(
+                (maxEntries != null) ? maxEntries : AuthenticationCacheConfiguration.DEFAULT_MAX_ENTRIES,
+                (concurrencyLevel != null) ? concurrencyLevel : AuthenticationCacheConfiguration.DEFAULT_CONCURRENCY_LEVEL,
+                (lifespan != null) ? lifespan : -1L, (maxIdle != null) ? maxIdle : -1L);
     }
 }
@@ -278,20 +278,47 @@ public class JNDIBasedSecurityManagement implements ISecurityManagement {
      * @throws Exception if an error occurs during creation
      */
     public SecurityDomainContext createSecurityDomainContext(String securityDomain, Object cacheFactory) throws Exception {
+        return createSecurityDomainContext(securityDomain, cacheFactory, AuthenticationCacheConfiguration.DEFAULT);
+    }
+
+    /**
+     * Creates a {@code SecurityDomainContext}
+     *
+     * @param securityDomain name of the security domain
+     * @param cacheFactory creates a cache implementation
+     * @param cacheConfiguration security domain specific settings of an Infinispan cache
+     * @return an instance of {@code SecurityDomainContext}
+     * @throws Exception if an error occurs during creation
+     */
+    public SecurityDomainContext createSecurityDomainContext(String securityDomain, Object cacheFactory,
+            AuthenticationCacheConfiguration cacheConfiguration) throws Exception {
         log.debugf("Creating SDC for domain=" + securityDomain);
         AuthenticationManager am = createAuthenticationManager(securityDomain);
+        AuthenticationCacheStatistics cacheStatistics = null;
         // create authentication cache
         if (cacheFactory instanceof EmbeddedCacheManager) {
             EmbeddedCacheManager cacheManager = EmbeddedCacheManager.class.cast(cacheFactory);
             @SuppressWarnings("rawtypes")
             Cache cache = null;
             if (cacheManager != null) {
-                // TODO override global settings with security domain specific
                 ConfigurationBuilder builder = new ConfigurationBuilder();
                 Configuration baseCfg = cacheManager.getCacheConfiguration("auth-cache");
                 if (baseCfg != null) {
                     builder.read(baseCfg);
                 }
+                // override global settings with security domain specific
+                if (cacheConfiguration.getMaxEntries() != null) {
+                    builder.eviction().maxEntries(cacheConfiguration.getMaxEntries());
+                }
+                if (cacheConfiguration.getConcurrencyLevel() != null) {
+                    builder.locking().concurrencyLevel(cacheConfiguration.getConcurrencyLevel());
+                }
+                if (cacheConfiguration.getLifespan() != null) {
+                    builder.expiration().lifespan(cacheConfiguration.getLifespan());
+                }
+                if (cacheConfiguration.getMaxIdle() != null) {
+                    builder.expiration().maxIdle(cacheConfiguration.getMaxIdle());
+                }
                 cacheManager.defineConfiguration(securityDomain, builder.build());
                 cache = cacheManager.getCache(securityDomain);
             }
@@ -299,6 +326,10 @@ public class JNDIBasedSecurityManagement implements ISecurityManagement {
                 @SuppressWarnings({ "unchecked", "rawtypes" })
                 CacheableManager<Map, Principal> cm = (CacheableManager<Map, Principal>) am;
                 cm.setCache(cache);
+                // statistics are only gathered if requested by the 'auth-cache' configuration
+                if (cache.getCacheConfiguration().jmxStatistics().enabled()) {
+                    cacheStatistics = new InfinispanAuthenticationCacheStatistics(cache.getAdvancedCache());
+                }
             }
         } else if (cacheFactory instanceof DefaultAuthenticationCacheFactory) {
             DefaultAuthenticationCacheFactory cacheManager = DefaultAuthenticationCacheFactory.class.cast(cacheFactory);
@@ -308,6 +339,9 @@ public class JNDIBasedSecurityManagement implements ISecurityManagement {
                 @SuppressWarnings({ "unchecked", "rawtypes" })
                 CacheableManager<Map, Principal> cm = (CacheableManager<Map, Principal>) am;
                 cm.setCache(cache);
+                if (cache instanceof AuthenticationCacheStatistics) {
+                    cacheStatistics = (AuthenticationCacheStatistics) cache;
+                }
             }
         }
 
@@ -317,6 +351,7 @@ public class JNDIBasedSecurityManagement implements ISecurityManagement {
         }
 
         SecurityDomainContext securityDomainContext = new SecurityDomainContext(am);
+        securityDomainContext.setAuthenticationCacheStatistics(cacheStatistics);
         securityDomainContext.setAuthorizationManager(createAuthorizationManager(securityDomain));
         securityDomainContext.setAuditManager(createAuditManager(securityDomain));
         securityDomainContext.setIdentityTrustManager(createIdentityTrustManager(securityDomain));
@@ -59,6 +59,7 @@ public class SecurityDomainContext {
     MappingManager mappingMgr;
     IdentityTrustManager identityTrustMgr;
     JSSESecurityDomain jsseSecurityDomain;
+    AuthenticationCacheStatistics authenticationCacheStatistics;
 
     private static final String SUBJECT_CONTEXT_KEY = "javax.security.auth.Subject.container";
 
@@ -147,4 +148,12 @@ public class SecurityDomainContext {
     public void setJSSE(JSSESecurityDomain jsseSecurityDomain) {
         this.jsseSecurityDomain = jsseSecurityDomain;
     }
+
+    public AuthenticationCacheStatistics getAuthenticationCacheStatistics() {
+        return authenticationCacheStatistics;
+    }
+
+    public void setAuthenticationCacheStatistics(AuthenticationCacheStatistics authenticationCacheStatistics) {
+        this.authenticationCacheStatistics = authenticationCacheStatistics;
+    }
 }
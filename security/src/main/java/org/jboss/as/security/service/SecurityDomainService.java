@@ -28,6 +28,7 @@ import org.infinispan.manager.EmbeddedCacheManager;
 import org.jboss.as.security.SecurityExtension;
 import org.jboss.as.security.SecurityLogger;
 import org.jboss.as.security.SecurityMessages;
+import org.jboss.as.security.plugins.AuthenticationCacheConfiguration;
 import org.jboss.as.security.plugins.DefaultAuthenticationCacheFactory;
 import org.jboss.as.security.plugins.JNDIBasedSecurityManagement;
 import org.jboss.as.security.plugins.SecurityDomainContext;
@@ -70,12 +71,20 @@ public class SecurityDomainService implements Service<SecurityDomainContext> {
 
     private final String cacheType;
 
+    private final AuthenticationCacheConfiguration cacheConfiguration;
+
     public SecurityDomainService(String name, ApplicationPolicy applicationPolicy, JSSESecurityDomain jsseSecurityDomain,
             String cacheType) {
+        this(name, applicationPolicy, jsseSecurityDomain, cacheType, AuthenticationCacheConfiguration.DEFAULT);
+    }
+
+    public SecurityDomainService(String name, ApplicationPolicy applicationPolicy, JSSESecurityDomain jsseSecurityDomain,
+            String cacheType, AuthenticationCacheConfiguration cacheConfiguration) {
         this.name = name;
         this.applicationPolicy = applicationPolicy;
         this.jsseSecurityDomain = jsseSecurityDomain;
         this.cacheType = cacheType;
+        this.cacheConfiguration = cacheConfiguration;
     }
 
     /** {@inheritDoc} */
@@ -92,10 +101,10 @@ public class SecurityDomainService implements Service<SecurityDomainContext> {
         if ("infinispan".equals(cacheType)) {
             cacheFactory = cacheManagerValue.getValue();
         } else if ("default".equals(cacheType)) {
-            cacheFactory = new DefaultAuthenticationCacheFactory();
+            cacheFactory = new DefaultAuthenticationCacheFactory(cacheConfiguration);
         }
         try {
-            securityDomainContext = securityManagement.createSecurityDomainContext(name, cacheFactory);
+            securityDomainContext = securityManagement.createSecurityDomainContext(name, cacheFactory, cacheConfiguration);
         } catch (Exception e) {
             throw SecurityMessages.MESSAGES.unableToStartException("SecurityDomainService", e);
         }
@@ -0,0 +1,163 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.security.plugins;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.security.Principal;
+
+import org.jboss.security.SimplePrincipal;
+import org.jboss.security.authentication.JBossCachedAuthenticationManager.DomainInfo;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests of {@link DefaultAuthenticationCache}.
+ */
+public class DefaultAuthenticationCacheTestCase {
+
+    @Test
+    public void hitsAndMisses() {
+        DefaultAuthenticationCache cache = new DefaultAuthenticationCache(10, 1, 0, 0);
+        Principal principal = new SimplePrincipal("user");
+        DomainInfo info = mock(DomainInfo.class);
+
+        Assert.assertNull(cache.get(principal));
+        cache.put(principal, info);
+        Assert.assertSame(info, cache.get(principal));
+        Assert.assertSame(info, cache.get(principal));
+
+        Assert.assertEquals(2, cache.getHits());
+        Assert.assertEquals(1, cache.getMisses());
+        Assert.assertEquals(0, cache.getEvictions());
+        verify(info, never()).logout();
+    }
+
+    @Test
+    public void lifespan() throws InterruptedException {
+        DefaultAuthenticationCache cache = new DefaultAuthenticationCache(10, 1, 100, 0);
+        Principal principal = new SimplePrincipal("user");
+        DomainInfo info = mock(DomainInfo.class);
+
+        cache.put(principal, info);
+        Assert.assertSame(info, cache.get(principal));
+
+        Thread.sleep(200);
+
+        Assert.assertNull(cache.get(principal));
+        Assert.assertFalse(cache.containsKey(principal));
+        // an expired entry is logged out, once
+        verify(info, times(1)).logout();
+        Assert.assertNull(cache.get(principal));
+        verify(info, times(1)).logout();
+
+        Assert.assertEquals(1, cache.getHits());
+        Assert.assertEquals(2, cache.getMisses());
+        Assert.assertEquals(1, cache.getEvictions());
+    }
+
+    @Test
+    public void maxIdle() throws InterruptedException {
+        DefaultAuthenticationCache cache = new DefaultAuthenticationCache(10, 1, 0, 500);
+        Principal principal = new SimplePrincipal("user");
+        DomainInfo info = mock(DomainInfo.class);
+
+        cache.put(principal, info);
+        // each access postpones the expiration
+        for (int i = 0; i < 3; ++i) {
+            Thread.sleep(200);
+            Assert.assertSame(info, cache.get(principal));
+        }
+        verify(info, never()).logout();
+
+        Thread.sleep(1000);
+
+        Assert.assertNull(cache.get(principal));
+        verify(info, times(1)).logout();
+        Assert.assertEquals(1, cache.getEvictions());
+    }
+
+    @Test
+    public void replacedEntryDoesNotExpireEarly() throws InterruptedException {
+        DefaultAuthenticationCache cache = new DefaultAuthenticationCache(10, 1, 300, 0);
+        Principal principal = new SimplePrincipal("user");
+        DomainInfo info = mock(DomainInfo.class);
+        DomainInfo replacement = mock(DomainInfo.class);
+
+        cache.put(principal, info);
+        Thread.sleep(200);
+        cache.put(principal, replacement);
+        Thread.sleep(200);
+
+        Assert.assertSame(replacement, cache.get(principal));
+        verify(replacement, never()).logout();
+    }
+
+    @Test
+    public void eviction() {
+        int maxEntries = 10;
+        int count = 100;
+        DefaultAuthenticationCache cache = new DefaultAuthenticationCache(maxEntries, 1, 0, 0);
+        DomainInfo[] infos = new DomainInfo[count];
+        for (int i = 0; i < count; ++i) {
+            infos[i] = mock(DomainInfo.class);
+            cache.put(new SimplePrincipal("user" + i), infos[i]);
+        }
+
+        Assert.assertTrue(cache.size() <= maxEntries);
+        Assert.assertEquals(count - cache.size(), cache.getEvictions());
+
+        // evicted entries are logged out
+        int loggedOut = 0;
+        for (int i = 0; i < count; ++i) {
+            if (!cache.containsKey(new SimplePrincipal("user" + i))) {
+                verify(infos[i]).logout();
+                loggedOut += 1;
+            }
+        }
+        Assert.assertEquals(cache.getEvictions(), loggedOut);
+    }
+
+    @Test
+    public void removeAndClear() {
+        DefaultAuthenticationCache cache = new DefaultAuthenticationCache(10, 1, 1000, 0);
+        Principal principal = new SimplePrincipal("user");
+        Principal other = new SimplePrincipal("other");
+        DomainInfo info = mock(DomainInfo.class);
+        DomainInfo otherInfo = mock(DomainInfo.class);
+
+        cache.put(principal, info);
+        cache.put(other, otherInfo);
+
+        Assert.assertSame(info, cache.remove(principal));
+        verify(info).logout();
+
+        cache.clear();
+        verify(otherInfo).logout();
+        Assert.assertTrue(cache.isEmpty());
+        // explicit removals are not evictions
+        Assert.assertEquals(0, cache.getEvictions());
+    }
+}
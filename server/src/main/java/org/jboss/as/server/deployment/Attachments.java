@@ -28,6 +28,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.jar.Manifest;
 
 import org.jboss.as.controller.ServiceVerificationHandler;
+import org.jboss.as.server.deployment.annotation.AnnotationIndexCache;
 import org.jboss.as.server.deployment.annotation.CompositeIndex;
 import org.jboss.as.server.deployment.module.AdditionalModuleSpecification;
 import org.jboss.as.server.deployment.module.ExtensionInfo;
@@ -88,6 +89,12 @@ public final class Attachments {
      */
     public static final AttachmentKey<VirtualFile> DEPLOYMENT_CONTENTS = AttachmentKey.create(VirtualFile.class);
 
+    /**
+     * The hash of the deployment content within the content repository. This is only attached to top level deployments
+     * whose content is managed, and is removed if any deployment overlay applies to the deployment.
+     */
+    public static final AttachmentKey<byte[]> DEPLOYMENT_CONTENT_HASH = AttachmentKey.create(byte[].class);
+
     /**
      * This should be added as a listener to all non child services
      */
@@ -165,6 +172,16 @@ public final class Attachments {
      */
     public static final AttachmentKey<Boolean> COMPUTE_COMPOSITE_ANNOTATION_INDEX = AttachmentKey.create(Boolean.class);
 
+    /**
+     * The persistent cache of the annotation indexes of managed deployments.
+     */
+    public static final AttachmentKey<AnnotationIndexCache> ANNOTATION_INDEX_CACHE = AttachmentKey.create(AnnotationIndexCache.class);
+
+    /**
+     * The time, in milliseconds, spent creating the annotation indexes of the resource roots of this deployment.
+     */
+    public static final AttachmentKey<Long> ANNOTATION_INDEX_TIME = AttachmentKey.create(Long.class);
+
     /**
      * An attachment that indicates if a {@link ResourceRoot} should be indexed by the {@link org.jboss.as.server.deployment.annotation.AnnotationIndexProcessor}. If this
      * is not present then the resource root is indexed by default.
@@ -76,6 +76,8 @@ public class ContentOverrideDeploymentUnitProcessor implements DeploymentUnitPro
                     if (!paths.contains(override.getPath())) {
                         VirtualFile mountPoint = deploymentRoot.getRoot().getChild(override.getPath());
                         paths.add(override.getPath());
+                        // annotation indexes cached for the original content no longer apply
+                        deploymentUnit.removeAttachment(Attachments.DEPLOYMENT_CONTENT_HASH);
                         if (exploded) {
                             //for deployments that we have mounted exploded we simply copy the file
                             //This is not great, as it means exploded and non-exploded deployments behave slightly differently
@@ -0,0 +1,178 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.server.deployment.annotation;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.as.controller.HashUtil;
+import org.jboss.as.server.ServerLogger;
+import org.jboss.jandex.Index;
+import org.jboss.jandex.IndexReader;
+import org.jboss.jandex.IndexWriter;
+import org.jboss.vfs.VFSUtils;
+
+/**
+ * A persistent cache of the annotation indexes generated for the resource roots of managed deployments.
+ * <p>
+ * Indexes are keyed by the hash of the deployment content in the content repository, combined with the path of the
+ * resource root within the deployment, so an index is reused across restarts and redeployments for as long as the
+ * deployment content does not change. Entries that have not been used for {@link #MAX_UNUSED_AGE} are removed
+ * when the cache is created.
+ */
+public class AnnotationIndexCache {
+
+    public static final String DIRECTORY_NAME = "annotation-index";
+
+    static final long MAX_UNUSED_AGE = TimeUnit.DAYS.toMillis(30);
+
+    private static final String SUFFIX = ".idx";
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final File directory;
+
+    public AnnotationIndexCache(final File directory) {
+        this.directory = directory;
+        this.removeUnusedEntries(System.currentTimeMillis() - MAX_UNUSED_AGE);
+    }
+
+    /**
+     * Creates the cache key of a resource root.
+     *
+     * @param contentHash the hash of the deployment content
+     * @param path the path of the resource root relative to the root of the deployment
+     * @param ignorePaths the paths of the resource root which are excluded from the index, or null if none
+     * @return the cache key
+     */
+    public static String createKey(final byte[] contentHash, final String path, final Collection<String> ignorePaths) {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        digest.update(contentHash);
+        digest.update((byte) 0);
+        digest.update(path.getBytes(UTF_8));
+        if (ignorePaths != null && !ignorePaths.isEmpty()) {
+            final List<String> sortedPaths = new ArrayList<String>(ignorePaths);
+            Collections.sort(sortedPaths);
+            for (String ignorePath : sortedPaths) {
+                digest.update((byte) 0);
+                digest.update(ignorePath.getBytes(UTF_8));
+            }
+        }
+        return HashUtil.bytesToHexString(digest.digest());
+    }
+
+    /**
+     * Returns the cached index with the given key.
+     *
+     * @param key the cache key
+     * @return the index, or null if there is no such (readable) entry
+     */
+    public Index get(final String key) {
+        final File file = this.getFile(key);
+        if (!file.exists()) {
+            return null;
+        }
+        InputStream input = null;
+        try {
+            input = new BufferedInputStream(new FileInputStream(file));
+            final Index index = new IndexReader(input).read();
+            // record the use of this entry
+            file.setLastModified(System.currentTimeMillis());
+            return index;
+        } catch (Exception e) {
+            ServerLogger.DEPLOYMENT_LOGGER.debugf(e, "Discarding unreadable annotation index cache file %s", file);
+            VFSUtils.safeClose(input);
+            input = null;
+            file.delete();
+            return null;
+        } finally {
+            VFSUtils.safeClose(input);
+        }
+    }
+
+    /**
+     * Stores the index with the given key.
+     *
+     * @param key the cache key
+     * @param index the index
+     */
+    public void put(final String key, final Index index) {
+        final File file = this.getFile(key);
+        // write to a temporary file first, so that a concurrent or interrupted write never leaves a partial entry
+        final File tmpFile = new File(this.directory, key + "." + Thread.currentThread().getId() + ".tmp");
+        OutputStream output = null;
+        try {
+            if (!this.directory.isDirectory() && !this.directory.mkdirs()) {
+                throw new IOException(this.directory.getAbsolutePath());
+            }
+            output = new BufferedOutputStream(new FileOutputStream(tmpFile));
+            new IndexWriter(output).write(index);
+            output.close();
+            output = null;
+            if (!tmpFile.renameTo(file)) {
+                file.delete();
+                if (!tmpFile.renameTo(file)) {
+                    throw new IOException(tmpFile.getAbsolutePath());
+                }
+            }
+        } catch (IOException e) {
+            ServerLogger.DEPLOYMENT_LOGGER.cannotWriteAnnotationIndexCache(e, file);
+        } finally {
+            VFSUtils.safeClose(output);
+            tmpFile.delete();
+        }
+    }
+
+    private File getFile(final String key) {
+        return new File(this.directory, key + SUFFIX);
+    }
+
+    private void removeUnusedEntries(final long threshold) {
+        final File[] files = this.directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                // also removes temporary files left behind by a crash
+                if (file.isFile() && file.lastModified() < threshold || file.getName().endsWith(".tmp")) {
+                    file.delete();
+                }
+            }
+        }
+    }
+}
@@ -22,6 +22,11 @@
 
 package org.jboss.as.server.deployment.annotation;
 
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.as.server.ServerLogger;
+import org.jboss.as.server.deployment.Attachments;
 import org.jboss.as.server.deployment.DeploymentPhaseContext;
 import org.jboss.as.server.deployment.DeploymentUnit;
 import org.jboss.as.server.deployment.DeploymentUnitProcessingException;
@@ -47,11 +52,15 @@ public class AnnotationIndexProcessor implements DeploymentUnitProcessor {
      */
     public void deploy(DeploymentPhaseContext phaseContext) throws DeploymentUnitProcessingException {
         final DeploymentUnit deploymentUnit = phaseContext.getDeploymentUnit();
-        for (ResourceRoot resourceRoot : DeploymentUtils.allResourceRoots(deploymentUnit)) {
-            ResourceRootIndexer.indexResourceRoot(resourceRoot);
-        }
+        final List<ResourceRoot> resourceRoots = DeploymentUtils.allResourceRoots(deploymentUnit);
+        final long start = System.nanoTime();
+        ResourceRootIndexer.indexResourceRoots(resourceRoots, deploymentUnit);
+        final long time = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        deploymentUnit.putAttachment(Attachments.ANNOTATION_INDEX_TIME, time);
+        ServerLogger.DEPLOYMENT_LOGGER.debugf("Indexed %d resource roots of %s in %d ms", resourceRoots.size(), deploymentUnit.getName(), time);
     }
 
     public void undeploy(final DeploymentUnit context) {
+        context.removeAttachment(Attachments.ANNOTATION_INDEX_TIME);
     }
 }
@@ -23,16 +23,31 @@
 package org.jboss.as.server.deployment.annotation;
 
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
 
 import org.jboss.as.server.ServerLogger;
 import org.jboss.as.server.ServerMessages;
 import org.jboss.as.server.deployment.Attachments;
+import org.jboss.as.server.deployment.DeploymentUnit;
 import org.jboss.as.server.deployment.DeploymentUnitProcessingException;
+import org.jboss.as.server.deployment.DeploymentUtils;
 import org.jboss.as.server.deployment.module.ResourceRoot;
 import org.jboss.as.server.moduleservice.ModuleIndexBuilder;
+import org.jboss.jandex.AnnotationInstance;
+import org.jboss.jandex.ClassInfo;
+import org.jboss.jandex.DotName;
 import org.jboss.jandex.Index;
 import org.jboss.jandex.IndexReader;
 import org.jboss.jandex.Indexer;
@@ -41,16 +56,50 @@ import org.jboss.vfs.VirtualFile;
 import org.jboss.vfs.VirtualFileFilter;
 import org.jboss.vfs.VisitorAttributes;
 import org.jboss.vfs.util.SuffixMatchFilter;
+import org.wildfly.security.manager.WildFlySecurityManager;
 
 /**
  * Utility class for indexing a resource root
  */
 public class ResourceRootIndexer {
 
+    /**
+     * System property specifying the maximum number of threads used to index deployments, defaults to the number of
+     * available processors.
+     */
+    public static final String INDEXER_THREADS = "org.jboss.as.server.deployment.annotation.indexer-threads";
+
+    // number of class files below which a resource root is indexed by a single thread
+    static final int SPLIT_SIZE = 500;
+
+    private static final int PARALLELISM = parallelism();
+
+    private static int parallelism() {
+        final int processors = Runtime.getRuntime().availableProcessors();
+        final String value = WildFlySecurityManager.getPropertyPrivileged(INDEXER_THREADS, null);
+        if (value == null) {
+            return processors;
+        }
+        try {
+            return Math.max(1, Integer.parseInt(value.trim()));
+        } catch (NumberFormatException e) {
+            ServerLogger.DEPLOYMENT_LOGGER.invalidSystemPropertyValue(value, INDEXER_THREADS, processors);
+            return processors;
+        }
+    }
+
     /**
      * Creates and attaches the annotation index to a resource root, if it has not already been attached
      */
     public static void indexResourceRoot(final ResourceRoot resourceRoot) throws DeploymentUnitProcessingException {
+        indexResourceRoot(resourceRoot, null);
+    }
+
+    /**
+     * Creates and attaches the annotation index to a resource root of the given deployment, if it has not already been
+     * attached. If the deployment content is managed, the index is read from, or stored in, the annotation index cache.
+     */
+    public static void indexResourceRoot(final ResourceRoot resourceRoot, final DeploymentUnit deploymentUnit) throws DeploymentUnitProcessingException {
         if (resourceRoot.getAttachment(Attachments.ANNOTATION_INDEX) != null) {
             return;
         }
@@ -82,7 +131,17 @@ public class ResourceRootIndexer {
         }
 
         final VirtualFile virtualFile = resourceRoot.getRoot();
-        final Indexer indexer = new Indexer();
+        final AnnotationIndexCache cache = (deploymentUnit != null) ? deploymentUnit.getAttachment(Attachments.ANNOTATION_INDEX_CACHE) : null;
+        final String cacheKey = (cache != null) ? createCacheKey(virtualFile, deploymentUnit, indexIgnorePathList) : null;
+        if (cacheKey != null) {
+            final Index index = cache.get(cacheKey);
+            if (index != null) {
+                resourceRoot.putAttachment(Attachments.ANNOTATION_INDEX, index);
+                ServerLogger.DEPLOYMENT_LOGGER.tracef("Found cached index for archive %s", virtualFile);
+                return;
+            }
+        }
+
         try {
             final VisitorAttributes visitorAttributes = new VisitorAttributes();
             visitorAttributes.setLeavesOnly(true);
@@ -93,22 +152,186 @@ public class ResourceRootIndexer {
             });
 
             final List<VirtualFile> classChildren = virtualFile.getChildren(new SuffixMatchFilter(".class", visitorAttributes));
-            for (VirtualFile classFile : classChildren) {
-                InputStream inputStream = null;
-                try {
-                    inputStream = classFile.openStream();
-                    indexer.index(inputStream);
-                } catch (Exception e) {
-                    ServerLogger.DEPLOYMENT_LOGGER.cannotIndexClass(classFile.getPathNameRelativeTo(virtualFile), virtualFile.getPathName(), e);
-                } finally {
-                    VFSUtils.safeClose(inputStream);
-                }
+            final Index index;
+            if (PARALLELISM > 1 && classChildren.size() > SPLIT_SIZE) {
+                // split large resource roots across the indexing pool
+                final IndexClassFilesTask task = new IndexClassFilesTask(virtualFile, classChildren);
+                index = ForkJoinTask.inForkJoinPool() ? task.invoke() : getPool().invoke(task);
+            } else {
+                index = indexClassFiles(virtualFile, classChildren);
             }
-            final Index index = indexer.complete();
             resourceRoot.putAttachment(Attachments.ANNOTATION_INDEX, index);
             ServerLogger.DEPLOYMENT_LOGGER.tracef("Generated index for archive %s", virtualFile);
+            if (cacheKey != null) {
+                cache.put(cacheKey, index);
+            }
         } catch (Throwable t) {
             throw ServerMessages.MESSAGES.deploymentIndexingFailed(t);
         }
     }
+
+    /**
+     * Creates and attaches the annotation indexes to the given resource roots of a deployment, indexing the resource
+     * roots in parallel.
+     *
+     * @see #indexResourceRoot(ResourceRoot, DeploymentUnit)
+     */
+    public static void indexResourceRoots(final Collection<ResourceRoot> resourceRoots, final DeploymentUnit deploymentUnit) throws DeploymentUnitProcessingException {
+        final List<ResourceRoot> roots = new ArrayList<ResourceRoot>(new LinkedHashSet<ResourceRoot>(resourceRoots));
+        if (roots.size() <= 1 || PARALLELISM <= 1) {
+            for (ResourceRoot resourceRoot : roots) {
+                indexResourceRoot(resourceRoot, deploymentUnit);
+            }
+            return;
+        }
+        final List<IndexResourceRootTask> tasks = new ArrayList<IndexResourceRootTask>(roots.size());
+        for (ResourceRoot resourceRoot : roots) {
+            tasks.add(new IndexResourceRootTask(resourceRoot, deploymentUnit));
+        }
+        getPool().invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        });
+        for (IndexResourceRootTask task : tasks) {
+            if (task.failure != null) {
+                throw task.failure;
+            }
+        }
+    }
+
+    private static Index indexClassFiles(final VirtualFile root, final List<VirtualFile> classFiles) {
+        final Indexer indexer = new Indexer();
+        for (VirtualFile classFile : classFiles) {
+            InputStream inputStream = null;
+            try {
+                inputStream = classFile.openStream();
+                indexer.index(inputStream);
+            } catch (Exception e) {
+                ServerLogger.DEPLOYMENT_LOGGER.cannotIndexClass(classFile.getPathNameRelativeTo(root), root.getPathName(), e);
+            } finally {
+                VFSUtils.safeClose(inputStream);
+            }
+        }
+        return indexer.complete();
+    }
+
+    /**
+     * Merges indexes of disjoint sets of classes into a single index, equivalent to the index an {@link Indexer} would
+     * create from all of those classes.
+     */
+    static Index merge(final Index first, final Index second) {
+        final Map<DotName, List<AnnotationInstance>> annotations = new HashMap<DotName, List<AnnotationInstance>>();
+        final Map<DotName, List<ClassInfo>> subclasses = new HashMap<DotName, List<ClassInfo>>();
+        final Map<DotName, List<ClassInfo>> implementors = new HashMap<DotName, List<ClassInfo>>();
+        final Map<DotName, ClassInfo> classes = new HashMap<DotName, ClassInfo>();
+        for (Index index : Arrays.asList(first, second)) {
+            for (ClassInfo classInfo : index.getKnownClasses()) {
+                classes.put(classInfo.name(), classInfo);
+                for (Map.Entry<DotName, List<AnnotationInstance>> entry : classInfo.annotations().entrySet()) {
+                    getList(annotations, entry.getKey()).addAll(entry.getValue());
+                }
+                if (classInfo.superName() != null) {
+                    getList(subclasses, classInfo.superName()).add(classInfo);
+                }
+                for (DotName interfaceName : classInfo.interfaces()) {
+                    getList(implementors, interfaceName).add(classInfo);
+                }
+            }
+        }
+        return Index.create(annotations, subclasses, implementors, classes);
+    }
+
+    private static <T> List<T> getList(final Map<DotName, List<T>> map, final DotName name) {
+        List<T> list = map.get(name);
+        if (list == null) {
+            list = new ArrayList<T>();
+            map.put(name, list);
+        }
+        return list;
+    }
+
+    static ForkJoinPool getPool() {
+        return PoolHolder.POOL;
+    }
+
+    /**
+     * Lazily creates the pool shared by all deployments, so its threads only exist once something is indexed.
+     */
+    private static final class PoolHolder {
+        static final ForkJoinPool POOL = new ForkJoinPool(PARALLELISM);
+    }
+
+    private static final class IndexResourceRootTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final ResourceRoot resourceRoot;
+        private final DeploymentUnit deploymentUnit;
+        volatile DeploymentUnitProcessingException failure;
+
+        IndexResourceRootTask(final ResourceRoot resourceRoot, final DeploymentUnit deploymentUnit) {
+            this.resourceRoot = resourceRoot;
+            this.deploymentUnit = deploymentUnit;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                indexResourceRoot(this.resourceRoot, this.deploymentUnit);
+            } catch (DeploymentUnitProcessingException e) {
+                this.failure = e;
+            }
+        }
+    }
+
+    private static final class IndexClassFilesTask extends RecursiveTask<Index> {
+        private static final long serialVersionUID = 1L;
+
+        private final VirtualFile root;
+        private final List<VirtualFile> classFiles;
+
+        IndexClassFilesTask(final VirtualFile root, final List<VirtualFile> classFiles) {
+            this.root = root;
+            this.classFiles = classFiles;
+        }
+
+        @Override
+        protected Index compute() {
+            final int size = this.classFiles.size();
+            if (size <= SPLIT_SIZE) {
+                return indexClassFiles(this.root, this.classFiles);
+            }
+            final int middle = size / 2;
+            final IndexClassFilesTask second = new IndexClassFilesTask(this.root, this.classFiles.subList(middle, size));
+            second.fork();
+            final Index first = new IndexClassFilesTask(this.root, this.classFiles.subList(0, middle)).compute();
+            return merge(first, second.join());
+        }
+    }
+
+    /**
+     * Creates the annotation index cache key of a resource root, or returns null if the index of the resource root
+     * cannot be cached, i.e. if the deployment content is unmanaged or overlaid, or if the resource root is located
+     * outside of the deployment.
+     */
+    private static String createCacheKey(final VirtualFile root, final DeploymentUnit deploymentUnit, final List<String> indexIgnorePaths) {
+        final DeploymentUnit topDeploymentUnit = DeploymentUtils.getTopDeploymentUnit(deploymentUnit);
+        final byte[] contentHash = topDeploymentUnit.getAttachment(Attachments.DEPLOYMENT_CONTENT_HASH);
+        final ResourceRoot deploymentRoot = topDeploymentUnit.getAttachment(Attachments.DEPLOYMENT_ROOT);
+        if (contentHash == null || deploymentRoot == null) {
+            return null;
+        }
+        final String path;
+        if (root.equals(deploymentRoot.getRoot())) {
+            path = "";
+        } else {
+            try {
+                path = root.getPathNameRelativeTo(deploymentRoot.getRoot());
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+        return AnnotationIndexCache.createKey(contentHash, path, indexIgnorePaths);
+    }
 }
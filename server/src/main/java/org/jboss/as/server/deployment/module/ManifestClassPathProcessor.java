@@ -218,7 +218,7 @@ public final class ManifestClassPathProcessor implements DeploymentUnitProcessor
     }
 
     private ModuleIdentifier createAdditionalModule(final ResourceRoot resourceRoot, final DeploymentUnit topLevelDeployment, final VirtualFile topLevelRoot, final Map<VirtualFile, AdditionalModuleSpecification> additionalModules, final VirtualFile classPathFile, final ArrayDeque<RootEntry> resourceRoots) throws DeploymentUnitProcessingException {
-        final ResourceRoot root = createResourceRoot(classPathFile);
+        final ResourceRoot root = createResourceRoot(classPathFile, topLevelDeployment);
         final String pathName = root.getRoot().getPathNameRelativeTo(topLevelRoot);
         ModuleIdentifier identifier = ModuleIdentifier.create(ServiceModuleLoader.MODULE_PREFIX + topLevelDeployment.getName() + "." + pathName);
         AdditionalModuleSpecification module = new AdditionalModuleSpecification(identifier, root);
@@ -258,16 +258,17 @@ public final class ManifestClassPathProcessor implements DeploymentUnitProcessor
      *
      *
      * @param file           The file for which the resource root will be created
+     * @param deploymentUnit The deployment unit
      * @return Returns the created {@link ResourceRoot}
      * @throws java.io.IOException
      */
-    private synchronized ResourceRoot createResourceRoot(final VirtualFile file) throws DeploymentUnitProcessingException {
+    private synchronized ResourceRoot createResourceRoot(final VirtualFile file, final DeploymentUnit deploymentUnit) throws DeploymentUnitProcessingException {
         try {
             final Closeable closable = file.isFile() ? VFS.mountZip(file, file, TempFileProviderService.provider()) : null;
             final MountHandle mountHandle = new MountHandle(closable);
             final ResourceRoot resourceRoot = new ResourceRoot(file, mountHandle);
             ModuleRootMarker.mark(resourceRoot);
-            ResourceRootIndexer.indexResourceRoot(resourceRoot);
+            ResourceRootIndexer.indexResourceRoot(resourceRoot, deploymentUnit);
             return resourceRoot;
         } catch (IOException e) {
             throw new RuntimeException(e);
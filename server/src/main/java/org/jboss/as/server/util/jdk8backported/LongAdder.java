@@ -6,7 +6,7 @@
  * http://creativecommons.org/publicdomain/zero/1.0/
  */
 
-package org.wildfly.mod_cluster.undertow.metric.jdk8backported;
+package org.jboss.as.server.util.jdk8backported;
 
 import java.io.Serializable;
 
@@ -0,0 +1,108 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.server.deployment.annotation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.jboss.jandex.DotName;
+import org.jboss.jandex.Index;
+import org.jboss.jandex.Indexer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AnnotationIndexCacheTestCase {
+
+    private File directory;
+
+    @Before
+    public void setUp() throws Exception {
+        this.directory = File.createTempFile("annotation-index", null);
+        this.directory.delete();
+        this.directory.mkdirs();
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = this.directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        this.directory.delete();
+    }
+
+    @Test
+    public void testCreateKey() {
+        byte[] hash = new byte[] { 1, 2, 3 };
+        String key = AnnotationIndexCache.createKey(hash, "lib/a.jar", null);
+        assertEquals(key, AnnotationIndexCache.createKey(hash, "lib/a.jar", Collections.<String>emptyList()));
+        assertFalse(key.equals(AnnotationIndexCache.createKey(hash, "lib/b.jar", null)));
+        assertFalse(key.equals(AnnotationIndexCache.createKey(new byte[] { 1, 2, 4 }, "lib/a.jar", null)));
+        assertFalse(key.equals(AnnotationIndexCache.createKey(hash, "lib/a.jar", Arrays.asList("META-INF"))));
+        assertEquals(AnnotationIndexCache.createKey(hash, "", Arrays.asList("a", "b")), AnnotationIndexCache.createKey(hash, "", Arrays.asList("b", "a")));
+    }
+
+    @Test
+    public void testPutGet() throws Exception {
+        AnnotationIndexCache cache = new AnnotationIndexCache(this.directory);
+        String key = AnnotationIndexCache.createKey(new byte[] { 1 }, "", null);
+        assertNull(cache.get(key));
+
+        Indexer indexer = new Indexer();
+        InputStream input = this.getClass().getResourceAsStream(this.getClass().getSimpleName() + ".class");
+        try {
+            indexer.index(input);
+        } finally {
+            input.close();
+        }
+        cache.put(key, indexer.complete());
+
+        Index index = new AnnotationIndexCache(this.directory).get(key);
+        assertNotNull(index);
+        assertNotNull(index.getClassByName(DotName.createSimple(this.getClass().getName())));
+    }
+
+    @Test
+    public void testCorruptEntry() throws Exception {
+        String key = AnnotationIndexCache.createKey(new byte[] { 2 }, "", null);
+        File file = new File(this.directory, key + ".idx");
+        FileOutputStream output = new FileOutputStream(file);
+        try {
+            output.write(new byte[] { 1, 2, 3, 4 });
+        } finally {
+            output.close();
+        }
+        assertNull(new AnnotationIndexCache(this.directory).get(key));
+        assertFalse(file.exists());
+    }
+}
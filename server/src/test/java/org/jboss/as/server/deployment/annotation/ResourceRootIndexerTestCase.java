@@ -0,0 +1,81 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.server.deployment.annotation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.InputStream;
+import java.io.Serializable;
+
+import org.jboss.jandex.DotName;
+import org.jboss.jandex.Index;
+import org.jboss.jandex.Indexer;
+import org.junit.Test;
+
+public class ResourceRootIndexerTestCase {
+
+    @Test
+    public void testMerge() throws Exception {
+        Index first = index(Annotated.class);
+        Index second = index(Subclass.class);
+        Index expected = index(Annotated.class, Subclass.class);
+
+        Index merged = ResourceRootIndexer.merge(first, second);
+
+        assertEquals(expected.getKnownClasses().size(), merged.getKnownClasses().size());
+        assertNotNull(merged.getClassByName(DotName.createSimple(Annotated.class.getName())));
+        assertNotNull(merged.getClassByName(DotName.createSimple(Subclass.class.getName())));
+        DotName deprecated = DotName.createSimple(Deprecated.class.getName());
+        assertEquals(expected.getAnnotations(deprecated).size(), merged.getAnnotations(deprecated).size());
+        DotName annotated = DotName.createSimple(Annotated.class.getName());
+        assertEquals(1, merged.getKnownDirectSubclasses(annotated).size());
+        DotName serializable = DotName.createSimple(Serializable.class.getName());
+        assertEquals(expected.getKnownDirectImplementors(serializable).size(), merged.getKnownDirectImplementors(serializable).size());
+    }
+
+    private static Index index(Class<?>... classes) throws Exception {
+        Indexer indexer = new Indexer();
+        for (Class<?> clazz : classes) {
+            InputStream input = clazz.getResourceAsStream(clazz.getName().substring(clazz.getName().lastIndexOf('.') + 1) + ".class");
+            try {
+                indexer.index(input);
+            } finally {
+                input.close();
+            }
+        }
+        return indexer.complete();
+    }
+
+    @Deprecated
+    static class Annotated implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        @Deprecated
+        public void method() {
+        }
+    }
+
+    static class Subclass extends Annotated {
+        private static final long serialVersionUID = 1L;
+    }
+}
@@ -58,9 +58,20 @@ class AccessLogAdd extends AbstractAddStepHandler {
         final String pattern = AccessLogDefinition.PATTERN.resolveModelAttribute(context, model).asString();
         final String directory = AccessLogDefinition.DIRECTORY.resolveModelAttribute(context, model).asString();
         final String filePrefix = AccessLogDefinition.PREFIX.resolveModelAttribute(context, model).asString();
+        final boolean batched = AccessLogDefinition.BATCHED.resolveModelAttribute(context, model).asBoolean();
 
+        BatchedAccessLogReceiver.Configuration batchedConfiguration = null;
+        if (batched) {
+            final boolean rotate = AccessLogDefinition.ROTATE.resolveModelAttribute(context, model).asBoolean();
+            final long maxFileSize = AccessLogDefinition.MAX_FILE_SIZE.resolveModelAttribute(context, model).asLong();
+            final long flushInterval = AccessLogDefinition.FLUSH_INTERVAL.resolveModelAttribute(context, model).asLong();
+            final int batchSize = AccessLogDefinition.BATCH_SIZE.resolveModelAttribute(context, model).asInt();
+            final int queueSize = AccessLogDefinition.QUEUE_SIZE.resolveModelAttribute(context, model).asInt();
+            final int bufferSize = AccessLogDefinition.BUFFER_SIZE.resolveModelAttribute(context, model).asInt();
+            batchedConfiguration = new BatchedAccessLogReceiver.Configuration(rotate, maxFileSize, flushInterval, batchSize, queueSize, bufferSize);
+        }
 
-        final AccessLogService service = new AccessLogService(pattern, new File(directory), filePrefix);
+        final AccessLogService service = new AccessLogService(pattern, new File(directory), filePrefix, batchedConfiguration);
         final String serverName = serverAddress.getLastElement().getValue();
         final String hostName = hostAddress.getLastElement().getValue();
 
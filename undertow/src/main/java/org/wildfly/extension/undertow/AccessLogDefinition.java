@@ -4,7 +4,11 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 
+import org.jboss.as.controller.AbstractRuntimeOnlyHandler;
 import org.jboss.as.controller.AttributeDefinition;
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.PathAddress;
 import org.jboss.as.controller.PersistentResourceDefinition;
 import org.jboss.as.controller.ReloadRequiredRemoveStepHandler;
 import org.jboss.as.controller.SimpleAttributeDefinition;
@@ -12,11 +16,17 @@ import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
 import org.jboss.as.controller.access.constraint.SensitivityClassification;
 import org.jboss.as.controller.access.management.AccessConstraintDefinition;
 import org.jboss.as.controller.access.management.SensitiveTargetAccessConstraintDefinition;
+import org.jboss.as.controller.client.helpers.MeasurementUnit;
+import org.jboss.as.controller.descriptions.ModelDescriptionConstants;
+import org.jboss.as.controller.operations.validation.IntRangeValidator;
+import org.jboss.as.controller.operations.validation.LongRangeValidator;
 import org.jboss.as.controller.operations.validation.StringLengthValidator;
 import org.jboss.as.controller.registry.AttributeAccess;
+import org.jboss.as.controller.registry.ManagementResourceRegistration;
 import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.ModelType;
 import org.jboss.dmr.ValueExpression;
+import org.jboss.msc.service.ServiceController;
 
 /**
  * @author Tomaz Cerar (c) 2013 Red Hat Inc.
@@ -49,13 +59,57 @@ public class AccessLogDefinition extends PersistentResourceDefinition {
             .setDefaultValue(new ModelNode(new ValueExpression("${jboss.server.log.dir}")))
             .setAllowExpression(true)
             .build();
+    protected static final SimpleAttributeDefinition BATCHED = new SimpleAttributeDefinitionBuilder(Constants.BATCHED, ModelType.BOOLEAN, true)
+            .setDefaultValue(new ModelNode(false))
+            .setAllowExpression(true)
+            .build();
+    protected static final SimpleAttributeDefinition FLUSH_INTERVAL = new SimpleAttributeDefinitionBuilder(Constants.FLUSH_INTERVAL, ModelType.LONG, true)
+            .setDefaultValue(new ModelNode(BatchedAccessLogReceiver.DEFAULT_FLUSH_INTERVAL))
+            .setValidator(new LongRangeValidator(1, Long.MAX_VALUE, true, true))
+            .setMeasurementUnit(MeasurementUnit.MILLISECONDS)
+            .setAllowExpression(true)
+            .build();
+    protected static final SimpleAttributeDefinition BATCH_SIZE = new SimpleAttributeDefinitionBuilder(Constants.BATCH_SIZE, ModelType.INT, true)
+            .setDefaultValue(new ModelNode(BatchedAccessLogReceiver.DEFAULT_BATCH_SIZE))
+            .setValidator(new IntRangeValidator(1, true, true))
+            .setAllowExpression(true)
+            .build();
+    protected static final SimpleAttributeDefinition QUEUE_SIZE = new SimpleAttributeDefinitionBuilder(Constants.QUEUE_SIZE, ModelType.INT, true)
+            .setDefaultValue(new ModelNode(BatchedAccessLogReceiver.DEFAULT_QUEUE_SIZE))
+            .setValidator(new IntRangeValidator(1, true, true))
+            .setAllowExpression(true)
+            .build();
+    protected static final SimpleAttributeDefinition BUFFER_SIZE = new SimpleAttributeDefinitionBuilder(Constants.BUFFER_SIZE, ModelType.INT, true)
+            .setDefaultValue(new ModelNode(BatchedAccessLogReceiver.DEFAULT_BUFFER_SIZE))
+            .setValidator(new IntRangeValidator(1024, true, true))
+            .setMeasurementUnit(MeasurementUnit.BYTES)
+            .setAllowExpression(true)
+            .build();
+    protected static final SimpleAttributeDefinition MAX_FILE_SIZE = new SimpleAttributeDefinitionBuilder(Constants.MAX_FILE_SIZE, ModelType.LONG, true)
+            .setDefaultValue(new ModelNode(0L))
+            .setValidator(new LongRangeValidator(0, Long.MAX_VALUE, true, true))
+            .setMeasurementUnit(MeasurementUnit.BYTES)
+            .setAllowExpression(true)
+            .build();
+    static final SimpleAttributeDefinition QUEUED_RECORDS = new SimpleAttributeDefinitionBuilder(Constants.QUEUED_RECORDS, ModelType.INT, true)
+            .setStorageRuntime()
+            .build();
+    static final SimpleAttributeDefinition DROPPED_RECORDS = new SimpleAttributeDefinitionBuilder(Constants.DROPPED_RECORDS, ModelType.LONG, true)
+            .setStorageRuntime()
+            .build();
     static final Collection<SimpleAttributeDefinition> ATTRIBUTES = Arrays.asList(
             // IMPORTANT -- keep these in xsd order as this order controls marshalling
             WORKER,
             PATTERN,
             PREFIX,
             ROTATE,
-            DIRECTORY
+            DIRECTORY,
+            BATCHED,
+            FLUSH_INTERVAL,
+            BATCH_SIZE,
+            QUEUE_SIZE,
+            BUFFER_SIZE,
+            MAX_FILE_SIZE
     );
     static final AccessLogDefinition INSTANCE = new AccessLogDefinition();
     private final List<AccessConstraintDefinition> accessConstraints;
@@ -77,4 +131,34 @@ public class AccessLogDefinition extends PersistentResourceDefinition {
         //noinspection unchecked
         return (Collection) ATTRIBUTES;
     }
+
+    @Override
+    public void registerAttributes(ManagementResourceRegistration resourceRegistration) {
+        super.registerAttributes(resourceRegistration);
+        resourceRegistration.registerMetric(QUEUED_RECORDS, AccessLogMetricsHandler.INSTANCE);
+        resourceRegistration.registerMetric(DROPPED_RECORDS, AccessLogMetricsHandler.INSTANCE);
+    }
+
+    private static class AccessLogMetricsHandler extends AbstractRuntimeOnlyHandler {
+
+        static final AccessLogMetricsHandler INSTANCE = new AccessLogMetricsHandler();
+
+        @Override
+        protected void executeRuntimeStep(OperationContext context, ModelNode operation) throws OperationFailedException {
+            final PathAddress address = PathAddress.pathAddress(operation.get(ModelDescriptionConstants.OP_ADDR));
+            final PathAddress hostAddress = address.subAddress(0, address.size() - 1);
+            final PathAddress serverAddress = hostAddress.subAddress(0, hostAddress.size() - 1);
+            final String attributeName = operation.require(ModelDescriptionConstants.NAME).asString();
+            final ServiceController<?> controller = context.getServiceRegistry(false).getService(UndertowService.accessLogServiceName(serverAddress.getLastElement().getValue(), hostAddress.getLastElement().getValue()));
+            if (controller != null && controller.getState() == ServiceController.State.UP) {
+                final BatchedAccessLogReceiver receiver = ((AccessLogService) controller.getValue()).getBatchedReceiver();
+                if (Constants.QUEUED_RECORDS.equals(attributeName)) {
+                    context.getResult().set((receiver != null) ? receiver.getQueuedRecords() : 0);
+                } else if (Constants.DROPPED_RECORDS.equals(attributeName)) {
+                    context.getResult().set((receiver != null) ? receiver.getDroppedRecords() : 0L);
+                }
+            }
+            context.stepCompleted();
+        }
+    }
 }
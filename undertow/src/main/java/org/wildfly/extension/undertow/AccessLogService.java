@@ -45,12 +45,21 @@ class AccessLogService implements Service<AccessLogService> {
     private final String pattern;
     private final File directory;
     private final String filePrefix;
+    private final BatchedAccessLogReceiver.Configuration batchedConfiguration;
     private volatile AccessLogReceiver logReceiver;
 
     AccessLogService(String pattern, File directory, String filePrefix) {
+        this(pattern, directory, filePrefix, null);
+    }
+
+    /**
+     * @param batchedConfiguration the configuration of a {@link BatchedAccessLogReceiver}, or null to use the default receiver
+     */
+    AccessLogService(String pattern, File directory, String filePrefix, BatchedAccessLogReceiver.Configuration batchedConfiguration) {
         this.pattern = pattern;
         this.directory = directory;
         this.filePrefix = filePrefix;
+        this.batchedConfiguration = batchedConfiguration;
     }
 
     @Override
@@ -60,6 +69,12 @@ class AccessLogService implements Service<AccessLogService> {
                 throw UndertowMessages.MESSAGES.couldNotCreateLogDirectory(directory);
             }
         }
+        if (batchedConfiguration != null) {
+            BatchedAccessLogReceiver receiver = batchedConfiguration.createReceiver(directory, filePrefix);
+            receiver.start();
+            logReceiver = receiver;
+            return;
+        }
         try {
             logReceiver = new DefaultAccessLogReceiver(worker.getValue(), directory, filePrefix);
         } catch (IllegalStateException e) {
@@ -69,7 +84,9 @@ class AccessLogService implements Service<AccessLogService> {
 
     @Override
     public void stop(StopContext context) {
-
+        if (logReceiver instanceof BatchedAccessLogReceiver) {
+            ((BatchedAccessLogReceiver) logReceiver).close();
+        }
     }
 
     @Override
@@ -81,6 +98,15 @@ class AccessLogService implements Service<AccessLogService> {
         return worker;
     }
 
+    /**
+     * Returns the batched receiver of this access log, if configured.
+     * @return the batched receiver, or null if the default receiver is used
+     */
+    BatchedAccessLogReceiver getBatchedReceiver() {
+        AccessLogReceiver receiver = logReceiver;
+        return (receiver instanceof BatchedAccessLogReceiver) ? (BatchedAccessLogReceiver) receiver : null;
+    }
+
     protected AccessLogHandler configureAccessLogHandler(HttpHandler handler) {
         return new AccessLogHandler(handler, logReceiver, pattern, AccessLogHandler.class.getClassLoader());
     }
@@ -0,0 +1,295 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.extension.undertow;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.security.AccessController;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import io.undertow.server.handlers.accesslog.AccessLogReceiver;
+import org.jboss.threads.JBossThreadFactory;
+import org.wildfly.security.manager.action.GetAccessControlContextAction;
+
+/**
+ * Access log receiver that queues log records and writes them in batches from a single writer thread.
+ * Records are encoded into a direct buffer that is written to the log file through a {@link FileChannel} whenever it fills up,
+ * or once the queue has been drained.  The queue is drained every flush interval, or as soon as it holds a full batch.
+ * Records logged while the queue is full are dropped rather than blocking the request.
+ * The log file is rotated daily, if enabled, and whenever it exceeds the maximum file size, if set.
+ */
+class BatchedAccessLogReceiver implements AccessLogReceiver, Runnable, Closeable {
+
+    static final long DEFAULT_FLUSH_INTERVAL = TimeUnit.SECONDS.toMillis(1);
+    static final int DEFAULT_BATCH_SIZE = 1000;
+    static final int DEFAULT_QUEUE_SIZE = 10000;
+    static final int DEFAULT_BUFFER_SIZE = 65536;
+
+    private final File directory;
+    private final String prefix;
+    private final File logFile;
+    private final boolean rotate;
+    private final long maxFileSize;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final BlockingQueue<String> queue;
+    private final AtomicLong droppedRecords = new AtomicLong();
+    private final Thread writer;
+    private volatile boolean closed = false;
+
+    // Only accessed by the writer thread
+    private final ByteBuffer buffer;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
+    private FileChannel channel;
+    private long fileSize;
+    private String dateStamp;
+    private long changeOverPoint;
+
+    BatchedAccessLogReceiver(File directory, String prefix, boolean rotate, long maxFileSize, long flushInterval, int batchSize, int queueSize, int bufferSize) {
+        this.directory = directory;
+        this.prefix = prefix;
+        this.logFile = new File(directory, prefix + ".log");
+        this.rotate = rotate;
+        this.maxFileSize = maxFileSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushInterval);
+        this.batchSize = batchSize;
+        this.queue = new LinkedBlockingQueue<>(queueSize);
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+        long now = System.currentTimeMillis();
+        this.dateStamp = this.dateFormat.format(new Date(now));
+        this.changeOverPoint = nextChangeOverPoint(now);
+        this.writer = new JBossThreadFactory(new ThreadGroup(BatchedAccessLogReceiver.class.getSimpleName()), Boolean.TRUE, null, "%G - %t", null, null, AccessController.doPrivileged(GetAccessControlContextAction.getInstance())).newThread(this);
+    }
+
+    void start() {
+        this.writer.start();
+    }
+
+    @Override
+    public void logMessage(String message) {
+        if (this.closed || !this.queue.offer(message)) {
+            this.droppedRecords.incrementAndGet();
+            return;
+        }
+        if (this.queue.size() >= this.batchSize) {
+            LockSupport.unpark(this.writer);
+        }
+    }
+
+    /**
+     * Returns the number of records waiting to be written.
+     * @return the number of queued records
+     */
+    int getQueuedRecords() {
+        return this.queue.size();
+    }
+
+    /**
+     * Returns the number of records dropped because the queue was full.
+     * @return the number of dropped records
+     */
+    long getDroppedRecords() {
+        return this.droppedRecords.get();
+    }
+
+    @Override
+    public void close() {
+        this.closed = true;
+        LockSupport.unpark(this.writer);
+        try {
+            this.writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (true) {
+                // Read before draining, so that records queued prior to closing are always written
+                boolean closing = this.closed;
+                this.writeQueuedRecords();
+                if (closing) {
+                    break;
+                }
+                LockSupport.parkNanos(this, this.flushIntervalNanos);
+            }
+        } finally {
+            this.closeChannel();
+        }
+    }
+
+    private void writeQueuedRecords() {
+        String record = this.queue.poll();
+        if (record == null) {
+            return;
+        }
+        try {
+            long now = this.currentTimeMillis();
+            if (this.rotate && (now >= this.changeOverPoint)) {
+                this.rotate(now);
+            }
+            do {
+                this.write(record);
+                if ((this.maxFileSize > 0) && (this.fileSize + this.buffer.position() >= this.maxFileSize)) {
+                    this.flush();
+                    this.rotate(this.currentTimeMillis());
+                }
+                record = this.queue.poll();
+            } while (record != null);
+            this.flush();
+        } catch (IOException | RuntimeException e) {
+            // Records of the failed batch are lost, but the writer thread must survive to write subsequent ones
+            UndertowLogger.ROOT_LOGGER.failedToWriteAccessLog(this.logFile, e);
+            this.buffer.clear();
+            // Reopen the log file on the next attempt
+            this.closeChannel();
+        }
+    }
+
+    /**
+     * Returns the current time used to decide on daily rotation.
+     * @return the current time in milliseconds
+     */
+    long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    private void write(String record) throws IOException {
+        CharBuffer chars = CharBuffer.wrap(record);
+        this.encoder.reset();
+        while (this.encoder.encode(chars, this.buffer, true).isOverflow()) {
+            this.flush();
+        }
+        CoderResult result = this.encoder.flush(this.buffer);
+        while (result.isOverflow()) {
+            this.flush();
+            result = this.encoder.flush(this.buffer);
+        }
+        if (!this.buffer.hasRemaining()) {
+            this.flush();
+        }
+        this.buffer.put((byte) '\n');
+    }
+
+    private void flush() throws IOException {
+        this.buffer.flip();
+        try {
+            FileChannel channel = this.getChannel();
+            while (this.buffer.hasRemaining()) {
+                this.fileSize += channel.write(this.buffer);
+            }
+        } finally {
+            this.buffer.clear();
+        }
+    }
+
+    private FileChannel getChannel() throws IOException {
+        if (this.channel == null) {
+            this.channel = FileChannel.open(this.logFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            this.fileSize = this.channel.size();
+        }
+        return this.channel;
+    }
+
+    private void rotate(long now) throws IOException {
+        this.closeChannel();
+        if (this.logFile.exists()) {
+            File target = new File(this.directory, this.prefix + "." + this.dateStamp + ".log");
+            for (int i = 1; target.exists(); ++i) {
+                target = new File(this.directory, this.prefix + "." + this.dateStamp + "." + i + ".log");
+            }
+            Files.move(this.logFile.toPath(), target.toPath());
+        }
+        this.dateStamp = this.dateFormat.format(new Date(now));
+        this.changeOverPoint = nextChangeOverPoint(now);
+    }
+
+    private void closeChannel() {
+        if (this.channel != null) {
+            try {
+                this.channel.close();
+            } catch (IOException e) {
+                UndertowLogger.ROOT_LOGGER.failedToWriteAccessLog(this.logFile, e);
+            }
+            this.channel = null;
+        }
+    }
+
+    /**
+     * The settings of a batched access log receiver, independent of the log file it writes to.
+     */
+    static class Configuration {
+        private final boolean rotate;
+        private final long maxFileSize;
+        private final long flushInterval;
+        private final int batchSize;
+        private final int queueSize;
+        private final int bufferSize;
+
+        Configuration(boolean rotate, long maxFileSize, long flushInterval, int batchSize, int queueSize, int bufferSize) {
+            this.rotate = rotate;
+            this.maxFileSize = maxFileSize;
+            this.flushInterval = flushInterval;
+            this.batchSize = batchSize;
+            this.queueSize = queueSize;
+            this.bufferSize = bufferSize;
+        }
+
+        BatchedAccessLogReceiver createReceiver(File directory, String prefix) {
+            return new BatchedAccessLogReceiver(directory, prefix, this.rotate, this.maxFileSize, this.flushInterval, this.batchSize, this.queueSize, this.bufferSize);
+        }
+    }
+
+    private static long nextChangeOverPoint(long now) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(now);
+        calendar.set(Calendar.HOUR_OF_DAY, 0);
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        calendar.add(Calendar.DATE, 1);
+        return calendar.getTimeInMillis();
+    }
+}
@@ -133,4 +133,11 @@ public interface Constants {
     String MAX_REQUEST_TIME = "max-request-time";
     String CERTIFICATE_FORWARDING = "certificate-forwarding";
     String OPTIONS = "options";
+    String BATCHED = "batched";
+    String BATCH_SIZE = "batch-size";
+    String FLUSH_INTERVAL = "flush-interval";
+    String QUEUE_SIZE = "queue-size";
+    String MAX_FILE_SIZE = "max-file-size";
+    String QUEUED_RECORDS = "queued-records";
+    String DROPPED_RECORDS = "dropped-records";
 }
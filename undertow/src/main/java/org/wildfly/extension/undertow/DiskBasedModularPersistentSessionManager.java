@@ -1,5 +1,6 @@
 package org.wildfly.extension.undertow;
 
+import io.undertow.servlet.UndertowServletLogger;
 import org.jboss.as.controller.services.path.PathManager;
 import org.jboss.marshalling.InputStreamByteInput;
 import org.jboss.marshalling.Marshaller;
@@ -11,22 +12,49 @@ import org.jboss.msc.service.StopContext;
 import org.jboss.msc.value.InjectedValue;
 import org.xnio.IoUtils;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Persistent session manager that stores persistent session information to disk
+ * <p>
+ * Each session is stored in its own file, within a directory per deployment. Sessions are marshalled and written one at a time,
+ * such that only a single serialized session is held in memory. Sessions whose content is unchanged since they were
+ * loaded or last persisted are not rewritten, and expired sessions are skipped without unmarshalling their attributes.
  *
  * @author Stuart Douglas
  */
 public class DiskBasedModularPersistentSessionManager extends AbstractPersistentSessionManager {
+
+    private static final String SESSIONS_SUFFIX = ".sessions";
+    private static final String TEMP_SUFFIX = ".tmp";
+
     private final String path;
     private final String pathRelativeTo;
     private File baseDir;
     private PathManager.Callback.Handle callbackHandle;
+    // digests of the session files as last read or written, per deployment
+    private final Map<String, Map<String, byte[]>> persistedDigests = new ConcurrentHashMap<String, Map<String, byte[]>>();
 
     private final InjectedValue<PathManager> pathManager = new InjectedValue<PathManager>();
 
@@ -41,6 +69,7 @@ public class DiskBasedModularPersistentSessionManager extends AbstractPersistent
         if (callbackHandle != null) {
             callbackHandle.remove();
         }
+        persistedDigests.clear();
     }
 
     @Override
@@ -60,29 +89,123 @@ public class DiskBasedModularPersistentSessionManager extends AbstractPersistent
         }
     }
 
+    @Override
+    public void persistSessions(String deploymentName, Map<String, PersistentSession> sessionData) {
+        try {
+            final Marshaller marshaller = createMarshaller();
+            try {
+                final File dir = getSessionDirectory(deploymentName);
+                final Map<String, byte[]> previousDigests = getPersistedDigests(deploymentName);
+                final Map<String, byte[]> digests = new HashMap<String, byte[]>();
+                boolean complete = true;
+                for (Map.Entry<String, PersistentSession> sessionEntry : sessionData.entrySet()) {
+                    final String sessionId = sessionEntry.getKey();
+                    final byte[] previousDigest = previousDigests.get(sessionId);
+                    try {
+                        digests.put(sessionId, writeSession(dir, sessionId, serializeSession(marshaller, sessionId, sessionEntry.getValue()), previousDigest));
+                    } catch (IOException | RuntimeException e) {
+                        UndertowLogger.ROOT_LOGGER.failedToPersistSession(sessionId, e);
+                        complete = false;
+                        // The file of the session, if any, is left as last persisted
+                        if (previousDigest != null) {
+                            digests.put(sessionId, previousDigest);
+                        }
+                    }
+                }
+                removeStaleSessions(dir, sessionData.keySet());
+                persistedDigests.put(deploymentName, digests);
+                if (complete) {
+                    // Sessions from the single file format of previous releases have now been stored individually
+                    deleteFile(new File(baseDir, deploymentName));
+                }
+            } finally {
+                marshaller.close();
+            }
+        } catch (Exception e) {
+            UndertowServletLogger.ROOT_LOGGER.failedToPersistSessions(e);
+        }
+    }
 
     @Override
     protected void persistSerializedSessions(String deploymentName, Map<String, SessionEntry> serializedData) throws IOException {
-        File file = new File(baseDir, deploymentName);
-        FileOutputStream out = new FileOutputStream(file, false);
+        final File dir = getSessionDirectory(deploymentName);
+        final Map<String, byte[]> previousDigests = getPersistedDigests(deploymentName);
+        final Map<String, byte[]> digests = new HashMap<String, byte[]>();
+        for (Map.Entry<String, SessionEntry> entry : serializedData.entrySet()) {
+            digests.put(entry.getKey(), writeSession(dir, entry.getKey(), entry.getValue(), previousDigests.get(entry.getKey())));
+        }
+        removeStaleSessions(dir, serializedData.keySet());
+        persistedDigests.put(deploymentName, digests);
+    }
+
+    @Override
+    public Map<String, PersistentSession> loadSessionAttributes(String deploymentName, final ClassLoader classLoader) {
+        // Sessions persisted using the single file format of previous releases
+        Map<String, PersistentSession> ret = super.loadSessionAttributes(deploymentName, classLoader);
+        final File dir = new File(baseDir, deploymentName + SESSIONS_SUFFIX);
+        final File[] files = dir.listFiles();
+        if (files == null) {
+            return ret;
+        }
+        if (ret == null) {
+            ret = new HashMap<String, PersistentSession>();
+        }
         try {
-            Marshaller marshaller = createMarshaller();
+            final Unmarshaller unmarshaller = createUnmarshaller();
             try {
-                marshaller.start(new OutputStreamByteOutput(out));
-                marshaller.writeObject(serializedData);
-                marshaller.finish();
+                final long time = System.currentTimeMillis();
+                final Map<String, byte[]> digests = new HashMap<String, byte[]>();
+                for (File file : files) {
+                    if (file.getName().endsWith(TEMP_SUFFIX)) {
+                        // Left over from an interrupted write
+                        deleteFile(file);
+                        continue;
+                    }
+                    try {
+                        final byte[] content = Files.readAllBytes(file.toPath());
+                        final DataInputStream input = new DataInputStream(new ByteArrayInputStream(content));
+                        final String sessionId = input.readUTF();
+                        final long expiry = input.readLong();
+                        if (expiry <= time) {
+                            deleteFile(file);
+                            continue;
+                        }
+                        // Counts and lengths are checked against the remaining content, so that a corrupt file cannot cause huge allocations
+                        final int count = input.readInt();
+                        if ((count < 0) || (count > input.available())) {
+                            throw UndertowMessages.MESSAGES.invalidPersistentSessionData(file);
+                        }
+                        final Map<String, byte[]> data = new LinkedHashMap<String, byte[]>();
+                        for (int i = 0; i < count; ++i) {
+                            final String name = input.readUTF();
+                            final int length = input.readInt();
+                            if ((length < 0) || (length > input.available())) {
+                                throw UndertowMessages.MESSAGES.invalidPersistentSessionData(file);
+                            }
+                            final byte[] value = new byte[length];
+                            input.readFully(value);
+                            data.put(name, value);
+                        }
+                        ret.put(sessionId, deserializeSession(unmarshaller, sessionId, new SessionEntry(new Date(expiry), data)));
+                        digests.put(sessionId, digest(content));
+                    } catch (IOException | RuntimeException e) {
+                        UndertowLogger.ROOT_LOGGER.failedToLoadPersistentSession(file, e);
+                    }
+                }
+                persistedDigests.put(deploymentName, digests);
             } finally {
-                marshaller.close();
+                unmarshaller.close();
             }
-        } finally {
-            IoUtils.safeClose(out);
+        } catch (Exception e) {
+            UndertowServletLogger.ROOT_LOGGER.failedtoLoadPersistentSessions(e);
         }
+        return ret;
     }
 
     @Override
     protected Map<String, SessionEntry> loadSerializedSessions(String deploymentName) throws IOException {
         File file = new File(baseDir, deploymentName);
-        if (!file.exists()) {
+        if (!file.isFile()) {
             return null;
         }
         FileInputStream in = new FileInputStream(file);
@@ -106,6 +229,95 @@ public class DiskBasedModularPersistentSessionManager extends AbstractPersistent
 
     }
 
+    private File getSessionDirectory(String deploymentName) throws IOException {
+        File dir = new File(baseDir, deploymentName + SESSIONS_SUFFIX);
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException(UndertowMessages.MESSAGES.failedToCreatePersistentSessionDir(dir).getMessage());
+        }
+        return dir;
+    }
+
+    private Map<String, byte[]> getPersistedDigests(String deploymentName) {
+        Map<String, byte[]> digests = persistedDigests.get(deploymentName);
+        return (digests != null) ? digests : new HashMap<String, byte[]>();
+    }
+
+    /**
+     * Writes a session to its own file, unless the content of the file is unchanged.
+     * The file is replaced atomically, so that an interrupted write never corrupts a previously persisted session.
+     * @return the digest of the session file
+     */
+    private static byte[] writeSession(File dir, String sessionId, SessionEntry entry, byte[] previousDigest) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream output = new DataOutputStream(bytes);
+        output.writeUTF(sessionId);
+        output.writeLong(entry.getExpiry().getTime());
+        output.writeInt(entry.getData().size());
+        for (Map.Entry<String, byte[]> attribute : entry.getData().entrySet()) {
+            output.writeUTF(attribute.getKey());
+            output.writeInt(attribute.getValue().length);
+            output.write(attribute.getValue());
+        }
+        output.flush();
+        final byte[] content = bytes.toByteArray();
+        final byte[] digest = digest(content);
+        final File file = new File(dir, getFileName(sessionId));
+        if ((previousDigest == null) || !Arrays.equals(previousDigest, digest) || !file.exists()) {
+            final File temp = new File(dir, file.getName() + TEMP_SUFFIX);
+            final FileOutputStream out = new FileOutputStream(temp, false);
+            try {
+                out.write(content);
+            } finally {
+                IoUtils.safeClose(out);
+            }
+            try {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        return digest;
+    }
+
+    private static void removeStaleSessions(File dir, Set<String> sessionIds) {
+        final Set<String> fileNames = new HashSet<String>();
+        for (String sessionId : sessionIds) {
+            fileNames.add(getFileName(sessionId));
+        }
+        final File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (!fileNames.contains(file.getName())) {
+                    deleteFile(file);
+                }
+            }
+        }
+    }
+
+    private static void deleteFile(File file) {
+        if (file.isFile()) {
+            file.delete();
+        }
+    }
+
+    // Session identifiers are case sensitive, so they are hex encoded for case insensitive file systems
+    private static String getFileName(String sessionId) {
+        final byte[] bytes = sessionId.getBytes(StandardCharsets.UTF_8);
+        final StringBuilder builder = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            builder.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return builder.toString();
+    }
+
+    private static byte[] digest(byte[] content) {
+        try {
+            return MessageDigest.getInstance("SHA-1").digest(content);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     public InjectedValue<PathManager> getPathManager() {
         return pathManager;
     }
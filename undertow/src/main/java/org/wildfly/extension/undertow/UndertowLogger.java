@@ -162,4 +162,20 @@ public interface UndertowLogger extends BasicLogger {
     @LogMessage(level = INFO)
     @Message(id = 17536, value = "Skipped SCI for jar: %s.")
     void skippedSCI(String jar, @Cause Exception e);
+
+    @LogMessage(level = ERROR)
+    @Message(id = 17537, value = "Failed to write access log %s")
+    void failedToWriteAccessLog(File file, @Cause Throwable cause);
+
+    @LogMessage(level = WARN)
+    @Message(id = 17538, value = "Failed to load attribute %s of persistent session %s")
+    void failedToLoadPersistentSessionAttribute(String attributeName, String sessionId, @Cause Throwable cause);
+
+    @LogMessage(level = WARN)
+    @Message(id = 17539, value = "Failed to load persistent session from %s")
+    void failedToLoadPersistentSession(File file, @Cause Throwable cause);
+
+    @LogMessage(level = WARN)
+    @Message(id = 17540, value = "Failed to persist session %s")
+    void failedToPersistSession(String sessionId, @Cause Throwable cause);
 }
@@ -23,6 +23,7 @@
 package org.wildfly.extension.undertow;
 
 import java.io.File;
+import java.io.IOException;
 
 import javax.xml.stream.Location;
 import javax.xml.stream.XMLStreamException;
@@ -171,4 +172,7 @@ public interface UndertowMessages {
 
     @Message(id = 17350, value = "Could not find the port number listening for protocol %s")
     IllegalStateException noPortListeningForProtocol(final String protocol);
+
+    @Message(id = 17351, value = "Invalid persistent session data in %s")
+    IOException invalidPersistentSessionData(File file);
 }
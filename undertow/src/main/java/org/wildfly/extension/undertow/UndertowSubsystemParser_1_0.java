@@ -91,7 +91,9 @@ public class UndertowSubsystemParser_1_0 implements XMLStreamConstants, XMLEleme
                                                         )
                                         ).addChild(
                                         builder(AccessLogDefinition.INSTANCE)
-                                                .addAttributes(AccessLogDefinition.PATTERN, AccessLogDefinition.DIRECTORY, AccessLogDefinition.PREFIX, AccessLogDefinition.WORKER, AccessLogDefinition.ROTATE)
+                                                .addAttributes(AccessLogDefinition.PATTERN, AccessLogDefinition.DIRECTORY, AccessLogDefinition.PREFIX, AccessLogDefinition.WORKER, AccessLogDefinition.ROTATE,
+                                                        AccessLogDefinition.BATCHED, AccessLogDefinition.FLUSH_INTERVAL, AccessLogDefinition.BATCH_SIZE, AccessLogDefinition.QUEUE_SIZE,
+                                                        AccessLogDefinition.BUFFER_SIZE, AccessLogDefinition.MAX_FILE_SIZE)
                                         ).addChild(
                                         builder(FilterRefDefinition.INSTANCE)
                                 )
@@ -0,0 +1,211 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.extension.undertow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests writing, rotation and dropping of records by {@link BatchedAccessLogReceiver}.
+ */
+public class BatchedAccessLogReceiverTestCase {
+
+    private static final String PREFIX = "access";
+    private static final long FLUSH_INTERVAL = 10;
+
+    private File directory;
+    private String dateStamp;
+
+    @Before
+    public void setUp() throws IOException {
+        this.directory = Files.createTempDirectory("access-log").toFile();
+        this.dateStamp = new SimpleDateFormat("yyyy-MM-dd").format(new Date());
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = this.directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        this.directory.delete();
+    }
+
+    @Test
+    public void testDrainOnClose() throws IOException {
+        BatchedAccessLogReceiver receiver = new BatchedAccessLogReceiver(this.directory, PREFIX, false, 0, TimeUnit.HOURS.toMillis(1), 1000, 100, 1024);
+        receiver.start();
+        for (int i = 0; i < 10; ++i) {
+            receiver.logMessage("record-" + i);
+        }
+        receiver.close();
+
+        assertEquals(0, receiver.getQueuedRecords());
+        assertEquals(records(0, 10), this.read(PREFIX + ".log"));
+    }
+
+    @Test
+    public void testDroppedRecords() throws IOException {
+        BatchedAccessLogReceiver receiver = new BatchedAccessLogReceiver(this.directory, PREFIX, false, 0, FLUSH_INTERVAL, 1000, 2, 1024);
+        // The writer is not started yet, so the queue fills up
+        for (int i = 0; i < 5; ++i) {
+            receiver.logMessage("record-" + i);
+        }
+        assertEquals(2, receiver.getQueuedRecords());
+        assertEquals(3, receiver.getDroppedRecords());
+
+        receiver.start();
+        receiver.close();
+        assertEquals(records(0, 2), this.read(PREFIX + ".log"));
+
+        // Records logged after closing are dropped too
+        receiver.logMessage("record-5");
+        assertEquals(4, receiver.getDroppedRecords());
+    }
+
+    @Test
+    public void testSizeRotation() throws IOException {
+        BatchedAccessLogReceiver receiver = new BatchedAccessLogReceiver(this.directory, PREFIX, false, 64, FLUSH_INTERVAL, 1000, 100, 1024);
+        // Each record takes 9 bytes, so the file is rotated after every 8 records
+        for (int i = 0; i < 20; ++i) {
+            receiver.logMessage("record-" + (char) ('A' + i));
+        }
+        receiver.start();
+        receiver.close();
+
+        assertEquals(letters(0, 8), this.read(PREFIX + "." + this.dateStamp + ".log"));
+        assertEquals(letters(8, 16), this.read(PREFIX + "." + this.dateStamp + ".1.log"));
+        assertEquals(letters(16, 20), this.read(PREFIX + ".log"));
+        assertEquals(3, this.directory.list().length);
+    }
+
+    @Test
+    public void testDailyRotation() throws Exception {
+        final long offset = TimeUnit.DAYS.toMillis(1);
+        final AtomicBoolean nextDay = new AtomicBoolean(false);
+        BatchedAccessLogReceiver receiver = new BatchedAccessLogReceiver(this.directory, PREFIX, true, 0, FLUSH_INTERVAL, 1000, 100, 1024) {
+            @Override
+            long currentTimeMillis() {
+                return super.currentTimeMillis() + (nextDay.get() ? offset : 0);
+            }
+        };
+        receiver.start();
+        receiver.logMessage("today");
+        this.awaitFile(PREFIX + ".log", "today\n");
+
+        nextDay.set(true);
+        receiver.logMessage("tomorrow");
+        receiver.close();
+
+        assertEquals("today\n", this.read(PREFIX + "." + this.dateStamp + ".log"));
+        assertEquals("tomorrow\n", this.read(PREFIX + ".log"));
+    }
+
+    @Test
+    public void testEncodingOverflow() throws IOException {
+        // 2, 3 and 4 byte characters, which do not all fit into the buffer
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 10; ++i) {
+            builder.append("\u00e9\u20ac\ud83d\ude00");
+        }
+        String record = builder.toString();
+        BatchedAccessLogReceiver receiver = new BatchedAccessLogReceiver(this.directory, PREFIX, false, 0, FLUSH_INTERVAL, 1000, 100, 8);
+        receiver.logMessage(record);
+        receiver.logMessage(record);
+        receiver.start();
+        receiver.close();
+
+        assertEquals(record + "\n" + record + "\n", this.read(PREFIX + ".log"));
+    }
+
+    @Test
+    public void testWriterSurvivesRuntimeException() throws Exception {
+        final AtomicBoolean fail = new AtomicBoolean(true);
+        BatchedAccessLogReceiver receiver = new BatchedAccessLogReceiver(this.directory, PREFIX, true, 0, FLUSH_INTERVAL, 1000, 100, 1024) {
+            @Override
+            long currentTimeMillis() {
+                if (fail.compareAndSet(true, false)) {
+                    throw new IllegalStateException();
+                }
+                return super.currentTimeMillis();
+            }
+        };
+        receiver.start();
+        receiver.logMessage("lost");
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (fail.get() || (receiver.getQueuedRecords() > 0)) {
+            assertTrue(System.currentTimeMillis() < deadline);
+            Thread.sleep(FLUSH_INTERVAL);
+        }
+
+        receiver.logMessage("kept");
+        receiver.close();
+        assertEquals("kept\n", this.read(PREFIX + ".log"));
+        assertFalse(new File(this.directory, PREFIX + "." + this.dateStamp + ".log").exists());
+    }
+
+    private void awaitFile(String name, String expected) throws Exception {
+        File file = new File(this.directory, name);
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (!file.exists() || !expected.equals(this.read(name))) {
+            assertTrue(System.currentTimeMillis() < deadline);
+            Thread.sleep(FLUSH_INTERVAL);
+        }
+    }
+
+    private String read(String name) throws IOException {
+        return new String(Files.readAllBytes(new File(this.directory, name).toPath()), StandardCharsets.UTF_8);
+    }
+
+    private static String records(int from, int to) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = from; i < to; ++i) {
+            builder.append("record-").append(i).append('\n');
+        }
+        return builder.toString();
+    }
+
+    private static String letters(int from, int to) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = from; i < to; ++i) {
+            builder.append("record-").append((char) ('A' + i)).append('\n');
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,295 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.extension.undertow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import io.undertow.servlet.api.SessionPersistenceManager.PersistentSession;
+import org.jboss.as.controller.services.path.PathManager;
+import org.jboss.marshalling.Marshaller;
+import org.jboss.marshalling.MarshallingConfiguration;
+import org.jboss.marshalling.OutputStreamByteOutput;
+import org.jboss.marshalling.SerializabilityChecker;
+import org.jboss.marshalling.Unmarshaller;
+import org.jboss.marshalling.river.RiverMarshallerFactory;
+import org.jboss.modules.ModuleLoader;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests storing sessions in a file per session with {@link DiskBasedModularPersistentSessionManager}.
+ */
+public class DiskBasedModularPersistentSessionManagerTestCase {
+
+    private static final String DEPLOYMENT = "test.war";
+
+    private File baseDir;
+    private Date expiration;
+
+    @Before
+    public void setUp() throws IOException {
+        this.baseDir = Files.createTempDirectory("sessions").toFile();
+        this.expiration = new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1));
+    }
+
+    @After
+    public void tearDown() {
+        delete(this.baseDir);
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        Map<String, PersistentSession> sessions = new HashMap<String, PersistentSession>();
+        sessions.put("session-A", this.createSession("value", 1));
+        sessions.put("Session-a", this.createSession("other", 2));
+        sessions.put("expired", new PersistentSession(new Date(System.currentTimeMillis() - 1), Collections.<String, Object>singletonMap("name", "value")));
+        this.startManager().persistSessions(DEPLOYMENT, sessions);
+
+        Map<String, PersistentSession> loaded = this.startManager().loadSessionAttributes(DEPLOYMENT, this.getClass().getClassLoader());
+        assertEquals(2, loaded.size());
+        assertSession(sessions.get("session-A"), loaded.get("session-A"));
+        assertSession(sessions.get("Session-a"), loaded.get("Session-a"));
+        // The expired session was not loaded, and its file was removed
+        assertEquals(2, this.getSessionDirectory().list().length);
+    }
+
+    @Test
+    public void testUnchangedSessionIsNotRewritten() throws Exception {
+        DiskBasedModularPersistentSessionManager manager = this.startManager();
+        Map<String, PersistentSession> sessions = new HashMap<String, PersistentSession>();
+        sessions.put("unchanged", this.createSession("value", 1));
+        sessions.put("changed", this.createSession("value", 1));
+        manager.persistSessions(DEPLOYMENT, sessions);
+
+        File unchanged = this.getSessionFile("unchanged");
+        File changed = this.getSessionFile("changed");
+        assertTrue(unchanged.setLastModified(0));
+        assertTrue(changed.setLastModified(0));
+
+        sessions.put("changed", this.createSession("value", 2));
+        manager.persistSessions(DEPLOYMENT, sessions);
+        assertEquals(0, unchanged.lastModified());
+        assertNotEquals(0, changed.lastModified());
+
+        // The digests of loaded sessions are remembered as well
+        assertTrue(changed.setLastModified(0));
+        manager = this.startManager();
+        manager.persistSessions(DEPLOYMENT, manager.loadSessionAttributes(DEPLOYMENT, this.getClass().getClassLoader()));
+        assertEquals(0, unchanged.lastModified());
+        assertEquals(0, changed.lastModified());
+    }
+
+    @Test
+    public void testCorruptFile() throws Exception {
+        this.startManager().persistSessions(DEPLOYMENT, Collections.singletonMap("valid", this.createSession("value", 1)));
+
+        File dir = this.getSessionDirectory();
+        writeCorruptSession(new File(dir, "negative-count"), -1, 0);
+        writeCorruptSession(new File(dir, "huge-count"), Integer.MAX_VALUE, 0);
+        writeCorruptSession(new File(dir, "negative-length"), 1, -1);
+        writeCorruptSession(new File(dir, "huge-length"), 1, Integer.MAX_VALUE);
+        FileOutputStream out = new FileOutputStream(new File(dir, "truncated"));
+        try {
+            out.write(new byte[] { 0, 10, 'c' });
+        } finally {
+            out.close();
+        }
+
+        Map<String, PersistentSession> loaded = this.startManager().loadSessionAttributes(DEPLOYMENT, this.getClass().getClassLoader());
+        assertEquals(Collections.singleton("valid"), loaded.keySet());
+    }
+
+    @Test
+    public void testFailedWriteKeepsPersistedSession() throws Exception {
+        DiskBasedModularPersistentSessionManager manager = this.startManager();
+        Map<String, PersistentSession> sessions = new HashMap<String, PersistentSession>();
+        sessions.put("good", this.createSession("value", 1));
+        sessions.put("bad", this.createSession("value", 1));
+        manager.persistSessions(DEPLOYMENT, sessions);
+
+        // The temporary file cannot be written if a directory is in its way
+        File temp = new File(this.getSessionDirectory(), getFileName("bad") + ".tmp");
+        assertTrue(temp.mkdir());
+        File legacy = this.writeLegacySessions(manager, Collections.<String, PersistentSession>emptyMap());
+        sessions.put("good", this.createSession("value", 2));
+        sessions.put("bad", this.createSession("value", 2));
+        manager.persistSessions(DEPLOYMENT, sessions);
+        assertTrue(temp.delete());
+
+        // The legacy file is kept, as not all sessions could be stored
+        assertTrue(legacy.exists());
+        Map<String, PersistentSession> loaded = this.startManager().loadSessionAttributes(DEPLOYMENT, this.getClass().getClassLoader());
+        assertSession(this.createSession("value", 2), loaded.get("good"));
+        assertSession(this.createSession("value", 1), loaded.get("bad"));
+    }
+
+    @Test
+    public void testLegacyMigration() throws Exception {
+        DiskBasedModularPersistentSessionManager manager = this.startManager();
+        File legacy = this.writeLegacySessions(manager, Collections.singletonMap("legacy", this.createSession("value", 1)));
+
+        manager = this.startManager();
+        Map<String, PersistentSession> loaded = manager.loadSessionAttributes(DEPLOYMENT, this.getClass().getClassLoader());
+        assertSession(this.createSession("value", 1), loaded.get("legacy"));
+        manager.persistSessions(DEPLOYMENT, loaded);
+        assertFalse(legacy.exists());
+
+        loaded = this.startManager().loadSessionAttributes(DEPLOYMENT, this.getClass().getClassLoader());
+        assertEquals(Collections.singleton("legacy"), loaded.keySet());
+        assertSession(this.createSession("value", 1), loaded.get("legacy"));
+    }
+
+    private DiskBasedModularPersistentSessionManager startManager() throws Exception {
+        String path = this.baseDir.getAbsolutePath();
+        PathManager pathManager = mock(PathManager.class);
+        when(pathManager.resolveRelativePathEntry(path, null)).thenReturn(path);
+        DiskBasedModularPersistentSessionManager manager = new TestPersistentSessionManager(path);
+        manager.getPathManager().inject(pathManager);
+        manager.getModuleLoaderInjectedValue().inject(mock(ModuleLoader.class));
+        manager.start(null);
+        return manager;
+    }
+
+    private PersistentSession createSession(String name, int value) {
+        Map<String, Object> data = new HashMap<String, Object>();
+        data.put("name", name);
+        data.put("value", value);
+        return new PersistentSession(this.expiration, data);
+    }
+
+    // Writes sessions using the single file format of previous releases
+    private File writeLegacySessions(DiskBasedModularPersistentSessionManager manager, Map<String, PersistentSession> sessions) throws IOException {
+        Marshaller marshaller = manager.createMarshaller();
+        try {
+            Map<String, AbstractPersistentSessionManager.SessionEntry> entries = new HashMap<String, AbstractPersistentSessionManager.SessionEntry>();
+            for (Map.Entry<String, PersistentSession> session : sessions.entrySet()) {
+                entries.put(session.getKey(), manager.serializeSession(marshaller, session.getKey(), session.getValue()));
+            }
+            File file = new File(this.baseDir, DEPLOYMENT);
+            FileOutputStream out = new FileOutputStream(file);
+            try {
+                marshaller.start(new OutputStreamByteOutput(out));
+                marshaller.writeObject(entries);
+                marshaller.finish();
+            } finally {
+                out.close();
+            }
+            return file;
+        } finally {
+            marshaller.close();
+        }
+    }
+
+    private File getSessionDirectory() {
+        return new File(this.baseDir, DEPLOYMENT + ".sessions");
+    }
+
+    private File getSessionFile(String sessionId) {
+        File file = new File(this.getSessionDirectory(), getFileName(sessionId));
+        assertTrue(file.isFile());
+        return file;
+    }
+
+    private static String getFileName(String sessionId) {
+        StringBuilder builder = new StringBuilder();
+        for (byte b : sessionId.getBytes(StandardCharsets.UTF_8)) {
+            builder.append(String.format("%02x", b));
+        }
+        return builder.toString();
+    }
+
+    private static void writeCorruptSession(File file, int count, int length) throws IOException {
+        DataOutputStream output = new DataOutputStream(new FileOutputStream(file));
+        try {
+            output.writeUTF(file.getName());
+            output.writeLong(Long.MAX_VALUE);
+            output.writeInt(count);
+            output.writeUTF("name");
+            output.writeInt(length);
+            output.write(new byte[16]);
+        } finally {
+            output.close();
+        }
+    }
+
+    private static void assertSession(PersistentSession expected, PersistentSession actual) {
+        assertEquals(expected.getExpiration(), actual.getExpiration());
+        assertEquals(expected.getSessionData(), actual.getSessionData());
+    }
+
+    private static void delete(File file) {
+        File[] files = file.listFiles();
+        if (files != null) {
+            for (File child : files) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    /**
+     * Marshals without a modular class resolver, allowing the non serializable entries of the legacy format.
+     */
+    private static class TestPersistentSessionManager extends DiskBasedModularPersistentSessionManager {
+        private final RiverMarshallerFactory factory = new RiverMarshallerFactory();
+        private final MarshallingConfiguration configuration = new MarshallingConfiguration();
+
+        TestPersistentSessionManager(String path) {
+            super(path, null);
+            this.configuration.setSerializabilityChecker(new SerializabilityChecker() {
+                @Override
+                public boolean isSerializable(Class<?> clazz) {
+                    return true;
+                }
+            });
+        }
+
+        @Override
+        protected Marshaller createMarshaller() throws IOException {
+            return this.factory.createMarshaller(this.configuration);
+        }
+
+        @Override
+        protected Unmarshaller createUnmarshaller() throws IOException {
+            return this.factory.createUnmarshaller(this.configuration);
+        }
+    }
+}